@@ -0,0 +1,179 @@
+/* ==================================================================
+ * BenchmarkData.java - 17/10/2026 8:32:05 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.common.benchmark;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import net.solarnetwork.codec.jackson.CborUtils;
+import net.solarnetwork.codec.jackson.JsonUtils;
+import net.solarnetwork.domain.datum.BasicObjectDatumStreamDataSet;
+import net.solarnetwork.domain.datum.BasicObjectDatumStreamMetadata;
+import net.solarnetwork.domain.datum.BasicStreamDatum;
+import net.solarnetwork.domain.datum.DatumProperties;
+import net.solarnetwork.domain.datum.DatumSamples;
+import net.solarnetwork.domain.datum.GeneralDatum;
+import net.solarnetwork.domain.datum.ObjectDatumKind;
+import net.solarnetwork.domain.datum.ObjectDatumStreamDataSet;
+import net.solarnetwork.domain.datum.ObjectDatumStreamMetadata;
+import net.solarnetwork.domain.datum.StreamDatum;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Deterministic datum data shared by the benchmarks.
+ *
+ * <p>
+ * The data models a typical energy meter source, with 1 second readings of
+ * slowly changing instantaneous values and increasing accumulating values.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ */
+public final class BenchmarkData {
+
+	/** The node ID used by all datum. */
+	public static final Long NODE_ID = 123L;
+
+	/** The source ID prefix used by all datum. */
+	public static final String SOURCE_ID_PREFIX = "/meter/";
+
+	/** The starting timestamp of all datum. */
+	public static final Instant START = Instant.parse("2026-10-17T00:00:00Z");
+
+	/** The instantaneous property names. */
+	public static final String[] INSTANTANEOUS_PROPS = new String[] { "watts", "current", "voltage",
+			"frequency", "powerFactor" };
+
+	/** The accumulating property names. */
+	public static final String[] ACCUMULATING_PROPS = new String[] { "wattHours",
+			"wattHoursReverse" };
+
+	/** The status property names. */
+	public static final String[] STATUS_PROPS = new String[] { "phase" };
+
+	/** A JSON mapper with the datum module. */
+	public static final ObjectMapper JSON_MAPPER = JsonUtils.JSON_OBJECT_MAPPER.rebuild()
+			.addModule(JsonUtils.DATUM_MODULE).build();
+
+	/** A CBOR mapper with the datum module. */
+	public static final ObjectMapper CBOR_MAPPER = CborUtils.CBOR_OBJECT_MAPPER.rebuild()
+			.addModule(JsonUtils.DATUM_MODULE).build();
+
+	/** A CBOR mapper with the compact datum module. */
+	public static final ObjectMapper COMPACT_CBOR_MAPPER = CborUtils.COMPACT_CBOR_OBJECT_MAPPER;
+
+	private BenchmarkData() {
+		// not available
+	}
+
+	/**
+	 * Create stream metadata for a meter source.
+	 *
+	 * @param index
+	 *        the meter index, used to derive the source ID
+	 * @return the metadata
+	 */
+	public static ObjectDatumStreamMetadata meta(int index) {
+		return new BasicObjectDatumStreamMetadata(new UUID(0x0123456789ABCDEFL, index),
+				"Pacific/Auckland", ObjectDatumKind.Node, NODE_ID, SOURCE_ID_PREFIX + index,
+				INSTANTANEOUS_PROPS.clone(), ACCUMULATING_PROPS.clone(), STATUS_PROPS.clone());
+	}
+
+	/**
+	 * Create a list of general datum.
+	 *
+	 * @param meta
+	 *        the stream metadata to create datum for
+	 * @param count
+	 *        the number of datum to create
+	 * @return the datum
+	 */
+	public static List<GeneralDatum> generalDatum(ObjectDatumStreamMetadata meta, int count) {
+		final Random rng = new Random(1);
+		final List<GeneralDatum> result = new ArrayList<>(count);
+		long wh = 1_000_000L;
+		for ( int i = 0; i < count; i++ ) {
+			DatumSamples s = new DatumSamples();
+			int watts = 1000 + rng.nextInt(200);
+			s.putInstantaneousSampleValue("watts", watts);
+			s.putInstantaneousSampleValue("current",
+					new BigDecimal(watts * 100 / 240).movePointLeft(2));
+			s.putInstantaneousSampleValue("voltage",
+					BigDecimal.valueOf(2400 + rng.nextInt(20), 1));
+			s.putInstantaneousSampleValue("frequency",
+					BigDecimal.valueOf(4995 + rng.nextInt(10), 2));
+			s.putInstantaneousSampleValue("powerFactor",
+					BigDecimal.valueOf(95 + rng.nextInt(5), 2));
+			wh += watts / 3600 + 1;
+			s.putAccumulatingSampleValue("wattHours", wh);
+			s.putAccumulatingSampleValue("wattHoursReverse", 0);
+			s.putStatusSampleValue("phase", "Total");
+			result.add(GeneralDatum.nodeDatum(meta.getObjectId(), meta.getSourceId(),
+					START.plusSeconds(i), s));
+		}
+		return result;
+	}
+
+	/**
+	 * Create a list of stream datum.
+	 *
+	 * @param meta
+	 *        the stream metadata to create datum for
+	 * @param count
+	 *        the number of datum to create
+	 * @return the datum
+	 */
+	public static List<StreamDatum> streamDatum(ObjectDatumStreamMetadata meta, int count) {
+		final List<StreamDatum> result = new ArrayList<>(count);
+		for ( GeneralDatum d : generalDatum(meta, count) ) {
+			result.add(new BasicStreamDatum(meta.getStreamId(), d.getTimestamp(),
+					DatumProperties.propertiesFrom(d, meta)));
+		}
+		return result;
+	}
+
+	/**
+	 * Create a data set of stream datum.
+	 *
+	 * @param streamCount
+	 *        the number of streams
+	 * @param datumCount
+	 *        the number of datum per stream
+	 * @return the data set
+	 */
+	public static ObjectDatumStreamDataSet<StreamDatum> dataSet(int streamCount, int datumCount) {
+		final List<ObjectDatumStreamMetadata> metas = new ArrayList<>(streamCount);
+		final List<StreamDatum> data = new ArrayList<>(streamCount * datumCount);
+		for ( int i = 0; i < streamCount; i++ ) {
+			ObjectDatumStreamMetadata meta = meta(i);
+			metas.add(meta);
+			data.addAll(streamDatum(meta, datumCount));
+		}
+		return BasicObjectDatumStreamDataSet.dataSet(metas, data);
+	}
+
+}
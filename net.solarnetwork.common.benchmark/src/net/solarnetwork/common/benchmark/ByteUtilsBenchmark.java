@@ -0,0 +1,70 @@
+/* ==================================================================
+ * ByteUtilsBenchmark.java - 17/10/2026 9:41:17 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.common.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import net.solarnetwork.domain.BitDataType;
+import net.solarnetwork.domain.ByteOrdering;
+import net.solarnetwork.util.ByteUtils;
+
+/**
+ * Benchmarks for {@link ByteUtils#parseNumber(BitDataType, byte[], int, ByteOrdering)}.
+ *
+ * @author matt
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ByteUtilsBenchmark {
+
+	/** The data type to parse. */
+	@Param({ "UInt16", "Int32", "UInt32", "Int64", "UInt64", "Float32", "Float64" })
+	public BitDataType dataType;
+
+	/** The byte order to parse. */
+	@Param({ "BigEndian", "LittleEndian" })
+	public ByteOrdering byteOrder;
+
+	private final byte[] data = new byte[] { (byte) 0x81, 0x02, 0x43, 0x04, 0x45, 0x06, 0x47,
+			0x08 };
+
+	@Benchmark
+	public Number parseNumber() {
+		return ByteUtils.parseNumber(dataType, data, 0, byteOrder);
+	}
+
+}
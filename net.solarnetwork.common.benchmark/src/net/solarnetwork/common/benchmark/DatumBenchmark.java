@@ -0,0 +1,202 @@
+/* ==================================================================
+ * DatumBenchmark.java - 17/10/2026 9:24:38 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.common.benchmark;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import net.solarnetwork.domain.datum.AggregateDatumSamples;
+import net.solarnetwork.domain.datum.CompactDatumProperties;
+import net.solarnetwork.domain.datum.DatumProperties;
+import net.solarnetwork.domain.datum.DatumSamples;
+import net.solarnetwork.domain.datum.DatumSamplesSchema;
+import net.solarnetwork.domain.datum.DatumStreamLayout;
+import net.solarnetwork.domain.datum.GeneralDatum;
+import net.solarnetwork.domain.datum.ObjectDatumStreamMetadata;
+import net.solarnetwork.domain.datum.SchemaDatumSamples;
+
+/**
+ * Benchmarks for converting and aggregating datum properties.
+ *
+ * <p>
+ * Each benchmark processes a batch of {@link #BATCH_SIZE} datum.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DatumBenchmark {
+
+	/** The number of datum processed by each benchmark invocation. */
+	public static final int BATCH_SIZE = 100;
+
+	private ObjectDatumStreamMetadata meta;
+	private DatumSamplesSchema schema;
+	private List<GeneralDatum> datum;
+	private DatumProperties[] properties;
+	private CompactDatumProperties[] compactProperties;
+
+	/**
+	 * Create the benchmark data.
+	 */
+	@Setup
+	public void setup() {
+		meta = BenchmarkData.meta(1);
+		schema = DatumSamplesSchema.schema(meta);
+		datum = BenchmarkData.generalDatum(meta, BATCH_SIZE);
+		properties = new DatumProperties[BATCH_SIZE];
+		compactProperties = new CompactDatumProperties[BATCH_SIZE];
+		for ( int i = 0; i < BATCH_SIZE; i++ ) {
+			properties[i] = DatumProperties.propertiesFrom(datum.get(i), meta);
+			compactProperties[i] = CompactDatumProperties.compactProperties(properties[i]);
+		}
+	}
+
+	/**
+	 * Convert datum to stream properties with the metadata's cached layout.
+	 *
+	 * @param bh
+	 *        the black hole
+	 */
+	@Benchmark
+	public void propertiesFrom(Blackhole bh) {
+		for ( GeneralDatum d : datum ) {
+			bh.consume(DatumProperties.propertiesFrom(d, meta));
+		}
+	}
+
+	/**
+	 * Convert datum to stream properties with a new layout for each datum, as
+	 * a baseline for {@link #propertiesFrom(Blackhole)}.
+	 *
+	 * @param bh
+	 *        the black hole
+	 */
+	@Benchmark
+	public void propertiesFromUncachedLayout(Blackhole bh) {
+		for ( GeneralDatum d : datum ) {
+			bh.consume(new DatumStreamLayout(meta).propertiesFrom(d.getSamples()));
+		}
+	}
+
+	/**
+	 * Accumulate datum samples into an aggregate.
+	 *
+	 * @return the aggregate
+	 */
+	@Benchmark
+	public AggregateDatumSamples aggregateAddSample() {
+		AggregateDatumSamples agg = new AggregateDatumSamples();
+		for ( GeneralDatum d : datum ) {
+			agg.addSample(d.getSamples());
+		}
+		return agg;
+	}
+
+	/**
+	 * Copy samples into map-backed samples.
+	 *
+	 * @param bh
+	 *        the black hole
+	 */
+	@Benchmark
+	public void samplesCopy(Blackhole bh) {
+		for ( GeneralDatum d : datum ) {
+			bh.consume(new DatumSamples(d.getSamples()));
+		}
+	}
+
+	/**
+	 * Copy samples into schema-backed samples.
+	 *
+	 * @param bh
+	 *        the black hole
+	 */
+	@Benchmark
+	public void schemaSamplesCopy(Blackhole bh) {
+		for ( GeneralDatum d : datum ) {
+			bh.consume(new SchemaDatumSamples(schema, d.getSamples()));
+		}
+	}
+
+	/**
+	 * Read all instantaneous values from decimal array properties.
+	 *
+	 * @param bh
+	 *        the black hole
+	 */
+	@Benchmark
+	public void propertiesRead(Blackhole bh) {
+		for ( DatumProperties p : properties ) {
+			for ( BigDecimal n : p.getInstantaneous() ) {
+				bh.consume(n);
+			}
+		}
+	}
+
+	/**
+	 * Read all instantaneous values from compact properties.
+	 *
+	 * @param bh
+	 *        the black hole
+	 */
+	@Benchmark
+	public void compactPropertiesRead(Blackhole bh) {
+		for ( CompactDatumProperties p : compactProperties ) {
+			for ( int i = 0, len = p.getInstantaneousLength(); i < len; i++ ) {
+				bh.consume(p.instantaneousValue(i));
+			}
+		}
+	}
+
+	/**
+	 * Convert decimal array properties to compact properties.
+	 *
+	 * @param bh
+	 *        the black hole
+	 */
+	@Benchmark
+	public void compactPropertiesCreate(Blackhole bh) {
+		for ( DatumProperties p : properties ) {
+			bh.consume(CompactDatumProperties.compactProperties(p));
+		}
+	}
+
+}
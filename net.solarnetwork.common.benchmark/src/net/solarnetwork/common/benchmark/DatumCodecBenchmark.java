@@ -0,0 +1,160 @@
+/* ==================================================================
+ * DatumCodecBenchmark.java - 17/10/2026 8:51:44 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.common.benchmark;
+
+import static net.solarnetwork.common.benchmark.BenchmarkData.CBOR_MAPPER;
+import static net.solarnetwork.common.benchmark.BenchmarkData.COMPACT_CBOR_MAPPER;
+import static net.solarnetwork.common.benchmark.BenchmarkData.JSON_MAPPER;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import net.solarnetwork.domain.datum.Datum;
+import net.solarnetwork.domain.datum.ObjectDatumStreamMetadata;
+import net.solarnetwork.domain.datum.StreamDatum;
+import tools.jackson.core.type.TypeReference;
+
+/**
+ * Benchmarks for encoding and decoding lists of {@link Datum} and
+ * {@link StreamDatum} with the JSON, CBOR, and compact CBOR mappers.
+ *
+ * @author matt
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DatumCodecBenchmark {
+
+	private static final TypeReference<List<Datum>> DATUM_LIST_TYPE = new TypeReference<List<Datum>>() {};
+
+	private static final TypeReference<List<StreamDatum>> STREAM_DATUM_LIST_TYPE = new TypeReference<List<StreamDatum>>() {};
+
+	/** The number of datum in each list. */
+	@Param({ "1", "100" })
+	public int count;
+
+	private List<Datum> datum;
+	private byte[] datumJson;
+	private byte[] datumCbor;
+	private byte[] datumCompactCbor;
+
+	private List<StreamDatum> streamDatum;
+	private byte[] streamDatumJson;
+	private byte[] streamDatumCbor;
+	private byte[] streamDatumCompactCbor;
+
+	/**
+	 * Create the benchmark data.
+	 */
+	@Setup
+	public void setup() {
+		final ObjectDatumStreamMetadata meta = BenchmarkData.meta(1);
+		datum = new ArrayList<>(BenchmarkData.generalDatum(meta, count));
+		datumJson = JSON_MAPPER.writerFor(DATUM_LIST_TYPE).writeValueAsBytes(datum);
+		datumCbor = CBOR_MAPPER.writerFor(DATUM_LIST_TYPE).writeValueAsBytes(datum);
+		datumCompactCbor = COMPACT_CBOR_MAPPER.writerFor(DATUM_LIST_TYPE).writeValueAsBytes(datum);
+
+		streamDatum = BenchmarkData.streamDatum(meta, count);
+		streamDatumJson = JSON_MAPPER.writerFor(STREAM_DATUM_LIST_TYPE)
+				.writeValueAsBytes(streamDatum);
+		streamDatumCbor = CBOR_MAPPER.writerFor(STREAM_DATUM_LIST_TYPE)
+				.writeValueAsBytes(streamDatum);
+		streamDatumCompactCbor = COMPACT_CBOR_MAPPER.writerFor(STREAM_DATUM_LIST_TYPE)
+				.writeValueAsBytes(streamDatum);
+	}
+
+	@Benchmark
+	public byte[] generalDatumEncodeJson() {
+		return JSON_MAPPER.writerFor(DATUM_LIST_TYPE).writeValueAsBytes(datum);
+	}
+
+	@Benchmark
+	public byte[] generalDatumEncodeCbor() {
+		return CBOR_MAPPER.writerFor(DATUM_LIST_TYPE).writeValueAsBytes(datum);
+	}
+
+	@Benchmark
+	public byte[] generalDatumEncodeCompactCbor() {
+		return COMPACT_CBOR_MAPPER.writerFor(DATUM_LIST_TYPE).writeValueAsBytes(datum);
+	}
+
+	@Benchmark
+	public List<Datum> generalDatumDecodeJson() {
+		return JSON_MAPPER.readValue(datumJson, DATUM_LIST_TYPE);
+	}
+
+	@Benchmark
+	public List<Datum> generalDatumDecodeCbor() {
+		return CBOR_MAPPER.readValue(datumCbor, DATUM_LIST_TYPE);
+	}
+
+	@Benchmark
+	public List<Datum> generalDatumDecodeCompactCbor() {
+		return COMPACT_CBOR_MAPPER.readValue(datumCompactCbor, DATUM_LIST_TYPE);
+	}
+
+	@Benchmark
+	public byte[] streamDatumEncodeJson() {
+		return JSON_MAPPER.writerFor(STREAM_DATUM_LIST_TYPE).writeValueAsBytes(streamDatum);
+	}
+
+	@Benchmark
+	public byte[] streamDatumEncodeCbor() {
+		return CBOR_MAPPER.writerFor(STREAM_DATUM_LIST_TYPE).writeValueAsBytes(streamDatum);
+	}
+
+	@Benchmark
+	public byte[] streamDatumEncodeCompactCbor() {
+		return COMPACT_CBOR_MAPPER.writerFor(STREAM_DATUM_LIST_TYPE).writeValueAsBytes(streamDatum);
+	}
+
+	@Benchmark
+	public List<StreamDatum> streamDatumDecodeJson() {
+		return JSON_MAPPER.readValue(streamDatumJson, STREAM_DATUM_LIST_TYPE);
+	}
+
+	@Benchmark
+	public List<StreamDatum> streamDatumDecodeCbor() {
+		return CBOR_MAPPER.readValue(streamDatumCbor, STREAM_DATUM_LIST_TYPE);
+	}
+
+	@Benchmark
+	public List<StreamDatum> streamDatumDecodeCompactCbor() {
+		return COMPACT_CBOR_MAPPER.readValue(streamDatumCompactCbor, STREAM_DATUM_LIST_TYPE);
+	}
+
+}
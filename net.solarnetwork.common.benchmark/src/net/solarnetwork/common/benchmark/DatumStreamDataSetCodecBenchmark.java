@@ -0,0 +1,152 @@
+/* ==================================================================
+ * DatumStreamDataSetCodecBenchmark.java - 17/10/2026 9:07:12 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.common.benchmark;
+
+import static net.solarnetwork.common.benchmark.BenchmarkData.CBOR_MAPPER;
+import static net.solarnetwork.common.benchmark.BenchmarkData.COMPACT_CBOR_MAPPER;
+import static net.solarnetwork.common.benchmark.BenchmarkData.JSON_MAPPER;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import net.solarnetwork.codec.ColumnarObjectDatumStreamDataSetCodec;
+import net.solarnetwork.codec.jackson.StreamingObjectDatumStreamDataSet;
+import net.solarnetwork.domain.datum.ObjectDatumStreamDataSet;
+import net.solarnetwork.domain.datum.StreamDatum;
+import net.solarnetwork.util.CloseableIterator;
+import tools.jackson.core.JsonParser;
+
+/**
+ * Benchmarks for encoding and decoding {@link ObjectDatumStreamDataSet}
+ * instances with the JSON, CBOR, compact CBOR, and columnar codecs.
+ *
+ * @author matt
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DatumStreamDataSetCodecBenchmark {
+
+	/** The number of streams in the data set. */
+	@Param({ "4" })
+	public int streamCount;
+
+	/** The number of datum per stream in the data set. */
+	@Param({ "3600" })
+	public int datumCount;
+
+	private ObjectDatumStreamDataSet<StreamDatum> dataSet;
+	private byte[] json;
+	private byte[] cbor;
+	private byte[] compactCbor;
+	private byte[] columnar;
+
+	/**
+	 * Create the benchmark data.
+	 *
+	 * @throws IOException
+	 *         if any encoding error occurs
+	 */
+	@Setup
+	public void setup() throws IOException {
+		dataSet = BenchmarkData.dataSet(streamCount, datumCount);
+		json = JSON_MAPPER.writeValueAsBytes(dataSet);
+		cbor = CBOR_MAPPER.writeValueAsBytes(dataSet);
+		compactCbor = COMPACT_CBOR_MAPPER.writeValueAsBytes(dataSet);
+		columnar = ColumnarObjectDatumStreamDataSetCodec.encode(dataSet);
+	}
+
+	@Benchmark
+	public byte[] encodeJson() {
+		return JSON_MAPPER.writeValueAsBytes(dataSet);
+	}
+
+	@Benchmark
+	public byte[] encodeCbor() {
+		return CBOR_MAPPER.writeValueAsBytes(dataSet);
+	}
+
+	@Benchmark
+	public byte[] encodeCompactCbor() {
+		return COMPACT_CBOR_MAPPER.writeValueAsBytes(dataSet);
+	}
+
+	@Benchmark
+	public byte[] encodeColumnar() throws IOException {
+		return ColumnarObjectDatumStreamDataSetCodec.encode(dataSet);
+	}
+
+	@Benchmark
+	public ObjectDatumStreamDataSet<?> decodeJson() {
+		return JSON_MAPPER.readValue(json, ObjectDatumStreamDataSet.class);
+	}
+
+	@Benchmark
+	public ObjectDatumStreamDataSet<?> decodeCbor() {
+		return CBOR_MAPPER.readValue(cbor, ObjectDatumStreamDataSet.class);
+	}
+
+	@Benchmark
+	public ObjectDatumStreamDataSet<?> decodeCompactCbor() {
+		return COMPACT_CBOR_MAPPER.readValue(compactCbor, ObjectDatumStreamDataSet.class);
+	}
+
+	@Benchmark
+	public ObjectDatumStreamDataSet<StreamDatum> decodeColumnar() throws IOException {
+		return ColumnarObjectDatumStreamDataSetCodec.decode(columnar);
+	}
+
+	/**
+	 * Decode JSON by streaming, without holding all datum in memory.
+	 *
+	 * @param bh
+	 *        the black hole to consume the decoded datum
+	 * @throws IOException
+	 *         if any decoding error occurs
+	 */
+	@Benchmark
+	public void decodeJsonStreaming(Blackhole bh) throws IOException {
+		try (JsonParser p = JSON_MAPPER.createParser(json);
+				StreamingObjectDatumStreamDataSet ds = StreamingObjectDatumStreamDataSet.open(p);
+				CloseableIterator<StreamDatum> itr = ds.iterator()) {
+			while ( itr.hasNext() ) {
+				bh.consume(itr.next());
+			}
+		}
+	}
+
+}
@@ -0,0 +1,134 @@
+/* ==================================================================
+ * FootprintReport.java - 17/10/2026 10:06:29 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.common.benchmark;
+
+import static net.solarnetwork.common.benchmark.BenchmarkData.CBOR_MAPPER;
+import static net.solarnetwork.common.benchmark.BenchmarkData.COMPACT_CBOR_MAPPER;
+import static net.solarnetwork.common.benchmark.BenchmarkData.JSON_MAPPER;
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.openjdk.jol.info.GraphLayout;
+import net.solarnetwork.codec.ColumnarObjectDatumStreamDataSetCodec;
+import net.solarnetwork.codec.jackson.JsonUtils;
+import net.solarnetwork.domain.datum.CompactDatumProperties;
+import net.solarnetwork.domain.datum.DatumProperties;
+import net.solarnetwork.domain.datum.DatumSamples;
+import net.solarnetwork.domain.datum.DatumSamplesSchema;
+import net.solarnetwork.domain.datum.GeneralDatum;
+import net.solarnetwork.domain.datum.ObjectDatumStreamDataSet;
+import net.solarnetwork.domain.datum.ObjectDatumStreamMetadata;
+import net.solarnetwork.domain.datum.SchemaDatumSamples;
+import net.solarnetwork.domain.datum.StreamDatum;
+
+/**
+ * Report on the memory footprint of datum representations and the encoded
+ * size of datum codecs.
+ *
+ * <p>
+ * Heap sizes are measured with JOL, as the average retained size per datum
+ * across {@link #DATUM_COUNT} datum, so objects shared between datum (such as
+ * a {@link DatumSamplesSchema}) are amortized. The report is written as a JSON
+ * object to the file given as the first argument, or to standard output if no
+ * argument is given.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ */
+public final class FootprintReport {
+
+	/** The number of datum to measure. */
+	public static final int DATUM_COUNT = 1000;
+
+	private FootprintReport() {
+		// not available
+	}
+
+	/**
+	 * Generate the report.
+	 *
+	 * @param args
+	 *        the optional output file path
+	 * @throws IOException
+	 *         if any IO error occurs
+	 */
+	public static void main(String[] args) throws IOException {
+		final ObjectDatumStreamMetadata meta = BenchmarkData.meta(1);
+		final List<GeneralDatum> datum = BenchmarkData.generalDatum(meta, DATUM_COUNT);
+
+		final Map<String, Object> report = new LinkedHashMap<>(4);
+		report.put("datumCount", DATUM_COUNT);
+
+		final Map<String, Long> heap = new LinkedHashMap<>(8);
+		final DatumSamplesSchema schema = DatumSamplesSchema.schema(meta);
+		heap.put("DatumSamples", heapPerDatum(datum, d -> new DatumSamples(d.getSamples())));
+		heap.put("SchemaDatumSamples",
+				heapPerDatum(datum, d -> new SchemaDatumSamples(schema, d.getSamples())));
+		heap.put("DatumProperties",
+				heapPerDatum(datum, d -> DatumProperties.propertiesFrom(d, meta)));
+		heap.put("CompactDatumProperties", heapPerDatum(datum, d -> CompactDatumProperties
+				.compactProperties(DatumProperties.propertiesFrom(d, meta))));
+		report.put("heapBytesPerDatum", heap);
+
+		final ObjectDatumStreamDataSet<StreamDatum> dataSet = BenchmarkData.dataSet(4, 3600);
+		final Map<String, Integer> encoded = new LinkedHashMap<>(8);
+		encoded.put("json", JSON_MAPPER.writeValueAsBytes(dataSet).length);
+		encoded.put("cbor", CBOR_MAPPER.writeValueAsBytes(dataSet).length);
+		encoded.put("compactCbor", COMPACT_CBOR_MAPPER.writeValueAsBytes(dataSet).length);
+		encoded.put("columnar", ColumnarObjectDatumStreamDataSetCodec.encode(dataSet).length);
+		report.put("dataSetEncodedBytes", encoded);
+
+		final Map<String, Integer> streamDatum = new LinkedHashMap<>(4);
+		final List<StreamDatum> streamData = BenchmarkData.streamDatum(meta, 100);
+		streamDatum.put("json", JSON_MAPPER.writeValueAsBytes(streamData).length);
+		streamDatum.put("cbor", CBOR_MAPPER.writeValueAsBytes(streamData).length);
+		streamDatum.put("compactCbor", COMPACT_CBOR_MAPPER.writeValueAsBytes(streamData).length);
+		report.put("streamDatumListEncodedBytes", streamDatum);
+
+		final var writer = JsonUtils.JSON_OBJECT_MAPPER.writerWithDefaultPrettyPrinter();
+		if ( args.length > 0 ) {
+			File f = new File(args[0]);
+			if ( f.getParentFile() != null ) {
+				f.getParentFile().mkdirs();
+			}
+			writer.writeValue(f, report);
+		} else {
+			System.out.println(writer.writeValueAsString(report));
+		}
+	}
+
+	private static long heapPerDatum(List<GeneralDatum> datum, Function<GeneralDatum, ?> mapper) {
+		final int count = datum.size();
+		final Object[] values = new Object[count];
+		for ( int i = 0; i < count; i++ ) {
+			values[i] = mapper.apply(datum.get(i));
+		}
+		final long arraySize = GraphLayout.parseInstance((Object) new Object[count]).totalSize();
+		return (GraphLayout.parseInstance((Object) values).totalSize() - arraySize) / count;
+	}
+
+}
@@ -0,0 +1,109 @@
+/* ==================================================================
+ * SpelExpressionBenchmark.java - 17/10/2026 10:12:40 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.common.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import net.solarnetwork.common.expr.spel.SpelExpressionService;
+import net.solarnetwork.domain.datum.DatumSamplesExpressionRoot;
+import net.solarnetwork.domain.datum.GeneralDatum;
+
+/**
+ * Benchmarks for {@link SpelExpressionService} evaluation of datum expressions,
+ * comparing interpreted and compiled throughput.
+ *
+ * @author matt
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SpelExpressionBenchmark {
+
+	/** The compiler mode. */
+	@Param({ "OFF", "MIXED", "IMMEDIATE" })
+	public SpelCompilerMode compilerMode;
+
+	/** The parsed expression cache size. */
+	@Param({ "0", "1000" })
+	public int expressionCacheSize;
+
+	/** The expression to evaluate. */
+	@Param({ "has('watts') and !has('foo')", "watts * 2 + current" })
+	public String expression;
+
+	private SpelExpressionService service;
+	private Expression parsed;
+	private DatumSamplesExpressionRoot root;
+	private EvaluationContext context;
+
+	/**
+	 * Create the benchmark data.
+	 */
+	@Setup
+	public void setup() {
+		service = new SpelExpressionService(compilerMode);
+		service.setExpressionCacheSize(expressionCacheSize);
+		parsed = service.parseExpression(expression);
+		GeneralDatum datum = BenchmarkData.generalDatum(BenchmarkData.meta(1), 1).get(0);
+		root = new DatumSamplesExpressionRoot(datum, datum.getSamples(), null);
+		context = service.createEvaluationContext(null, root);
+	}
+
+	/**
+	 * Evaluate a previously parsed expression.
+	 *
+	 * @return the result
+	 */
+	@Benchmark
+	public Object evaluateParsed() {
+		return service.evaluateExpression(parsed, null, root, context, Object.class);
+	}
+
+	/**
+	 * Evaluate expression text, which is parsed unless cached.
+	 *
+	 * @return the result
+	 */
+	@Benchmark
+	public Object evaluateText() {
+		return service.evaluateExpression(expression, null, root, context, Object.class);
+	}
+
+}
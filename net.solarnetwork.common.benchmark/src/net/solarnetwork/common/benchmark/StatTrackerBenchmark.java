@@ -0,0 +1,79 @@
+/* ==================================================================
+ * StatTrackerBenchmark.java - 17/10/2026 9:48:50 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.common.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import net.solarnetwork.util.StatTracker;
+
+/**
+ * Benchmarks for {@link StatTracker} updates from concurrent threads.
+ *
+ * @author matt
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class StatTrackerBenchmark {
+
+	/** Statistic keys. */
+	public static enum Stat {
+		/** A count. */
+		Count,
+
+		/** An accumulation. */
+		Accumulation,
+	}
+
+	private final StatTracker stats = new StatTracker("Benchmark", null, null, 0);
+
+	@Benchmark
+	public void incrementEnum() {
+		stats.increment(Stat.Count, true);
+	}
+
+	@Benchmark
+	public void incrementString() {
+		stats.increment("Count", true);
+	}
+
+	@Benchmark
+	public void add() {
+		stats.add(Stat.Accumulation, 100L, true);
+	}
+
+}
@@ -0,0 +1,83 @@
+/* ==================================================================
+ * UuidGeneratorBenchmark.java - 17/10/2026 9:55:03 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.common.benchmark;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import net.solarnetwork.util.TimeBasedV7UuidGenerator;
+import net.solarnetwork.util.UuidGenerator;
+
+/**
+ * Benchmarks for {@link UuidGenerator} implementations.
+ *
+ * <p>
+ * The {@code random} generator uses {@link UUID#randomUUID()} as a baseline.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UuidGeneratorBenchmark {
+
+	/** The generator to use. */
+	@Param({ "v7", "v7micros", "v712bit", "random" })
+	public String generator;
+
+	private UuidGenerator uuidGenerator;
+
+	/**
+	 * Resolve the generator to use.
+	 */
+	@Setup
+	public void setup() {
+		uuidGenerator = switch (generator) {
+			case "v7" -> TimeBasedV7UuidGenerator.INSTANCE;
+			case "v7micros" -> TimeBasedV7UuidGenerator.INSTANCE_MICROS;
+			case "v712bit" -> TimeBasedV7UuidGenerator.INSTANCE_12BIT;
+			default -> UUID::randomUUID;
+		};
+	}
+
+	@Benchmark
+	public UUID generate() {
+		return uuidGenerator.generate();
+	}
+
+}
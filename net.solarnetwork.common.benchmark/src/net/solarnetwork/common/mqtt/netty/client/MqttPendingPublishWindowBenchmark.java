@@ -0,0 +1,133 @@
+/* ==================================================================
+ * MqttPendingPublishWindowBenchmark.java - 16/10/2026 11:20:05 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.common.mqtt.netty.client;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.mqtt.MqttFixedHeader;
+import io.netty.handler.codec.mqtt.MqttMessageType;
+import io.netty.handler.codec.mqtt.MqttPublishMessage;
+import io.netty.handler.codec.mqtt.MqttPublishVariableHeader;
+import io.netty.handler.codec.mqtt.MqttQoS;
+import io.netty.util.concurrent.DefaultPromise;
+import io.netty.util.concurrent.ImmediateEventExecutor;
+
+/**
+ * Benchmarks for tracking in-flight publishes with
+ * {@link MqttPendingPublishWindow}, compared to a {@link ConcurrentHashMap}
+ * with boxed packet identifier keys.
+ *
+ * <p>
+ * Each operation simulates one publish round trip with {@code inFlight}
+ * publishes outstanding: store a new pending publish, look it up as when its
+ * acknowledgement arrives, and remove the oldest pending publish.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MqttPendingPublishWindowBenchmark {
+
+	/** The number of publishes in flight. */
+	@Param({ "16", "256", "4096" })
+	public int inFlight;
+
+	private static final int MAX_ID = MqttPendingPublishWindow.MAX_PACKET_ID;
+
+	private final MqttPendingPublish[] pendings = new MqttPendingPublish[MAX_ID + 1];
+	private final MqttPendingPublishWindow window = new MqttPendingPublishWindow();
+	private final Map<Integer, MqttPendingPublish> map = new ConcurrentHashMap<>();
+	private int windowId;
+	private int mapId;
+
+	private static MqttPendingPublish pending(int messageId) {
+		MqttFixedHeader fixedHeader = new MqttFixedHeader(MqttMessageType.PUBLISH, false,
+				MqttQoS.AT_LEAST_ONCE, false, 0);
+		MqttPublishMessage msg = new MqttPublishMessage(fixedHeader,
+				new MqttPublishVariableHeader("foo", messageId), Unpooled.EMPTY_BUFFER);
+		return new MqttPendingPublish(messageId,
+				new DefaultPromise<>(ImmediateEventExecutor.INSTANCE), Unpooled.EMPTY_BUFFER, msg,
+				MqttQoS.AT_LEAST_ONCE, false);
+	}
+
+	@Setup
+	public void setup() {
+		for ( int i = 1; i < pendings.length; i++ ) {
+			pendings[i] = pending(i);
+		}
+		for ( int i = 1; i <= inFlight; i++ ) {
+			window.put(pendings[i]);
+			map.put(i, pendings[i]);
+		}
+		windowId = inFlight;
+		mapId = inFlight;
+	}
+
+	private static int nextId(int id) {
+		return (id < MAX_ID ? id + 1 : 1);
+	}
+
+	private int oldestId(int id) {
+		int oldest = id - inFlight;
+		return (oldest < 1 ? oldest + MAX_ID : oldest);
+	}
+
+	@Benchmark
+	public void window(Blackhole bh) {
+		final int id = nextId(windowId);
+		windowId = id;
+		window.put(pendings[id]);
+		bh.consume(window.get(id));
+		bh.consume(window.remove(oldestId(id)));
+	}
+
+	@Benchmark
+	public void concurrentHashMap(Blackhole bh) {
+		final int id = nextId(mapId);
+		mapId = id;
+		map.put(id, pendings[id]);
+		bh.consume(map.get(id));
+		bh.consume(map.remove(oldestId(id)));
+	}
+
+}
@@ -0,0 +1,219 @@
+/* ==================================================================
+ * MqttPublishFlushBenchmark.java - 16/10/2026 10:48:15 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.common.mqtt.netty.client;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.MultiThreadIoEventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioIoHandler;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.mqtt.MqttConnectReturnCode;
+import io.netty.handler.codec.mqtt.MqttDecoder;
+import io.netty.handler.codec.mqtt.MqttEncoder;
+import io.netty.handler.codec.mqtt.MqttMessage;
+import io.netty.handler.codec.mqtt.MqttMessageBuilders;
+import io.netty.handler.codec.mqtt.MqttMessageType;
+import io.netty.handler.codec.mqtt.MqttPublishMessage;
+import io.netty.handler.codec.mqtt.MqttQoS;
+import io.netty.util.concurrent.Future;
+
+/**
+ * Benchmarks for publishing a burst of messages with {@link MqttClientImpl}
+ * using different flush strategies.
+ *
+ * <p>
+ * The client connects over the loopback interface to a minimal broker
+ * stand-in that acknowledges the connection and any QoS 1 publishes, and
+ * otherwise discards messages. Each invocation publishes {@code batchSize}
+ * messages and waits for all of them to complete. The flush modes are:
+ * </p>
+ *
+ * <dl>
+ * <dt>{@code each}</dt>
+ * <dd>flush after every message</dd>
+ * <dt>{@code batch}</dt>
+ * <dd>write every message and then flush once</dd>
+ * <dt>{@code consolidate}</dt>
+ * <dd>flush after every message, with a flush consolidation limit of
+ * {@code batchSize} configured</dd>
+ * </dl>
+ *
+ * @author matt
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MqttPublishFlushBenchmark {
+
+	private static final int BATCH_SIZE = 100;
+	private static final int TIMEOUT_SECS = 30;
+	private static final String TOPIC = "node/1/datum/0/Meter";
+
+	/** The flush mode. */
+	@Param({ "each", "batch", "consolidate" })
+	public String flushMode;
+
+	/** The publish QoS level. */
+	@Param({ "0", "1" })
+	public int qos;
+
+	private final byte[] payload = new byte[256];
+	private final List<Future<Void>> futures = new ArrayList<>(BATCH_SIZE);
+	private EventLoopGroup serverGroup;
+	private EventLoopGroup clientGroup;
+	private Channel serverChannel;
+	private MqttClientImpl client;
+	private MqttQoS mqttQos;
+
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		serverGroup = new MultiThreadIoEventLoopGroup(1, NioIoHandler.newFactory());
+		ServerBootstrap b = new ServerBootstrap();
+		b.group(serverGroup).channel(NioServerSocketChannel.class)
+				.childHandler(new ChannelInitializer<SocketChannel>() {
+
+					@Override
+					protected void initChannel(SocketChannel ch) throws Exception {
+						ch.pipeline().addLast("mqttDecoder", new MqttDecoder());
+						ch.pipeline().addLast("mqttEncoder", MqttEncoder.INSTANCE);
+						ch.pipeline().addLast("broker", new BrokerStandInHandler());
+					}
+
+				});
+		serverChannel = b.bind("127.0.0.1", 0).sync().channel();
+		final int port = ((InetSocketAddress) serverChannel.localAddress()).getPort();
+
+		MqttClientConfig config = new MqttClientConfig();
+		config.setClientId("benchmark");
+		config.setReconnect(false);
+		if ( "consolidate".equals(flushMode) ) {
+			config.setFlushConsolidationLimit(BATCH_SIZE);
+		}
+		clientGroup = new MultiThreadIoEventLoopGroup(1, NioIoHandler.newFactory());
+		client = new MqttClientImpl(config, null);
+		client.setEventLoop(clientGroup);
+		client.connect("127.0.0.1", port).get(TIMEOUT_SECS, TimeUnit.SECONDS);
+		mqttQos = MqttQoS.valueOf(qos);
+	}
+
+	@TearDown(Level.Trial)
+	public void teardown() throws Exception {
+		try {
+			client.disconnect().get(TIMEOUT_SECS, TimeUnit.SECONDS);
+		} finally {
+			serverChannel.close().sync();
+			clientGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+			serverGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS).sync();
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public void publish() throws Exception {
+		final boolean flushEach = !"batch".equals(flushMode);
+		futures.clear();
+		for ( int i = 0; i < BATCH_SIZE; i++ ) {
+			futures.add(client.publish(TOPIC, Unpooled.wrappedBuffer(payload), mqttQos, false, null,
+					flushEach));
+		}
+		if ( !flushEach ) {
+			client.flush();
+		}
+		for ( Future<Void> f : futures ) {
+			f.get(TIMEOUT_SECS, TimeUnit.SECONDS);
+		}
+	}
+
+	/**
+	 * Minimal broker stand-in that accepts connections and acknowledges QoS 1
+	 * publishes.
+	 */
+	private static final class BrokerStandInHandler
+			extends SimpleChannelInboundHandler<MqttMessage> {
+
+		@Override
+		protected void channelRead0(ChannelHandlerContext ctx, MqttMessage msg) throws Exception {
+			final MqttMessageType type = msg.fixedHeader().messageType();
+			switch (type) {
+				case CONNECT:
+					ctx.write(MqttMessageBuilders.connAck()
+							.returnCode(MqttConnectReturnCode.CONNECTION_ACCEPTED).build());
+					break;
+
+				case PUBLISH:
+					MqttPublishMessage pub = (MqttPublishMessage) msg;
+					if ( pub.fixedHeader().qosLevel() == MqttQoS.AT_LEAST_ONCE ) {
+						ctx.write(MqttMessageBuilders.pubAck()
+								.packetId(pub.variableHeader().packetId()).build());
+					}
+					break;
+
+				case PINGREQ:
+					ctx.write(MqttMessage.PINGRESP);
+					break;
+
+				case DISCONNECT:
+					ctx.close();
+					break;
+
+				default:
+					// ignore
+			}
+		}
+
+		@Override
+		public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+			ctx.flush();
+		}
+
+	}
+
+}
@@ -0,0 +1,158 @@
+/* ==================================================================
+ * MqttSubscriptionIndexBenchmark.java - 16/10/2026 10:12:40 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.common.mqtt.netty.client;
+
+import static java.util.stream.Collectors.toList;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import net.solarnetwork.common.mqtt.MqttMessageHandler;
+
+/**
+ * Benchmarks for matching a message topic to subscriptions with
+ * {@link MqttSubscriptionIndex}, compared to a linear scan of all
+ * subscription filters.
+ *
+ * <p>
+ * The linear scan mirrors how the client matched messages before the index
+ * was introduced: copy all subscriptions into a set and test each one with its
+ * regular expression.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MqttSubscriptionIndexBenchmark {
+
+	/** The number of subscriptions to match against. */
+	@Param({ "10", "100", "1000" })
+	public int subscriptionCount;
+
+	private static final MqttMessageHandler HANDLER = message -> {
+		// nothing
+	};
+
+	private final Map<String, List<MqttSubscription>> subscriptions = new LinkedHashMap<>();
+	private final MqttSubscriptionIndex index = new MqttSubscriptionIndex();
+	private final List<MqttSubscription> matches = new ArrayList<>(4);
+	private String[] topics;
+	private int topicIndex;
+
+	@Setup
+	public void setup() {
+		for ( int i = 0; i < subscriptionCount; i++ ) {
+			final String filter;
+			switch (i % 4) {
+				case 0:
+					filter = "node/" + i + "/datum/+";
+					break;
+
+				case 1:
+					filter = "node/" + i + "/#";
+					break;
+
+				case 2:
+					filter = "node/+/control/" + i;
+					break;
+
+				default:
+					filter = "node/" + i + "/datum/0/Meter" + i;
+					break;
+			}
+			MqttSubscription sub = new MqttSubscription(filter, HANDLER, false);
+			subscriptions.computeIfAbsent(filter, k -> new ArrayList<>(1)).add(sub);
+			index.add(sub);
+		}
+		topics = new String[64];
+		for ( int i = 0; i < topics.length; i++ ) {
+			int n = (i * 31) % subscriptionCount;
+			switch (i % 4) {
+				case 0:
+					topics[i] = "node/" + n + "/datum/0";
+					break;
+
+				case 1:
+					topics[i] = "node/" + n + "/instruction/1";
+					break;
+
+				case 2:
+					topics[i] = "node/1/control/" + n;
+					break;
+
+				default:
+					// no match
+					topics[i] = "user/" + n + "/event";
+					break;
+			}
+		}
+	}
+
+	private String nextTopic() {
+		String topic = topics[topicIndex];
+		topicIndex = (topicIndex + 1) % topics.length;
+		return topic;
+	}
+
+	@Benchmark
+	public void trieLookup(Blackhole bh) {
+		matches.clear();
+		bh.consume(index.findMatches(nextTopic(), matches));
+		bh.consume(matches);
+	}
+
+	@Benchmark
+	public void linearScan(Blackhole bh) {
+		final String topic = nextTopic();
+		int count = 0;
+		for ( MqttSubscription subscription : new LinkedHashSet<>(
+				subscriptions.values().stream().flatMap(List::stream).collect(toList())) ) {
+			if ( subscription.matches(topic) ) {
+				bh.consume(subscription);
+				count++;
+			}
+		}
+		bh.consume(count);
+	}
+
+}
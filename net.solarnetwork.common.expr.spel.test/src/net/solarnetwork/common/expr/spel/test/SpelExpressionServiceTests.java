@@ -25,6 +25,9 @@ package net.solarnetwork.common.expr.spel.test;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.fail;
 import java.math.BigDecimal;
 import java.math.BigInteger;
@@ -40,14 +43,19 @@ import org.slf4j.LoggerFactory;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
 import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.SpelCompilerMode;
 import org.springframework.expression.spel.SpelMessage;
+import org.springframework.expression.spel.standard.SpelExpression;
 import net.solarnetwork.common.expr.spel.SpelExpressionService;
+import net.solarnetwork.domain.datum.DatumSamples;
+import net.solarnetwork.domain.datum.DatumSamplesExpressionRoot;
+import net.solarnetwork.domain.datum.GeneralDatum;
 
 /**
  * Test cases for the {@link SpelExpressionService} class.
  *
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class SpelExpressionServiceTests {
 
@@ -234,4 +242,95 @@ public class SpelExpressionServiceTests {
 		assertThat("Result 2", result2, equalTo(new BigDecimal("954.0")));
 	}
 
+	@Test
+	public void parseExpression_cached() {
+		// WHEN
+		Expression expr1 = service.parseExpression("1 + 2");
+		Expression expr2 = service.parseExpression("1 + 2");
+
+		// THEN
+		assertThat("Cached expression returned", expr2, is(sameInstance(expr1)));
+	}
+
+	@Test
+	public void parseExpression_cacheDisabled() {
+		// GIVEN
+		service.setExpressionCacheSize(0);
+
+		// WHEN
+		Expression expr1 = service.parseExpression("1 + 2");
+		Expression expr2 = service.parseExpression("1 + 2");
+
+		// THEN
+		assertThat("New expression returned", expr2, is(not(sameInstance(expr1))));
+	}
+
+	@Test
+	public void parseExpression_cacheLeastRecentlyUsedEvicted() {
+		// GIVEN
+		service.setExpressionCacheSize(2);
+
+		// WHEN
+		Expression a = service.parseExpression("'a'");
+		Expression b = service.parseExpression("'b'");
+		service.parseExpression("'a'");
+		service.parseExpression("'c'");
+
+		// THEN
+		assertThat("Recently used expression still cached", service.parseExpression("'a'"),
+				is(sameInstance(a)));
+		assertThat("Least recently used expression evicted", service.parseExpression("'b'"),
+				is(not(sameInstance(b))));
+	}
+
+	private static DatumSamplesExpressionRoot datumRoot(Number watts) {
+		DatumSamples s = new DatumSamples();
+		s.putInstantaneousSampleValue("watts", watts);
+		GeneralDatum d = GeneralDatum.nodeDatum(1L, "test", null, s);
+		return new DatumSamplesExpressionRoot(d, s, null);
+	}
+
+	@Test
+	public void compiled_immediate_datumRoot() {
+		// GIVEN
+		service = new SpelExpressionService(SpelCompilerMode.IMMEDIATE);
+		Expression expr = service.parseExpression("has('watts') and !has('foo')");
+		DatumSamplesExpressionRoot root = datumRoot(1);
+		EvaluationContext ctx = service.createEvaluationContext(null, root);
+
+		// WHEN
+		Boolean result1 = service.evaluateExpression(expr, null, root, ctx, Boolean.class);
+		boolean compiled = ((SpelExpression) expr).compileExpression();
+		Boolean result2 = service.evaluateExpression(expr, null, root, ctx, Boolean.class);
+
+		// THEN
+		assertThat("Compiler mode", service.getCompilerMode(),
+				is(equalTo(SpelCompilerMode.IMMEDIATE)));
+		assertThat("Interpreted result", result1, is(equalTo(true)));
+		assertThat("Expression compiled with restricted context and datum root", compiled,
+				is(equalTo(true)));
+		assertThat("Compiled result", result2, is(equalTo(true)));
+	}
+
+	@Test
+	public void compiled_mixed_varyingTypes() {
+		// GIVEN
+		service = new SpelExpressionService(SpelCompilerMode.MIXED);
+
+		// WHEN
+		List<Number> results = new ArrayList<>(250);
+		for ( int i = 0; i < 250; i++ ) {
+			Number watts = (i % 2 == 0 ? Integer.valueOf(i) : new BigDecimal(i));
+			DatumSamplesExpressionRoot root = datumRoot(watts);
+			results.add(service.evaluateExpression("watts * 2", null, root,
+					service.createEvaluationContext(null, root), Number.class));
+		}
+
+		// THEN
+		for ( int i = 0; i < 250; i++ ) {
+			assertThat("Result " + i, new BigDecimal(results.get(i).toString()),
+					Matchers.comparesEqualTo(new BigDecimal(i * 2)));
+		}
+	}
+
 }
@@ -24,6 +24,7 @@ package net.solarnetwork.common.expr.spel;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -42,8 +43,27 @@ import net.solarnetwork.service.ExpressionService;
 /**
  * Spring Expression Language implementation of {@link ExpressionService}.
  *
+ * <p>
+ * Parsed expressions are cached, so that evaluating the same expression text
+ * many times does not parse the text each time. The cache size can be
+ * configured via {@link #setExpressionCacheSize(int)}.
+ * </p>
+ *
+ * <p>
+ * The SpEL compiler can be enabled via the
+ * {@link #SpelExpressionService(SpelCompilerMode)} constructor. Compiled
+ * expressions are shared by all users of a cached expression. In
+ * {@link SpelCompilerMode#MIXED} mode an expression is compiled after it has
+ * been interpreted a number of times, and reverts to being interpreted if the
+ * compiled form fails, for example when a property value changes type between
+ * evaluations. In {@link SpelCompilerMode#IMMEDIATE} mode an expression is
+ * compiled after its first evaluation, and any failure of the compiled form is
+ * thrown, so {@code MIXED} is the better choice when property value types can
+ * vary, as with datum samples.
+ * </p>
+ *
  * @author matt
- * @version 1.2
+ * @version 1.3
  */
 public class SpelExpressionService implements ExpressionService {
 
@@ -58,7 +78,17 @@ public class SpelExpressionService implements ExpressionService {
 	 */
 	public static final EvaluationContext DEFAULT_EVALUATION_CONTEXT = evaluationContext(null);
 
+	/**
+	 * The default value for the {@code expressionCacheSize} property.
+	 *
+	 * @since 1.3
+	 */
+	public static final int DEFAULT_EXPRESSION_CACHE_SIZE = 1000;
+
 	private final ExpressionParser parser;
+	private final SpelCompilerMode compilerMode;
+	private final Map<String, Expression> expressionCache;
+	private volatile int expressionCacheSize = DEFAULT_EXPRESSION_CACHE_SIZE;
 	private @Nullable String groupUid;
 	private URI languageReferenceLink = DEFAULT_LANG_REF_LINK;
 
@@ -85,6 +115,19 @@ public class SpelExpressionService implements ExpressionService {
 		this(new SpelParserConfiguration(null, SpelExpressionService.class.getClassLoader()));
 	}
 
+	/**
+	 * Constructor.
+	 *
+	 * @param compilerMode
+	 *        the expression compiler mode to use; if {@code null} then the
+	 *        mode will be resolved as in the default constructor
+	 * @since 1.3
+	 */
+	public SpelExpressionService(@Nullable SpelCompilerMode compilerMode) {
+		this(new SpelParserConfiguration(compilerMode,
+				SpelExpressionService.class.getClassLoader()));
+	}
+
 	/**
 	 * Constructor.
 	 *
@@ -93,6 +136,17 @@ public class SpelExpressionService implements ExpressionService {
 	 */
 	public SpelExpressionService(SpelParserConfiguration configuration) {
 		this.parser = new SpelExpressionParser(configuration);
+		this.compilerMode = configuration.getCompilerMode();
+		this.expressionCache = new LinkedHashMap<>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = -3563738838767733545L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Expression> eldest) {
+				return size() > expressionCacheSize;
+			}
+
+		};
 	}
 
 	/**
@@ -123,8 +177,34 @@ public class SpelExpressionService implements ExpressionService {
 		return ctx;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>
+	 * The returned expression is cached, so parsing the same expression text
+	 * again will return the same instance.
+	 * </p>
+	 */
 	@Override
 	public Expression parseExpression(String expression) {
+		if ( expressionCacheSize < 1 || expression == null ) {
+			return doParseExpression(expression);
+		}
+		synchronized ( expressionCache ) {
+			Expression result = expressionCache.get(expression);
+			if ( result != null ) {
+				return result;
+			}
+		}
+		// parse outside of lock; a concurrent parse of the same text is harmless
+		final Expression result = doParseExpression(expression);
+		synchronized ( expressionCache ) {
+			expressionCache.putIfAbsent(expression, result);
+		}
+		return result;
+	}
+
+	private Expression doParseExpression(String expression) {
 		try {
 			return parser.parseExpression(expression);
 		} catch ( NullPointerException e ) {
@@ -173,6 +253,47 @@ public class SpelExpressionService implements ExpressionService {
 		return evaluateExpression(parseExpression(expression), variables, root, context, resultClass);
 	}
 
+	/**
+	 * Get the expression compiler mode.
+	 *
+	 * @return the compiler mode
+	 * @since 1.3
+	 */
+	public SpelCompilerMode getCompilerMode() {
+		return compilerMode;
+	}
+
+	/**
+	 * Get the maximum number of parsed expressions to cache.
+	 *
+	 * @return the cache size; defaults to
+	 *         {@link #DEFAULT_EXPRESSION_CACHE_SIZE}
+	 * @since 1.3
+	 */
+	public int getExpressionCacheSize() {
+		return expressionCacheSize;
+	}
+
+	/**
+	 * Set the maximum number of parsed expressions to cache.
+	 *
+	 * <p>
+	 * When the cache is full the least recently used expression is removed.
+	 * Changing the size clears the cache.
+	 * </p>
+	 *
+	 * @param expressionCacheSize
+	 *        the cache size to set; anything less than {@literal 1} disables
+	 *        the cache
+	 * @since 1.3
+	 */
+	public void setExpressionCacheSize(int expressionCacheSize) {
+		synchronized ( expressionCache ) {
+			this.expressionCacheSize = expressionCacheSize;
+			expressionCache.clear();
+		}
+	}
+
 	@Override
 	public URI getLanguageReferenceLink() {
 		return languageReferenceLink;
@@ -0,0 +1,278 @@
+/* ==================================================================
+ * CompactStreamDatumArraySerializerTests.java - 17/10/2026 5:20:14 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.codec.jackson.test;
+
+import static net.solarnetwork.util.NumberUtils.decimalArray;
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.api.BDDAssertions.thenThrownBy;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.Test;
+import net.solarnetwork.codec.jackson.CborUtils;
+import net.solarnetwork.codec.jackson.CompactStreamDatumArrayDeserializer;
+import net.solarnetwork.codec.jackson.CompactStreamDatumArraySerializer;
+import net.solarnetwork.codec.jackson.JsonUtils;
+import net.solarnetwork.domain.datum.BasicStreamDatum;
+import net.solarnetwork.domain.datum.Datum;
+import net.solarnetwork.domain.datum.DatumProperties;
+import net.solarnetwork.domain.datum.DatumSamples;
+import net.solarnetwork.domain.datum.GeneralDatum;
+import net.solarnetwork.domain.datum.StreamDatum;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.exc.MismatchedInputException;
+import tools.jackson.dataformat.cbor.CBORGenerator;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+/**
+ * Test cases for the {@link CompactStreamDatumArraySerializer} and
+ * {@link CompactStreamDatumArrayDeserializer} classes.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class CompactStreamDatumArraySerializerTests {
+
+	private static final Instant TS = Instant.ofEpochMilli(1651197120000L);
+
+	private final ObjectMapper compactMapper = CborUtils.COMPACT_CBOR_OBJECT_MAPPER;
+
+	private final ObjectMapper standardMapper = CBORMapper.builder(CborUtils.cborFactory())
+			.addModule(JsonUtils.DATUM_MODULE).build();
+
+	private static int indexOf(byte[] data, byte... pattern) {
+		outer: for ( int i = 0; i <= data.length - pattern.length; i++ ) {
+			for ( int j = 0; j < pattern.length; j++ ) {
+				if ( data[i + j] != pattern[j] ) {
+					continue outer;
+				}
+			}
+			return i;
+		}
+		return -1;
+	}
+
+	@Test
+	public void packed_roundTrip() throws IOException {
+		// GIVEN
+		StreamDatum datum = new BasicStreamDatum(UUID.randomUUID(), TS,
+				DatumProperties.propertiesOf(decimalArray("1.23", "4.5", "-6"),
+						decimalArray("12345678901"), new String[] { "ok" }, new String[] { "t" }));
+
+		// WHEN
+		byte[] cbor = compactMapper.writeValueAsBytes(datum);
+		StreamDatum result = compactMapper.readValue(cbor, StreamDatum.class);
+
+		// THEN
+		then(indexOf(cbor, (byte) 0xD8, (byte) CompactStreamDatumArraySerializer.TAG_SINT16_BE))
+				.as("Instantaneous values packed as 16-bit typed array").isGreaterThan(0);
+		then(indexOf(cbor, (byte) 0xD8, (byte) CompactStreamDatumArraySerializer.TAG_SINT64_BE))
+				.as("Accumulating values packed as 64-bit typed array").isGreaterThan(0);
+		then(result).as("Datum decoded with values at shared scale")
+				.isEqualTo(new BasicStreamDatum(datum.getStreamId(), TS,
+						DatumProperties.propertiesOf(decimalArray("1.23", "4.50", "-6.00"),
+								decimalArray("12345678901"), new String[] { "ok" },
+								new String[] { "t" })));
+		then(cbor.length).as("Compact encoding smaller than standard encoding")
+				.isLessThan(standardMapper.writeValueAsBytes(datum).length);
+	}
+
+	private byte[] packed(Number exponent, int count, int tag, byte[] data) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (CBORGenerator gen = (CBORGenerator) compactMapper.createGenerator(out)) {
+			gen.writeStartArray();
+			gen.writeNumber(TS.toEpochMilli());
+			gen.writeNumber(1L);
+			gen.writeNumber(2L);
+			gen.writeStartArray();
+			if ( exponent instanceof Double d ) {
+				gen.writeNumber(d);
+			} else {
+				gen.writeNumber(exponent.longValue());
+			}
+			gen.writeNumber(count);
+			if ( tag >= 0 ) {
+				gen.writeTag(tag);
+			}
+			gen.writeBinary(data);
+			gen.writeEndArray();
+			gen.writeNull();
+			gen.writeNull();
+			gen.writeNull();
+			gen.writeEndArray();
+		}
+		return out.toByteArray();
+	}
+
+	@Test
+	public void packed_decode() throws IOException {
+		// GIVEN
+		byte[] cbor = packed(-1, 2, CompactStreamDatumArraySerializer.TAG_SINT16_BE,
+				new byte[] { 0, 1, (byte) 0xFF, (byte) 0xFE });
+
+		// WHEN
+		StreamDatum result = compactMapper.readValue(cbor, StreamDatum.class);
+
+		// THEN
+		then(result.getProperties().getInstantaneous()).as("Packed values decoded")
+				.containsExactly(decimalArray("0.1", "-0.2"));
+	}
+
+	@Test
+	public void packed_decode_unsupportedTag() throws IOException {
+		// GIVEN
+		// RFC 8746 tag 77 is little-endian signed 16-bit
+		byte[] cbor = packed(-1, 2, 77, new byte[] { 1, 0, (byte) 0xFE, (byte) 0xFF });
+
+		// THEN
+		thenThrownBy(() -> compactMapper.readValue(cbor, StreamDatum.class))
+				.as("Little-endian typed array rejected")
+				.isInstanceOf(MismatchedInputException.class);
+	}
+
+	@Test
+	public void packed_decode_untagged() throws IOException {
+		// GIVEN
+		byte[] cbor = packed(-1, 2, -1, new byte[] { 0, 1, (byte) 0xFF, (byte) 0xFE });
+
+		// THEN
+		thenThrownBy(() -> compactMapper.readValue(cbor, StreamDatum.class))
+				.as("Untagged byte string rejected").isInstanceOf(MismatchedInputException.class);
+	}
+
+	@Test
+	public void packed_decode_tagSizeMismatch() throws IOException {
+		// GIVEN
+		byte[] cbor = packed(-1, 2, CompactStreamDatumArraySerializer.TAG_SINT32_BE,
+				new byte[] { 0, 1, (byte) 0xFF, (byte) 0xFE });
+
+		// THEN
+		thenThrownBy(() -> compactMapper.readValue(cbor, StreamDatum.class))
+				.as("Data length not matching tag element size rejected")
+				.isInstanceOf(MismatchedInputException.class);
+	}
+
+	@Test
+	public void packed_decode_nonIntegralExponent() throws IOException {
+		// GIVEN
+		byte[] cbor = packed(1.5, 2, CompactStreamDatumArraySerializer.TAG_SINT16_BE,
+				new byte[] { 0, 1, (byte) 0xFF, (byte) 0xFE });
+
+		// THEN
+		thenThrownBy(() -> compactMapper.readValue(cbor, StreamDatum.class))
+				.as("Non-integral exponent rejected")
+				.isInstanceOf(MismatchedInputException.class);
+	}
+
+	@Test
+	public void unpacked_nullValue() throws IOException {
+		// GIVEN
+		StreamDatum datum = new BasicStreamDatum(UUID.randomUUID(), TS, DatumProperties
+				.propertiesOf(decimalArray("1.23", null, "4.5"), null, null, null));
+
+		// WHEN
+		byte[] cbor = compactMapper.writeValueAsBytes(datum);
+		StreamDatum result = compactMapper.readValue(cbor, StreamDatum.class);
+
+		// THEN
+		then(result).as("Datum with null value decoded exactly").isEqualTo(datum);
+	}
+
+	@Test
+	public void unpacked_scaleRange() throws IOException {
+		// GIVEN
+		StreamDatum datum = new BasicStreamDatum(UUID.randomUUID(), TS,
+				DatumProperties.propertiesOf(decimalArray("1E+20", "1E-20"), null, null, null));
+
+		// WHEN
+		byte[] cbor = compactMapper.writeValueAsBytes(datum);
+		StreamDatum result = compactMapper.readValue(cbor, StreamDatum.class);
+
+		// THEN
+		then(result).as("Datum with wide scale range decoded exactly").isEqualTo(datum);
+	}
+
+	@Test
+	public void decodeStandardEncoding() throws IOException {
+		// GIVEN
+		StreamDatum datum = new BasicStreamDatum(UUID.randomUUID(), TS,
+				DatumProperties.propertiesOf(decimalArray("1.23", "4.5"), decimalArray("100"),
+						new String[] { "ok" }, null));
+
+		// WHEN
+		StreamDatum result = compactMapper.readValue(standardMapper.writeValueAsBytes(datum),
+				StreamDatum.class);
+
+		// THEN
+		then(result).as("Standard encoding decoded").isEqualTo(datum);
+	}
+
+	@Test
+	public void json() throws IOException {
+		// GIVEN
+		StreamDatum datum = new BasicStreamDatum(UUID.randomUUID(), TS, DatumProperties
+				.propertiesOf(decimalArray("1.23", "4.5"), decimalArray("100"), null, null));
+		ObjectMapper mapper = JsonUtils.JSON_OBJECT_MAPPER.rebuild()
+				.addModule(CborUtils.COMPACT_DATUM_MODULE).build();
+
+		// WHEN
+		String json = mapper.writeValueAsString(datum);
+
+		// THEN
+		then(json).as("Normal arrays written to JSON").isEqualTo(String.format(
+				"[%d,%d,%d,[1.23,4.5],[100],null,null]", TS.toEpochMilli(),
+				datum.getStreamId().getMostSignificantBits(),
+				datum.getStreamId().getLeastSignificantBits()));
+	}
+
+	@Test
+	public void generalDatum_stringRefs() throws IOException {
+		// GIVEN
+		List<Datum> datum = new ArrayList<>();
+		for ( int i = 0; i < 10; i++ ) {
+			DatumSamples s = new DatumSamples();
+			s.putInstantaneousSampleValue("watts", i);
+			s.putAccumulatingSampleValue("wattHours", i * 100);
+			s.putStatusSampleValue("phase", "PhaseA");
+			datum.add(GeneralDatum.nodeDatum(123L, "test/source/one", TS.plusSeconds(i), s));
+		}
+		TypeReference<List<Datum>> type = new TypeReference<List<Datum>>() {};
+
+		// WHEN
+		byte[] compact = compactMapper.writerFor(type).writeValueAsBytes(datum);
+		byte[] standard = standardMapper.writerFor(type).writeValueAsBytes(datum);
+		List<Datum> result = compactMapper.readValue(compact, type);
+
+		// THEN
+		then(compact.length).as("String references reduce encoded size")
+				.isLessThan(standard.length);
+		then(result).as("Datum decoded").isEqualTo(datum);
+		then(standardMapper.readValue(compact, type))
+				.as("String references decoded by standard mapper").isEqualTo(datum);
+	}
+
+}
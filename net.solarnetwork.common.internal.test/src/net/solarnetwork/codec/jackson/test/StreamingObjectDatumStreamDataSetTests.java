@@ -0,0 +1,276 @@
+/* ==================================================================
+ * StreamingObjectDatumStreamDataSetTests.java - 17/10/2026 10:12:37 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.codec.jackson.test;
+
+import static java.lang.String.format;
+import static java.util.Arrays.asList;
+import static net.solarnetwork.domain.datum.BasicObjectDatumStreamDataSet.dataSet;
+import static net.solarnetwork.util.NumberUtils.decimalArray;
+import static org.assertj.core.api.BDDAssertions.from;
+import static org.assertj.core.api.BDDAssertions.then;
+import static org.assertj.core.api.BDDAssertions.thenExceptionOfType;
+import static org.assertj.core.api.BDDAssertions.thenObject;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.Test;
+import net.solarnetwork.codec.jackson.CborUtils;
+import net.solarnetwork.codec.jackson.JsonUtils;
+import net.solarnetwork.codec.jackson.StreamingObjectDatumStreamDataSet;
+import net.solarnetwork.domain.datum.BasicObjectDatumStreamDataSet;
+import net.solarnetwork.domain.datum.BasicObjectDatumStreamMetadata;
+import net.solarnetwork.domain.datum.BasicStreamDatum;
+import net.solarnetwork.domain.datum.DatumProperties;
+import net.solarnetwork.domain.datum.ObjectDatumKind;
+import net.solarnetwork.domain.datum.ObjectDatumStreamDataSet;
+import net.solarnetwork.domain.datum.ObjectDatumStreamMetadata;
+import net.solarnetwork.domain.datum.StreamDatum;
+import net.solarnetwork.util.ClassUtils;
+import net.solarnetwork.util.CloseableIterator;
+import tools.jackson.core.JsonParser;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+/**
+ * Test cases for the {@link StreamingObjectDatumStreamDataSet} class.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class StreamingObjectDatumStreamDataSetTests {
+
+	private static final Instant START = Instant.ofEpochMilli(1651197120000L);
+
+	private final ObjectMapper jsonMapper = JsonMapper.builder().addModule(JsonUtils.DATUM_MODULE)
+			.build();
+
+	private final ObjectMapper cborMapper = CBORMapper.builder(CborUtils.cborFactory())
+			.addModule(JsonUtils.DATUM_MODULE).build();
+
+	private static ObjectDatumStreamMetadata nodeMeta(Long nodeId, String sourceId, String[] i,
+			String[] a, String[] s) {
+		return new BasicObjectDatumStreamMetadata(UUID.randomUUID(), "Pacific/Auckland",
+				ObjectDatumKind.Node, nodeId, sourceId, i, a, s);
+	}
+
+	private static BasicObjectDatumStreamDataSet<StreamDatum> testDataSet(int count) {
+		ObjectDatumStreamMetadata meta1 = nodeMeta(123L, "test/1", new String[] { "a", "b" },
+				new String[] { "c" }, new String[] { "d" });
+		ObjectDatumStreamMetadata meta2 = nodeMeta(123L, "test/2", new String[] { "x" }, null,
+				null);
+		List<StreamDatum> data = new ArrayList<>(count);
+		for ( int i = 0; i < count; i++ ) {
+			ObjectDatumStreamMetadata meta = (i % 3 == 0 ? meta2 : meta1);
+			DatumProperties p = (meta == meta1
+					? DatumProperties.propertiesOf(decimalArray(String.valueOf(i), "1.5"),
+							decimalArray(String.valueOf(i * 10)), new String[] { "ok" },
+							i % 2 == 0 ? new String[] { "even" } : null)
+					: DatumProperties.propertiesOf(decimalArray(String.valueOf(i)), null, null,
+							null));
+			data.add(new BasicStreamDatum(meta.getStreamId(), START.plusSeconds(i), p));
+		}
+		return dataSet(asList(meta1, meta2), data, 1000L, 10, count);
+	}
+
+	private static List<StreamDatum> readAll(StreamingObjectDatumStreamDataSet dataSet) {
+		List<StreamDatum> result = new ArrayList<>();
+		try (CloseableIterator<StreamDatum> itr = dataSet.iterator()) {
+			while ( itr.hasNext() ) {
+				result.add(itr.next());
+			}
+		} catch ( IOException e ) {
+			throw new RuntimeException(e);
+		}
+		return result;
+	}
+
+	private static void thenDataSetMatches(StreamingObjectDatumStreamDataSet result,
+			ObjectDatumStreamDataSet<StreamDatum> expected) {
+		List<StreamDatum> expectedData = new ArrayList<>();
+		expected.forEach(expectedData::add);
+
+		// @formatter:off
+		thenObject(result)
+			.as("Data set opened")
+			.isNotNull()
+			.as("Total result count read before data")
+			.returns(expected.getTotalResultCount(), from(StreamingObjectDatumStreamDataSet::getTotalResultCount))
+			.as("Starting offset read before data")
+			.returns(expected.getStartingOffset(), from(StreamingObjectDatumStreamDataSet::getStartingOffset))
+			.as("Returned result count read before data")
+			.returns(expected.getReturnedResultCount(), from(StreamingObjectDatumStreamDataSet::getReturnedResultCount))
+			;
+		for ( UUID streamId : expected.metadataStreamIds() ) {
+			then(result.metadataForStreamId(streamId))
+				.as("Metadata read before data")
+				.isEqualTo(expected.metadataForStreamId(streamId))
+				;
+		}
+		then(readAll(result))
+			.as("All datum read in order")
+			.containsExactlyElementsOf(expectedData)
+			;
+		// @formatter:on
+	}
+
+	@Test
+	public void json() throws IOException {
+		// GIVEN
+		BasicObjectDatumStreamDataSet<StreamDatum> data = testDataSet(100);
+		byte[] json = jsonMapper.writeValueAsBytes(data);
+
+		// WHEN
+		try (JsonParser p = jsonMapper.createParser(json);
+				StreamingObjectDatumStreamDataSet result = StreamingObjectDatumStreamDataSet
+						.open(p)) {
+			// THEN
+			thenDataSetMatches(result, data);
+		}
+	}
+
+	@Test
+	public void cbor() throws IOException {
+		// GIVEN
+		BasicObjectDatumStreamDataSet<StreamDatum> data = testDataSet(100);
+		byte[] cbor = cborMapper.writeValueAsBytes(data);
+
+		// WHEN
+		try (JsonParser p = cborMapper.createParser(cbor);
+				StreamingObjectDatumStreamDataSet result = StreamingObjectDatumStreamDataSet
+						.open(p)) {
+			// THEN
+			thenDataSetMatches(result, data);
+		}
+	}
+
+	@Test
+	public void defaultMapper() throws IOException {
+		// GIVEN
+		BasicObjectDatumStreamDataSet<StreamDatum> data = testDataSet(5);
+		byte[] json = jsonMapper.writeValueAsBytes(data);
+
+		// WHEN
+		try (JsonParser p = JsonUtils.JSON_OBJECT_MAPPER.createParser(json);
+				StreamingObjectDatumStreamDataSet result = StreamingObjectDatumStreamDataSet
+						.open(p)) {
+			// THEN
+			thenDataSetMatches(result, data);
+		}
+	}
+
+	@Test
+	public void aggregate() throws IOException {
+		// GIVEN
+		String json = ClassUtils.getResourceAsString("node-agg-stream-02.json",
+				net.solarnetwork.codec.test.JsonUtilsTests.class);
+		@SuppressWarnings("unchecked")
+		ObjectDatumStreamDataSet<StreamDatum> expected = jsonMapper.readValue(json,
+				ObjectDatumStreamDataSet.class);
+
+		// WHEN
+		try (JsonParser p = jsonMapper.createParser(json);
+				StreamingObjectDatumStreamDataSet result = StreamingObjectDatumStreamDataSet
+						.open(p)) {
+			// THEN
+			thenDataSetMatches(result, expected);
+		}
+	}
+
+	@Test
+	public void propertiesAfterData() throws IOException {
+		// GIVEN
+		UUID streamId = UUID.randomUUID();
+		String json = format("{\"meta\":[{\"streamId\":\"%s\",", streamId)
+				+ "\"zone\":\"Pacific/Auckland\",\"kind\":\"n\",\"objectId\":123,"
+				+ "\"sourceId\":\"test/source\",\"i\":[\"a\"]}],"
+				+ "\"data\":[[0,1651197120000,1.23],[0,1651197121000,3.21]],"
+				+ "\"foo\":{\"bar\":[1,2,3]},\"totalResultCount\":2}";
+
+		// WHEN
+		try (JsonParser p = jsonMapper.createParser(json);
+				StreamingObjectDatumStreamDataSet result = StreamingObjectDatumStreamDataSet
+						.open(p)) {
+			// @formatter:off
+			then(result.getTotalResultCount())
+				.as("Total result count not available before data read")
+				.isNull()
+				;
+			then(readAll(result))
+				.as("All datum read")
+				.containsExactly(
+						new BasicStreamDatum(streamId, START,
+								DatumProperties.propertiesOf(decimalArray("1.23"), null, null, null)),
+						new BasicStreamDatum(streamId, START.plusSeconds(1),
+								DatumProperties.propertiesOf(decimalArray("3.21"), null, null, null)))
+				;
+			then(result.getTotalResultCount())
+				.as("Total result count available after data read")
+				.isEqualTo(2L)
+				;
+			// @formatter:on
+		}
+	}
+
+	@Test
+	public void noData() throws IOException {
+		// GIVEN
+		BasicObjectDatumStreamDataSet<StreamDatum> data = testDataSet(0);
+		byte[] json = jsonMapper.writeValueAsBytes(data);
+
+		// WHEN
+		try (JsonParser p = jsonMapper.createParser(json);
+				StreamingObjectDatumStreamDataSet result = StreamingObjectDatumStreamDataSet
+						.open(p)) {
+			// THEN
+			then(readAll(result)).as("No datum read").isEmpty();
+		}
+	}
+
+	@Test
+	public void nullValue() throws IOException {
+		try (JsonParser p = jsonMapper.createParser("null")) {
+			thenObject(StreamingObjectDatumStreamDataSet.open(p)).as("Null data set").isNull();
+		}
+	}
+
+	@Test
+	public void iterateOnce() throws IOException {
+		// GIVEN
+		byte[] json = jsonMapper.writeValueAsBytes(testDataSet(2));
+
+		// WHEN
+		try (JsonParser p = jsonMapper.createParser(json);
+				StreamingObjectDatumStreamDataSet result = StreamingObjectDatumStreamDataSet
+						.open(p)) {
+			readAll(result);
+
+			// THEN
+			thenExceptionOfType(IllegalStateException.class)
+					.as("Second iteration not allowed").isThrownBy(result::iterator);
+		}
+	}
+
+}
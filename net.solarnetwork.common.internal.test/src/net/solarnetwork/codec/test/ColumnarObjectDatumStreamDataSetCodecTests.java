@@ -0,0 +1,477 @@
+/* ==================================================================
+ * ColumnarObjectDatumStreamDataSetCodecTests.java - 16/10/2026 10:48:12 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.codec.test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static net.solarnetwork.domain.datum.BasicObjectDatumStreamDataSet.dataSet;
+import static net.solarnetwork.util.NumberUtils.decimalArray;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThrows;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import org.junit.Test;
+import net.solarnetwork.codec.ColumnarObjectDatumStreamDataSetCodec;
+import net.solarnetwork.codec.jackson.JsonUtils;
+import net.solarnetwork.domain.BasicLocation;
+import net.solarnetwork.domain.datum.BasicObjectDatumStreamDataSet;
+import net.solarnetwork.domain.datum.BasicObjectDatumStreamMetadata;
+import net.solarnetwork.domain.datum.BasicStreamDatum;
+import net.solarnetwork.domain.datum.DatumProperties;
+import net.solarnetwork.domain.datum.ObjectDatumKind;
+import net.solarnetwork.domain.datum.ObjectDatumStreamDataSet;
+import net.solarnetwork.domain.datum.ObjectDatumStreamMetadata;
+import net.solarnetwork.domain.datum.StreamDatum;
+
+/**
+ * Test cases for the {@link ColumnarObjectDatumStreamDataSetCodec} class.
+ *
+ * @author matt
+ * @version 1.1
+ */
+public class ColumnarObjectDatumStreamDataSetCodecTests {
+
+	private static final Instant START = Instant
+			.from(LocalDateTime.of(2022, 4, 29, 13, 52).atZone(ZoneId.of("Pacific/Auckland")));
+
+	private ObjectDatumStreamMetadata nodeMeta(Long nodeId, String sourceId, String[] i, String[] a,
+			String[] s) {
+		return new BasicObjectDatumStreamMetadata(UUID.randomUUID(), "Pacific/Auckland",
+				ObjectDatumKind.Node, nodeId, sourceId, i, a, s);
+	}
+
+	private static DatumProperties props(BigDecimal[] i, BigDecimal[] a, String[] s, String[] t) {
+		DatumProperties p = new DatumProperties();
+		p.setInstantaneous(i);
+		p.setAccumulating(a);
+		p.setStatus(s);
+		p.setTags(t);
+		return p;
+	}
+
+	private static ObjectDatumStreamDataSet<StreamDatum> roundTrip(
+			ObjectDatumStreamDataSet<StreamDatum> data) throws IOException {
+		byte[] encoded = ColumnarObjectDatumStreamDataSetCodec.encode(data);
+		return ColumnarObjectDatumStreamDataSetCodec.decode(encoded);
+	}
+
+	private static void assertDataSetEquals(ObjectDatumStreamDataSet<StreamDatum> result,
+			ObjectDatumStreamDataSet<StreamDatum> expected) {
+		assertThat("Stream IDs decoded", result.metadataStreamIds(),
+				containsInAnyOrder(expected.metadataStreamIds().toArray()));
+		for ( UUID streamId : expected.metadataStreamIds() ) {
+			assertThat("Metadata decoded for stream " + streamId,
+					result.metadataForStreamId(streamId),
+					is(equalTo(expected.metadataForStreamId(streamId))));
+		}
+		List<StreamDatum> expectedData = new ArrayList<>();
+		expected.forEach(expectedData::add);
+		List<StreamDatum> resultData = new ArrayList<>();
+		result.forEach(resultData::add);
+		assertThat("Datum decoded in order", resultData, is(equalTo(expectedData)));
+		assertThat("Total result count", result.getTotalResultCount(),
+				is(equalTo(expected.getTotalResultCount())));
+		assertThat("Starting offset", result.getStartingOffset(),
+				is(equalTo(expected.getStartingOffset())));
+		assertThat("Returned result count", result.getReturnedResultCount(),
+				is(equalTo(expected.getReturnedResultCount())));
+	}
+
+	@Test
+	public void empty() throws IOException {
+		// GIVEN
+		BasicObjectDatumStreamDataSet<StreamDatum> data = dataSet(emptyList(), emptyList());
+
+		// WHEN
+		ObjectDatumStreamDataSet<StreamDatum> result = roundTrip(data);
+
+		// THEN
+		assertDataSetEquals(result, data);
+	}
+
+	@Test
+	public void oneStream() throws IOException {
+		// GIVEN
+		ObjectDatumStreamMetadata meta = nodeMeta(123L, "test/source", new String[] { "a", "b" },
+				new String[] { "c" }, new String[] { "d" });
+
+		StreamDatum d1 = new BasicStreamDatum(meta.getStreamId(), START,
+				props(decimalArray("1.23", "2.34"), decimalArray("3.45"), new String[] { "foo" },
+						new String[] { "a" }));
+		StreamDatum d2 = new BasicStreamDatum(meta.getStreamId(), START.plusSeconds(1), props(
+				decimalArray("3.21", "4.32"), decimalArray("5.43"), new String[] { "bar" }, null));
+
+		BasicObjectDatumStreamDataSet<StreamDatum> data = dataSet(asList(meta), asList(d1, d2));
+
+		// WHEN
+		ObjectDatumStreamDataSet<StreamDatum> result = roundTrip(data);
+
+		// THEN
+		assertDataSetEquals(result, data);
+	}
+
+	@Test
+	public void oneStream_missingData() throws IOException {
+		// GIVEN
+		ObjectDatumStreamMetadata meta = nodeMeta(123L, "test/source", new String[] { "a", "b" },
+				new String[] { "c" }, new String[] { "d" });
+
+		StreamDatum d1 = new BasicStreamDatum(meta.getStreamId(), START,
+				props(null, decimalArray("3.45"), new String[] { "foo" }, new String[] { "a" }));
+		StreamDatum d2 = new BasicStreamDatum(meta.getStreamId(), START.plusSeconds(1),
+				props(decimalArray(null, "4.32"), null, null, null));
+		StreamDatum d3 = new BasicStreamDatum(meta.getStreamId(), START.plusSeconds(2), null);
+		StreamDatum d4 = new BasicStreamDatum(meta.getStreamId(), START.plusSeconds(3),
+				props(new BigDecimal[0], new BigDecimal[0], new String[0], new String[0]));
+		StreamDatum d5 = new BasicStreamDatum(meta.getStreamId(), START.plusSeconds(4),
+				props(decimalArray("1.5", null), decimalArray((String) null), new String[] { null },
+						null));
+
+		BasicObjectDatumStreamDataSet<StreamDatum> data = dataSet(asList(meta),
+				asList(d1, d2, d3, d4, d5));
+
+		// WHEN
+		ObjectDatumStreamDataSet<StreamDatum> result = roundTrip(data);
+
+		// THEN
+		assertDataSetEquals(result, data);
+	}
+
+	@Test
+	public void oneStream_metadataDetails() throws IOException {
+		// GIVEN
+		BasicLocation loc = new BasicLocation("Home", "NZ", "Wellington", null, "Wellington", "6011",
+				null, new BigDecimal("-41.2865"), null, null, "Pacific/Auckland");
+		ObjectDatumStreamMetadata meta = new BasicObjectDatumStreamMetadata(UUID.randomUUID(), null,
+				ObjectDatumKind.Location, 321L, "weather", loc, new String[] { "temp" }, null, null,
+				"{\"pm\":{\"foo\":\"bar\"}}");
+
+		StreamDatum d1 = new BasicStreamDatum(meta.getStreamId(), START,
+				props(decimalArray("12.5"), null, null, null));
+
+		BasicObjectDatumStreamDataSet<StreamDatum> data = dataSet(asList(meta), asList(d1));
+
+		// WHEN
+		ObjectDatumStreamDataSet<StreamDatum> result = roundTrip(data);
+
+		// THEN
+		assertDataSetEquals(result, data);
+		assertThat("Location decoded", JsonUtils.getJSONString(
+				result.metadataForStreamId(meta.getStreamId()).getLocation()),
+				is(equalTo(JsonUtils.getJSONString(loc))));
+	}
+
+	@Test
+	public void multipleStreams_interleaved() throws IOException {
+		// GIVEN
+		ObjectDatumStreamMetadata meta1 = nodeMeta(123L, "test/source/1", new String[] { "a" },
+				new String[] { "b" }, null);
+		ObjectDatumStreamMetadata meta2 = nodeMeta(123L, "test/source/2", new String[] { "x", "y" },
+				null, new String[] { "z" });
+
+		List<StreamDatum> datum = new ArrayList<>();
+		for ( int i = 0; i < 10; i++ ) {
+			datum.add(new BasicStreamDatum(meta1.getStreamId(), START.plusSeconds(i),
+					props(decimalArray(String.valueOf(i)), decimalArray(String.valueOf(i * 10)),
+							null, null)));
+			if ( i % 3 == 0 ) {
+				datum.add(new BasicStreamDatum(meta2.getStreamId(), START.plusSeconds(i),
+						props(decimalArray("1.1", String.valueOf(i)), null,
+								new String[] { i % 2 == 0 ? "even" : "odd" }, null)));
+			}
+		}
+
+		BasicObjectDatumStreamDataSet<StreamDatum> data = dataSet(asList(meta1, meta2), datum, 100L,
+				20, datum.size());
+
+		// WHEN
+		ObjectDatumStreamDataSet<StreamDatum> result = roundTrip(data);
+
+		// THEN
+		assertDataSetEquals(result, data);
+	}
+
+	@Test
+	public void decimals_scaleAndPrecision() throws IOException {
+		// GIVEN
+		ObjectDatumStreamMetadata meta = nodeMeta(123L, "test/source", new String[] { "a" },
+				new String[] { "b" }, null);
+
+		// @formatter:off
+		String[][] values = new String[][] {
+			{ "1", "100" },
+			{ "1.0", "100.00" },
+			{ "1.00", "1E+3" },
+			{ "-5", "9223372036854775807" },
+			{ "4611686018427387903", "-9223372036854775808" },
+			{ "-4611686018427387904", "123456789012345678901234567890.123" },
+			{ "0.000000001", "100" },
+			{ "1.23E-20", "200" },
+			{ "-1.23E+20", "-4611686018427387904" },
+			{ "2", "4611686018427387903" },
+		};
+		// @formatter:on
+
+		List<StreamDatum> datum = new ArrayList<>();
+		for ( int i = 0; i < values.length; i++ ) {
+			datum.add(new BasicStreamDatum(meta.getStreamId(), START.plusSeconds(i),
+					props(decimalArray(values[i][0]), decimalArray(values[i][1]), null, null)));
+		}
+
+		BasicObjectDatumStreamDataSet<StreamDatum> data = dataSet(asList(meta), datum);
+
+		// WHEN
+		ObjectDatumStreamDataSet<StreamDatum> result = roundTrip(data);
+
+		// THEN
+		assertDataSetEquals(result, data);
+	}
+
+	@Test
+	public void timestamps_irregular() throws IOException {
+		// GIVEN
+		ObjectDatumStreamMetadata meta = nodeMeta(123L, "test/source", new String[] { "a" }, null,
+				null);
+
+		long[] offsets = new long[] { 0, 1000, 2000, 2001, 2001, 1500, 60_000, 60_000, 60_000,
+				-86_400_000L, Long.MAX_VALUE / 4 };
+
+		List<StreamDatum> datum = new ArrayList<>();
+		for ( long offset : offsets ) {
+			datum.add(new BasicStreamDatum(meta.getStreamId(), START.plusMillis(offset),
+					props(decimalArray("1"), null, null, null)));
+		}
+		datum.add(new BasicStreamDatum(meta.getStreamId(), Instant.ofEpochMilli(0),
+				props(decimalArray("1"), null, null, null)));
+
+		BasicObjectDatumStreamDataSet<StreamDatum> data = dataSet(asList(meta), datum);
+
+		// WHEN
+		ObjectDatumStreamDataSet<StreamDatum> result = roundTrip(data);
+
+		// THEN
+		assertDataSetEquals(result, data);
+	}
+
+	@Test
+	public void dictionary_sharedBetweenStatusAndTags() throws IOException {
+		// GIVEN
+		ObjectDatumStreamMetadata meta = nodeMeta(123L, "test/source", null, null,
+				new String[] { "state", "mode" });
+
+		List<StreamDatum> datum = new ArrayList<>();
+		for ( int i = 0; i < 20; i++ ) {
+			datum.add(new BasicStreamDatum(meta.getStreamId(), START.plusSeconds(i),
+					props(null, null, new String[] { i < 10 ? "ok" : "fault", "auto" },
+							new String[] { "ok", "⚡ power" })));
+		}
+
+		BasicObjectDatumStreamDataSet<StreamDatum> data = dataSet(asList(meta), datum);
+
+		// WHEN
+		ObjectDatumStreamDataSet<StreamDatum> result = roundTrip(data);
+
+		// THEN
+		assertDataSetEquals(result, data);
+	}
+
+	@Test
+	public void streams() throws IOException {
+		// GIVEN
+		ObjectDatumStreamMetadata meta = nodeMeta(123L, "test/source", new String[] { "a" },
+				new String[] { "b" }, null);
+		StreamDatum d1 = new BasicStreamDatum(meta.getStreamId(), START,
+				props(decimalArray("1.1"), decimalArray("100"), null, null));
+		BasicObjectDatumStreamDataSet<StreamDatum> data = dataSet(asList(meta), asList(d1));
+
+		// WHEN
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ColumnarObjectDatumStreamDataSetCodec.encode(data, out);
+		ObjectDatumStreamDataSet<StreamDatum> result = ColumnarObjectDatumStreamDataSetCodec
+				.decode(new ByteArrayInputStream(out.toByteArray()));
+
+		// THEN
+		assertThat("Stream encoding same as array encoding", out.toByteArray(),
+				is(equalTo(ColumnarObjectDatumStreamDataSetCodec.encode(data))));
+		assertDataSetEquals(result, data);
+	}
+
+	@Test
+	public void regularReadings_compact() throws IOException {
+		// GIVEN
+		ObjectDatumStreamMetadata meta = nodeMeta(123L, "test/source",
+				new String[] { "watts", "voltage" }, new String[] { "wattHours" },
+				new String[] { "state" });
+
+		final int count = 86_400;
+		List<StreamDatum> datum = new ArrayList<>(count);
+		for ( int i = 0; i < count; i++ ) {
+			datum.add(new BasicStreamDatum(meta.getStreamId(), START.plusSeconds(i),
+					props(new BigDecimal[] { BigDecimal.valueOf(1000 + (i % 50), 1),
+							new BigDecimal("230.1") },
+							new BigDecimal[] { BigDecimal.valueOf(1_000_000L + i * 3L, 3) },
+							new String[] { "ok" }, null)));
+		}
+		BasicObjectDatumStreamDataSet<StreamDatum> data = dataSet(asList(meta), datum);
+
+		// WHEN
+		byte[] encoded = ColumnarObjectDatumStreamDataSetCodec.encode(data);
+		byte[] json = JsonUtils.JSON_OBJECT_MAPPER.writeValueAsBytes(data);
+
+		// THEN
+		assertThat("Encoded much smaller than JSON", encoded.length * 10, is(lessThan(json.length)));
+		assertDataSetEquals(ColumnarObjectDatumStreamDataSetCodec.decode(encoded), data);
+	}
+
+	@Test
+	public void datumWithoutMetadata() {
+		// GIVEN
+		ObjectDatumStreamMetadata meta = nodeMeta(123L, "test/source", new String[] { "a" }, null,
+				null);
+		StreamDatum d1 = new BasicStreamDatum(UUID.randomUUID(), START,
+				props(decimalArray("1"), null, null, null));
+		BasicObjectDatumStreamDataSet<StreamDatum> data = dataSet(asList(meta), asList(d1));
+
+		// THEN
+		assertThrows("Datum without metadata not encodable", IOException.class, () -> {
+			ColumnarObjectDatumStreamDataSetCodec.encode(data);
+		});
+	}
+
+	@Test
+	public void datumWithoutTimestamp() {
+		// GIVEN
+		ObjectDatumStreamMetadata meta = nodeMeta(123L, "test/source", new String[] { "a" }, null,
+				null);
+		StreamDatum d1 = new BasicStreamDatum(meta.getStreamId(), START,
+				props(decimalArray("1"), null, null, null)) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public Instant getTimestamp() {
+				return null;
+			}
+
+		};
+		BasicObjectDatumStreamDataSet<StreamDatum> data = dataSet(asList(meta), asList(d1));
+
+		// THEN
+		assertThrows("Datum without timestamp not encodable", IOException.class, () -> {
+			ColumnarObjectDatumStreamDataSetCodec.encode(data);
+		});
+	}
+
+	@Test
+	public void decode_invalidLocation() throws IOException {
+		// GIVEN
+		BasicLocation loc = new BasicLocation("Home", "NZ", "Wellington", null, "Wellington", "6011",
+				null, null, null, null, "Pacific/Auckland");
+		ObjectDatumStreamMetadata meta = new BasicObjectDatumStreamMetadata(UUID.randomUUID(), null,
+				ObjectDatumKind.Location, 321L, "weather", loc, new String[] { "temp" }, null, null,
+				null);
+		StreamDatum d1 = new BasicStreamDatum(meta.getStreamId(), START,
+				props(decimalArray("12.5"), null, null, null));
+		byte[] encoded = ColumnarObjectDatumStreamDataSetCodec
+				.encode(dataSet(asList(meta), asList(d1)));
+
+		// corrupt the start of the location JSON
+		final byte[] locJson = JsonUtils.getJSONString(loc).getBytes(UTF_8);
+		int idx = -1;
+		for ( int i = 0; idx < 0 && i <= encoded.length - locJson.length; i++ ) {
+			if ( Arrays.equals(encoded, i, i + locJson.length, locJson, 0, locJson.length) ) {
+				idx = i;
+			}
+		}
+		assertThat("Location JSON encoded", idx, is(greaterThanOrEqualTo(0)));
+		encoded[idx] = '!';
+
+		// THEN
+		assertThrows("Invalid location JSON not decodable", IOException.class, () -> {
+			ColumnarObjectDatumStreamDataSetCodec.decode(encoded);
+		});
+	}
+
+	@Test
+	public void decode_invalidMagic() {
+		assertThrows("Invalid magic not decodable", IOException.class, () -> {
+			ColumnarObjectDatumStreamDataSetCodec.decode(new byte[] { 1, 2, 3, 4, 1, 0 });
+		});
+	}
+
+	@Test
+	public void decode_truncated() throws IOException {
+		// GIVEN
+		ObjectDatumStreamMetadata meta = nodeMeta(123L, "test/source", new String[] { "a" }, null,
+				new String[] { "b" });
+		StreamDatum d1 = new BasicStreamDatum(meta.getStreamId(), START,
+				props(decimalArray("1.23"), null, new String[] { "foo" }, null));
+		byte[] encoded = ColumnarObjectDatumStreamDataSetCodec
+				.encode(dataSet(asList(meta), asList(d1)));
+
+		// THEN
+		for ( int len = 0; len < encoded.length; len++ ) {
+			final byte[] truncated = Arrays.copyOf(encoded, len);
+			assertThrows("Truncated data not decodable", IOException.class, () -> {
+				ColumnarObjectDatumStreamDataSetCodec.decode(truncated);
+			});
+		}
+	}
+
+	@Test
+	public void decode_nullCounts() throws IOException {
+		// GIVEN
+		ObjectDatumStreamMetadata meta = nodeMeta(123L, "test/source", new String[] { "a" }, null,
+				null);
+		StreamDatum d1 = new BasicStreamDatum(meta.getStreamId(), START,
+				props(decimalArray("1"), null, null, null));
+
+		// WHEN
+		ObjectDatumStreamDataSet<StreamDatum> result = roundTrip(
+				dataSet(asList(meta), asList(d1), null, null, null));
+
+		// THEN
+		assertThat("Total result count", result.getTotalResultCount(), is(nullValue()));
+		assertThat("Starting offset", result.getStartingOffset(), is(nullValue()));
+		assertThat("Returned result count", result.getReturnedResultCount(), is(nullValue()));
+		assertThat("Datum decoded", result.getResults(), contains(d1));
+	}
+
+}
@@ -28,10 +28,12 @@ import static org.assertj.core.api.BDDAssertions.then;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.expectLastCall;
 import static org.springframework.transaction.TransactionDefinition.PROPAGATION_REQUIRES_NEW;
+import java.sql.BatchUpdateException;
 import java.sql.CallableStatement;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 import javax.sql.DataSource;
@@ -53,7 +55,7 @@ import net.solarnetwork.dao.jdbc.JdbcBulkLoadingContextSupport;
  * Test cases for the {@link JdbcBulkLoadingContextSupport} class.
  *
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class JdbcBulkLoadingContextSupportTests {
 
@@ -83,6 +85,35 @@ public class JdbcBulkLoadingContextSupportTests {
 
 	}
 
+	private static class BatchTestContext extends JdbcBulkLoadingContextSupport<Integer> {
+
+		private @Nullable Integer failAfterBatch;
+		private List<Integer> entitiesFailed = new ArrayList<>(2);
+
+		private BatchTestContext(@Nullable PlatformTransactionManager txManager,
+				DataSource dataSource, String sql, LoadingOptions options,
+				@Nullable LoadingExceptionHandler<Integer> exceptionHandler) {
+			super(txManager, dataSource, sql, options, exceptionHandler);
+		}
+
+		@Override
+		protected boolean doLoad(Integer entity, PreparedStatement stmt, long index)
+				throws SQLException {
+			stmt.setInt(1, entity);
+			executeLoadStatement(stmt);
+			if ( entity.equals(failAfterBatch) ) {
+				throw new SQLException("Boom");
+			}
+			return true;
+		}
+
+		@Override
+		protected void entityFailed(Integer entity) {
+			entitiesFailed.add(entity);
+		}
+
+	}
+
 	@Before
 	public void setup() {
 		txManager = EasyMock.createMock(PlatformTransactionManager.class);
@@ -261,4 +292,352 @@ public class JdbcBulkLoadingContextSupportTests {
 		}
 	}
 
+	@Test
+	public void load_jdbcBatch() throws Exception {
+		// GIVEN
+		final var opts = new BasicBulkLoadingOptions(null, null,
+				LoadingTransactionMode.SingleTransaction, null);
+		final var data = List.of(1, 2, 3, 4, 5, 6);
+
+		// start overall transaction
+		final var txDef = new DefaultTransactionDefinition(PROPAGATION_REQUIRES_NEW);
+		expect(txManager.getTransaction(txDef)).andAnswer(() -> new SimpleTransactionStatus());
+
+		// get the DB connection, disable auto-commit
+		expect(dataSource.getConnection()).andReturn(jdbcConnection);
+		jdbcConnection.setAutoCommit(false);
+
+		// prepare the load call
+		expect(jdbcConnection.prepareCall(BULK_LOAD_SQL)).andReturn(jdbcStatement);
+
+		// add each row to batch
+		for ( Integer d : data ) {
+			jdbcStatement.setInt(1, d);
+		}
+		jdbcStatement.addBatch();
+		expectLastCall().times(data.size());
+
+		// execute full batch, then remaining batch on commit
+		expect(jdbcStatement.executeBatch()).andReturn(new int[] { 1, 1, 1, 1 });
+		expect(jdbcStatement.executeBatch()).andReturn(new int[] { 1, 1 });
+
+		// commit transaction
+		txManager.commit(assertWith(txStatus -> {
+			if ( txStatus instanceof SimpleTransactionStatus txs ) {
+				txs.setCompleted();
+			}
+		}));
+
+		// close statements
+		expect(jdbcStatement.isClosed()).andReturn(false);
+		jdbcStatement.close();
+
+		// close connection
+		jdbcConnection.close();
+
+		// WHEN
+		replayAll();
+		try (BatchTestContext ctx = new BatchTestContext(txManager, dataSource, BULK_LOAD_SQL, opts,
+				null)) {
+			ctx.setJdbcBatchSize(4);
+			for ( Integer d : data ) {
+				ctx.load(d);
+			}
+			ctx.commit();
+
+			// THEN
+			// @formatter:off
+			then(ctx)
+				.as("Context tracked loaded count equal to given data")
+				.returns((long)data.size(), from(BatchTestContext::getLoadedCount))
+				.as("Context tracked comitted count equal to given data")
+				.returns((long)data.size(), from(BatchTestContext::getCommittedCount))
+				;
+			// @formatter:on
+		}
+	}
+
+	@Test
+	public void load_jdbcBatch_rowFailure() throws Exception {
+		// GIVEN
+		final var opts = new BasicBulkLoadingOptions(null, null, LoadingTransactionMode.NoTransaction,
+				null);
+		final var data = List.of(1, 2, 3);
+
+		// get the DB connection, enable auto-commit
+		expect(dataSource.getConnection()).andReturn(jdbcConnection);
+		jdbcConnection.setAutoCommit(true);
+
+		// prepare the load call
+		expect(jdbcConnection.prepareCall(BULK_LOAD_SQL)).andReturn(jdbcStatement);
+
+		// add each row to batch
+		for ( Integer d : data ) {
+			jdbcStatement.setInt(1, d);
+		}
+		jdbcStatement.addBatch();
+		expectLastCall().times(data.size());
+
+		// execute batch, with second row failing
+		final var ex = new BatchUpdateException("Boom",
+				new int[] { 1, Statement.EXECUTE_FAILED, 1 });
+		expect(jdbcStatement.executeBatch()).andThrow(ex);
+
+		// close statements
+		expect(jdbcStatement.isClosed()).andReturn(false);
+		jdbcStatement.close();
+
+		// close connection
+		jdbcConnection.close();
+
+		// WHEN
+		replayAll();
+		final List<Throwable> errors = new ArrayList<>(1);
+		final List<Integer> failed = new ArrayList<>(1);
+		try (BatchTestContext ctx = new BatchTestContext(txManager, dataSource, BULK_LOAD_SQL, opts,
+				(t, c) -> {
+					errors.add(t);
+					failed.add(c.getLastLoadedEntity());
+				})) {
+			ctx.setJdbcBatchSize(3);
+			for ( Integer d : data ) {
+				ctx.load(d);
+			}
+			ctx.commit();
+
+			// THEN
+			// @formatter:off
+			then(ctx)
+				.as("Context loaded count excludes failed row")
+				.returns(2L, from(BatchTestContext::getLoadedCount))
+				.as("Context comitted count excludes failed row")
+				.returns(2L, from(BatchTestContext::getCommittedCount))
+				;
+			then(errors)
+				.as("Batch exception passed to handler")
+				.containsExactly(ex)
+				;
+			then(failed)
+				.as("Failed row provided as last loaded entity to handler")
+				.containsExactly(2)
+				;
+			// @formatter:on
+		}
+	}
+
+	@Test
+	public void load_jdbcBatch_doLoadFailure() throws Exception {
+		// GIVEN
+		final var opts = new BasicBulkLoadingOptions(null, null, LoadingTransactionMode.NoTransaction,
+				null);
+		final var data = List.of(1, 2, 3);
+
+		// get the DB connection, enable auto-commit
+		expect(dataSource.getConnection()).andReturn(jdbcConnection);
+		jdbcConnection.setAutoCommit(true);
+
+		// prepare the load call
+		expect(jdbcConnection.prepareCall(BULK_LOAD_SQL)).andReturn(jdbcStatement);
+
+		// second row fails so never added to batch
+		jdbcStatement.setInt(1, 1);
+		jdbcStatement.addBatch();
+		jdbcStatement.setInt(1, 2);
+		jdbcStatement.setInt(1, 3);
+		jdbcStatement.addBatch();
+
+		// execute remaining rows on commit
+		expect(jdbcStatement.executeBatch()).andReturn(new int[] { 1, 1 });
+
+		// close statements
+		expect(jdbcStatement.isClosed()).andReturn(false);
+		jdbcStatement.close();
+
+		// close connection
+		jdbcConnection.close();
+
+		// WHEN
+		replayAll();
+		final List<Integer> failed = new ArrayList<>(1);
+		try (BatchTestContext ctx = new BatchTestContext(txManager, dataSource, BULK_LOAD_SQL, opts,
+				(t, c) -> {
+					failed.add(c.getLastLoadedEntity());
+				})) {
+			ctx.setJdbcBatchSize(10);
+			ctx.failAfterBatch = 2;
+			for ( Integer d : data ) {
+				ctx.load(d);
+			}
+			ctx.commit();
+
+			// THEN
+			// @formatter:off
+			then(ctx)
+				.as("Context loaded count excludes failed row")
+				.returns(2L, from(BatchTestContext::getLoadedCount))
+				.as("Context comitted count excludes failed row")
+				.returns(2L, from(BatchTestContext::getCommittedCount))
+				.as("No batched rows failed")
+				.returns(List.of(), from(c -> c.entitiesFailed))
+				;
+			then(failed)
+				.as("Failed row provided as last loaded entity to handler")
+				.containsExactly(2)
+				;
+			// @formatter:on
+		}
+	}
+
+	@Test
+	public void load_jdbcBatch_closeNoTransaction() throws Exception {
+		// GIVEN
+		final var opts = new BasicBulkLoadingOptions(null, null, LoadingTransactionMode.NoTransaction,
+				null);
+		final var data = List.of(1, 2);
+
+		// get the DB connection, enable auto-commit
+		expect(dataSource.getConnection()).andReturn(jdbcConnection);
+		jdbcConnection.setAutoCommit(true);
+
+		// prepare the load call
+		expect(jdbcConnection.prepareCall(BULK_LOAD_SQL)).andReturn(jdbcStatement);
+
+		// add each row to batch
+		for ( Integer d : data ) {
+			jdbcStatement.setInt(1, d);
+		}
+		jdbcStatement.addBatch();
+		expectLastCall().times(data.size());
+
+		// execute pending batch on close
+		expect(jdbcStatement.executeBatch()).andReturn(new int[] { 1, 1 });
+
+		// close statements
+		expect(jdbcStatement.isClosed()).andReturn(false);
+		jdbcStatement.close();
+
+		// close connection
+		jdbcConnection.close();
+
+		// WHEN
+		replayAll();
+		BatchTestContext ctx = new BatchTestContext(txManager, dataSource, BULK_LOAD_SQL, opts,
+				null);
+		ctx.setJdbcBatchSize(10);
+		for ( Integer d : data ) {
+			ctx.load(d);
+		}
+		ctx.close();
+
+		// THEN
+		// @formatter:off
+		then(ctx)
+			.as("Context tracked loaded count equal to given data")
+			.returns((long)data.size(), from(BatchTestContext::getLoadedCount))
+			.as("Context tracked comitted count equal to given data")
+			.returns((long)data.size(), from(BatchTestContext::getCommittedCount))
+			;
+		// @formatter:on
+	}
+
+	@Test
+	public void load_jdbcBatch_rollback() throws Exception {
+		// GIVEN
+		final var opts = new BasicBulkLoadingOptions(null, null, LoadingTransactionMode.NoTransaction,
+				null);
+		final var data = List.of(1, 2);
+
+		// get the DB connection, enable auto-commit
+		expect(dataSource.getConnection()).andReturn(jdbcConnection);
+		jdbcConnection.setAutoCommit(true);
+
+		// prepare the load call
+		expect(jdbcConnection.prepareCall(BULK_LOAD_SQL)).andReturn(jdbcStatement);
+
+		// add each row to batch
+		for ( Integer d : data ) {
+			jdbcStatement.setInt(1, d);
+		}
+		jdbcStatement.addBatch();
+		expectLastCall().times(data.size());
+
+		// discard pending batch on rollback
+		jdbcStatement.clearBatch();
+
+		// close statements
+		expect(jdbcStatement.isClosed()).andReturn(false);
+		jdbcStatement.close();
+
+		// close connection
+		jdbcConnection.close();
+
+		// WHEN
+		replayAll();
+		try (BatchTestContext ctx = new BatchTestContext(txManager, dataSource, BULK_LOAD_SQL, opts,
+				null)) {
+			ctx.setJdbcBatchSize(10);
+			for ( Integer d : data ) {
+				ctx.load(d);
+			}
+			ctx.rollback();
+
+			// THEN
+			// @formatter:off
+			then(ctx)
+				.as("Context loaded count excludes discarded rows")
+				.returns(0L, from(BatchTestContext::getLoadedCount))
+				.as("Context comitted count excludes discarded rows")
+				.returns(0L, from(BatchTestContext::getCommittedCount))
+				.as("Discarded rows reported as failed")
+				.returns(data, from(c -> c.entitiesFailed))
+				;
+			// @formatter:on
+		}
+	}
+
+	@Test
+	public void load_copyHandler() throws Exception {
+		// GIVEN
+		final var opts = new BasicBulkLoadingOptions(null, null, LoadingTransactionMode.NoTransaction,
+				null);
+		final var data = List.of(1, 2, 3);
+
+		// get the DB connection, enable auto-commit
+		expect(dataSource.getConnection()).andReturn(jdbcConnection);
+		jdbcConnection.setAutoCommit(true);
+
+		// close connection
+		jdbcConnection.close();
+
+		// WHEN
+		replayAll();
+		final List<List<Integer>> copied = new ArrayList<>(1);
+		try (BatchTestContext ctx = new BatchTestContext(txManager, dataSource, BULK_LOAD_SQL, opts,
+				null)) {
+			ctx.setJdbcBatchSize(10);
+			ctx.setCopyHandler((con, entities) -> {
+				copied.add(new ArrayList<>(entities));
+				return entities.size();
+			});
+			for ( Integer d : data ) {
+				ctx.load(d);
+			}
+			ctx.commit();
+
+			// THEN
+			// @formatter:off
+			then(ctx)
+				.as("Context tracked loaded count equal to given data")
+				.returns((long)data.size(), from(BatchTestContext::getLoadedCount))
+				.as("Context tracked comitted count equal to given data")
+				.returns((long)data.size(), from(BatchTestContext::getCommittedCount))
+				;
+			then(copied)
+				.as("All data copied in a single batch on commit")
+				.containsExactly(data)
+				;
+			// @formatter:on
+		}
+	}
+
 }
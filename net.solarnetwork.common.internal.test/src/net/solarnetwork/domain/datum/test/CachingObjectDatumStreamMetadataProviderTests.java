@@ -0,0 +1,304 @@
+/* ==================================================================
+ * CachingObjectDatumStreamMetadataProviderTests.java - 17/10/2026 7:48:31 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.domain.datum.test;
+
+import static java.util.Arrays.asList;
+import static org.easymock.EasyMock.expect;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import net.solarnetwork.domain.datum.BasicObjectDatumStreamMetadata;
+import net.solarnetwork.domain.datum.CachingObjectDatumStreamMetadataProvider;
+import net.solarnetwork.domain.datum.CachingObjectDatumStreamMetadataProvider.Stats;
+import net.solarnetwork.domain.datum.ObjectDatumKind;
+import net.solarnetwork.domain.datum.ObjectDatumStreamIdentity;
+import net.solarnetwork.domain.datum.ObjectDatumStreamMetadata;
+import net.solarnetwork.domain.datum.ObjectDatumStreamMetadataProvider;
+import net.solarnetwork.util.StatTracker;
+
+/**
+ * Test cases for the {@link CachingObjectDatumStreamMetadataProvider} class.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class CachingObjectDatumStreamMetadataProviderTests {
+
+	private static final class MutableClock extends Clock {
+
+		private Instant instant = Instant.parse("2026-10-17T00:00:00Z");
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return instant;
+		}
+
+		private void advance(Duration d) {
+			instant = instant.plus(d);
+		}
+
+	}
+
+	private ObjectDatumStreamMetadataProvider delegate;
+	private MutableClock clock;
+	private StatTracker stats;
+	private CachingObjectDatumStreamMetadataProvider provider;
+
+	@Before
+	public void setup() {
+		delegate = EasyMock.createMock(ObjectDatumStreamMetadataProvider.class);
+		clock = new MutableClock();
+		stats = new StatTracker("Test", null, null, 1);
+		provider = new CachingObjectDatumStreamMetadataProvider(delegate, clock);
+		provider.setStats(stats);
+	}
+
+	@After
+	public void teardown() {
+		EasyMock.verify(delegate);
+	}
+
+	private void replayAll() {
+		EasyMock.replay(delegate);
+	}
+
+	private static ObjectDatumStreamMetadata meta(Long objectId, String sourceId) {
+		return new BasicObjectDatumStreamMetadata(UUID.randomUUID(), "UTC", ObjectDatumKind.Node,
+				objectId, sourceId, new String[] { "watts" }, null, null);
+	}
+
+	@Test
+	public void objectSource_hit() {
+		// GIVEN
+		ObjectDatumStreamMetadata meta = meta(1L, "a");
+		expect(delegate.metadataForObjectSource(1L, "a")).andReturn(meta);
+
+		// WHEN
+		replayAll();
+		ObjectDatumStreamMetadata result1 = provider.metadataForObjectSource(1L, "a");
+		ObjectDatumStreamMetadata result2 = provider.metadataForObjectSource(1L, "a");
+		ObjectDatumStreamMetadata result3 = provider.metadataForStreamId(meta.getStreamId());
+
+		// THEN
+		assertThat("Metadata resolved from delegate", result1, is(sameInstance(meta)));
+		assertThat("Metadata resolved from cache", result2, is(sameInstance(meta)));
+		assertThat("Metadata resolved from cache by stream ID", result3, is(sameInstance(meta)));
+		assertThat("Miss count", stats.get(Stats.Misses), is(equalTo(1L)));
+		assertThat("Hit count", stats.get(Stats.Hits), is(equalTo(2L)));
+	}
+
+	@Test
+	public void streamId_hit() {
+		// GIVEN
+		ObjectDatumStreamMetadata meta = meta(1L, "a");
+		expect(delegate.metadataForStreamId(meta.getStreamId())).andReturn(meta);
+
+		// WHEN
+		replayAll();
+		ObjectDatumStreamMetadata result1 = provider.metadataForStreamId(meta.getStreamId());
+		ObjectDatumStreamMetadata result2 = provider.metadataForObjectSource(1L, "a");
+
+		// THEN
+		assertThat("Metadata resolved from delegate", result1, is(sameInstance(meta)));
+		assertThat("Metadata resolved from cache by object source", result2,
+				is(sameInstance(meta)));
+		assertThat("Hit count", stats.get(Stats.Hits), is(equalTo(1L)));
+	}
+
+	@Test
+	public void negative() {
+		// GIVEN
+		expect(delegate.metadataForObjectSource(1L, "a")).andReturn(null);
+
+		// WHEN
+		replayAll();
+		ObjectDatumStreamMetadata result1 = provider.metadataForObjectSource(1L, "a");
+		ObjectDatumStreamMetadata result2 = provider.metadataForObjectSource(1L, "a");
+
+		// THEN
+		assertThat("Not found from delegate", result1, is(nullValue()));
+		assertThat("Not found from cache", result2, is(nullValue()));
+		assertThat("Negative hit count", stats.get(Stats.NegativeHits), is(equalTo(1L)));
+	}
+
+	@Test
+	public void negative_disabled() {
+		// GIVEN
+		provider.setNegativeTimeToLive(Duration.ZERO);
+		expect(delegate.metadataForObjectSource(1L, "a")).andReturn(null).times(2);
+
+		// WHEN
+		replayAll();
+		provider.metadataForObjectSource(1L, "a");
+		provider.metadataForObjectSource(1L, "a");
+
+		// THEN
+		assertThat("Nothing cached", provider.getSize(), is(equalTo(0)));
+	}
+
+	@Test
+	public void expire() {
+		// GIVEN
+		ObjectDatumStreamMetadata meta = meta(1L, "a");
+		expect(delegate.metadataForObjectSource(1L, "a")).andReturn(meta).times(2);
+
+		// WHEN
+		replayAll();
+		provider.metadataForObjectSource(1L, "a");
+		clock.advance(provider.getTimeToLive());
+		ObjectDatumStreamMetadata result = provider.metadataForObjectSource(1L, "a");
+
+		// THEN
+		assertThat("Metadata resolved again from delegate", result, is(sameInstance(meta)));
+		assertThat("Expiration count", stats.get(Stats.Expirations), is(equalTo(1L)));
+		assertThat("Single result cached", provider.getSize(), is(equalTo(1)));
+	}
+
+	@Test
+	public void evict() {
+		// GIVEN
+		provider.setMaximumSize(2);
+		ObjectDatumStreamMetadata meta1 = meta(1L, "a");
+		ObjectDatumStreamMetadata meta2 = meta(1L, "b");
+		ObjectDatumStreamMetadata meta3 = meta(2L, "a");
+		expect(delegate.metadataForObjectSource(1L, "a")).andReturn(meta1).times(2);
+		expect(delegate.metadataForObjectSource(1L, "b")).andReturn(meta2);
+		expect(delegate.metadataForObjectSource(2L, "a")).andReturn(meta3);
+
+		// WHEN
+		replayAll();
+		provider.metadataForObjectSource(1L, "a");
+		provider.metadataForObjectSource(1L, "b");
+		provider.metadataForObjectSource(2L, "a");
+		ObjectDatumStreamMetadata result2 = provider.metadataForObjectSource(1L, "b");
+		ObjectDatumStreamMetadata result3 = provider.metadataForObjectSource(2L, "a");
+		ObjectDatumStreamMetadata result1 = provider.metadataForObjectSource(1L, "a");
+
+		// THEN
+		assertThat("Newer metadata still cached", result2, is(sameInstance(meta2)));
+		assertThat("Newer metadata still cached", result3, is(sameInstance(meta3)));
+		assertThat("Evicted metadata resolved again from delegate", result1,
+				is(sameInstance(meta1)));
+		assertThat("Eviction count", stats.get(Stats.Evictions), is(equalTo(2L)));
+		assertThat("Cache size limited", provider.getSize(), is(equalTo(2)));
+	}
+
+	@Test
+	public void manyObjects() {
+		// GIVEN
+		final int count = 500;
+		ObjectDatumStreamMetadata[] metas = new ObjectDatumStreamMetadata[count];
+		for ( int i = 0; i < count; i++ ) {
+			metas[i] = meta((long) i, "a");
+			expect(delegate.metadataForObjectSource((long) i, "a")).andReturn(metas[i]);
+		}
+
+		// WHEN
+		replayAll();
+		for ( int i = 0; i < count; i++ ) {
+			provider.metadataForObjectSource((long) i, "a");
+		}
+
+		// THEN
+		for ( int i = 0; i < count; i++ ) {
+			assertThat("Cached metadata " + i, provider.metadataForObjectSource((long) i, "a"),
+					is(sameInstance(metas[i])));
+		}
+		assertThat("Hit count", stats.get(Stats.Hits), is(equalTo((long) count)));
+	}
+
+	@Test
+	public void preload() {
+		// GIVEN
+		ObjectDatumStreamMetadata meta1 = meta(1L, "a");
+		ObjectDatumStreamMetadata meta2 = meta(2L, "b");
+		ObjectDatumStreamMetadata meta3 = meta(3L, "c");
+		ObjectDatumStreamIdentity ident2 = EasyMock.createMock(ObjectDatumStreamIdentity.class);
+		expect(ident2.getStreamId()).andReturn(meta2.getStreamId()).anyTimes();
+		ObjectDatumStreamIdentity ident3 = EasyMock.createMock(ObjectDatumStreamIdentity.class);
+		expect(ident3.getStreamId()).andReturn(meta3.getStreamId()).anyTimes();
+		expect(ident3.getObjectId()).andReturn(3L).anyTimes();
+		expect(ident3.getSourceId()).andReturn("c").anyTimes();
+
+		expect(delegate.metadataForStreamId(meta2.getStreamId())).andReturn(meta2);
+		expect(delegate.metadataForStreamId(meta3.getStreamId())).andReturn(null);
+
+		// WHEN
+		replayAll();
+		EasyMock.replay(ident2, ident3);
+		int result = provider.preload(asList(meta1, ident2, ident3));
+
+		// THEN
+		assertThat("Preload count", result, is(equalTo(2)));
+		assertThat("Preloaded metadata cached", provider.metadataForObjectSource(1L, "a"),
+				is(sameInstance(meta1)));
+		assertThat("Resolved metadata cached", provider.metadataForObjectSource(2L, "b"),
+				is(sameInstance(meta2)));
+		assertThat("Not found cached by object source", provider.metadataForObjectSource(3L, "c"),
+				is(nullValue()));
+		assertThat("Not found cached by stream", provider.metadataForStreamId(meta3.getStreamId()),
+				is(nullValue()));
+		assertThat("Preloads count", stats.get(Stats.Preloads), is(equalTo(4L)));
+		assertThat("Miss count", stats.get(Stats.Misses), is(equalTo(0L)));
+		EasyMock.verify(ident2, ident3);
+	}
+
+	@Test
+	public void invalidateAll() {
+		// GIVEN
+		ObjectDatumStreamMetadata meta = meta(1L, "a");
+		expect(delegate.metadataForObjectSource(1L, "a")).andReturn(meta).times(2);
+
+		// WHEN
+		replayAll();
+		provider.metadataForObjectSource(1L, "a");
+		provider.invalidateAll();
+		ObjectDatumStreamMetadata result = provider.metadataForObjectSource(1L, "a");
+
+		// THEN
+		assertThat("Metadata resolved again from delegate", result, is(sameInstance(meta)));
+	}
+
+}
@@ -0,0 +1,195 @@
+/* ==================================================================
+ * CompactDatumPropertiesTests.java - 16/10/2026 11:31:40 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.domain.datum.test;
+
+import static net.solarnetwork.util.NumberUtils.decimalArray;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import org.junit.Test;
+import net.solarnetwork.domain.datum.CompactDatumProperties;
+import net.solarnetwork.domain.datum.DatumProperties;
+import net.solarnetwork.domain.datum.DatumSamplesType;
+
+/**
+ * Test cases for the {@link CompactDatumProperties} class.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class CompactDatumPropertiesTests {
+
+	@Test
+	public void length_null() {
+		CompactDatumProperties p = new CompactDatumProperties();
+
+		assertThat("Null instantaneous length is 0", p.getInstantaneousLength(), equalTo(0));
+		assertThat("Null accumulating length is 0", p.getAccumulatingLength(), equalTo(0));
+		assertThat("Null instantaneous", p.getInstantaneous(), is(nullValue()));
+		assertThat("Null accumulating", p.getAccumulating(), is(nullValue()));
+		assertThat("Total length is 0", p.getLength(), equalTo(0));
+		assertThat("Is empty", p.isEmpty(), equalTo(true));
+	}
+
+	@Test
+	public void copy() {
+		// GIVEN
+		DatumProperties p = DatumProperties.propertiesOf(decimalArray("1.23", null, "-4"),
+				decimalArray("1000.001"), new String[] { "a" }, new String[] { "t" });
+
+		// WHEN
+		CompactDatumProperties c = new CompactDatumProperties(p);
+
+		// THEN
+		assertThat("Fully compact", c.isFullyCompact(), equalTo(true));
+		assertThat("Instantaneous length", c.getInstantaneousLength(), equalTo(3));
+		assertThat("Accumulating length", c.getAccumulatingLength(), equalTo(1));
+		assertThat("Instantaneous values", c.getInstantaneous(),
+				is(arrayContaining(decimalArray("1.23", null, "-4"))));
+		assertThat("Accumulating values", c.getAccumulating(),
+				is(arrayContaining(decimalArray("1000.001"))));
+		assertThat("Status values", c.getStatus(), is(arrayContaining("a")));
+		assertThat("Tag values", c.getTags(), is(arrayContaining("t")));
+		assertThat("Equal to original", c, is(equalTo(p)));
+		assertThat("Original equal to compact", p, is(equalTo(c)));
+		assertThat("Same hash code", c.hashCode(), is(equalTo(p.hashCode())));
+		assertThat("Same string", c.toString(), is(equalTo(p.toString())));
+	}
+
+	@Test
+	public void values_byIndex() {
+		// GIVEN
+		CompactDatumProperties c = new CompactDatumProperties();
+		c.setInstantaneous(decimalArray("1.0", null));
+		c.setAccumulating(decimalArray("2.50"));
+
+		// THEN
+		assertThat("Instantaneous 0 keeps scale", c.instantaneousValue(0),
+				is(equalTo(new BigDecimal("1.0"))));
+		assertThat("Instantaneous 1 null", c.instantaneousValue(1), is(nullValue()));
+		assertThat("Instantaneous 2 out of range", c.instantaneousValue(2), is(nullValue()));
+		assertThat("Accumulating 0 keeps scale", c.accumulatingValue(0),
+				is(equalTo(new BigDecimal("2.50"))));
+		assertThat("Accumulating 1 out of range", c.accumulatingValue(1), is(nullValue()));
+		assertThat("Value by type", c.value(DatumSamplesType.Accumulating, 0),
+				is(equalTo(new BigDecimal("2.50"))));
+	}
+
+	@Test
+	public void values_extremes() {
+		// GIVEN
+		BigDecimal[] vals = decimalArray("9223372036854775807", "-9223372036854775808", "1E+127",
+				"1E-127", "0");
+
+		// WHEN
+		CompactDatumProperties c = new CompactDatumProperties();
+		c.setInstantaneous(vals);
+
+		// THEN
+		assertThat("Fully compact", c.isFullyCompact(), equalTo(true));
+		assertThat("Values decoded", c.getInstantaneous(), is(arrayContaining(vals)));
+	}
+
+	@Test
+	public void values_fallback() {
+		// GIVEN
+		BigDecimal[] vals = decimalArray("1.1", "9223372036854775808");
+		BigDecimal[] vals2 = decimalArray("1E-200");
+
+		// WHEN
+		CompactDatumProperties c = new CompactDatumProperties();
+		c.setInstantaneous(vals);
+		c.setAccumulating(vals2);
+
+		// THEN
+		assertThat("Not fully compact", c.isFullyCompact(), equalTo(false));
+		assertThat("Instantaneous values", c.getInstantaneous(), is(arrayContaining(vals)));
+		assertThat("Accumulating values", c.getAccumulating(), is(arrayContaining(vals2)));
+		assertThat("Instantaneous value", c.instantaneousValue(1),
+				is(equalTo(new BigDecimal("9223372036854775808"))));
+	}
+
+	@Test
+	public void returnedArrayIsCopy() {
+		// GIVEN
+		CompactDatumProperties c = new CompactDatumProperties();
+		c.setInstantaneous(decimalArray("1"));
+
+		// WHEN
+		BigDecimal[] vals = c.getInstantaneous();
+		vals[0] = BigDecimal.TEN;
+
+		// THEN
+		assertThat("Returned array is a copy", c.getInstantaneous(), is(not(sameInstance(vals))));
+		assertThat("Stored value unchanged", c.instantaneousValue(0), is(equalTo(BigDecimal.ONE)));
+	}
+
+	@Test
+	public void compactProperties() {
+		// GIVEN
+		DatumProperties p = DatumProperties.propertiesOf(decimalArray("1"), null, null, null);
+
+		// WHEN
+		CompactDatumProperties c = CompactDatumProperties.compactProperties(p);
+
+		// THEN
+		assertThat("Compact copy created", c, is(equalTo(p)));
+		assertThat("Compact instance returned as-is", CompactDatumProperties.compactProperties(c),
+				is(sameInstance(c)));
+		assertThat("Null returned as null", CompactDatumProperties.compactProperties(null),
+				is(nullValue()));
+	}
+
+	@Test
+	public void serialize() throws IOException, ClassNotFoundException {
+		// GIVEN
+		CompactDatumProperties c = new CompactDatumProperties(DatumProperties.propertiesOf(
+				decimalArray("1.23", null), decimalArray("12345678901234567890.1"),
+				new String[] { "a" }, null));
+
+		// WHEN
+		ByteArrayOutputStream byos = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(byos)) {
+			out.writeObject(c);
+		}
+		Object result;
+		try (ObjectInputStream in = new ObjectInputStream(
+				new ByteArrayInputStream(byos.toByteArray()))) {
+			result = in.readObject();
+		}
+
+		// THEN
+		assertThat("Deserialized equal", result, is(equalTo(c)));
+	}
+
+}
@@ -50,7 +50,7 @@ import net.solarnetwork.domain.datum.DatumSamples;
  * Test cases for the {@link DatumSamples} class.
  *
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class DatumSamplesTests {
 
@@ -71,9 +71,18 @@ public class DatumSamplesTests {
 		objectMapper.configure(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS, true);
 	}
 
+	/**
+	 * Create a new samples instance to test.
+	 *
+	 * @return the new instance
+	 */
+	protected DatumSamples createSamples() {
+		return new DatumSamples();
+	}
+
 	@Test
 	public void createSampleValueInstantaneous() {
-		DatumSamples s = new DatumSamples();
+		DatumSamples s = createSamples();
 		s.putSampleValue(Instantaneous, WATTS_PROP, TEST_WATTS);
 		assertThat(s.getI().keySet(), hasSize(1));
 		assertThat(s.getI(), hasEntry(WATTS_PROP, (Number) TEST_WATTS));
@@ -81,27 +90,27 @@ public class DatumSamplesTests {
 
 	@Test
 	public void getNonExistingFirstSampleValueInstantaneous() {
-		DatumSamples s = new DatumSamples();
+		DatumSamples s = createSamples();
 		assertThat(s.getSampleInteger(Instantaneous, WATTS_PROP), nullValue());
 	}
 
 	@Test
 	public void getNonExistingSampleValueInstantaneous() {
-		DatumSamples s = new DatumSamples();
+		DatumSamples s = createSamples();
 		s.putSampleValue(Instantaneous, WATTS_PROP, TEST_WATTS);
 		assertThat(s.getSampleInteger(Instantaneous, "foo"), nullValue());
 	}
 
 	@Test
 	public void getSampleValueInstantaneous() {
-		DatumSamples s = new DatumSamples();
+		DatumSamples s = createSamples();
 		s.putSampleValue(Instantaneous, WATTS_PROP, TEST_WATTS);
 		assertThat(s.getSampleInteger(Instantaneous, WATTS_PROP), equalTo(TEST_WATTS));
 	}
 
 	@Test
 	public void replaceSampleValueInstantaneous() {
-		DatumSamples s = new DatumSamples();
+		DatumSamples s = createSamples();
 		s.putSampleValue(Instantaneous, WATTS_PROP, TEST_WATTS);
 		s.putSampleValue(Instantaneous, WATTS_PROP, 1);
 		assertThat(s.getI().keySet(), hasSize(1));
@@ -110,7 +119,7 @@ public class DatumSamplesTests {
 
 	@Test
 	public void addSampleValueInstantaneous() {
-		DatumSamples s = new DatumSamples();
+		DatumSamples s = createSamples();
 		s.putSampleValue(Instantaneous, WATTS_PROP, TEST_WATTS);
 		s.putSampleValue(Instantaneous, "foo", 1);
 		assertThat(s.getI().keySet(), hasSize(2));
@@ -120,7 +129,7 @@ public class DatumSamplesTests {
 
 	@Test
 	public void removeSampleValueInstantaneous() {
-		DatumSamples s = new DatumSamples();
+		DatumSamples s = createSamples();
 		s.putSampleValue(Instantaneous, WATTS_PROP, TEST_WATTS);
 		s.putSampleValue(Instantaneous, WATTS_PROP, null);
 		assertThat(s.getI().keySet(), hasSize(0));
@@ -128,14 +137,14 @@ public class DatumSamplesTests {
 
 	@Test
 	public void removeNonExistingFirstSampleValueInstantaneous() {
-		DatumSamples s = new DatumSamples();
+		DatumSamples s = createSamples();
 		s.putSampleValue(Instantaneous, WATTS_PROP, null);
 		assertThat(s.getI(), nullValue());
 	}
 
 	@Test
 	public void removeNonExistingSampleValueInstantaneous() {
-		DatumSamples s = new DatumSamples();
+		DatumSamples s = createSamples();
 		s.putSampleValue(Instantaneous, WATTS_PROP, TEST_WATTS);
 		s.putSampleValue(Instantaneous, "foo", null);
 		assertThat(s.getI().keySet(), hasSize(1));
@@ -144,7 +153,7 @@ public class DatumSamplesTests {
 
 	@Test
 	public void createSampleValueAccumulating() {
-		DatumSamples s = new DatumSamples();
+		DatumSamples s = createSamples();
 		s.putSampleValue(Accumulating, WATT_HOURS_PROP, TEST_WATT_HOURS);
 		assertThat(s.getA().keySet(), hasSize(1));
 		assertThat(s.getA(), hasEntry(WATT_HOURS_PROP, (Number) TEST_WATT_HOURS));
@@ -152,27 +161,27 @@ public class DatumSamplesTests {
 
 	@Test
 	public void getNonExistingFirstSampleValueAccumulating() {
-		DatumSamples s = new DatumSamples();
+		DatumSamples s = createSamples();
 		assertThat(s.getSampleLong(Accumulating, WATT_HOURS_PROP), nullValue());
 	}
 
 	@Test
 	public void getNonExistingSampleValueAccumulating() {
-		DatumSamples s = new DatumSamples();
+		DatumSamples s = createSamples();
 		s.putSampleValue(Accumulating, WATT_HOURS_PROP, TEST_WATT_HOURS);
 		assertThat(s.getSampleLong(Accumulating, "foo"), nullValue());
 	}
 
 	@Test
 	public void getSampleValueAccumulating() {
-		DatumSamples s = new DatumSamples();
+		DatumSamples s = createSamples();
 		s.putSampleValue(Accumulating, WATT_HOURS_PROP, TEST_WATT_HOURS);
 		assertThat(s.getSampleLong(Accumulating, WATT_HOURS_PROP), equalTo(TEST_WATT_HOURS));
 	}
 
 	@Test
 	public void replaceSampleValueAccumulating() {
-		DatumSamples s = new DatumSamples();
+		DatumSamples s = createSamples();
 		s.putSampleValue(Accumulating, WATT_HOURS_PROP, TEST_WATT_HOURS);
 		s.putSampleValue(Accumulating, WATT_HOURS_PROP, 1);
 		assertThat(s.getA().keySet(), hasSize(1));
@@ -181,7 +190,7 @@ public class DatumSamplesTests {
 
 	@Test
 	public void addSampleValueAccumulating() {
-		DatumSamples s = new DatumSamples();
+		DatumSamples s = createSamples();
 		s.putSampleValue(Accumulating, WATT_HOURS_PROP, TEST_WATT_HOURS);
 		s.putSampleValue(Accumulating, "foo", 1);
 		assertThat(s.getA().keySet(), hasSize(2));
@@ -191,7 +200,7 @@ public class DatumSamplesTests {
 
 	@Test
 	public void removeSampleValueAccumulating() {
-		DatumSamples s = new DatumSamples();
+		DatumSamples s = createSamples();
 		s.putSampleValue(Accumulating, WATT_HOURS_PROP, TEST_WATT_HOURS);
 		s.putSampleValue(Accumulating, WATT_HOURS_PROP, null);
 		assertThat(s.getA().keySet(), hasSize(0));
@@ -199,14 +208,14 @@ public class DatumSamplesTests {
 
 	@Test
 	public void removeNonExistingFirstSampleValueAccumulating() {
-		DatumSamples s = new DatumSamples();
+		DatumSamples s = createSamples();
 		s.putSampleValue(Accumulating, WATT_HOURS_PROP, null);
 		assertThat(s.getA(), nullValue());
 	}
 
 	@Test
 	public void removeNonExistingSampleValueAccumulating() {
-		DatumSamples s = new DatumSamples();
+		DatumSamples s = createSamples();
 		s.putSampleValue(Accumulating, WATT_HOURS_PROP, TEST_WATT_HOURS);
 		s.putSampleValue(Accumulating, "foo", null);
 		assertThat(s.getA().keySet(), hasSize(1));
@@ -215,7 +224,7 @@ public class DatumSamplesTests {
 
 	@Test
 	public void createSampleValueStatus() {
-		DatumSamples s = new DatumSamples();
+		DatumSamples s = createSamples();
 		s.putSampleValue(Status, MSG_PROP, TEST_MSG);
 		assertThat(s.getS().keySet(), hasSize(1));
 		assertThat(s.getS(), hasEntry(MSG_PROP, (Object) TEST_MSG));
@@ -223,27 +232,27 @@ public class DatumSamplesTests {
 
 	@Test
 	public void getNonExistingFirstSampleValueStatus() {
-		DatumSamples s = new DatumSamples();
+		DatumSamples s = createSamples();
 		assertThat(s.getSampleString(Status, MSG_PROP), nullValue());
 	}
 
 	@Test
 	public void getNonExistingSampleValueStatus() {
-		DatumSamples s = new DatumSamples();
+		DatumSamples s = createSamples();
 		s.putSampleValue(Status, MSG_PROP, TEST_MSG);
 		assertThat(s.getSampleString(Status, "foo"), nullValue());
 	}
 
 	@Test
 	public void getSampleValueStatus() {
-		DatumSamples s = new DatumSamples();
+		DatumSamples s = createSamples();
 		s.putSampleValue(Status, MSG_PROP, TEST_MSG);
 		assertThat(s.getSampleString(Status, MSG_PROP), equalTo(TEST_MSG));
 	}
 
 	@Test
 	public void replaceSampleValueStatus() {
-		DatumSamples s = new DatumSamples();
+		DatumSamples s = createSamples();
 		s.putSampleValue(Status, MSG_PROP, TEST_MSG);
 		s.putSampleValue(Status, MSG_PROP, "bar");
 		assertThat(s.getS().keySet(), hasSize(1));
@@ -252,7 +261,7 @@ public class DatumSamplesTests {
 
 	@Test
 	public void addSampleValueStatus() {
-		DatumSamples s = new DatumSamples();
+		DatumSamples s = createSamples();
 		s.putSampleValue(Status, MSG_PROP, TEST_MSG);
 		s.putSampleValue(Status, "foo", "bar");
 		assertThat(s.getS().keySet(), hasSize(2));
@@ -262,7 +271,7 @@ public class DatumSamplesTests {
 
 	@Test
 	public void removeSampleValueStatus() {
-		DatumSamples s = new DatumSamples();
+		DatumSamples s = createSamples();
 		s.putSampleValue(Status, MSG_PROP, TEST_MSG);
 		s.putSampleValue(Status, MSG_PROP, null);
 		assertThat(s.getS().keySet(), hasSize(0));
@@ -270,14 +279,14 @@ public class DatumSamplesTests {
 
 	@Test
 	public void removeNonExistingFirstSampleValueStatus() {
-		DatumSamples s = new DatumSamples();
+		DatumSamples s = createSamples();
 		s.putSampleValue(Status, MSG_PROP, null);
 		assertThat(s.getS(), nullValue());
 	}
 
 	@Test
 	public void removeNonExistingSampleValueStatus() {
-		DatumSamples s = new DatumSamples();
+		DatumSamples s = createSamples();
 		s.putSampleValue(Status, MSG_PROP, TEST_MSG);
 		s.putSampleValue(Status, "foo", null);
 		assertThat(s.getS().keySet(), hasSize(1));
@@ -286,7 +295,7 @@ public class DatumSamplesTests {
 
 	@Test
 	public void createSampleValueTag() {
-		DatumSamples s = new DatumSamples();
+		DatumSamples s = createSamples();
 		s.putSampleValue(Tag, TEST_TAG, TEST_TAG);
 		assertThat(s.getT(), hasSize(1));
 		assertThat(s.getT(), contains(TEST_TAG));
@@ -294,7 +303,7 @@ public class DatumSamplesTests {
 
 	@Test
 	public void setSampleDataTag() {
-		DatumSamples s = new DatumSamples();
+		DatumSamples s = createSamples();
 		s.setSampleData(Tag, Collections.singletonMap(TEST_TAG, TEST_TAG));
 		assertThat(s.getTags(), hasSize(1));
 		assertThat(s.getTags(), containsInAnyOrder(TEST_TAG));
@@ -302,27 +311,27 @@ public class DatumSamplesTests {
 
 	@Test
 	public void getNonExistingFirstSampleValueTag() {
-		DatumSamples s = new DatumSamples();
+		DatumSamples s = createSamples();
 		assertThat(s.getSampleString(Tag, TEST_TAG), nullValue());
 	}
 
 	@Test
 	public void getNonExistingSampleValueTag() {
-		DatumSamples s = new DatumSamples();
+		DatumSamples s = createSamples();
 		s.putSampleValue(Tag, TEST_TAG, TEST_TAG);
 		assertThat(s.getSampleString(Tag, "foo"), nullValue());
 	}
 
 	@Test
 	public void getSampleValueTag() {
-		DatumSamples s = new DatumSamples();
+		DatumSamples s = createSamples();
 		s.putSampleValue(Tag, TEST_TAG, TEST_TAG);
 		assertThat(s.getSampleString(Tag, TEST_TAG), equalTo(TEST_TAG));
 	}
 
 	@Test
 	public void replaceSampleValueTag() {
-		DatumSamples s = new DatumSamples();
+		DatumSamples s = createSamples();
 		s.putSampleValue(Tag, TEST_TAG, TEST_TAG);
 		s.putSampleValue(Tag, TEST_TAG, "bar");
 		assertThat(s.getT(), hasSize(1));
@@ -331,7 +340,7 @@ public class DatumSamplesTests {
 
 	@Test
 	public void addSampleValueTag() {
-		DatumSamples s = new DatumSamples();
+		DatumSamples s = createSamples();
 		s.putSampleValue(Tag, TEST_TAG, TEST_TAG);
 		s.putSampleValue(Tag, "foo", "foo");
 		assertThat(s.getT(), hasSize(2));
@@ -340,7 +349,7 @@ public class DatumSamplesTests {
 
 	@Test
 	public void removeSampleValueTag() {
-		DatumSamples s = new DatumSamples();
+		DatumSamples s = createSamples();
 		s.putSampleValue(Tag, TEST_TAG, TEST_TAG);
 		s.putSampleValue(Tag, TEST_TAG, null);
 		assertThat(s.getT(), hasSize(0));
@@ -348,14 +357,14 @@ public class DatumSamplesTests {
 
 	@Test
 	public void removeNonExistingFirstSampleValueTag() {
-		DatumSamples s = new DatumSamples();
+		DatumSamples s = createSamples();
 		s.putSampleValue(Tag, TEST_TAG, null);
 		assertThat(s.getT(), nullValue());
 	}
 
 	@Test
 	public void removeNonExistingSampleValueTag() {
-		DatumSamples s = new DatumSamples();
+		DatumSamples s = createSamples();
 		s.putSampleValue(Tag, TEST_TAG, TEST_TAG);
 		s.putSampleValue(Tag, "foo", null);
 		assertThat(s.getT(), hasSize(1));
@@ -363,7 +372,7 @@ public class DatumSamplesTests {
 	}
 
 	private DatumSamples getTestInstance() {
-		DatumSamples samples = new DatumSamples();
+		DatumSamples samples = createSamples();
 
 		Map<String, Number> instants = new HashMap<String, Number>(2);
 		instants.put("watts", 231);
@@ -406,7 +415,7 @@ public class DatumSamplesTests {
 		// GIVEN
 		DatumSamples other = getTestInstance();
 
-		DatumSamples samples = new DatumSamples();
+		DatumSamples samples = createSamples();
 		samples.putInstantaneousSampleValue("my_watts", 123);
 		samples.putInstantaneousSampleValue("watts", 234);
 		samples.putAccumulatingSampleValue("watt_hours", 1234);
@@ -434,7 +443,7 @@ public class DatumSamplesTests {
 		// GIVEN
 		DatumSamples other = getTestInstance();
 
-		DatumSamples samples = new DatumSamples();
+		DatumSamples samples = createSamples();
 		samples.putInstantaneousSampleValue("my_watts", 123);
 		samples.putInstantaneousSampleValue("watts", 234);
 		samples.putAccumulatingSampleValue("watt_hours", 1234);
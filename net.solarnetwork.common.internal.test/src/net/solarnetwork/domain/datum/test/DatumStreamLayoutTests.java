@@ -0,0 +1,199 @@
+/* ==================================================================
+ * DatumStreamLayoutTests.java - 17/10/2026 8:47:21 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.domain.datum.test;
+
+import static net.solarnetwork.util.NumberUtils.decimalArray;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThrows;
+import java.math.BigDecimal;
+import java.util.UUID;
+import org.junit.Test;
+import net.solarnetwork.domain.datum.BasicObjectDatumStreamMetadata;
+import net.solarnetwork.domain.datum.DatumProperties;
+import net.solarnetwork.domain.datum.DatumSamples;
+import net.solarnetwork.domain.datum.DatumSamplesType;
+import net.solarnetwork.domain.datum.DatumStreamLayout;
+import net.solarnetwork.domain.datum.ObjectDatumKind;
+
+/**
+ * Test cases for the {@link DatumStreamLayout} class.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class DatumStreamLayoutTests {
+
+	private BasicObjectDatumStreamMetadata meta() {
+		return new BasicObjectDatumStreamMetadata(UUID.randomUUID(), "Pacific/Auckland",
+				ObjectDatumKind.Node, 123L, "test.source", new String[] { "a", "b", "c" },
+				new String[] { "d", "e" }, new String[] { "f" });
+	}
+
+	@Test
+	public void propertyIndex() {
+		// GIVEN
+		DatumStreamLayout layout = new DatumStreamLayout(meta());
+
+		// THEN
+		assertThat("Instantaneous a", layout.propertyIndex(DatumSamplesType.Instantaneous, "a"),
+				is(equalTo(0)));
+		assertThat("Instantaneous c", layout.propertyIndex(DatumSamplesType.Instantaneous, "c"),
+				is(equalTo(2)));
+		assertThat("Accumulating e", layout.propertyIndex(DatumSamplesType.Accumulating, "e"),
+				is(equalTo(1)));
+		assertThat("Status f", layout.propertyIndex(DatumSamplesType.Status, "f"), is(equalTo(0)));
+		assertThat("Wrong type", layout.propertyIndex(DatumSamplesType.Accumulating, "a"),
+				is(equalTo(-1)));
+		assertThat("Unknown name", layout.propertyIndex(DatumSamplesType.Instantaneous, "z"),
+				is(equalTo(-1)));
+		assertThat("Tag type", layout.propertyIndex(DatumSamplesType.Tag, "a"), is(equalTo(-1)));
+		assertThat("Null type", layout.propertyIndex(null, "a"), is(equalTo(-1)));
+	}
+
+	@Test
+	public void propertyIndex_duplicateName() {
+		// GIVEN
+		BasicObjectDatumStreamMetadata meta = new BasicObjectDatumStreamMetadata(UUID.randomUUID(),
+				"Pacific/Auckland", ObjectDatumKind.Node, 123L, "test.source",
+				new String[] { "a", "b", "a" }, null, null);
+
+		// THEN
+		assertThat("First index of duplicate returned",
+				meta.streamLayout().propertyIndex(DatumSamplesType.Instantaneous, "a"),
+				is(equalTo(0)));
+	}
+
+	@Test
+	public void propertyCount() {
+		// GIVEN
+		DatumStreamLayout layout = new DatumStreamLayout(meta());
+
+		// THEN
+		assertThat("Instantaneous", layout.propertyCount(DatumSamplesType.Instantaneous),
+				is(equalTo(3)));
+		assertThat("Accumulating", layout.propertyCount(DatumSamplesType.Accumulating),
+				is(equalTo(2)));
+		assertThat("Status", layout.propertyCount(DatumSamplesType.Status), is(equalTo(1)));
+		assertThat("Tag", layout.propertyCount(DatumSamplesType.Tag), is(equalTo(0)));
+		assertThat("Names", layout.propertyNamesForType(DatumSamplesType.Accumulating),
+				is(arrayContaining("d", "e")));
+		assertThat("Tag names", layout.propertyNamesForType(DatumSamplesType.Tag), is(nullValue()));
+	}
+
+	@Test
+	public void metadataCachesLayout() {
+		// GIVEN
+		BasicObjectDatumStreamMetadata meta = meta();
+
+		// THEN
+		assertThat("Layout cached", meta.streamLayout(), is(sameInstance(meta.streamLayout())));
+		assertThat("Metadata index uses layout",
+				meta.propertyIndex(DatumSamplesType.Accumulating, "e"), is(equalTo(1)));
+	}
+
+	@Test
+	public void propertiesFrom() {
+		// GIVEN
+		DatumSamples s = new DatumSamples();
+		s.putInstantaneousSampleValue("c", 3);
+		s.putInstantaneousSampleValue("a", 1);
+		s.putAccumulatingSampleValue("d", 4);
+		s.putStatusSampleValue("f", "ok");
+		s.addTag("foo");
+
+		// WHEN
+		DatumProperties p = meta().streamLayout().propertiesFrom(s);
+
+		// THEN
+		assertThat("Instantaneous values mapped with hole", p.getInstantaneous(),
+				is(arrayContaining(decimalArray("1", null, "3"))));
+		assertThat("Accumulating values trimmed", p.getAccumulating(),
+				is(arrayContaining(decimalArray("4"))));
+		assertThat("Status values mapped", p.getStatus(), is(arrayContaining("ok")));
+		assertThat("Tags mapped", p.getTags(), is(arrayContaining("foo")));
+	}
+
+	@Test
+	public void propertiesFrom_unknownProperties() {
+		// GIVEN
+		DatumSamples s = new DatumSamples();
+		s.putInstantaneousSampleValue("a", 1);
+		s.putInstantaneousSampleValue("x", 2);
+		s.putInstantaneousSampleValue("y", 3);
+
+		// WHEN
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> {
+			meta().streamLayout().propertiesFrom(s);
+		});
+
+		// THEN
+		assertThat("Only unknown properties listed", e.getMessage(), containsString("[x, y]"));
+	}
+
+	@Test
+	public void samplesFrom() {
+		// GIVEN
+		DatumProperties p = DatumProperties.propertiesOf(decimalArray("1", null, "3"),
+				decimalArray("4", "5", "6"), new String[] { "ok" }, new String[] { "foo", "bar" });
+
+		// WHEN
+		DatumSamples s = meta().streamLayout().samplesFrom(p);
+
+		// THEN
+		assertThat("Instantaneous a", s.getSampleBigDecimal(DatumSamplesType.Instantaneous, "a"),
+				is(equalTo(new BigDecimal("1"))));
+		assertThat("Instantaneous b missing", s.getSampleData(DatumSamplesType.Instantaneous),
+				not(hasKey("b")));
+		assertThat("Instantaneous c", s.getSampleBigDecimal(DatumSamplesType.Instantaneous, "c"),
+				is(equalTo(new BigDecimal("3"))));
+		assertThat("Accumulating extra value ignored",
+				s.getSampleData(DatumSamplesType.Accumulating).keySet(),
+				containsInAnyOrder("d", "e"));
+		assertThat("Status f", s.getSampleString(DatumSamplesType.Status, "f"), is(equalTo("ok")));
+		assertThat("Tags", s.getTags(), containsInAnyOrder("foo", "bar"));
+	}
+
+	@Test
+	public void roundTrip() {
+		// GIVEN
+		DatumStreamLayout layout = meta().streamLayout();
+		DatumProperties p = DatumProperties.propertiesOf(decimalArray("1.1", "2.2", "3.3"),
+				decimalArray("4", "5"), new String[] { "ok" }, new String[] { "foo" });
+
+		// WHEN
+		DatumProperties result = layout.propertiesFrom(layout.samplesFrom(p));
+
+		// THEN
+		assertThat("Properties round trip", result, is(equalTo(p)));
+	}
+
+}
@@ -0,0 +1,332 @@
+/* ==================================================================
+ * DatumStreamRollupTests.java - 17/10/2026 3:21:56 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.domain.datum.test;
+
+import static java.util.Arrays.asList;
+import static net.solarnetwork.util.NumberUtils.decimalArray;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContaining;
+import static org.hamcrest.Matchers.comparesEqualTo;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThrows;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+import net.solarnetwork.domain.datum.AggregateStreamDatum;
+import net.solarnetwork.domain.datum.Aggregation;
+import net.solarnetwork.domain.datum.BasicObjectDatumStreamMetadata;
+import net.solarnetwork.domain.datum.BasicStreamDatum;
+import net.solarnetwork.domain.datum.DatumProperties;
+import net.solarnetwork.domain.datum.DatumPropertiesStatistics;
+import net.solarnetwork.domain.datum.DatumSamples;
+import net.solarnetwork.domain.datum.DatumStreamRollup;
+import net.solarnetwork.domain.datum.GeneralDatum;
+import net.solarnetwork.domain.datum.ObjectDatumKind;
+import net.solarnetwork.domain.datum.ObjectDatumStreamMetadata;
+import net.solarnetwork.domain.datum.ObjectDatumStreamMetadataProvider;
+import net.solarnetwork.domain.datum.StreamDatum;
+
+/**
+ * Test cases for the {@link DatumStreamRollup} class.
+ *
+ * @author matt
+ * @version 1.1
+ */
+public class DatumStreamRollupTests {
+
+	private static final String TZ = "Pacific/Auckland";
+	private static final Instant START = Instant.parse("2026-10-17T00:00:00Z");
+
+	private static ObjectDatumStreamMetadata meta(String sourceId) {
+		return new BasicObjectDatumStreamMetadata(UUID.randomUUID(), TZ, ObjectDatumKind.Node, 123L,
+				sourceId, new String[] { "watts", "volts" }, new String[] { "wattHours" },
+				new String[] { "msg" });
+	}
+
+	private static StreamDatum datum(ObjectDatumStreamMetadata meta, Instant ts,
+			DatumProperties props) {
+		return new BasicStreamDatum(meta.getStreamId(), ts, props);
+	}
+
+	@Test
+	public void unsupportedAggregation() {
+		assertThrows("None not supported", IllegalArgumentException.class, () -> {
+			new DatumStreamRollup(Aggregation.None);
+		});
+		assertThrows("Hour of day not supported", IllegalArgumentException.class, () -> {
+			new DatumStreamRollup(Aggregation.HourOfDay);
+		});
+	}
+
+	@Test
+	public void periodStart() {
+		// GIVEN
+		ZonedDateTime date = ZonedDateTime.of(2026, 10, 17, 13, 47, 23, 0, ZoneId.of(TZ));
+
+		// THEN
+		assertThat("Minute", DatumStreamRollup.periodStart(Aggregation.Minute, date),
+				is(equalTo(date.withSecond(0))));
+		assertThat("15 minute", DatumStreamRollup.periodStart(Aggregation.FifteenMinute, date),
+				is(equalTo(date.withMinute(45).withSecond(0))));
+		assertThat("Day", DatumStreamRollup.periodStart(Aggregation.Day, date),
+				is(equalTo(ZonedDateTime.of(2026, 10, 17, 0, 0, 0, 0, ZoneId.of(TZ)))));
+		assertThat("Week starts Monday", DatumStreamRollup.periodStart(Aggregation.Week, date),
+				is(equalTo(ZonedDateTime.of(2026, 10, 12, 0, 0, 0, 0, ZoneId.of(TZ)))));
+		assertThat("Month", DatumStreamRollup.periodStart(Aggregation.Month, date),
+				is(equalTo(ZonedDateTime.of(2026, 10, 1, 0, 0, 0, 0, ZoneId.of(TZ)))));
+		assertThat("Next month", DatumStreamRollup.nextPeriodStart(Aggregation.Month,
+				DatumStreamRollup.periodStart(Aggregation.Month, date)),
+				is(equalTo(ZonedDateTime.of(2026, 11, 1, 0, 0, 0, 0, ZoneId.of(TZ)))));
+	}
+
+	@Test
+	public void hour() {
+		// GIVEN
+		ObjectDatumStreamMetadata meta = meta("a");
+		List<StreamDatum> data = asList(
+				datum(meta, START.plusSeconds(600),
+						DatumProperties.propertiesOf(decimalArray("3", "240"), decimalArray("110"),
+								null, null)),
+				datum(meta, START.plusSeconds(300),
+						DatumProperties.propertiesOf(decimalArray("1"), decimalArray("100"),
+								new String[] { "a" }, null)),
+				datum(meta, START.plusSeconds(3300),
+						DatumProperties.propertiesOf(decimalArray("2"), decimalArray("130"),
+								new String[] { "b" }, new String[] { "t" })),
+				datum(meta, START.plusSeconds(4800), DatumProperties
+						.propertiesOf(decimalArray("6"), decimalArray("150"), null, null)));
+
+		// WHEN
+		List<AggregateStreamDatum> result = new DatumStreamRollup(Aggregation.Hour).rollup(data,
+				ObjectDatumStreamMetadataProvider.staticProvider(asList(meta)));
+
+		// THEN
+		assertThat("Two hours produced", result, hasSize(2));
+
+		AggregateStreamDatum h1 = result.get(0);
+		assertThat("Hour 1 stream", h1.getStreamId(), is(equalTo(meta.getStreamId())));
+		assertThat("Hour 1 start", h1.getTimestamp(), is(equalTo(START)));
+		assertThat("Hour 1 end", h1.getEndTimestamp(), is(equalTo(START.plusSeconds(3600))));
+		DatumProperties p = h1.getProperties();
+		assertThat("Watts average", p.instantaneousValue(0), comparesEqualTo(new BigDecimal("2")));
+		assertThat("Volts average", p.instantaneousValue(1), comparesEqualTo(new BigDecimal("240")));
+		assertThat("Watt hours difference", p.accumulatingValue(0),
+				comparesEqualTo(new BigDecimal("30")));
+		assertThat("Latest status", p.getStatus(), is(arrayContaining("b")));
+		assertThat("Latest tags", p.getTags(), is(arrayContaining("t")));
+		DatumPropertiesStatistics s = h1.getStatistics();
+		assertThat("Watts count", s.getInstantaneousCount(0), comparesEqualTo(new BigDecimal("3")));
+		assertThat("Watts min", s.getInstantaneousMinimum(0), comparesEqualTo(new BigDecimal("1")));
+		assertThat("Watts max", s.getInstantaneousMaximum(0), comparesEqualTo(new BigDecimal("3")));
+		assertThat("Volts count", s.getInstantaneousCount(1), comparesEqualTo(new BigDecimal("1")));
+		assertThat("Watt hours start", s.getAccumulatingStart(0),
+				comparesEqualTo(new BigDecimal("100")));
+		assertThat("Watt hours end", s.getAccumulatingEnd(0), comparesEqualTo(new BigDecimal("130")));
+
+		AggregateStreamDatum h2 = result.get(1);
+		assertThat("Hour 2 start", h2.getTimestamp(), is(equalTo(START.plusSeconds(3600))));
+		p = h2.getProperties();
+		assertThat("Watts average", p.instantaneousValue(0), comparesEqualTo(new BigDecimal("6")));
+		assertThat("Volts not available", p.getInstantaneousLength(), is(equalTo(1)));
+		assertThat("Watt hours difference from previous hour end", p.accumulatingValue(0),
+				comparesEqualTo(new BigDecimal("20")));
+		assertThat("No status", p.getStatus(), is(nullValue()));
+		s = h2.getStatistics();
+		assertThat("Watt hours start from previous hour end", s.getAccumulatingStart(0),
+				comparesEqualTo(new BigDecimal("130")));
+		assertThat("Watt hours end", s.getAccumulatingEnd(0),
+				comparesEqualTo(new BigDecimal("150")));
+	}
+
+	@Test
+	public void accumulating_differencesSpanBuckets() {
+		// GIVEN
+		ObjectDatumStreamMetadata meta = meta("a");
+		List<StreamDatum> data = new ArrayList<>();
+		BigDecimal reading = new BigDecimal("1000.5");
+		for ( int i = 0; i < 20; i++ ) {
+			// every 17 minutes, so buckets hold a varying number of readings
+			data.add(datum(meta, START.plusSeconds(i * 1020L), DatumProperties
+					.propertiesOf(null, new BigDecimal[] { reading }, null, null)));
+			reading = reading.add(new BigDecimal(i % 3 + 1).multiply(new BigDecimal("1.25")));
+		}
+		// skip an hour without readings
+		data.add(datum(meta, START.plusSeconds(30000L),
+				DatumProperties.propertiesOf(null, new BigDecimal[] { reading }, null, null)));
+		final BigDecimal first = data.get(0).getProperties().accumulatingValue(0);
+		final BigDecimal last = reading;
+
+		// WHEN
+		List<AggregateStreamDatum> result = new DatumStreamRollup(Aggregation.Hour).rollup(data,
+				ObjectDatumStreamMetadataProvider.staticProvider(asList(meta)));
+
+		// THEN
+		BigDecimal sum = BigDecimal.ZERO;
+		for ( AggregateStreamDatum d : result ) {
+			sum = sum.add(d.getProperties().accumulatingValue(0));
+		}
+		assertThat("Sum of hourly differences is overall difference", sum,
+				comparesEqualTo(last.subtract(first)));
+		assertThat("First hour starts at first reading",
+				result.get(0).getStatistics().getAccumulatingStart(0), comparesEqualTo(first));
+		for ( int i = 1; i < result.size(); i++ ) {
+			assertThat("Hour starts at previous hour end",
+					result.get(i).getStatistics().getAccumulatingStart(0), comparesEqualTo(
+							result.get(i - 1).getStatistics().getAccumulatingEnd(0)));
+		}
+	}
+
+	@Test
+	public void instantaneous_averageScale() {
+		// GIVEN
+		ObjectDatumStreamMetadata meta = meta("a");
+		List<StreamDatum> data = asList(
+				datum(meta, START,
+						DatumProperties.propertiesOf(decimalArray("1"), null, null, null)),
+				datum(meta, START.plusSeconds(60),
+						DatumProperties.propertiesOf(decimalArray("1"), null, null, null)),
+				datum(meta, START.plusSeconds(120),
+						DatumProperties.propertiesOf(decimalArray("2"), null, null, null)));
+
+		// WHEN
+		List<AggregateStreamDatum> result = new DatumStreamRollup(Aggregation.Hour).rollup(data,
+				ObjectDatumStreamMetadataProvider.staticProvider(asList(meta)));
+
+		// THEN
+		assertThat("Average rounded to fixed scale", result.get(0).getProperties()
+				.instantaneousValue(0), is(equalTo(new BigDecimal("1.333333333333"))));
+	}
+
+	@Test
+	public void day_timeZone() {
+		// GIVEN
+		ObjectDatumStreamMetadata meta = meta("a");
+		// 2026-10-18 00:30 in Auckland (UTC+13)
+		Instant ts = Instant.parse("2026-10-17T11:30:00Z");
+		List<StreamDatum> data = asList(
+				datum(meta, ts, DatumProperties.propertiesOf(decimalArray("1"), null, null, null)));
+
+		// WHEN
+		List<AggregateStreamDatum> result = new DatumStreamRollup(Aggregation.Day).rollup(data,
+				ObjectDatumStreamMetadataProvider.staticProvider(asList(meta)));
+
+		// THEN
+		assertThat("One day produced", result, hasSize(1));
+		assertThat("Day start in stream time zone", result.get(0).getTimestamp(),
+				is(equalTo(Instant.parse("2026-10-17T11:00:00Z"))));
+		assertThat("Day end in stream time zone", result.get(0).getEndTimestamp(),
+				is(equalTo(Instant.parse("2026-10-18T11:00:00Z"))));
+	}
+
+	@Test
+	public void multipleStreams() {
+		// GIVEN
+		ObjectDatumStreamMetadata meta1 = meta("a");
+		ObjectDatumStreamMetadata meta2 = meta("b");
+		List<StreamDatum> data = new ArrayList<>();
+		for ( int i = 0; i < 120; i++ ) {
+			ObjectDatumStreamMetadata meta = (i % 2 == 0 ? meta2 : meta1);
+			data.add(datum(meta, START.plusSeconds(i * 60L),
+					DatumProperties.propertiesOf(decimalArray(String.valueOf(i)), null, null, null)));
+		}
+		ForkJoinPool pool = new ForkJoinPool(2);
+
+		// WHEN
+		List<AggregateStreamDatum> result;
+		try {
+			result = new DatumStreamRollup(Aggregation.ThirtyMinute, pool).rollup(data,
+					ObjectDatumStreamMetadataProvider.staticProvider(asList(meta1, meta2)));
+		} finally {
+			pool.shutdown();
+		}
+
+		// THEN
+		List<UUID> streamIds = new ArrayList<>();
+		List<Instant> dates = new ArrayList<>();
+		for ( AggregateStreamDatum d : result ) {
+			streamIds.add(d.getStreamId());
+			dates.add(d.getTimestamp());
+			assertThat("Each period has 15 datum", d.getStatistics().getInstantaneousCount(0),
+					comparesEqualTo(new BigDecimal("15")));
+		}
+		assertThat("Streams in order of appearance", streamIds,
+				contains(meta2.getStreamId(), meta2.getStreamId(), meta2.getStreamId(),
+						meta2.getStreamId(), meta1.getStreamId(), meta1.getStreamId(),
+						meta1.getStreamId(), meta1.getStreamId()));
+		assertThat("Periods in order", dates.subList(0, 4), contains(START, START.plusSeconds(1800),
+				START.plusSeconds(3600), START.plusSeconds(5400)));
+	}
+
+	@Test
+	public void generalDatum() {
+		// GIVEN
+		ObjectDatumStreamMetadata meta = meta("a");
+		DatumSamples s1 = new DatumSamples();
+		s1.putInstantaneousSampleValue("watts", 1);
+		s1.putAccumulatingSampleValue("wattHours", 10);
+		DatumSamples s2 = new DatumSamples();
+		s2.putInstantaneousSampleValue("watts", 3);
+		s2.putAccumulatingSampleValue("wattHours", 15);
+
+		// WHEN
+		List<AggregateStreamDatum> result = new DatumStreamRollup(Aggregation.FiveMinute)
+				.rollupDatum(
+						asList(GeneralDatum.nodeDatum(123L, "a", START, s1),
+								GeneralDatum.nodeDatum(123L, "a", START.plusSeconds(60), s2)),
+						ObjectDatumStreamMetadataProvider.staticProvider(asList(meta)));
+
+		// THEN
+		assertThat("One period produced", result, hasSize(1));
+		assertThat("Stream ID from metadata", result.get(0).getStreamId(),
+				is(equalTo(meta.getStreamId())));
+		assertThat("Watts average", result.get(0).getProperties().instantaneousValue(0),
+				comparesEqualTo(new BigDecimal("2")));
+		assertThat("Watt hours difference", result.get(0).getProperties().accumulatingValue(0),
+				comparesEqualTo(new BigDecimal("5")));
+	}
+
+	@Test
+	public void missingMetadata() {
+		// GIVEN
+		ObjectDatumStreamMetadata meta = meta("a");
+		List<StreamDatum> data = asList(datum(meta, START,
+				DatumProperties.propertiesOf(decimalArray("1"), null, null, null)));
+
+		// THEN
+		assertThrows(IllegalArgumentException.class, () -> {
+			new DatumStreamRollup(Aggregation.Hour).rollup(data,
+					ObjectDatumStreamMetadataProvider.staticProvider(asList(meta("b"))));
+		});
+	}
+
+}
@@ -0,0 +1,215 @@
+/* ==================================================================
+ * SchemaDatumSamplesTests.java - 17/10/2026 1:02:18 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.domain.datum.test;
+
+import static net.solarnetwork.domain.datum.DatumSamplesType.Accumulating;
+import static net.solarnetwork.domain.datum.DatumSamplesType.Instantaneous;
+import static net.solarnetwork.domain.datum.DatumSamplesType.Status;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.Test;
+import net.solarnetwork.domain.datum.BasicObjectDatumStreamMetadata;
+import net.solarnetwork.domain.datum.DatumSamples;
+import net.solarnetwork.domain.datum.DatumSamplesSchema;
+import net.solarnetwork.domain.datum.ObjectDatumKind;
+import net.solarnetwork.domain.datum.SchemaDatumSamples;
+
+/**
+ * Test cases for the {@link SchemaDatumSamples} class.
+ *
+ * <p>
+ * This class runs all {@link DatumSamplesTests} against
+ * {@link SchemaDatumSamples} instances.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class SchemaDatumSamplesTests extends DatumSamplesTests {
+
+	private static DatumSamplesSchema testSchema() {
+		return DatumSamplesSchema.schema(new String[] { "watts", "current" },
+				new String[] { "watt_hours" }, new String[] { "msg" });
+	}
+
+	@Override
+	protected DatumSamples createSamples() {
+		return new SchemaDatumSamples(testSchema());
+	}
+
+	@Test
+	public void schema_interned() {
+		// GIVEN
+		DatumSamplesSchema s1 = testSchema();
+		DatumSamplesSchema s2 = DatumSamplesSchema.schema(new String[] { "watts", "current" },
+				new String[] { "watt_hours" }, new String[] { "msg" });
+
+		// THEN
+		assertThat("Equal schema is same instance", s2, is(sameInstance(s1)));
+		assertThat("Different schema is different instance",
+				DatumSamplesSchema.schema(new String[] { "watts" }, null, null),
+				is(not(sameInstance(s1))));
+	}
+
+	@Test
+	public void schema_fromMetadata() {
+		// GIVEN
+		BasicObjectDatumStreamMetadata meta = new BasicObjectDatumStreamMetadata(UUID.randomUUID(),
+				"Pacific/Auckland", ObjectDatumKind.Node, 123L, "test.source",
+				new String[] { "watts", "current" }, new String[] { "watt_hours" },
+				new String[] { "msg" });
+
+		// THEN
+		assertThat("Metadata schema shared with equivalent schema", DatumSamplesSchema.schema(meta),
+				is(sameInstance(testSchema())));
+	}
+
+	@Test
+	public void schemaValues() {
+		// GIVEN
+		SchemaDatumSamples s = new SchemaDatumSamples(testSchema());
+
+		// WHEN
+		s.putInstantaneousSampleValue("current", 2);
+		s.putInstantaneousSampleValue("watts", 1);
+		s.putAccumulatingSampleValue("watt_hours", 3);
+		s.putStatusSampleValue("msg", "hi");
+
+		// THEN
+		assertThat("Fully compact", s.isFullyCompact(), is(equalTo(true)));
+		assertThat("Instantaneous keys in schema order", s.getInstantaneous().keySet(),
+				contains("watts", "current"));
+		assertThat("Instantaneous value", s.getSampleInteger(Instantaneous, "watts"), is(equalTo(1)));
+		assertThat("Accumulating value", s.getSampleInteger(Accumulating, "watt_hours"),
+				is(equalTo(3)));
+		assertThat("Status value", s.getSampleString(Status, "msg"), is(equalTo("hi")));
+	}
+
+	@Test
+	public void overflowValues() {
+		// GIVEN
+		SchemaDatumSamples s = new SchemaDatumSamples(testSchema());
+		s.putInstantaneousSampleValue("watts", 1);
+
+		// WHEN
+		s.putInstantaneousSampleValue("foo", 2);
+		s.putInstantaneousSampleValue("current", 3);
+
+		// THEN
+		assertThat("Not fully compact", s.isFullyCompact(), is(equalTo(false)));
+		assertThat("Schema keys then overflow keys", s.getInstantaneous().keySet(),
+				contains("watts", "current", "foo"));
+		assertThat("Overflow value", s.getSampleInteger(Instantaneous, "foo"), is(equalTo(2)));
+
+		// WHEN
+		s.putInstantaneousSampleValue("foo", null);
+
+		// THEN
+		assertThat("Fully compact after overflow removed", s.isFullyCompact(), is(equalTo(true)));
+	}
+
+	@Test
+	public void iteratorRemove() {
+		// GIVEN
+		SchemaDatumSamples s = new SchemaDatumSamples(testSchema());
+		s.putInstantaneousSampleValue("watts", 1);
+		s.putInstantaneousSampleValue("current", 2);
+		s.putInstantaneousSampleValue("foo", 3);
+
+		// WHEN
+		for ( Iterator<Map.Entry<String, Number>> itr = s.getInstantaneous().entrySet()
+				.iterator(); itr.hasNext(); ) {
+			Map.Entry<String, Number> e = itr.next();
+			if ( !"current".equals(e.getKey()) ) {
+				itr.remove();
+			}
+		}
+
+		// THEN
+		assertThat("Only current remains", s.getInstantaneous().keySet(), contains("current"));
+		assertThat("Size updated", s.getInstantaneous().size(), is(equalTo(1)));
+	}
+
+	@Test
+	public void copy() {
+		// GIVEN
+		DatumSamples d = new DatumSamples();
+		d.putInstantaneousSampleValue("watts", 1);
+		d.putAccumulatingSampleValue("watt_hours", 2);
+		d.putStatusSampleValue("msg", "hi");
+		d.addTag("foo");
+
+		// WHEN
+		SchemaDatumSamples s = SchemaDatumSamples.schemaSamples(d);
+
+		// THEN
+		assertThat("Schema derived from samples", s.getSchema(), is(sameInstance(DatumSamplesSchema
+				.schema(new String[] { "watts" }, new String[] { "watt_hours" }, new String[] { "msg" }))));
+		assertThat("Fully compact", s.isFullyCompact(), is(equalTo(true)));
+		assertThat("Instantaneous maps equal", s.getInstantaneous(), is(equalTo(d.getInstantaneous())));
+		assertThat("Accumulating maps equal", s.getAccumulating(), is(equalTo(d.getAccumulating())));
+		assertThat("Status maps equal", s.getStatus(), is(equalTo(d.getStatus())));
+		assertThat("Tags equal", s.getTags(), is(equalTo(d.getTags())));
+		assertThat("Samples equal to copy", s, is(equalTo(new SchemaDatumSamples(s.getSchema(), d))));
+	}
+
+	@Test
+	public void serialize() throws IOException, ClassNotFoundException {
+		// GIVEN
+		SchemaDatumSamples s = new SchemaDatumSamples(testSchema());
+		s.putInstantaneousSampleValue("watts", 1);
+		s.putInstantaneousSampleValue("foo", 2);
+		s.putStatusSampleValue("msg", "hi");
+
+		// WHEN
+		ByteArrayOutputStream byos = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(byos)) {
+			out.writeObject(s);
+		}
+		Object result;
+		try (ObjectInputStream in = new ObjectInputStream(
+				new ByteArrayInputStream(byos.toByteArray()))) {
+			result = in.readObject();
+		}
+
+		// THEN
+		assertThat("Deserialized type", result, is(instanceOf(SchemaDatumSamples.class)));
+		assertThat("Deserialized equal", result, is(equalTo(s)));
+		assertThat("Deserialized schema resolved to shared instance",
+				((SchemaDatumSamples) result).getSchema(), is(sameInstance(s.getSchema())));
+	}
+
+}
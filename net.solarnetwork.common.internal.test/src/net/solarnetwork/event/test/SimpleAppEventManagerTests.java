@@ -24,14 +24,19 @@ package net.solarnetwork.event.test;
 
 import static java.util.Collections.singletonMap;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.sameInstance;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -39,12 +44,14 @@ import net.solarnetwork.event.AppEvent;
 import net.solarnetwork.event.AppEventHandler;
 import net.solarnetwork.event.BasicAppEvent;
 import net.solarnetwork.event.SimpleAppEventManager;
+import net.solarnetwork.util.MailboxOverflowPolicy;
+import net.solarnetwork.util.StatTracker;
 
 /**
  * Test cases for the {@link SimpleAppEventManager} class.
  * 
  * @author matt
- * @version 1.0
+ * @version 1.2
  */
 public class SimpleAppEventManagerTests {
 
@@ -141,4 +148,289 @@ public class SimpleAppEventManagerTests {
 		assertThat("Event same instance in handler 2", events2.get(0), is(sameInstance(evt)));
 	}
 
+	@Test
+	public void postEvent_exactTopic() throws Exception {
+		// GIVEN
+		List<AppEvent> events1 = new ArrayList<>(1);
+		List<AppEvent> events2 = new ArrayList<>(1);
+		manager.registerEventHandler(new CapturingAppEventHandler(events1), "foo/bar");
+		manager.registerEventHandler(new CapturingAppEventHandler(events2), "foo/bar/bam");
+
+		// WHEN
+		AppEvent evt = new BasicAppEvent("foo/bar", singletonMap("foo", "bar"));
+		manager.postEvent(evt);
+
+		// THEN
+		executor.shutdown();
+		executor.awaitTermination(2, TimeUnit.SECONDS);
+
+		assertThat("Event handled by exact topic handler", events1, contains(sameInstance(evt)));
+		assertThat("No event handled by other topic handler", events2, hasSize(0));
+	}
+
+	@Test
+	public void postEvent_registerAfterCached() throws Exception {
+		// GIVEN
+		List<AppEvent> events1 = Collections.synchronizedList(new ArrayList<>(2));
+		List<AppEvent> events2 = Collections.synchronizedList(new ArrayList<>(1));
+		manager.registerEventHandler(new CapturingAppEventHandler(events1), "foo/*");
+		AppEvent evt1 = new BasicAppEvent("foo/bar", singletonMap("foo", "bar"));
+		manager.postEvent(evt1);
+
+		// WHEN
+		manager.registerEventHandler(new CapturingAppEventHandler(events2), "foo/**");
+		AppEvent evt2 = new BasicAppEvent("foo/bar", singletonMap("foo", "bam"));
+		manager.postEvent(evt2);
+
+		// THEN
+		executor.shutdown();
+		executor.awaitTermination(2, TimeUnit.SECONDS);
+
+		assertThat("Both events handled by handler 1", events1, hasSize(2));
+		assertThat("Second event handled by handler registered after first event", events2,
+				contains(sameInstance(evt2)));
+	}
+
+	@Test
+	public void postEvent_deregisterAfterCached() throws Exception {
+		// GIVEN
+		List<AppEvent> events = Collections.synchronizedList(new ArrayList<>(1));
+		AppEventHandler handler = new CapturingAppEventHandler(events);
+		manager.registerEventHandler(handler, "foo/**");
+		AppEvent evt1 = new BasicAppEvent("foo/bar", singletonMap("foo", "bar"));
+		manager.postEvent(evt1);
+
+		// WHEN
+		manager.deregisterEventHandler(handler);
+		manager.postEvent(new BasicAppEvent("foo/bar", singletonMap("foo", "bam")));
+
+		// THEN
+		executor.shutdown();
+		executor.awaitTermination(2, TimeUnit.SECONDS);
+
+		assertThat("Only event posted before deregistration handled", events,
+				contains(sameInstance(evt1)));
+	}
+
+	@Test
+	public void postEvent_cacheDisabled() throws Exception {
+		// GIVEN
+		manager.setTopicCacheSize(0);
+		List<AppEvent> events = Collections.synchronizedList(new ArrayList<>(2));
+		manager.registerEventHandler(new CapturingAppEventHandler(events), "foo/**");
+
+		// WHEN
+		manager.postEvent(new BasicAppEvent("foo/bar", singletonMap("foo", "bar")));
+		manager.postEvent(new BasicAppEvent("foo/bam", singletonMap("foo", "bam")));
+		manager.postEvent(new BasicAppEvent("bar/foo", singletonMap("bar", "foo")));
+
+		// THEN
+		executor.shutdown();
+		executor.awaitTermination(2, TimeUnit.SECONDS);
+
+		assertThat("Matching events handled", events, hasSize(2));
+	}
+
+	@Test
+	public void postEvent_batchDispatch() throws Exception {
+		// GIVEN
+		manager.setBatchDispatch(true);
+		List<AppEvent> events1 = new ArrayList<>(1);
+		List<AppEvent> events2 = new ArrayList<>(1);
+		manager.registerEventHandler(event -> {
+			throw new RuntimeException("Boom");
+		}, "foo/**");
+		manager.registerEventHandler(new CapturingAppEventHandler(events1), "foo/**");
+		manager.registerEventHandler(new CapturingAppEventHandler(events2), "foo/bar");
+
+		// WHEN
+		AppEvent evt = new BasicAppEvent("foo/bar", singletonMap("foo", "bar"));
+		manager.postEvent(evt);
+
+		// THEN
+		executor.shutdown();
+		executor.awaitTermination(2, TimeUnit.SECONDS);
+
+		assertThat("Event handled by handler 1 despite other handler exception", events1,
+				contains(sameInstance(evt)));
+		assertThat("Event handled by handler 2", events2, contains(sameInstance(evt)));
+	}
+
+	@Test
+	public void postEvent_mailbox_ordered() throws Exception {
+		// GIVEN
+		final StatTracker stats = new StatTracker("Test", null, null, 1);
+		manager.setMailboxCapacity(1000);
+		manager.setStats(stats);
+		List<AppEvent> events = Collections.synchronizedList(new ArrayList<>(100));
+		AppEventHandler handler = new CapturingAppEventHandler(events);
+		manager.registerEventHandler(handler, "foo/**");
+
+		// WHEN
+		List<AppEvent> posted = new ArrayList<>(100);
+		for ( int i = 0; i < 100; i++ ) {
+			AppEvent evt = new BasicAppEvent("foo/bar", singletonMap("i", i));
+			posted.add(evt);
+			manager.postEvent(evt);
+		}
+
+		// THEN
+		final long end = System.currentTimeMillis() + 2000;
+		while ( events.size() < posted.size() && System.currentTimeMillis() < end ) {
+			Thread.sleep(10);
+		}
+		executor.shutdown();
+		executor.awaitTermination(2, TimeUnit.SECONDS);
+
+		assertThat("Events handled in posted order", events, is(equalTo(posted)));
+		assertThat("Handled stat tracked for handler",
+				stats.get(CapturingAppEventHandler.class.getName() + "-1.Handled"),
+				is(equalTo(100L)));
+	}
+
+	@Test
+	public void postEvent_mailbox_reconfigure() throws Exception {
+		// GIVEN
+		manager.setMailboxCapacity(1000);
+		final List<AppEvent> events = Collections.synchronizedList(new ArrayList<>(200));
+		final AtomicInteger active = new AtomicInteger();
+		final AtomicInteger maxActive = new AtomicInteger();
+		AppEventHandler handler = new CapturingAppEventHandler(events) {
+
+			@Override
+			public void handleEvent(AppEvent event) {
+				maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+				try {
+					Thread.sleep(0, 100_000);
+				} catch ( InterruptedException e ) {
+					// ignore
+				}
+				super.handleEvent(event);
+				active.decrementAndGet();
+			}
+
+		};
+		manager.registerEventHandler(handler, "foo/**");
+
+		// WHEN
+		List<AppEvent> posted = new ArrayList<>(200);
+		for ( int i = 0; i < 200; i++ ) {
+			AppEvent evt = new BasicAppEvent("foo/bar", singletonMap("i", i));
+			posted.add(evt);
+			manager.postEvent(evt);
+			if ( i % 20 == 0 ) {
+				// reconfigure while events are queued
+				manager.setMailboxCapacity(i % 40 == 0 ? 500 : 1000);
+				manager.setMailboxOverflowPolicy(MailboxOverflowPolicy.Block);
+				manager.setMailboxBlockTimeout(5000L);
+				manager.setStats(new StatTracker("Test", null, null, 1));
+			}
+		}
+
+		// THEN
+		final long end = System.currentTimeMillis() + 5000;
+		while ( events.size() < posted.size() && System.currentTimeMillis() < end ) {
+			Thread.sleep(10);
+		}
+		executor.shutdown();
+		executor.awaitTermination(2, TimeUnit.SECONDS);
+
+		assertThat("Events handled in posted order across reconfiguration", events,
+				is(equalTo(posted)));
+		assertThat("Handler never invoked concurrently", maxActive.get(), is(equalTo(1)));
+	}
+
+	@Test
+	public void postEvent_mailbox_enableAfterRegister() throws Exception {
+		// GIVEN
+		final StatTracker stats = new StatTracker("Test", null, null, 1);
+		manager.setStats(stats);
+		List<AppEvent> events = Collections.synchronizedList(new ArrayList<>(10));
+		manager.registerEventHandler(new CapturingAppEventHandler(events), "foo/**");
+
+		// WHEN
+		manager.setMailboxCapacity(1000);
+		for ( int i = 0; i < 10; i++ ) {
+			manager.postEvent(new BasicAppEvent("foo/bar", singletonMap("i", i)));
+		}
+
+		// THEN
+		executor.shutdown();
+		executor.awaitTermination(2, TimeUnit.SECONDS);
+
+		assertThat("Events handled", events, hasSize(10));
+		assertThat("Events delivered via mailbox created for registered handler",
+				stats.get(CapturingAppEventHandler.class.getName() + "-1.Handled"),
+				is(equalTo(10L)));
+	}
+
+	@Test
+	public void postEvent_mailbox_deregister() throws Exception {
+		// GIVEN
+		final StatTracker stats = new StatTracker("Test", null, null, 1);
+		manager.setMailboxCapacity(1000);
+		manager.setStats(stats);
+		List<AppEvent> events = Collections.synchronizedList(new ArrayList<>(10));
+		AppEventHandler handler = new CapturingAppEventHandler(events);
+		manager.registerEventHandler(handler, "foo/**");
+
+		final String handledKey = CapturingAppEventHandler.class.getName() + "-1.Handled";
+		for ( int i = 0; i < 10; i++ ) {
+			manager.postEvent(new BasicAppEvent("foo/bar", singletonMap("i", i)));
+		}
+		final long end = System.currentTimeMillis() + 2000;
+		while ( stats.get(handledKey) < 10L && System.currentTimeMillis() < end ) {
+			Thread.sleep(10);
+		}
+
+		// WHEN
+		manager.deregisterEventHandler(handler);
+		manager.postEvent(new BasicAppEvent("foo/bar", singletonMap("i", 10)));
+
+		// THEN
+		executor.shutdown();
+		executor.awaitTermination(2, TimeUnit.SECONDS);
+
+		assertThat("Events before deregistration handled", events, hasSize(10));
+		assertThat("Handler statistics removed on deregistration", stats.allCounts().keySet(),
+				is(empty()));
+	}
+
+	@Test
+	public void postEvent_mailbox_dropNewest() throws Exception {
+		// GIVEN
+		final ExecutorService single = Executors.newSingleThreadExecutor();
+		final SimpleAppEventManager mgr = new SimpleAppEventManager(single);
+		mgr.setMailboxCapacity(1);
+		mgr.setMailboxOverflowPolicy(MailboxOverflowPolicy.DropNewest);
+		List<AppEvent> events = Collections.synchronizedList(new ArrayList<>(2));
+		mgr.registerEventHandler(new CapturingAppEventHandler(events), "foo/**");
+
+		List<AppEvent> posted = new ArrayList<>(3);
+
+		// block the executor so the mailbox fills up
+		final Object lock = new Object();
+		synchronized ( lock ) {
+			single.execute(() -> {
+				synchronized ( lock ) {
+					// wait for posts to complete
+				}
+			});
+
+			// WHEN
+			for ( int i = 0; i < 3; i++ ) {
+				AppEvent evt = new BasicAppEvent("foo/bar", singletonMap("i", i));
+				posted.add(evt);
+				mgr.postEvent(evt);
+			}
+		}
+
+		// THEN
+		single.shutdown();
+		single.awaitTermination(2, TimeUnit.SECONDS);
+
+		assertThat("Only first event handled, others dropped", events,
+				contains(sameInstance(posted.get(0))));
+	}
+
 }
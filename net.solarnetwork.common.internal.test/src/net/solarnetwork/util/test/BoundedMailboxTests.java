@@ -0,0 +1,268 @@
+/* ==================================================================
+ * BoundedMailboxTests.java - 17/10/2026 11:22:47 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.util.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import net.solarnetwork.util.BoundedMailbox;
+import net.solarnetwork.util.MailboxOverflowPolicy;
+import net.solarnetwork.util.StatTracker;
+
+/**
+ * Test cases for the {@link BoundedMailbox} class.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class BoundedMailboxTests {
+
+	private List<Runnable> tasks;
+	private List<Integer> handled;
+	private StatTracker stats;
+
+	@Before
+	public void setup() {
+		tasks = new ArrayList<>(4);
+		handled = new ArrayList<>(8);
+		stats = new StatTracker("Test", null, null, 1);
+	}
+
+	private BoundedMailbox<Integer> mailbox(int capacity, MailboxOverflowPolicy policy) {
+		return new BoundedMailbox<>("test", tasks::add, capacity, policy, handled::add, stats);
+	}
+
+	private void runTasks() {
+		while ( !tasks.isEmpty() ) {
+			tasks.remove(0).run();
+		}
+	}
+
+	@Test
+	public void offer_ordered() {
+		// GIVEN
+		BoundedMailbox<Integer> mailbox = mailbox(10, MailboxOverflowPolicy.DropNewest);
+
+		// WHEN
+		for ( int i = 1; i <= 5; i++ ) {
+			assertThat("Item accepted", mailbox.offer(i), is(true));
+		}
+
+		// THEN
+		assertThat("Single drain task submitted", tasks, hasSize(1));
+		assertThat("Items queued", mailbox.size(), is(equalTo(5)));
+		runTasks();
+		assertThat("Items handled in order", handled, contains(1, 2, 3, 4, 5));
+		assertThat("Queue drained", mailbox.size(), is(equalTo(0)));
+		assertThat("Handled stat tracked", stats.get("test.Handled"), is(equalTo(5L)));
+		assertThat("Handle time stat tracked", stats.getAccumulation("test.HandleTime").count(),
+				is(equalTo(5L)));
+		assertThat("Queue depth stat tracked", stats.getAccumulation("test.QueueDepth").max(),
+				is(equalTo(5L)));
+	}
+
+	@Test
+	public void offer_afterDrained() {
+		// GIVEN
+		BoundedMailbox<Integer> mailbox = mailbox(10, MailboxOverflowPolicy.DropNewest);
+		mailbox.offer(1);
+		runTasks();
+
+		// WHEN
+		mailbox.offer(2);
+
+		// THEN
+		assertThat("New drain task submitted after queue drained", tasks, hasSize(1));
+		runTasks();
+		assertThat("Items handled in order", handled, contains(1, 2));
+	}
+
+	@Test
+	public void offer_batch() {
+		// GIVEN
+		BoundedMailbox<Integer> mailbox = mailbox(10, MailboxOverflowPolicy.DropNewest);
+		mailbox.setBatchSize(2);
+		for ( int i = 1; i <= 5; i++ ) {
+			mailbox.offer(i);
+		}
+
+		// WHEN
+		tasks.remove(0).run();
+
+		// THEN
+		assertThat("Batch handled", handled, contains(1, 2));
+		assertThat("Drain task resubmitted", tasks, hasSize(1));
+		runTasks();
+		assertThat("All items handled in order", handled, contains(1, 2, 3, 4, 5));
+	}
+
+	@Test
+	public void offer_dropNewest() {
+		// GIVEN
+		BoundedMailbox<Integer> mailbox = mailbox(2, MailboxOverflowPolicy.DropNewest);
+
+		// WHEN
+		mailbox.offer(1);
+		mailbox.offer(2);
+		boolean result = mailbox.offer(3);
+
+		// THEN
+		assertThat("New item dropped", result, is(false));
+		assertThat("Drop count", mailbox.getDropCount(), is(equalTo(1L)));
+		assertThat("Dropped stat tracked", stats.get("test.Dropped"), is(equalTo(1L)));
+		runTasks();
+		assertThat("Oldest items handled", handled, contains(1, 2));
+	}
+
+	@Test
+	public void offer_dropOldest() {
+		// GIVEN
+		BoundedMailbox<Integer> mailbox = mailbox(2, MailboxOverflowPolicy.DropOldest);
+
+		// WHEN
+		mailbox.offer(1);
+		mailbox.offer(2);
+		boolean result = mailbox.offer(3);
+
+		// THEN
+		assertThat("New item accepted", result, is(true));
+		assertThat("Drop count", mailbox.getDropCount(), is(equalTo(1L)));
+		runTasks();
+		assertThat("Newest items handled", handled, contains(2, 3));
+	}
+
+	@Test
+	public void offer_block_timeout() {
+		// GIVEN
+		BoundedMailbox<Integer> mailbox = mailbox(1, MailboxOverflowPolicy.Block);
+		mailbox.setBlockTimeout(10L);
+		mailbox.offer(1);
+
+		// WHEN
+		long start = System.currentTimeMillis();
+		boolean result = mailbox.offer(2);
+
+		// THEN
+		assertThat("Item dropped after timeout", result, is(false));
+		assertThat("Blocked for timeout", System.currentTimeMillis() - start >= 10L, is(true));
+		assertThat("Drop count", mailbox.getDropCount(), is(equalTo(1L)));
+		runTasks();
+		assertThat("Queued item handled", handled, contains(1));
+	}
+
+	@Test
+	public void offer_block() throws Exception {
+		// GIVEN
+		BoundedMailbox<Integer> mailbox = mailbox(1, MailboxOverflowPolicy.Block);
+		mailbox.setBlockTimeout(5000L);
+		mailbox.offer(1);
+
+		// WHEN
+		Thread drainer = new Thread(() -> {
+			try {
+				Thread.sleep(50L);
+			} catch ( InterruptedException e ) {
+				// ignore
+			}
+			tasks.remove(0).run();
+		});
+		drainer.start();
+		boolean result = mailbox.offer(2);
+		drainer.join(5000L);
+
+		// THEN
+		assertThat("Item accepted after mailbox drained", result, is(true));
+		assertThat("Drop count", mailbox.getDropCount(), is(equalTo(0L)));
+		runTasks();
+		assertThat("Items handled in order", handled, contains(1, 2));
+	}
+
+	@Test
+	public void setCapacity_ordered() {
+		// GIVEN
+		BoundedMailbox<Integer> mailbox = mailbox(2, MailboxOverflowPolicy.DropNewest);
+		mailbox.offer(1);
+		mailbox.offer(2);
+
+		// WHEN
+		mailbox.setCapacity(4);
+		mailbox.setOverflowPolicy(MailboxOverflowPolicy.DropOldest);
+		mailbox.offer(3);
+		mailbox.offer(4);
+		mailbox.offer(5);
+
+		// THEN
+		assertThat("Single drain task submitted", tasks, hasSize(1));
+		runTasks();
+		assertThat("Queued items kept, oldest dropped at new capacity", handled,
+				contains(2, 3, 4, 5));
+	}
+
+	@Test
+	public void close() {
+		// GIVEN
+		BoundedMailbox<Integer> mailbox = mailbox(10, MailboxOverflowPolicy.DropNewest);
+		mailbox.offer(1);
+		runTasks();
+		mailbox.offer(2);
+
+		// WHEN
+		mailbox.close();
+		boolean result = mailbox.offer(3);
+
+		// THEN
+		assertThat("Mailbox closed", mailbox.isClosed(), is(true));
+		assertThat("Item rejected after close", result, is(false));
+		runTasks();
+		assertThat("Queued items discarded on close", handled, contains(1));
+		assertThat("Statistics removed on close", stats.allCounts().keySet(), is(empty()));
+	}
+
+	@Test
+	public void consumerException() {
+		// GIVEN
+		BoundedMailbox<Integer> mailbox = new BoundedMailbox<>("test", tasks::add, 10,
+				MailboxOverflowPolicy.DropNewest, i -> {
+					if ( i == 1 ) {
+						throw new RuntimeException("Boom");
+					}
+					handled.add(i);
+				}, null);
+
+		// WHEN
+		mailbox.offer(1);
+		mailbox.offer(2);
+		runTasks();
+
+		// THEN
+		assertThat("Items after exception handled", handled, contains(2));
+	}
+
+}
@@ -0,0 +1,206 @@
+/* ==================================================================
+ * LogLinearHistogramTests.java - 18/10/2026 9:02:11 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.util.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import net.solarnetwork.util.LogLinearHistogram;
+import net.solarnetwork.util.StatTracker.AccumulationType;
+
+/**
+ * Test cases for the {@link LogLinearHistogram} class.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class LogLinearHistogramTests {
+
+	@Test
+	public void empty() {
+		// GIVEN
+		LogLinearHistogram h = new LogLinearHistogram();
+
+		// WHEN
+		LogLinearHistogram.Snapshot s = h.snapshot(false);
+
+		// THEN
+		assertThat("Count", s.count(), is(equalTo(0L)));
+		assertThat("Min", s.min(), is(equalTo(0L)));
+		assertThat("Max", s.max(), is(equalTo(0L)));
+		assertThat("Avg", s.avg(), is(equalTo(0.0)));
+		assertThat("Percentile", s.valueAtPercentile(99.0), is(equalTo(0L)));
+		assertThat("Live min", h.min(), is(equalTo(0L)));
+		assertThat("Live max", h.max(), is(equalTo(0L)));
+	}
+
+	@Test
+	public void exactSmallValues() {
+		// GIVEN
+		LogLinearHistogram h = new LogLinearHistogram(6, 1);
+
+		// WHEN
+		for ( int i = 0; i < 64; i++ ) {
+			h.record(i);
+		}
+		LogLinearHistogram.Snapshot s = h.snapshot(false);
+
+		// THEN
+		for ( int i = 1; i <= 64; i++ ) {
+			assertThat("Small values exact at percentile " + i, s.valueAtPercentile(i * 100.0 / 64),
+					is(equalTo(i - 1L)));
+		}
+	}
+
+	@Test
+	public void negativeValue() {
+		// GIVEN
+		LogLinearHistogram h = new LogLinearHistogram();
+
+		// WHEN
+		h.record(-1L);
+
+		// THEN
+		assertThat("Negative recorded as 0", h.snapshot(false).max(), is(equalTo(0L)));
+	}
+
+	@Test
+	public void relativeError() {
+		// GIVEN
+		LogLinearHistogram h = new LogLinearHistogram(6, 2);
+		Random rng = new Random(1);
+		long[] values = new long[10_000];
+		for ( int i = 0; i < values.length; i++ ) {
+			values[i] = (long) Math.abs(rng.nextGaussian() * 1_000_000.0);
+			h.record(values[i]);
+		}
+		Arrays.sort(values);
+
+		// WHEN
+		LogLinearHistogram.Snapshot s = h.snapshot(false);
+
+		// THEN
+		for ( double p : new double[] { 50.0, 90.0, 99.0, 99.9 } ) {
+			long expected = values[(int) Math.ceil(p / 100.0 * values.length) - 1];
+			long actual = s.valueAtPercentile(p);
+			assertThat("Percentile " + p + " within precision", actual,
+					is(allOf(greaterThanOrEqualTo(expected),
+							lessThanOrEqualTo(expected + expected / 32 + 1))));
+		}
+		assertThat("p100 is max", s.valueAtPercentile(100.0),
+				is(equalTo(values[values.length - 1])));
+		assertThat("Min", s.min(), is(equalTo(values[0])));
+	}
+
+	@Test
+	public void largeValues() {
+		// GIVEN
+		LogLinearHistogram h = new LogLinearHistogram();
+
+		// WHEN
+		h.record(Long.MAX_VALUE);
+		h.record(1L << 40);
+
+		// THEN
+		LogLinearHistogram.Snapshot s = h.snapshot(false);
+		assertThat("p50", s.valueAtPercentile(50.0), is(allOf(greaterThanOrEqualTo(1L << 40),
+				lessThanOrEqualTo((1L << 40) + (1L << 35)))));
+		assertThat("p100", s.valueAtPercentile(100.0), is(equalTo(Long.MAX_VALUE)));
+	}
+
+	@Test
+	public void valueFor() {
+		// GIVEN
+		LogLinearHistogram h = new LogLinearHistogram();
+		for ( int i = 1; i <= 1000; i++ ) {
+			h.record(i);
+		}
+
+		// WHEN
+		LogLinearHistogram.Snapshot s = h.snapshot(false);
+
+		// THEN
+		assertThat("Count type", s.valueFor(AccumulationType.Count), is(equalTo(1000L)));
+		assertThat("p50 type", s.valueFor(AccumulationType.Percentile50),
+				is(equalTo(s.valueAtPercentile(50.0))));
+		assertThat("p999 type", s.valueFor(AccumulationType.Percentile999),
+				is(equalTo(s.valueAtPercentile(99.9))));
+	}
+
+	@Test
+	public void snapshotReset() {
+		// GIVEN
+		LogLinearHistogram h = new LogLinearHistogram();
+		h.record(10L);
+		h.record(20L);
+
+		// WHEN
+		LogLinearHistogram.Snapshot s1 = h.snapshot(true);
+		h.record(30L);
+		LogLinearHistogram.Snapshot s2 = h.snapshot(false);
+
+		// THEN
+		assertThat("First interval count", s1.count(), is(equalTo(2L)));
+		assertThat("First interval max", s1.max(), is(equalTo(20L)));
+		assertThat("Second interval count", s2.count(), is(equalTo(1L)));
+		assertThat("Second interval min", s2.min(), is(equalTo(30L)));
+		assertThat("Second interval total", s2.total(), is(equalTo(30L)));
+	}
+
+	@Test
+	public void concurrentRecord() throws Exception {
+		// GIVEN
+		final LogLinearHistogram h = new LogLinearHistogram(6, 4);
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+		// WHEN
+		try {
+			for ( int t = 0; t < 4; t++ ) {
+				executor.execute(() -> {
+					for ( int i = 0; i < 10_000; i++ ) {
+						h.record(i);
+					}
+				});
+			}
+		} finally {
+			executor.shutdown();
+			executor.awaitTermination(10, TimeUnit.SECONDS);
+		}
+
+		// THEN
+		LogLinearHistogram.Snapshot s = h.snapshot(false);
+		assertThat("All values counted", s.count(), is(equalTo(40_000L)));
+		assertThat("Live count", h.count(), is(equalTo(40_000L)));
+		assertThat("Max", s.max(), is(equalTo(9_999L)));
+	}
+
+}
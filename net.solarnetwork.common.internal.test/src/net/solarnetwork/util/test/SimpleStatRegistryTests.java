@@ -0,0 +1,161 @@
+/* ==================================================================
+ * SimpleStatRegistryTests.java - 18/10/2026 12:05:33 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.util.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import net.solarnetwork.util.SimpleStatRegistry;
+import net.solarnetwork.util.StatRegistry;
+import net.solarnetwork.util.StatSource;
+import net.solarnetwork.util.StatTracker;
+
+/**
+ * Test cases for the {@link SimpleStatRegistry} class.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class SimpleStatRegistryTests {
+
+	private SimpleStatRegistry registry;
+	private List<String> events;
+
+	@Before
+	public void setup() {
+		registry = new SimpleStatRegistry();
+		events = new ArrayList<>(4);
+		registry.addListener(new StatRegistry.Listener() {
+
+			@Override
+			public void sourceRegistered(StatSource source) {
+				events.add("+" + source.getDisplayName());
+			}
+
+			@Override
+			public void sourceUnregistered(StatSource source) {
+				events.add("-" + source.getDisplayName());
+			}
+
+		});
+	}
+
+	@Test
+	public void register() {
+		// GIVEN
+		StatSource s1 = new StatTracker("One", null, null, 1);
+		StatSource s2 = new StatTracker("Two", null, null, 1);
+
+		// WHEN
+		boolean r1 = registry.register(s1);
+		boolean r2 = registry.register(s2);
+		boolean r3 = registry.register(s1);
+
+		// THEN
+		assertThat("First registration added", r1, is(true));
+		assertThat("Second registration added", r2, is(true));
+		assertThat("Duplicate registration ignored", r3, is(false));
+		assertThat("Registry size", registry.size(), is(equalTo(2)));
+		assertThat("Listener notified once per source", events, contains("+One", "+Two"));
+
+		List<StatSource> sources = new ArrayList<>(2);
+		registry.forEachSource(sources::add);
+		assertThat("Sources iterated in registration order", sources, contains(s1, s2));
+	}
+
+	@Test
+	public void unregister() {
+		// GIVEN
+		StatTracker s1 = new StatTracker("One", null, null, 1);
+		registry.register(s1);
+
+		// WHEN
+		boolean r1 = registry.unregister(s1);
+		boolean r2 = registry.unregister(s1);
+
+		// THEN
+		assertThat("Registered source removed", r1, is(true));
+		assertThat("Unknown source ignored", r2, is(false));
+		assertThat("Registry empty", registry.size(), is(equalTo(0)));
+		assertThat("Listener notified", events, contains("+One", "-One"));
+	}
+
+	@Test
+	public void listener_exception() {
+		// GIVEN
+		registry.addListener(new StatRegistry.Listener() {
+
+			@Override
+			public void sourceRegistered(StatSource source) {
+				throw new RuntimeException("Boom");
+			}
+
+			@Override
+			public void sourceUnregistered(StatSource source) {
+				throw new RuntimeException("Boom");
+			}
+
+		});
+		StatTracker s1 = new StatTracker("One", null, null, 1);
+
+		// WHEN
+		boolean r1 = registry.register(s1);
+
+		// THEN
+		assertThat("Source registered despite listener exception", r1, is(true));
+		assertThat("Other listener notified", events, contains("+One"));
+	}
+
+	@Test
+	public void removeListener() {
+		// GIVEN
+		List<String> other = new ArrayList<>(2);
+		StatRegistry.Listener l = new StatRegistry.Listener() {
+
+			@Override
+			public void sourceRegistered(StatSource source) {
+				other.add("+" + source.getDisplayName());
+			}
+
+			@Override
+			public void sourceUnregistered(StatSource source) {
+				other.add("-" + source.getDisplayName());
+			}
+
+		};
+		registry.addListener(l);
+
+		// WHEN
+		registry.removeListener(l);
+		registry.register(new StatTracker("One", null, null, 1));
+
+		// THEN
+		assertThat("Removed listener not notified", other.isEmpty(), is(true));
+	}
+
+}
@@ -0,0 +1,129 @@
+/* ==================================================================
+ * StatRegistryMBeanExporterTests.java - 18/10/2026 12:21:48 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.util.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContainingInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import java.util.Arrays;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import net.solarnetwork.util.SimpleStatRegistry;
+import net.solarnetwork.util.StatRegistryMBeanExporter;
+import net.solarnetwork.util.StatTracker;
+
+/**
+ * Test cases for the {@link StatRegistryMBeanExporter} class.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class StatRegistryMBeanExporterTests {
+
+	private MBeanServer server;
+	private SimpleStatRegistry registry;
+	private StatRegistryMBeanExporter exporter;
+
+	@Before
+	public void setup() {
+		server = MBeanServerFactory.newMBeanServer();
+		registry = new SimpleStatRegistry();
+		exporter = new StatRegistryMBeanExporter(registry, server, "test");
+	}
+
+	@After
+	public void teardown() {
+		exporter.shutdown();
+	}
+
+	@Test
+	public void exportExisting() throws Exception {
+		// GIVEN
+		StatTracker stats = new StatTracker("Foo", "abc", null, 1);
+		stats.increment("a");
+		stats.add("b", 2L);
+		registry.register(stats);
+
+		// WHEN
+		exporter.startup();
+
+		// THEN
+		ObjectName name = new ObjectName("test:type=Statistics,name=\"Foo\",uid=\"abc\"");
+		assertThat("MBean registered", server.isRegistered(name), is(true));
+		assertThat("Count attribute", server.getAttribute(name, "a"), is(equalTo(1L)));
+		assertThat("Accumulation total attribute", server.getAttribute(name, "bTotal"),
+				is(equalTo(2L)));
+
+		String[] attrNames = Arrays.stream(server.getMBeanInfo(name).getAttributes())
+				.map(MBeanAttributeInfo::getName).toArray(String[]::new);
+		assertThat("Attributes", attrNames, arrayContainingInAnyOrder("a", "bCount", "bTotal",
+				"bAverage", "bMinimum", "bMaximum"));
+	}
+
+	@Test
+	public void exportRegisteredAfterStartup() throws Exception {
+		// GIVEN
+		exporter.startup();
+		StatTracker stats = new StatTracker("Foo", null, null, 1);
+		stats.setGroupUid("g");
+
+		// WHEN
+		registry.register(stats);
+
+		// THEN
+		ObjectName name = new ObjectName("test:type=Statistics,name=\"Foo\",group=\"g\"");
+		assertThat("MBean registered", server.isRegistered(name), is(true));
+
+		// WHEN
+		registry.unregister(stats);
+
+		// THEN
+		assertThat("MBean unregistered", server.isRegistered(name), is(false));
+	}
+
+	@Test
+	public void shutdown() throws Exception {
+		// GIVEN
+		StatTracker stats = new StatTracker("Foo", null, null, 1);
+		registry.register(stats);
+		exporter.startup();
+		ObjectName name = new ObjectName("test:type=Statistics,name=\"Foo\"");
+		assertThat("MBean registered", server.isRegistered(name), is(true));
+
+		// WHEN
+		exporter.shutdown();
+		registry.unregister(stats);
+		registry.register(stats);
+
+		// THEN
+		assertThat("MBean unregistered and not re-registered", server.isRegistered(name),
+				is(false));
+	}
+
+}
@@ -29,9 +29,13 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.sameInstance;
 import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.NavigableMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -39,15 +43,17 @@ import java.util.concurrent.TimeUnit;
 import org.junit.Before;
 import org.junit.Test;
 import net.solarnetwork.test.StringLogger;
+import net.solarnetwork.util.LogLinearHistogram;
 import net.solarnetwork.util.StatTracker;
 import net.solarnetwork.util.StatTracker.Accumulation;
 import net.solarnetwork.util.StatTracker.AccumulationValue;
+import net.solarnetwork.util.StatVisitor;
 
 /**
  * Test cases for the {@link StatTracker} class.
  *
  * @author matt
- * @version 1.1
+ * @version 1.3
  */
 public class StatTrackerTests {
 
@@ -503,4 +509,124 @@ public class StatTrackerTests {
 		// @formatter:on
 	}
 
+	@Test
+	public void record() {
+		// GIVEN
+		StatTracker c = new StatTracker("TestStats", "test", log, 5);
+
+		// WHEN
+		for ( int i = 1; i <= 100; i++ ) {
+			c.record(BasicCounts.Foo, i);
+		}
+
+		// THEN
+		LogLinearHistogram.Snapshot h = c.getHistogram(BasicCounts.Foo, false);
+		assertThat("Histogram provided", h, is(notNullValue()));
+		assertAccumulationEquals("Foo histogram", h,
+				new AccumulationValue(100L, 5050L, 50.5, 1L, 100L));
+		assertThat("Foo p50", h.valueAtPercentile(50.0), is(equalTo(50L)));
+		assertThat("Foo p99", h.valueAtPercentile(99.0), is(equalTo(99L)));
+		assertThat("Accumulation is histogram snapshot", c.getAccumulation(BasicCounts.Foo),
+				is(instanceOf(LogLinearHistogram.Snapshot.class)));
+		assertThat("Get returns total", c.get(BasicCounts.Foo), is(equalTo(5050L)));
+		assertThat("Log frequency applied", log.getEntries(), hasSize(20));
+	}
+
+	@Test
+	public void getHistogram_none() {
+		// GIVEN
+		StatTracker c = new StatTracker("TestStats", "test", log, 5);
+
+		// WHEN
+		LogLinearHistogram.Snapshot h = c.getHistogram("foo", false);
+
+		// THEN
+		assertThat("No histogram", h, is(nullValue()));
+	}
+
+	@Test
+	public void getHistogram_reset() {
+		// GIVEN
+		StatTracker c = new StatTracker("TestStats", "test", log, 5);
+		c.record("foo", 1L);
+		c.record("foo", 2L);
+
+		// WHEN
+		LogLinearHistogram.Snapshot h1 = c.getHistogram("foo", true);
+		c.record("foo", 3L);
+		LogLinearHistogram.Snapshot h2 = c.getHistogram("foo", false);
+
+		// THEN
+		assertAccumulationEquals("First interval", h1, new AccumulationValue(2L, 3L, 1.5, 1L, 2L));
+		assertAccumulationEquals("Second interval", h2, new AccumulationValue(1L, 3L, 3.0, 3L, 3L));
+	}
+
+	@Test
+	public void allStatistics_histogram() {
+		// GIVEN
+		StatTracker c = new StatTracker("TestStats", "test", log, 5);
+		c.add("bar", 1L);
+		c.record("foo", 1L);
+		c.record("foo", 3L);
+
+		// WHEN
+		NavigableMap<String, Number> m = c.allStatistics();
+
+		// THEN
+		// @formatter:off
+		assertThat("Percentiles included for histogram only", m.keySet(), contains(
+				"barAverage",
+				"barCount",
+				"barMaximum",
+				"barMinimum",
+				"barTotal",
+
+				"fooAverage",
+				"fooCount",
+				"fooMaximum",
+				"fooMinimum",
+				"fooPercentile50",
+				"fooPercentile90",
+				"fooPercentile99",
+				"fooPercentile999",
+				"fooTotal"
+				));
+		// @formatter:on
+		assertThat("Foo p50", m, hasEntry("fooPercentile50", 1L));
+		assertThat("Foo p99", m, hasEntry("fooPercentile99", 3L));
+	}
+
+	@Test
+	public void visitStatistics() {
+		// GIVEN
+		StatTracker c = new StatTracker("Test", null, null, 1);
+		c.increment("a");
+		c.add("b", 2L);
+		c.record("c", 3L);
+
+		// WHEN
+		List<String> visited = new ArrayList<>(3);
+		c.visitStatistics(new StatVisitor() {
+
+			@Override
+			public void visitCount(String key, long value) {
+				visited.add("count:" + key + "=" + value);
+			}
+
+			@Override
+			public void visitAccumulation(String key, Accumulation accumulation) {
+				visited.add("acc:" + key + "=" + accumulation.total());
+			}
+
+			@Override
+			public void visitHistogram(String key, LogLinearHistogram.Snapshot histogram) {
+				visited.add("hist:" + key + "=" + histogram.total());
+			}
+
+		});
+
+		// THEN
+		assertThat("All statistics visited", visited, contains("count:a=1", "acc:b=2", "hist:c=3"));
+	}
+
 }
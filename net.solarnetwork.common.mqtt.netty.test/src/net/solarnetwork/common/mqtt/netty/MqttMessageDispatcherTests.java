@@ -0,0 +1,280 @@
+/* ==================================================================
+ * MqttMessageDispatcherTests.java - 16/10/2026 5:14:38 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.common.mqtt.netty;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.Before;
+import org.junit.Test;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.mqtt.MqttQoS;
+import io.netty.util.ReferenceCountUtil;
+import net.solarnetwork.common.mqtt.BasicMqttMessage;
+import net.solarnetwork.common.mqtt.MqttBasicCount;
+import net.solarnetwork.common.mqtt.MqttMessage;
+import net.solarnetwork.common.mqtt.MqttMessageHandler;
+import net.solarnetwork.common.mqtt.MqttQos;
+import net.solarnetwork.util.StatTracker;
+
+/**
+ * Test cases for the {@link MqttMessageDispatcher} class.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class MqttMessageDispatcherTests {
+
+	private List<Runnable> tasks;
+	private List<String> handled;
+	private List<Boolean> readControl;
+	private StatTracker stats;
+	private MqttMessageHandler handler;
+
+	@Before
+	public void setup() {
+		tasks = new ArrayList<>();
+		handled = new ArrayList<>();
+		readControl = new ArrayList<>();
+		stats = new StatTracker("Test", null, null, 1);
+		handler = (msg) -> {
+			handled.add(msg.getTopic() + ":" + new String(msg.getPayload(), UTF_8));
+		};
+	}
+
+	private MqttMessageDispatcher dispatcher(int capacity, MqttDispatchOverflowPolicy policy,
+			boolean ordered) {
+		return new MqttMessageDispatcher(tasks::add, capacity, policy, ordered, (msg, h) -> {
+			try {
+				h.onMqttMessage(msg);
+			} finally {
+				ReferenceCountUtil.release(msg);
+			}
+		}, readControl::add, stats);
+	}
+
+	private static MqttMessage msg(String topic, String payload) {
+		return new BasicMqttMessage(topic, false, MqttQos.AtMostOnce, payload.getBytes(UTF_8));
+	}
+
+	private void runTasks() {
+		while ( !tasks.isEmpty() ) {
+			tasks.remove(0).run();
+		}
+	}
+
+	@Test
+	public void dispatch() {
+		// GIVEN
+		MqttMessageDispatcher d = dispatcher(2, MqttDispatchOverflowPolicy.DropNewest, false);
+
+		// WHEN
+		boolean q1 = d.dispatch(msg("a", "1"), handler);
+		boolean q2 = d.dispatch(msg("b", "1"), handler);
+
+		// THEN
+		assertThat("Message queued", q1, is(equalTo(true)));
+		assertThat("Message queued", q2, is(equalTo(true)));
+		assertThat("One task submitted per message", tasks, hasSize(2));
+		assertThat("Queue depth", d.size(), is(equalTo(2)));
+
+		runTasks();
+		assertThat("Messages handled", handled, contains("a:1", "b:1"));
+		assertThat("Queue empty", d.size(), is(equalTo(0)));
+		assertThat("Queue depth sampled", stats.getAccumulation(MqttBasicCount.DispatchQueueDepth)
+				.max(), is(equalTo(2L)));
+	}
+
+	@Test
+	public void dropNewest() {
+		// GIVEN
+		MqttMessageDispatcher d = dispatcher(2, MqttDispatchOverflowPolicy.DropNewest, false);
+
+		// WHEN
+		d.dispatch(msg("a", "1"), handler);
+		d.dispatch(msg("a", "2"), handler);
+		boolean q3 = d.dispatch(msg("a", "3"), handler);
+
+		// THEN
+		assertThat("Newest message dropped", q3, is(equalTo(false)));
+		assertThat("No task submitted for dropped message", tasks, hasSize(2));
+		assertThat("Drop counted", stats.get(MqttBasicCount.MessagesDropped), is(equalTo(1L)));
+
+		runTasks();
+		assertThat("Queued messages handled", handled, contains("a:1", "a:2"));
+	}
+
+	@Test
+	public void dropOldest() {
+		// GIVEN
+		MqttMessageDispatcher d = dispatcher(2, MqttDispatchOverflowPolicy.DropOldest, false);
+
+		// WHEN
+		d.dispatch(msg("a", "1"), handler);
+		d.dispatch(msg("a", "2"), handler);
+		boolean q3 = d.dispatch(msg("a", "3"), handler);
+
+		// THEN
+		assertThat("Newest message queued", q3, is(equalTo(true)));
+		assertThat("No task submitted for replaced message", tasks, hasSize(2));
+		assertThat("Queue depth", d.size(), is(equalTo(2)));
+		assertThat("Drop counted", stats.get(MqttBasicCount.MessagesDropped), is(equalTo(1L)));
+
+		runTasks();
+		assertThat("Oldest message dropped", handled, contains("a:2", "a:3"));
+	}
+
+	@Test
+	public void dropOldest_releaseMessage() {
+		// GIVEN
+		MqttMessageDispatcher d = dispatcher(1, MqttDispatchOverflowPolicy.DropOldest, false);
+		ByteBuf buf = Unpooled.wrappedBuffer("1".getBytes(UTF_8));
+		NettyByteBufMqttMessage m1 = new NettyByteBufMqttMessage("a", false, MqttQoS.AT_MOST_ONCE,
+				buf);
+
+		// WHEN
+		d.dispatch(m1, handler);
+		assertThat("Queued message retained", m1.refCnt(), is(equalTo(2)));
+		d.dispatch(msg("a", "2"), handler);
+
+		// THEN
+		assertThat("Dropped message released", m1.refCnt(), is(equalTo(1)));
+		m1.release();
+	}
+
+	@Test
+	public void block() {
+		// GIVEN
+		MqttMessageDispatcher d = dispatcher(2, MqttDispatchOverflowPolicy.Block, false);
+
+		// WHEN
+		d.dispatch(msg("a", "1"), handler);
+		assertThat("Reading not changed below capacity", readControl, is(empty()));
+		d.dispatch(msg("a", "2"), handler);
+		boolean q3 = d.dispatch(msg("a", "3"), handler);
+
+		// THEN
+		assertThat("Message queued over capacity", q3, is(equalTo(true)));
+		assertThat("Queue depth", d.size(), is(equalTo(3)));
+		assertThat("Reading stopped at capacity", readControl, contains(false, false));
+
+		tasks.remove(0).run();
+		assertThat("Reading not resumed above half capacity", readControl, hasSize(2));
+		tasks.remove(0).run();
+		assertThat("Reading resumed at half capacity", readControl, contains(false, false, true));
+
+		runTasks();
+		assertThat("All messages handled", handled, contains("a:1", "a:2", "a:3"));
+	}
+
+	@Test
+	public void ordered() {
+		// GIVEN
+		MqttMessageDispatcher d = dispatcher(10, MqttDispatchOverflowPolicy.DropNewest, true);
+
+		// WHEN
+		d.dispatch(msg("a", "1"), handler);
+		d.dispatch(msg("b", "1"), handler);
+		d.dispatch(msg("a", "2"), handler);
+		d.dispatch(msg("a", "3"), handler);
+
+		// THEN
+		assertThat("One task submitted per topic", tasks, hasSize(2));
+		assertThat("Queue depth", d.size(), is(equalTo(4)));
+
+		tasks.remove(0).run();
+		assertThat("Topic messages handled in order", handled, contains("a:1", "a:2", "a:3"));
+		assertThat("Queue depth", d.size(), is(equalTo(1)));
+
+		d.dispatch(msg("a", "4"), handler);
+		assertThat("New task submitted for idle topic", tasks, hasSize(2));
+
+		runTasks();
+		assertThat("All messages handled", handled,
+				contains("a:1", "a:2", "a:3", "b:1", "a:4"));
+	}
+
+	@Test
+	public void ordered_laneRejected() {
+		// GIVEN
+		final boolean[] reject = new boolean[1];
+		MqttMessageDispatcher d = new MqttMessageDispatcher(r -> {
+			if ( reject[0] ) {
+				throw new RejectedExecutionException("Shut down");
+			}
+			tasks.add(r);
+		}, 40, MqttDispatchOverflowPolicy.Block, true, (msg, h) -> {
+			try {
+				h.onMqttMessage(msg);
+			} finally {
+				ReferenceCountUtil.release(msg);
+			}
+		}, readControl::add, stats);
+		for ( int i = 0; i < 80; i++ ) {
+			d.dispatch(msg("a", String.valueOf(i)), handler);
+		}
+
+		// WHEN
+		reject[0] = true;
+		tasks.remove(0).run();
+
+		// THEN
+		assertThat("One batch handled before resubmit rejected", handled, hasSize(32));
+		assertThat("Remaining lane messages dropped", d.size(), is(equalTo(0)));
+		assertThat("Dropped messages counted", stats.get(MqttBasicCount.MessagesDropped),
+				is(equalTo(48L)));
+		assertThat("Reading resumed", readControl.get(readControl.size() - 1),
+				is(equalTo(true)));
+
+		reject[0] = false;
+		d.dispatch(msg("a", "80"), handler);
+		assertThat("New lane submitted for topic", tasks, hasSize(1));
+		runTasks();
+		assertThat("Topic not stalled", handled.get(handled.size() - 1), is(equalTo("a:80")));
+	}
+
+	@Test
+	public void ordered_dropOldest() {
+		// GIVEN
+		MqttMessageDispatcher d = dispatcher(2, MqttDispatchOverflowPolicy.DropOldest, true);
+
+		// WHEN
+		d.dispatch(msg("a", "1"), handler);
+		d.dispatch(msg("b", "1"), handler);
+		d.dispatch(msg("b", "2"), handler);
+
+		// THEN
+		assertThat("Queue depth", d.size(), is(equalTo(2)));
+		runTasks();
+		assertThat("Oldest message dropped", handled, contains("b:1", "b:2"));
+	}
+
+}
@@ -0,0 +1,118 @@
+/* ==================================================================
+ * MqttClientImplTests.java - 18/10/2026 4:02:19 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.common.mqtt.netty.client;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.MultiThreadIoEventLoopGroup;
+import io.netty.channel.nio.NioIoHandler;
+import io.netty.handler.codec.mqtt.MqttQoS;
+import io.netty.util.concurrent.Future;
+import net.solarnetwork.test.mqtt.MqttServerSupport;
+
+/**
+ * Test cases for the {@link MqttClientImpl} class.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class MqttClientImplTests extends MqttServerSupport {
+
+	private static final int TIMEOUT_SECS = 20;
+
+	private EventLoopGroup eventLoop;
+	private MqttClientImpl client;
+
+	@Before
+	public void setup() {
+		setupMqttServer();
+		MqttClientConfig config = new MqttClientConfig();
+		config.setClientId("netty.test");
+		config.setReconnect(false);
+		eventLoop = new MultiThreadIoEventLoopGroup(1, NioIoHandler.newFactory());
+		client = new MqttClientImpl(config, null);
+		client.setEventLoop(eventLoop);
+	}
+
+	@Override
+	@After
+	public void teardown() {
+		try {
+			client.disconnect().get(TIMEOUT_SECS, TimeUnit.SECONDS);
+		} catch ( Exception e ) {
+			// ignore
+		}
+		eventLoop.shutdownGracefully(0, 1, TimeUnit.SECONDS);
+		super.teardown();
+	}
+
+	private static void awaitRefCnt(ByteBuf buf, int expected) throws InterruptedException {
+		for ( int i = 0; i < 100 && buf.refCnt() != expected; i++ ) {
+			Thread.sleep(10);
+		}
+	}
+
+	private void publishWhileDisconnected(MqttQoS qos) throws Exception {
+		// GIVEN
+		ByteBuf payload = Unpooled.copiedBuffer("Hello, world.", UTF_8);
+
+		// WHEN
+		Future<Void> f = client.publish("foo", payload, qos);
+
+		// THEN
+		assertThat("Publish deferred until connected", f.isDone(), is(equalTo(false)));
+		assertThat("Payload retained by message and pending publish", payload.refCnt(),
+				is(equalTo(2)));
+
+		// WHEN
+		client.connect("localhost", getMqttServerPort()).get(TIMEOUT_SECS, TimeUnit.SECONDS);
+		f.get(TIMEOUT_SECS, TimeUnit.SECONDS);
+		awaitRefCnt(payload, 0);
+
+		// THEN
+		assertThat("Deferred publish succeeded", f.isSuccess(), is(equalTo(true)));
+		assertThat("Payload released once by write and once by completion", payload.refCnt(),
+				is(equalTo(0)));
+		assertThat("No publishes pending", client.getPendingPublishCount(), is(equalTo(0)));
+	}
+
+	@Test
+	public void publishWhileDisconnected_qos0() throws Exception {
+		publishWhileDisconnected(MqttQoS.AT_MOST_ONCE);
+	}
+
+	@Test
+	public void publishWhileDisconnected_qos1() throws Exception {
+		publishWhileDisconnected(MqttQoS.AT_LEAST_ONCE);
+	}
+
+}
@@ -0,0 +1,182 @@
+/* ==================================================================
+ * MqttPendingPublishWindowTests.java - 16/10/2026 3:48:20 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.common.mqtt.netty.client;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.mqtt.MqttFixedHeader;
+import io.netty.handler.codec.mqtt.MqttMessageType;
+import io.netty.handler.codec.mqtt.MqttPublishMessage;
+import io.netty.handler.codec.mqtt.MqttPublishVariableHeader;
+import io.netty.handler.codec.mqtt.MqttQoS;
+import io.netty.util.concurrent.DefaultPromise;
+import io.netty.util.concurrent.ImmediateEventExecutor;
+
+/**
+ * Test cases for the {@link MqttPendingPublishWindow} class.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class MqttPendingPublishWindowTests {
+
+	private MqttPendingPublishWindow window;
+
+	@Before
+	public void setup() {
+		window = new MqttPendingPublishWindow();
+	}
+
+	private static MqttPendingPublish pending(int messageId) {
+		MqttFixedHeader fixedHeader = new MqttFixedHeader(MqttMessageType.PUBLISH, false,
+				MqttQoS.AT_LEAST_ONCE, false, 0);
+		MqttPublishMessage msg = new MqttPublishMessage(fixedHeader,
+				new MqttPublishVariableHeader("foo", messageId), Unpooled.EMPTY_BUFFER);
+		return new MqttPendingPublish(messageId, new DefaultPromise<>(ImmediateEventExecutor.INSTANCE),
+				Unpooled.EMPTY_BUFFER, msg, MqttQoS.AT_LEAST_ONCE, false);
+	}
+
+	@Test
+	public void putAndGet() {
+		// GIVEN
+		MqttPendingPublish p1 = pending(1);
+		MqttPendingPublish p2 = pending(MqttPendingPublishWindow.MAX_PACKET_ID);
+
+		// WHEN
+		MqttPendingPublish old1 = window.put(p1);
+		MqttPendingPublish old2 = window.put(p2);
+
+		// THEN
+		assertThat("No previous value", old1, is(nullValue()));
+		assertThat("No previous value", old2, is(nullValue()));
+		assertThat("Size", window.size(), is(equalTo(2)));
+		assertThat("Get first ID", window.get(1), is(sameInstance(p1)));
+		assertThat("Get last ID", window.get(MqttPendingPublishWindow.MAX_PACKET_ID),
+				is(sameInstance(p2)));
+		assertThat("Get unknown ID", window.get(2), is(nullValue()));
+		assertThat("Get out of range ID", window.get(0), is(nullValue()));
+		assertThat("Get out of range ID", window.get(MqttPendingPublishWindow.MAX_PACKET_ID + 1),
+				is(nullValue()));
+	}
+
+	@Test
+	public void put_replace() {
+		// GIVEN
+		MqttPendingPublish p1 = pending(1);
+		MqttPendingPublish p2 = pending(1);
+		window.put(p1);
+
+		// WHEN
+		MqttPendingPublish old = window.put(p2);
+
+		// THEN
+		assertThat("Previous value returned", old, is(sameInstance(p1)));
+		assertThat("Size unchanged", window.size(), is(equalTo(1)));
+		assertThat("Value replaced", window.get(1), is(sameInstance(p2)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void put_outOfRange() {
+		window.put(pending(0));
+	}
+
+	@Test
+	public void remove() {
+		// GIVEN
+		MqttPendingPublish p1 = pending(1);
+		window.put(p1);
+
+		// WHEN
+		MqttPendingPublish removed = window.remove(1);
+
+		// THEN
+		assertThat("Removed value returned", removed, is(sameInstance(p1)));
+		assertThat("Window empty", window.isEmpty(), is(equalTo(true)));
+		assertThat("Remove again", window.remove(1), is(nullValue()));
+	}
+
+	@Test
+	public void remove_instance() {
+		// GIVEN
+		MqttPendingPublish p1 = pending(1);
+		MqttPendingPublish p2 = pending(1);
+		window.put(p1);
+
+		// THEN
+		assertThat("Other instance not removed", window.remove(p2), is(equalTo(false)));
+		assertThat("Size unchanged", window.size(), is(equalTo(1)));
+		assertThat("Instance removed", window.remove(p1), is(equalTo(true)));
+		assertThat("Window empty", window.isEmpty(), is(equalTo(true)));
+	}
+
+	@Test
+	public void forEach() {
+		// GIVEN
+		MqttPendingPublish p1 = pending(3);
+		MqttPendingPublish p2 = pending(1);
+		MqttPendingPublish p3 = pending(200);
+		window.put(p1);
+		window.put(p2);
+		window.put(p3);
+
+		// WHEN
+		List<MqttPendingPublish> result = new ArrayList<>();
+		window.forEach(p -> {
+			result.add(p);
+			window.remove(p);
+		});
+
+		// THEN
+		assertThat("Iterated in ID order", result, contains(p2, p1, p3));
+		assertThat("Window empty after removing during iteration", window.isEmpty(),
+				is(equalTo(true)));
+	}
+
+	@Test
+	public void clear() {
+		// GIVEN
+		MqttPendingPublish p1 = pending(1);
+		MqttPendingPublish p2 = pending(2);
+		window.put(p1);
+		window.put(p2);
+
+		// WHEN
+		List<MqttPendingPublish> result = new ArrayList<>();
+		window.clear(result::add);
+
+		// THEN
+		assertThat("Cleared values passed to consumer", result, contains(p1, p2));
+		assertThat("Window empty", window.isEmpty(), is(equalTo(true)));
+		assertThat("Value removed", window.get(1), is(nullValue()));
+	}
+
+}
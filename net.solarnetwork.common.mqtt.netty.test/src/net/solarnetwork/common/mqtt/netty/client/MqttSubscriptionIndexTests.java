@@ -0,0 +1,218 @@
+/* ==================================================================
+ * MqttSubscriptionIndexTests.java - 16/10/2026 10:04:12 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.common.mqtt.netty.client;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import java.util.ArrayList;
+import java.util.List;
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+import net.solarnetwork.common.mqtt.MqttMessageHandler;
+
+/**
+ * Test cases for the {@link MqttSubscriptionIndex} class.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class MqttSubscriptionIndexTests {
+
+	private MqttMessageHandler handler;
+	private MqttSubscriptionIndex index;
+
+	@Before
+	public void setup() {
+		handler = EasyMock.createMock(MqttMessageHandler.class);
+		index = new MqttSubscriptionIndex();
+	}
+
+	private MqttSubscription sub(String topic) {
+		MqttSubscription s = new MqttSubscription(topic, handler, false);
+		index.add(s);
+		return s;
+	}
+
+	@Test
+	public void exactMatch() {
+		// GIVEN
+		MqttSubscription s1 = sub("foo/bar");
+		sub("foo/bam");
+		sub("foo");
+
+		// THEN
+		assertThat("Exact topic matched", index.matches("foo/bar"), containsInAnyOrder(s1));
+		assertThat("Unknown topic not matched", index.matches("foo/bar/bam"), is(empty()));
+	}
+
+	@Test
+	public void singleLevelWildcard() {
+		// GIVEN
+		MqttSubscription s1 = sub("foo/+/bar");
+		MqttSubscription s2 = sub("foo/1/bar");
+		MqttSubscription s3 = sub("+/+/+");
+
+		// THEN
+		assertThat("Wildcard and exact topic matched", index.matches("foo/1/bar"),
+				containsInAnyOrder(s1, s2, s3));
+		assertThat("Wildcard matched", index.matches("foo/2/bar"), containsInAnyOrder(s1, s3));
+		assertThat("Wildcard matches empty level", index.matches("foo//bar"),
+				containsInAnyOrder(s1, s3));
+		assertThat("Wildcard does not match missing level", index.matches("foo/bar"), is(empty()));
+	}
+
+	@Test
+	public void multiLevelWildcard() {
+		// GIVEN
+		MqttSubscription s1 = sub("foo/#");
+		MqttSubscription s2 = sub("#");
+		MqttSubscription s3 = sub("foo/+/#");
+
+		// THEN
+		assertThat("Parent level matched", index.matches("foo"), containsInAnyOrder(s1, s2));
+		assertThat("Child level matched", index.matches("foo/bar"), containsInAnyOrder(s1, s2, s3));
+		assertThat("Descendant level matched", index.matches("foo/bar/bam/pow"),
+				containsInAnyOrder(s1, s2, s3));
+		assertThat("Other topic matched", index.matches("bar"), containsInAnyOrder(s2));
+	}
+
+	@Test
+	public void systemTopic() {
+		// GIVEN
+		sub("#");
+		sub("+/foo");
+		MqttSubscription s3 = sub("$SYS/#");
+
+		// THEN
+		assertThat("First-level wildcards do not match system topic", index.matches("$SYS/foo"),
+				containsInAnyOrder(s3));
+	}
+
+	@Test
+	public void sharedSubscription() {
+		// GIVEN
+		MqttSubscription s1 = sub("$share/GROUP1/foo/+/bar");
+
+		// THEN
+		assertThat("Shared subscription matched by underlying topic", index.matches("foo/1/bar"),
+				containsInAnyOrder(s1));
+		assertThat("Shared subscription removed", index.remove(s1), is(equalTo(true)));
+		assertThat("Index empty", index.isEmpty(), is(equalTo(true)));
+	}
+
+	@Test
+	public void addDuplicate() {
+		// GIVEN
+		MqttSubscription s1 = sub("foo/bar");
+
+		// WHEN
+		boolean added = index.add(new MqttSubscription("foo/bar", handler, false));
+
+		// THEN
+		assertThat("Duplicate not added", added, is(equalTo(false)));
+		assertThat("Single match", index.matches("foo/bar"), containsInAnyOrder(s1));
+	}
+
+	@Test
+	public void remove() {
+		// GIVEN
+		MqttSubscription s1 = sub("foo/bar");
+		MqttSubscription s2 = sub("foo/#");
+		MqttSubscription s3 = sub("foo/+");
+
+		// WHEN
+		boolean removed1 = index.remove(s1);
+		boolean removed2 = index.remove(s2);
+
+		// THEN
+		assertThat("Subscription removed", removed1, is(equalTo(true)));
+		assertThat("Wildcard subscription removed", removed2, is(equalTo(true)));
+		assertThat("Remaining subscription matched", index.matches("foo/bar"),
+				containsInAnyOrder(s3));
+		assertThat("Remove missing subscription", index.remove(s1), is(equalTo(false)));
+
+		index.remove(s3);
+		assertThat("Empty nodes pruned", index.isEmpty(), is(equalTo(true)));
+	}
+
+	@Test
+	public void clear() {
+		// GIVEN
+		sub("foo/bar");
+		sub("foo/#");
+
+		// WHEN
+		index.clear();
+
+		// THEN
+		assertThat("Index empty", index.isEmpty(), is(equalTo(true)));
+		assertThat("No matches", index.matches("foo/bar"), is(empty()));
+	}
+
+	@Test
+	public void manyChildren() {
+		// GIVEN
+		List<MqttSubscription> subs = new ArrayList<>();
+		for ( int i = 0; i < 500; i++ ) {
+			subs.add(sub("node/" + i + "/datum"));
+		}
+
+		// THEN
+		for ( int i = 0; i < 500; i++ ) {
+			assertThat("Topic matched " + i, index.matches("node/" + i + "/datum"),
+					containsInAnyOrder(subs.get(i)));
+		}
+		for ( int i = 0; i < 500; i += 2 ) {
+			index.remove(subs.get(i));
+		}
+		for ( int i = 0; i < 500; i++ ) {
+			if ( i % 2 == 0 ) {
+				assertThat("Removed topic not matched " + i, index.matches("node/" + i + "/datum"),
+						is(empty()));
+			} else {
+				assertThat("Topic still matched " + i, index.matches("node/" + i + "/datum"),
+						containsInAnyOrder(subs.get(i)));
+			}
+		}
+	}
+
+	@Test
+	public void findMatches_count() {
+		// GIVEN
+		sub("foo/bar");
+		sub("foo/+");
+		List<MqttSubscription> result = new ArrayList<>();
+
+		// WHEN
+		int count = index.findMatches("foo/bar", result);
+
+		// THEN
+		assertThat("Match count returned", count, is(equalTo(2)));
+		assertThat("Matches added to result", result.size(), is(equalTo(2)));
+	}
+
+}
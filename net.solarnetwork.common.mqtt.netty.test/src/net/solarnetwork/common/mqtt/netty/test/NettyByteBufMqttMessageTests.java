@@ -0,0 +1,125 @@
+/* ==================================================================
+ * NettyByteBufMqttMessageTests.java - 16/10/2026 11:41:08 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.common.mqtt.netty.test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import java.nio.ByteBuffer;
+import org.junit.Test;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.mqtt.MqttQoS;
+import net.solarnetwork.common.mqtt.MqttQos;
+import net.solarnetwork.common.mqtt.netty.NettyByteBufMqttMessage;
+
+/**
+ * Test cases for the {@link NettyByteBufMqttMessage} class.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class NettyByteBufMqttMessageTests {
+
+	@Test
+	public void retainedSlice() {
+		// GIVEN
+		ByteBuf buf = Unpooled.directBuffer().writeBytes("xxHello".getBytes(UTF_8));
+		buf.readerIndex(2);
+
+		// WHEN
+		NettyByteBufMqttMessage msg = NettyByteBufMqttMessage.retainedSliceOf("foo", true,
+				MqttQoS.AT_LEAST_ONCE, buf);
+
+		// THEN
+		assertThat("Source buffer retained", buf.refCnt(), is(equalTo(2)));
+		assertThat("Topic", msg.getTopic(), is(equalTo("foo")));
+		assertThat("Retained", msg.isRetained(), is(equalTo(true)));
+		assertThat("QoS", msg.getQosLevel(), is(equalTo(MqttQos.AtLeastOnce)));
+		assertThat("Content is read-only", msg.content().isReadOnly(), is(equalTo(true)));
+		assertThat("Payload length", msg.getPayloadLength(), is(equalTo(5)));
+
+		msg.release();
+		assertThat("Source buffer released by message", buf.refCnt(), is(equalTo(1)));
+		buf.release();
+	}
+
+	@Test
+	public void payloadBuffer() {
+		// GIVEN
+		ByteBuf buf = Unpooled.wrappedBuffer("Hello".getBytes(UTF_8));
+		NettyByteBufMqttMessage msg = new NettyByteBufMqttMessage("foo", false,
+				MqttQoS.AT_MOST_ONCE, buf);
+
+		// WHEN
+		ByteBuffer b1 = msg.getPayloadBuffer();
+		b1.get();
+		ByteBuffer b2 = msg.getPayloadBuffer();
+
+		// THEN
+		assertThat("Buffer is read-only", b1.isReadOnly(), is(equalTo(true)));
+		assertThat("Buffer views are independent", b2.remaining(), is(equalTo(5)));
+		assertThat("Content reader index not changed", msg.content().readableBytes(),
+				is(equalTo(5)));
+		msg.release();
+	}
+
+	@Test
+	public void payloadCopiedOnce() {
+		// GIVEN
+		ByteBuf buf = Unpooled.wrappedBuffer("Hello".getBytes(UTF_8));
+		NettyByteBufMqttMessage msg = new NettyByteBufMqttMessage("foo", false,
+				MqttQoS.AT_MOST_ONCE, buf);
+
+		// WHEN
+		byte[] p1 = msg.getPayload();
+		byte[] p2 = msg.getPayload();
+
+		// THEN
+		assertThat("Payload", new String(p1, UTF_8), is(equalTo("Hello")));
+		assertThat("Payload array cached", p2, is(sameInstance(p1)));
+		assertThat("Content reader index not changed", msg.content().readableBytes(),
+				is(equalTo(5)));
+		msg.release();
+	}
+
+	@Test
+	public void retainRelease() {
+		// GIVEN
+		ByteBuf buf = Unpooled.wrappedBuffer("Hello".getBytes(UTF_8));
+		NettyByteBufMqttMessage msg = new NettyByteBufMqttMessage("foo", false,
+				MqttQoS.AT_MOST_ONCE, buf);
+
+		// WHEN
+		msg.retain();
+
+		// THEN
+		assertThat("Reference count", msg.refCnt(), is(equalTo(2)));
+		assertThat("First release does not deallocate", msg.release(), is(equalTo(false)));
+		assertThat("Second release deallocates", msg.release(), is(equalTo(true)));
+		assertThat("Buffer released", buf.refCnt(), is(equalTo(0)));
+	}
+
+}
@@ -22,23 +22,52 @@
 
 package net.solarnetwork.common.mqtt.netty.test;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.Assert.fail;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import org.junit.Before;
+import org.junit.Test;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import net.solarnetwork.common.mqtt.BasicMqttMessage;
+import net.solarnetwork.common.mqtt.MqttBasicCount;
+import net.solarnetwork.common.mqtt.MqttMessage;
+import net.solarnetwork.common.mqtt.MqttMessageHandler;
+import net.solarnetwork.common.mqtt.MqttQos;
 import net.solarnetwork.common.mqtt.integration.test.MqttConnectionIntegrationTests;
+import net.solarnetwork.common.mqtt.netty.NettyByteBufMqttMessage;
 import net.solarnetwork.common.mqtt.netty.NettyMqttConnection;
 import net.solarnetwork.util.StatTracker;
+import net.solarnetwork.util.StatTracker.Accumulation;
 
 /**
  * Test cases for the {@link NettyMqttConnection} class.
  *
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public class NettyMqttConnectionTests extends MqttConnectionIntegrationTests {
 
+	private static final int TIMEOUT_SECS = 20;
+
+	private NettyMqttConnection conn;
+
 	@Override
 	@Before
 	public void setup() throws Exception {
@@ -49,9 +78,245 @@ public class NettyMqttConnectionTests extends MqttConnectionIntegrationTests {
 		config.setUid("Netty-Test");
 		config.setStats(new StatTracker("Nett-Test", null,
 				LoggerFactory.getLogger("net.solarnetwork.common.mqtt.MqttStats"), 5));
-		NettyMqttConnection conn = new NettyMqttConnection(
+		conn = new NettyMqttConnection(
 				Executors.newCachedThreadPool(new CustomizableThreadFactory("NettyMqtt-Test-")),
 				scheduler, config);
 		setService(conn);
 	}
+
+	@Test
+	public void subscribeWithSharedPayloads() throws Exception {
+		// GIVEN
+		config.setReconnect(false);
+		conn.setSharedPayloads(true);
+
+		conn.open().get(TIMEOUT_SECS, TimeUnit.SECONDS);
+
+		final CountDownLatch latch = new CountDownLatch(2);
+		final List<MqttMessage> messages = new ArrayList<>(2);
+		Future<?> f = conn.subscribe("foo", MqttQos.AtLeastOnce,
+				new RetainingMessageHandler(messages, latch));
+		f.get(TIMEOUT_SECS, TimeUnit.SECONDS);
+		f = conn.subscribe("foo", MqttQos.AtLeastOnce, new RetainingMessageHandler(messages, latch));
+		f.get(TIMEOUT_SECS, TimeUnit.SECONDS);
+
+		// WHEN
+		final String msg = "Hello, world.";
+		f = conn.publish(
+				new BasicMqttMessage("foo", false, MqttQos.AtLeastOnce, msg.getBytes(UTF_8)));
+		f.get(TIMEOUT_SECS, TimeUnit.SECONDS);
+		latch.await(TIMEOUT_SECS, TimeUnit.SECONDS);
+
+		// give a little time for handler tasks to complete
+		Thread.sleep(300);
+
+		// THEN
+		assertThat("Message delivered to both subscriptions", messages, hasSize(2));
+		assertThat("Same message instance shared", messages.get(0) == messages.get(1),
+				is(equalTo(true)));
+		MqttMessage rx = messages.get(0);
+		assertThat("Message is shared buffer", rx, is(instanceOf(NettyByteBufMqttMessage.class)));
+		NettyByteBufMqttMessage bufMsg = (NettyByteBufMqttMessage) rx;
+		assertThat("Message retained once per handler", bufMsg.refCnt(), is(equalTo(2)));
+		assertThat("Payload length", rx.getPayloadLength(), is(equalTo(msg.length())));
+		assertThat("Payload", new String(rx.getPayload(), UTF_8), is(equalTo(msg)));
+		assertThat("Message released", bufMsg.release(2), is(equalTo(true)));
+	}
+
+	@Test
+	public void publishBatch() throws Exception {
+		// GIVEN
+		config.setReconnect(false);
+		conn.setFlushConsolidationLimit(4);
+
+		conn.open().get(TIMEOUT_SECS, TimeUnit.SECONDS);
+
+		final int count = 10;
+		final CountDownLatch latch = new CountDownLatch(count);
+		final List<MqttMessage> messages = new ArrayList<>(count);
+		Future<?> f = conn.subscribe("foo/+", MqttQos.AtLeastOnce, (msg) -> {
+			synchronized ( messages ) {
+				messages.add(msg);
+			}
+			latch.countDown();
+		});
+		f.get(TIMEOUT_SECS, TimeUnit.SECONDS);
+
+		// WHEN
+		List<MqttMessage> batch = new ArrayList<>(count);
+		for ( int i = 0; i < count; i++ ) {
+			batch.add(new BasicMqttMessage("foo/" + i, false, MqttQos.AtLeastOnce,
+					String.valueOf(i).getBytes(UTF_8)));
+		}
+		List<Future<?>> results = conn.publish(batch);
+		for ( Future<?> result : results ) {
+			result.get(TIMEOUT_SECS, TimeUnit.SECONDS);
+		}
+		latch.await(TIMEOUT_SECS, TimeUnit.SECONDS);
+
+		// THEN
+		assertThat("One future returned per message", results, hasSize(count));
+		assertThat("All messages received", messages, hasSize(count));
+		// handlers are invoked on an executor, so delivery order is not guaranteed
+		Map<String, String> received = new HashMap<>(count);
+		for ( MqttMessage rx : messages ) {
+			received.put(rx.getTopic(), new String(rx.getPayload(), UTF_8));
+		}
+		for ( int i = 0; i < count; i++ ) {
+			assertThat("Message payload " + i, received.get("foo/" + i),
+					is(equalTo(String.valueOf(i))));
+		}
+	}
+
+	@Test
+	public void publishInFlightStats() throws Exception {
+		// GIVEN
+		config.setReconnect(false);
+
+		conn.open().get(TIMEOUT_SECS, TimeUnit.SECONDS);
+
+		// WHEN
+		final int count = 5;
+		List<MqttMessage> batch = new ArrayList<>(count);
+		for ( int i = 0; i < count; i++ ) {
+			batch.add(new BasicMqttMessage("foo/" + i, false, MqttQos.AtLeastOnce,
+					String.valueOf(i).getBytes(UTF_8)));
+		}
+		for ( Future<?> result : conn.publish(batch) ) {
+			result.get(TIMEOUT_SECS, TimeUnit.SECONDS);
+		}
+
+		// THEN
+		Accumulation latency = config.getStats().getAccumulation(MqttBasicCount.PublishAckLatency);
+		assertThat("Acknowledgement latency recorded for each message", latency.count(),
+				is(equalTo((long) count)));
+		assertThat("Acknowledgement latency percentiles available",
+				config.getStats().getHistogram(MqttBasicCount.PublishAckLatency, false),
+				is(notNullValue()));
+		Accumulation inFlight = config.getStats().getAccumulation(MqttBasicCount.PublishesInFlight);
+		assertThat("In-flight count sampled for each message", inFlight.count(),
+				is(equalTo((long) count)));
+		assertThat("In-flight count sampled", inFlight.max(), is(greaterThan(0L)));
+		assertThat("No publishes in flight after acknowledgement", conn.getPendingPublishCount(),
+				is(equalTo(0)));
+	}
+
+	@Test
+	public void subscribeWithOrderedDispatchQueue() throws Exception {
+		// GIVEN
+		config.setReconnect(false);
+		conn.setDispatchQueueCapacity(100);
+		conn.setDispatchOrderedByTopic(true);
+
+		conn.open().get(TIMEOUT_SECS, TimeUnit.SECONDS);
+
+		final int count = 20;
+		final CountDownLatch latch = new CountDownLatch(count);
+		final Map<String, List<String>> received = new HashMap<>(2);
+		Future<?> f = conn.subscribe("foo/+", MqttQos.AtLeastOnce, (msg) -> {
+			synchronized ( received ) {
+				received.computeIfAbsent(msg.getTopic(), k -> new ArrayList<>())
+						.add(new String(msg.getPayload(), UTF_8));
+			}
+			latch.countDown();
+		});
+		f.get(TIMEOUT_SECS, TimeUnit.SECONDS);
+
+		// WHEN
+		List<MqttMessage> batch = new ArrayList<>(count);
+		for ( int i = 0; i < count; i++ ) {
+			batch.add(new BasicMqttMessage("foo/" + (i % 2), false, MqttQos.AtLeastOnce,
+					String.valueOf(i).getBytes(UTF_8)));
+		}
+		for ( Future<?> result : conn.publish(batch) ) {
+			result.get(TIMEOUT_SECS, TimeUnit.SECONDS);
+		}
+		latch.await(TIMEOUT_SECS, TimeUnit.SECONDS);
+
+		// THEN
+		for ( int t = 0; t < 2; t++ ) {
+			List<String> expected = new ArrayList<>(count / 2);
+			for ( int i = t; i < count; i += 2 ) {
+				expected.add(String.valueOf(i));
+			}
+			assertThat("Messages for topic handled in order " + t, received.get("foo/" + t),
+					is(equalTo(expected)));
+		}
+		assertThat("Dispatch queue drained", conn.getDispatchQueueDepth(), is(equalTo(0)));
+	}
+
+	@Test
+	public void publishWithPayloadWriter() throws Exception {
+		// GIVEN
+		config.setReconnect(false);
+
+		conn.open().get(TIMEOUT_SECS, TimeUnit.SECONDS);
+
+		final CountDownLatch latch = new CountDownLatch(1);
+		final List<MqttMessage> messages = new ArrayList<>(1);
+		Future<?> f = conn.subscribe("foo", MqttQos.AtLeastOnce, (msg) -> {
+			synchronized ( messages ) {
+				messages.add(msg);
+			}
+			latch.countDown();
+		});
+		f.get(TIMEOUT_SECS, TimeUnit.SECONDS);
+
+		// WHEN
+		final String payload = "Hello, world.";
+		conn.publish("foo", MqttQos.AtLeastOnce, false, null, (out) -> {
+			out.write(payload.getBytes(UTF_8));
+		}).get(TIMEOUT_SECS, TimeUnit.SECONDS);
+		latch.await(TIMEOUT_SECS, TimeUnit.SECONDS);
+
+		// THEN
+		assertThat("Message received", messages, hasSize(1));
+		assertThat("Written payload received", new String(messages.get(0).getPayload(), UTF_8),
+				is(equalTo(payload)));
+	}
+
+	@Test
+	public void publishWithPayloadWriter_maxMessageSizeExceeded() throws Exception {
+		// GIVEN
+		config.setReconnect(false);
+		config.setMaximumMessageSize(16);
+
+		conn.open().get(TIMEOUT_SECS, TimeUnit.SECONDS);
+
+		// WHEN
+		try {
+			conn.publish("foo", MqttQos.AtLeastOnce, false, null, (out) -> {
+				out.write("Hello, world. This message is too long.".getBytes(UTF_8));
+			}).get(TIMEOUT_SECS, TimeUnit.SECONDS);
+			fail("Should have failed with maximum message size exceeded.");
+		} catch ( ExecutionException e ) {
+			// THEN
+			assertThat("Maximum message size exceeded results in IllegalArgumentException",
+					e.getCause(), instanceOf(IllegalArgumentException.class));
+		}
+	}
+
+	private static final class RetainingMessageHandler implements MqttMessageHandler {
+
+		private final List<MqttMessage> messages;
+		private final CountDownLatch latch;
+
+		private RetainingMessageHandler(List<MqttMessage> messages, CountDownLatch latch) {
+			super();
+			this.messages = messages;
+			this.latch = latch;
+		}
+
+		@Override
+		public void onMqttMessage(MqttMessage message) {
+			// retain so message can be inspected after handler returns
+			((NettyByteBufMqttMessage) message).retain();
+			synchronized ( messages ) {
+				messages.add(message);
+			}
+			latch.countDown();
+		}
+
+	}
+
 }
@@ -0,0 +1,55 @@
+/* ==================================================================
+ * MqttDispatchOverflowPolicy.java - 16/10/2026 4:22:09 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.common.mqtt.netty;
+
+/**
+ * Policy for handling received messages when a bounded message handler
+ * dispatch queue is full.
+ *
+ * @author matt
+ * @version 1.0
+ * @since 3.4
+ */
+public enum MqttDispatchOverflowPolicy {
+
+	/**
+	 * Queue the message and stop reading from the network until the queue has
+	 * drained.
+	 *
+	 * <p>
+	 * The queue can exceed its capacity by the messages already read from the
+	 * network, but no further messages are read until the queue drains to half
+	 * its capacity. The MQTT server will then apply its own flow control. If
+	 * reading is stopped for longer than the connection read timeout, the
+	 * connection will be closed and reconnected.
+	 * </p>
+	 */
+	Block,
+
+	/** Drop the oldest queued message to make room for the new message. */
+	DropOldest,
+
+	/** Drop the new message. */
+	DropNewest;
+
+}
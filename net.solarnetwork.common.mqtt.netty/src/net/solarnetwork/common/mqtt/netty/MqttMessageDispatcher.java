@@ -0,0 +1,382 @@
+/* ==================================================================
+ * MqttMessageDispatcher.java - 16/10/2026 4:31:47 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.common.mqtt.netty;
+
+import static net.solarnetwork.util.ObjectUtils.requireNonNullArgument;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import io.netty.util.ReferenceCountUtil;
+import net.solarnetwork.common.mqtt.MqttBasicCount;
+import net.solarnetwork.common.mqtt.MqttMessage;
+import net.solarnetwork.common.mqtt.MqttMessageHandler;
+import net.solarnetwork.util.StatTracker;
+
+/**
+ * Dispatch received messages to handlers on an executor, through a bounded
+ * queue.
+ *
+ * <p>
+ * At most {@code capacity} messages are queued waiting for a handler, and
+ * only as many tasks as there are queued messages are submitted to the
+ * executor. When the queue is full the configured
+ * {@link MqttDispatchOverflowPolicy} is applied.
+ * </p>
+ *
+ * <p>
+ * In ordered mode the messages for each topic are handled one at a time, in
+ * the order they were received, while different topics are handled in
+ * parallel.
+ * </p>
+ *
+ * <p>
+ * Messages are retained while queued, and released when dropped or after the
+ * handler has been invoked. If the executor rejects a topic lane being
+ * resubmitted, the messages still queued in that lane are dropped.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ * @since 3.4
+ */
+final class MqttMessageDispatcher {
+
+	/** The maximum number of messages a topic lane handles per task. */
+	private static final int LANE_BATCH_SIZE = 32;
+
+	private static final Logger log = LoggerFactory.getLogger(MqttMessageDispatcher.class);
+
+	private final Executor executor;
+	private final int capacity;
+	private final MqttDispatchOverflowPolicy overflowPolicy;
+	private final boolean ordered;
+	private final BiConsumer<MqttMessage, MqttMessageHandler> invoker;
+	private final Consumer<Boolean> readControl;
+	private final @Nullable StatTracker stats;
+
+	// all fields below guarded by this
+
+	/** The queued messages, oldest first. */
+	private @Nullable Task head;
+	private @Nullable Task tail;
+	private int size;
+	private boolean readSuspended;
+
+	/** The active topic lanes, in ordered mode. */
+	private final Map<String, Lane> lanes;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param executor
+	 *        the executor to invoke handlers on
+	 * @param capacity
+	 *        the maximum number of queued messages
+	 * @param overflowPolicy
+	 *        the policy to apply when the queue is full
+	 * @param ordered
+	 *        {@literal true} to handle messages for each topic one at a time,
+	 *        in order
+	 * @param invoker
+	 *        the function that invokes a handler for a message
+	 * @param readControl
+	 *        a function to stop ({@literal false}) or resume ({@literal true})
+	 *        reading from the network, for the
+	 *        {@link MqttDispatchOverflowPolicy#Block} policy
+	 * @param stats
+	 *        optional statistics to update
+	 * @throws IllegalArgumentException
+	 *         if any argument other than {@code stats} is {@code null} or
+	 *         {@code capacity} is less than {@literal 1}
+	 */
+	MqttMessageDispatcher(Executor executor, int capacity, MqttDispatchOverflowPolicy overflowPolicy,
+			boolean ordered, BiConsumer<MqttMessage, MqttMessageHandler> invoker,
+			Consumer<Boolean> readControl, @Nullable StatTracker stats) {
+		super();
+		this.executor = requireNonNullArgument(executor, "executor");
+		if ( capacity < 1 ) {
+			throw new IllegalArgumentException("The capacity value must be > 0");
+		}
+		this.capacity = capacity;
+		this.overflowPolicy = requireNonNullArgument(overflowPolicy, "overflowPolicy");
+		this.ordered = ordered;
+		this.invoker = requireNonNullArgument(invoker, "invoker");
+		this.readControl = requireNonNullArgument(readControl, "readControl");
+		this.stats = stats;
+		this.lanes = new HashMap<>(16);
+	}
+
+	private static final class Task {
+
+		private final MqttMessage message;
+		private final MqttMessageHandler handler;
+		private @Nullable Task prev;
+		private @Nullable Task next;
+
+		private Task(MqttMessage message, MqttMessageHandler handler) {
+			super();
+			this.message = message;
+			this.handler = handler;
+		}
+
+	}
+
+	private final class Lane implements Runnable {
+
+		private final String topic;
+		private final ArrayDeque<Task> tasks = new ArrayDeque<>(4);
+
+		private Lane(String topic) {
+			super();
+			this.topic = topic;
+		}
+
+		@Override
+		public void run() {
+			for ( int i = 0; i < LANE_BATCH_SIZE; i++ ) {
+				final Task t;
+				final boolean resume;
+				synchronized ( MqttMessageDispatcher.this ) {
+					t = tasks.pollFirst();
+					if ( t == null ) {
+						lanes.remove(topic);
+						return;
+					}
+					unlink(t);
+					resume = shouldResumeRead();
+				}
+				if ( resume ) {
+					readControl.accept(true);
+				}
+				invoker.accept(t.message, t.handler);
+			}
+			// give other topics a turn
+			try {
+				executor.execute(this);
+			} catch ( RuntimeException e ) {
+				abandon(e);
+			}
+		}
+
+		/**
+		 * Drop all queued messages after the lane could not be resubmitted.
+		 *
+		 * @param e
+		 *        the rejection exception
+		 */
+		private void abandon(RuntimeException e) {
+			final List<Task> dropped;
+			final boolean resume;
+			synchronized ( MqttMessageDispatcher.this ) {
+				if ( lanes.get(topic) == this ) {
+					lanes.remove(topic);
+				}
+				dropped = new ArrayList<>(tasks);
+				tasks.clear();
+				for ( Task t : dropped ) {
+					unlink(t);
+				}
+				resume = shouldResumeRead();
+			}
+			if ( resume ) {
+				readControl.accept(true);
+			}
+			log.warn("MQTT dispatch lane for topic [{}] rejected with {} messages remaining: {}",
+					topic, dropped.size(), e.toString());
+			for ( Task t : dropped ) {
+				ReferenceCountUtil.release(t.message);
+			}
+			final StatTracker s = stats;
+			if ( s != null && !dropped.isEmpty() ) {
+				s.increment(MqttBasicCount.MessagesDropped, dropped.size());
+			}
+		}
+
+	}
+
+	/**
+	 * Dispatch a message to a handler.
+	 *
+	 * @param message
+	 *        the message
+	 * @param handler
+	 *        the handler
+	 * @return {@literal true} if the message was queued, {@literal false} if
+	 *         it was dropped
+	 */
+	boolean dispatch(MqttMessage message, MqttMessageHandler handler) {
+		final Task task = new Task(message, handler);
+		Task dropped = null;
+		Runnable submit = null;
+		boolean suspend = false;
+		int depth;
+		synchronized ( this ) {
+			if ( size >= capacity ) {
+				switch (overflowPolicy) {
+					case DropNewest:
+						dropped = task;
+						break;
+
+					case DropOldest:
+						final Task oldest = head;
+						if ( oldest != null ) {
+							unlink(oldest);
+							if ( ordered ) {
+								// the oldest message is always at the head of its lane
+								Lane lane = lanes.get(oldest.message.getTopic());
+								if ( lane != null ) {
+									lane.tasks.pollFirst();
+								}
+							}
+							dropped = oldest;
+						}
+						break;
+
+					default:
+						// queue anyway, and stop reading below
+						break;
+				}
+			}
+			if ( dropped != task ) {
+				ReferenceCountUtil.retain(message);
+				link(task);
+				if ( ordered ) {
+					Lane lane = lanes.get(message.getTopic());
+					if ( lane == null ) {
+						lane = new Lane(message.getTopic());
+						lanes.put(lane.topic, lane);
+						submit = lane;
+					}
+					lane.tasks.addLast(task);
+				} else if ( dropped == null ) {
+					submit = this::runNext;
+				}
+				if ( size >= capacity && overflowPolicy == MqttDispatchOverflowPolicy.Block ) {
+					suspend = true;
+					readSuspended = true;
+				}
+			}
+			depth = size;
+			if ( submit != null ) {
+				try {
+					executor.execute(submit);
+				} catch ( RuntimeException e ) {
+					unlink(task);
+					if ( ordered ) {
+						lanes.remove(message.getTopic());
+					}
+					ReferenceCountUtil.release(message);
+					throw e;
+				}
+			}
+		}
+		if ( suspend ) {
+			readControl.accept(false);
+		}
+		final StatTracker s = this.stats;
+		if ( s != null ) {
+			s.add(MqttBasicCount.DispatchQueueDepth, depth, true);
+			if ( dropped != null ) {
+				s.increment(MqttBasicCount.MessagesDropped);
+			}
+		}
+		if ( dropped != null && dropped != task ) {
+			ReferenceCountUtil.release(dropped.message);
+		}
+		return (dropped != task);
+	}
+
+	private void runNext() {
+		final Task t;
+		final boolean resume;
+		synchronized ( this ) {
+			t = head;
+			if ( t != null ) {
+				unlink(t);
+			}
+			resume = shouldResumeRead();
+		}
+		if ( resume ) {
+			readControl.accept(true);
+		}
+		if ( t != null ) {
+			invoker.accept(t.message, t.handler);
+		}
+	}
+
+	/**
+	 * Get the number of queued messages.
+	 *
+	 * @return the number of messages waiting for a handler
+	 */
+	synchronized int size() {
+		return size;
+	}
+
+	private boolean shouldResumeRead() {
+		if ( readSuspended && size <= capacity / 2 ) {
+			readSuspended = false;
+			return true;
+		}
+		return false;
+	}
+
+	private void link(Task t) {
+		final Task last = tail;
+		t.prev = last;
+		if ( last == null ) {
+			head = t;
+		} else {
+			last.next = t;
+		}
+		tail = t;
+		size++;
+	}
+
+	private void unlink(Task t) {
+		final Task prev = t.prev;
+		final Task next = t.next;
+		if ( prev == null ) {
+			head = next;
+		} else {
+			prev.next = next;
+		}
+		if ( next == null ) {
+			tail = prev;
+		} else {
+			next.prev = prev;
+		}
+		t.prev = null;
+		t.next = null;
+		size--;
+	}
+
+}
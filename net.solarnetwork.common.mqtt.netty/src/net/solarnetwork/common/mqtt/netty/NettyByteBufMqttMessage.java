@@ -0,0 +1,254 @@
+/* ==================================================================
+ * NettyByteBufMqttMessage.java - 16/10/2026 11:02:47 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.common.mqtt.netty;
+
+import static net.solarnetwork.util.ObjectUtils.requireNonNullArgument;
+import java.nio.ByteBuffer;
+import org.jspecify.annotations.Nullable;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.DefaultByteBufHolder;
+import io.netty.handler.codec.mqtt.MqttQoS;
+import net.solarnetwork.common.mqtt.MqttMessage;
+import net.solarnetwork.common.mqtt.MqttProperties;
+import net.solarnetwork.common.mqtt.MqttQos;
+
+/**
+ * Netty implementation of {@link MqttMessage} that shares a reference-counted
+ * payload buffer rather than copying it.
+ *
+ * <p>
+ * The payload is held as a read-only {@link ByteBuf} view of the network
+ * buffer, and the same message instance can be delivered to any number of
+ * handlers. The {@link #getPayloadBuffer()} method returns a read-only view of
+ * the buffer without copying, while {@link #getPayload()} copies the buffer
+ * into an array the first time it is called and returns that same array
+ * thereafter.
+ * </p>
+ *
+ * <p>
+ * This message is {@link io.netty.util.ReferenceCounted}: a handler that needs
+ * to access the message after returning from
+ * {@link net.solarnetwork.common.mqtt.MqttMessageHandler#onMqttMessage(MqttMessage)}
+ * must call {@link #retain()} before returning, and then {@link #release()}
+ * when finished. The {@link #content()} buffer is shared by all handlers, so
+ * its reader index must not be modified; use {@link ByteBuf#duplicate()} to
+ * read from it.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ * @since 3.3
+ */
+public class NettyByteBufMqttMessage extends DefaultByteBufHolder implements MqttMessage {
+
+	private final String topic;
+	private final boolean retained;
+	private final MqttQos qosLevel;
+	private final @Nullable MqttProperties properties;
+
+	private volatile byte @Nullable [] payload;
+
+	/**
+	 * Constructor.
+	 *
+	 * <p>
+	 * Ownership of {@code content} is transferred to this message, which will
+	 * release it when the message is fully released.
+	 * </p>
+	 *
+	 * @param topic
+	 *        the topic
+	 * @param retained
+	 *        the retained flag
+	 * @param qos
+	 *        the quality of service flag
+	 * @param content
+	 *        the payload
+	 * @throws IllegalArgumentException
+	 *         if {@code topic} is {@code null}
+	 */
+	public NettyByteBufMqttMessage(String topic, boolean retained, MqttQoS qos, ByteBuf content) {
+		this(topic, retained, NettyMqttUtils.qosLevel(qos), content, null);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * <p>
+	 * Ownership of {@code content} is transferred to this message, which will
+	 * release it when the message is fully released.
+	 * </p>
+	 *
+	 * @param topic
+	 *        the topic
+	 * @param retained
+	 *        the retained flag
+	 * @param qosLevel
+	 *        the quality of service flag
+	 * @param content
+	 *        the payload
+	 * @param properties
+	 *        the optional properties
+	 * @throws IllegalArgumentException
+	 *         if {@code topic} or {@code qosLevel} is {@code null}
+	 */
+	public NettyByteBufMqttMessage(String topic, boolean retained, MqttQos qosLevel, ByteBuf content,
+			@Nullable MqttProperties properties) {
+		super(content.isReadOnly() ? content : content.asReadOnly());
+		this.topic = requireNonNullArgument(topic, "topic");
+		this.retained = retained;
+		this.qosLevel = requireNonNullArgument(qosLevel, "qosLevel");
+		this.properties = properties;
+	}
+
+	/**
+	 * Create a new message from a retained read-only slice of a buffer.
+	 *
+	 * <p>
+	 * The reference count of {@code payload} is increased, and the readable
+	 * bytes of {@code payload} are shared with the returned message without
+	 * copying.
+	 * </p>
+	 *
+	 * @param topic
+	 *        the topic
+	 * @param retained
+	 *        the retained flag
+	 * @param qos
+	 *        the quality of service flag
+	 * @param payload
+	 *        the payload to share
+	 * @return the new message
+	 */
+	public static NettyByteBufMqttMessage retainedSliceOf(String topic, boolean retained, MqttQoS qos,
+			ByteBuf payload) {
+		return new NettyByteBufMqttMessage(topic, retained, qos, payload.retainedSlice().asReadOnly());
+	}
+
+	@Override
+	public String getTopic() {
+		return topic;
+	}
+
+	@Override
+	public boolean isRetained() {
+		return retained;
+	}
+
+	@Override
+	public MqttQos getQosLevel() {
+		return qosLevel;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>
+	 * The payload buffer is copied into an array the first time this method is
+	 * called, and the same array returned thereafter.
+	 * </p>
+	 */
+	@Override
+	public byte @Nullable [] getPayload() {
+		byte[] result = this.payload;
+		if ( result == null ) {
+			synchronized ( this ) {
+				result = this.payload;
+				if ( result == null ) {
+					final ByteBuf buf = content();
+					result = ByteBufUtil.getBytes(buf, buf.readerIndex(), buf.readableBytes(), true);
+					this.payload = result;
+				}
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public @Nullable ByteBuffer getPayloadBuffer() {
+		final ByteBuf buf = content();
+		return buf.nioBuffer(buf.readerIndex(), buf.readableBytes()).asReadOnlyBuffer();
+	}
+
+	@Override
+	public int getPayloadLength() {
+		return content().readableBytes();
+	}
+
+	@Override
+	public @Nullable MqttProperties getProperties() {
+		return properties;
+	}
+
+	@Override
+	public NettyByteBufMqttMessage replace(ByteBuf content) {
+		return new NettyByteBufMqttMessage(topic, retained, qosLevel, content, properties);
+	}
+
+	@Override
+	public NettyByteBufMqttMessage copy() {
+		return (NettyByteBufMqttMessage) super.copy();
+	}
+
+	@Override
+	public NettyByteBufMqttMessage duplicate() {
+		return (NettyByteBufMqttMessage) super.duplicate();
+	}
+
+	@Override
+	public NettyByteBufMqttMessage retainedDuplicate() {
+		return (NettyByteBufMqttMessage) super.retainedDuplicate();
+	}
+
+	@Override
+	public NettyByteBufMqttMessage retain() {
+		super.retain();
+		return this;
+	}
+
+	@Override
+	public NettyByteBufMqttMessage retain(int increment) {
+		super.retain(increment);
+		return this;
+	}
+
+	@Override
+	public NettyByteBufMqttMessage touch() {
+		super.touch();
+		return this;
+	}
+
+	@Override
+	public NettyByteBufMqttMessage touch(Object hint) {
+		super.touch(hint);
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return "NettyByteBufMqttMessage{topic=" + topic + ", qos=" + qosLevel + ", retained="
+				+ retained + ", length=" + content().readableBytes() + "}";
+	}
+
+}
@@ -26,6 +26,9 @@ import static net.solarnetwork.util.ObjectUtils.requireNonNullArgument;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
@@ -37,6 +40,9 @@ import javax.net.ssl.TrustManagerFactory;
 import org.jspecify.annotations.Nullable;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufOutputStream;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.MultiThreadIoEventLoopGroup;
@@ -45,6 +51,7 @@ import io.netty.handler.codec.mqtt.MqttQoS;
 import io.netty.handler.codec.mqtt.MqttVersion;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.util.ReferenceCountUtil;
 import io.netty.util.concurrent.GenericFutureListener;
 import net.solarnetwork.common.mqtt.BaseMqttConnection;
 import net.solarnetwork.common.mqtt.BasicMqttConnectionConfig;
@@ -55,6 +62,8 @@ import net.solarnetwork.common.mqtt.MqttConnectionConfig;
 import net.solarnetwork.common.mqtt.MqttConnectionObserver;
 import net.solarnetwork.common.mqtt.MqttMessage;
 import net.solarnetwork.common.mqtt.MqttMessageHandler;
+import net.solarnetwork.common.mqtt.MqttPayloadWriter;
+import net.solarnetwork.common.mqtt.MqttProperties;
 import net.solarnetwork.common.mqtt.MqttProperty;
 import net.solarnetwork.common.mqtt.MqttPropertyType;
 import net.solarnetwork.common.mqtt.MqttQos;
@@ -74,21 +83,65 @@ import net.solarnetwork.util.StatTracker;
  * Netty based implementation of {@link MqttConnection}.
  *
  * @author matt
- * @version 3.3
+ * @version 3.4
  */
 public class NettyMqttConnection extends BaseMqttConnection
 		implements MqttMessageHandler, MqttClientCallback, WireLoggingSupport {
 
+	/** The initial capacity of buffers used for written payloads. */
+	private static final int PAYLOAD_BUFFER_INITIAL_CAPACITY = 256;
+
 	/** The {@code ioThreadCount} property default value. */
 	public static final int DEFAULT_IO_THREAD_COUNT = 2;
 
 	/** The {@code wireLogging} property default value. */
 	public static final boolean DEFAULT_WIRE_LOGGING = false;
 
+	/**
+	 * The {@code sharedPayloads} property default value.
+	 *
+	 * @since 3.4
+	 */
+	public static final boolean DEFAULT_SHARED_PAYLOADS = false;
+
+	/**
+	 * The {@code flushConsolidationLimit} property default value.
+	 *
+	 * @since 3.4
+	 */
+	public static final int DEFAULT_FLUSH_CONSOLIDATION_LIMIT = 0;
+
+	/**
+	 * The {@code dispatchQueueCapacity} property default value.
+	 *
+	 * @since 3.4
+	 */
+	public static final int DEFAULT_DISPATCH_QUEUE_CAPACITY = 0;
+
+	/**
+	 * The {@code dispatchOverflowPolicy} property default value.
+	 *
+	 * @since 3.4
+	 */
+	public static final MqttDispatchOverflowPolicy DEFAULT_DISPATCH_OVERFLOW_POLICY = MqttDispatchOverflowPolicy.Block;
+
+	/**
+	 * The {@code dispatchOrderedByTopic} property default value.
+	 *
+	 * @since 3.4
+	 */
+	public static final boolean DEFAULT_DISPATCH_ORDERED_BY_TOPIC = false;
+
 	private int ioThreadCount = DEFAULT_IO_THREAD_COUNT;
 	private boolean wireLogging = DEFAULT_WIRE_LOGGING;
+	private boolean sharedPayloads = DEFAULT_SHARED_PAYLOADS;
+	private int flushConsolidationLimit = DEFAULT_FLUSH_CONSOLIDATION_LIMIT;
+	private int dispatchQueueCapacity = DEFAULT_DISPATCH_QUEUE_CAPACITY;
+	private MqttDispatchOverflowPolicy dispatchOverflowPolicy = DEFAULT_DISPATCH_OVERFLOW_POLICY;
+	private boolean dispatchOrderedByTopic = DEFAULT_DISPATCH_ORDERED_BY_TOPIC;
 
 	private volatile @Nullable MqttClient client;
+	private volatile @Nullable MqttMessageDispatcher dispatcher;
 
 	/**
 	 * Constructor.
@@ -167,6 +220,7 @@ public class NettyMqttConnection extends BaseMqttConnection
 			MqttConnectResult r = null;
 			MqttClientConfig config = null;
 			try {
+				dispatcher = createDispatcher();
 				config = createClientConfig(connectionConfig);
 			} catch ( RuntimeException e ) {
 				log.warn("Invalid {} MQTT configuration: {}", getUid(), e.toString(), e);
@@ -359,6 +413,8 @@ public class NettyMqttConnection extends BaseMqttConnection
 		config.setReadTimeoutSeconds(connConfig.getReadTimeoutSeconds());
 		config.setWriteTimeoutSeconds(connConfig.getWriteTimeoutSeconds());
 		config.setUsername(connConfig.getUsername());
+		config.setSharedPayloads(sharedPayloads);
+		config.setFlushConsolidationLimit(flushConsolidationLimit);
 		return config;
 	}
 
@@ -479,6 +535,30 @@ public class NettyMqttConnection extends BaseMqttConnection
 		}
 	}
 
+	@Override
+	public void onPublishAcknowledged(long latencyMs) {
+		StatTracker s = connectionConfig.getStats();
+		if ( s != null ) {
+			s.record(MqttBasicCount.PublishAckLatency, latencyMs);
+		}
+	}
+
+	/**
+	 * Get the number of in-flight publish messages.
+	 *
+	 * <p>
+	 * This includes messages waiting to be sent and QoS 1 or 2 messages
+	 * waiting to be acknowledged by the server.
+	 * </p>
+	 *
+	 * @return the count, or {@literal 0} if not connected
+	 * @since 3.4
+	 */
+	public int getPendingPublishCount() {
+		final MqttClient c = this.client;
+		return (c != null ? c.getPendingPublishCount() : 0);
+	}
+
 	private final class ConnectionEstablishedTask implements Runnable {
 
 		private final boolean reconnected;
@@ -534,34 +614,75 @@ public class NettyMqttConnection extends BaseMqttConnection
 
 		@Override
 		public void run() {
-			try {
-				handler.onMqttMessage(message);
-			} catch ( Exception e ) {
-				Throwable root = e;
-				while ( root.getCause() != null ) {
-					root = root.getCause();
-				}
-				log.error("Unhandled exception in MQTT message handler {} on topic {}: {}", handler,
-						message.getTopic(), root.getMessage(), e);
+			invokeHandler(message, handler);
+		}
+
+	}
+
+	private void invokeHandler(MqttMessage message, MqttMessageHandler handler) {
+		try {
+			handler.onMqttMessage(message);
+		} catch ( Exception e ) {
+			Throwable root = e;
+			while ( root.getCause() != null ) {
+				root = root.getCause();
 			}
+			log.error("Unhandled exception in MQTT message handler {} on topic {}: {}", handler,
+					message.getTopic(), root.getMessage(), e);
+		} finally {
+			ReferenceCountUtil.release(message);
 		}
+	}
 
+	private @Nullable MqttMessageDispatcher createDispatcher() {
+		if ( dispatchQueueCapacity < 1 ) {
+			return null;
+		}
+		return new MqttMessageDispatcher(executor, dispatchQueueCapacity,
+				(dispatchOverflowPolicy != null ? dispatchOverflowPolicy
+						: DEFAULT_DISPATCH_OVERFLOW_POLICY),
+				dispatchOrderedByTopic, this::invokeHandler, (read) -> {
+					final MqttClient c = this.client;
+					if ( c != null ) {
+						c.setAutoRead(read);
+					}
+				}, connectionConfig.getStats());
 	}
 
-	@Override
-	public void onMqttMessage(MqttMessage message) {
+	private void dispatchMessage(MqttMessage message, MqttMessageHandler handler) {
+		final MqttMessageDispatcher d = this.dispatcher;
+		if ( d != null ) {
+			d.dispatch(message, handler);
+			return;
+		}
+		// retain shared messages until the handler task completes
+		ReferenceCountUtil.retain(message);
+		try {
+			executor.execute(new MessageHandlerTask(message, handler));
+		} catch ( RuntimeException e ) {
+			ReferenceCountUtil.release(message);
+			throw e;
+		}
+	}
+
+	private void incrementMessageReceivedStats(MqttMessage message) {
 		StatTracker s = connectionConfig.getStats();
 		if ( s != null && message != null ) {
 			s.increment(MqttBasicCount.MessagesReceived);
-			byte[] payload = message.getPayload();
-			if ( payload != null && payload.length > 0 ) {
-				s.add(MqttBasicCount.PayloadBytesReceived, payload.length);
+			int len = message.getPayloadLength();
+			if ( len > 0 ) {
+				s.add(MqttBasicCount.PayloadBytesReceived, len);
 			}
 		}
+	}
+
+	@Override
+	public void onMqttMessage(MqttMessage message) {
+		incrementMessageReceivedStats(message);
 		MqttMessageHandler handler = this.messageHandler;
 		if ( handler != null ) {
 			// bump to another thread so MQTT processing not affected by handler execution time
-			executor.execute(new MessageHandlerTask(message, handler));
+			dispatchMessage(message, handler);
 		}
 	}
 
@@ -570,6 +691,38 @@ public class NettyMqttConnection extends BaseMqttConnection
 		if ( message == null ) {
 			return CompletableFuture.completedFuture(null);
 		}
+		return publish(this.client, message, true);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>
+	 * All messages are written to the network before a single flush is
+	 * performed.
+	 * </p>
+	 */
+	@Override
+	public List<Future<?>> publish(Collection<? extends MqttMessage> messages) {
+		final List<Future<?>> result = new ArrayList<>(messages.size());
+		final MqttClient c = this.client;
+		boolean flush = false;
+		for ( MqttMessage message : messages ) {
+			if ( message == null ) {
+				result.add(CompletableFuture.completedFuture(null));
+				continue;
+			}
+			result.add(publish(c, message, false));
+			flush = true;
+		}
+		if ( flush && c != null ) {
+			c.flush();
+		}
+		return result;
+	}
+
+	private Future<?> publish(final @Nullable MqttClient c, final MqttMessage message,
+			final boolean flush) {
 		try {
 			MqttUtils.validateTopicName(message.getTopic(), getConnectionConfig().getVersion());
 		} catch ( IllegalArgumentException e ) {
@@ -578,7 +731,6 @@ public class NettyMqttConnection extends BaseMqttConnection
 			return f;
 		}
 
-		MqttClient c = this.client;
 		if ( c == null ) {
 			CompletableFuture<Void> f = new CompletableFuture<>();
 			f.completeExceptionally(new IOException("Not connected to MQTT server."));
@@ -593,12 +745,72 @@ public class NettyMqttConnection extends BaseMqttConnection
 							getConnectionConfig().getMaximumMessageSize(), payload.length)));
 			return f;
 		}
-		io.netty.util.concurrent.Future<Void> f = c.publish(message.getTopic(),
-				Unpooled.wrappedBuffer(payload), NettyMqttUtils.qos(message.getQosLevel()),
-				message.isRetained(), message.getProperties());
+		return publish(c, message.getTopic(), Unpooled.wrappedBuffer(payload),
+				message.getQosLevel(), message.isRetained(), message.getProperties(), flush);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>
+	 * The payload is written directly into a pooled direct buffer allocated
+	 * from the network channel, without an intermediate array. If the
+	 * configured maximum message size is exceeded while writing, the returned
+	 * future completes exceptionally with an {@link IllegalArgumentException}.
+	 * </p>
+	 *
+	 * @since 3.4
+	 */
+	@Override
+	public Future<?> publish(String topic, MqttQos qosLevel, boolean retained,
+			@Nullable MqttProperties properties, MqttPayloadWriter writer) {
+		try {
+			MqttUtils.validateTopicName(topic, getConnectionConfig().getVersion());
+		} catch ( IllegalArgumentException e ) {
+			CompletableFuture<Void> f = new CompletableFuture<>();
+			f.completeExceptionally(e);
+			return f;
+		}
+
+		final MqttClient c = this.client;
+		final ByteBufAllocator alloc = (c != null ? c.getAllocator() : null);
+		if ( c == null || alloc == null ) {
+			CompletableFuture<Void> f = new CompletableFuture<>();
+			f.completeExceptionally(new IOException("Not connected to MQTT server."));
+			return f;
+		}
+
+		final int maxSize = getConnectionConfig().getMaximumMessageSize();
+		final ByteBuf buf = (maxSize > 0
+				? alloc.directBuffer(Math.min(PAYLOAD_BUFFER_INITIAL_CAPACITY, maxSize), maxSize)
+				: alloc.directBuffer(PAYLOAD_BUFFER_INITIAL_CAPACITY));
+		try {
+			writer.writePayload(new ByteBufOutputStream(buf));
+		} catch ( IndexOutOfBoundsException e ) {
+			buf.release();
+			CompletableFuture<Void> f = new CompletableFuture<>();
+			f.completeExceptionally(new IllegalArgumentException(
+					String.format("Maximum message size %d exceeded", maxSize), e));
+			return f;
+		} catch ( IOException | RuntimeException e ) {
+			buf.release();
+			CompletableFuture<Void> f = new CompletableFuture<>();
+			f.completeExceptionally(e);
+			return f;
+		}
+		return publish(c, topic, buf, qosLevel, retained, properties, true);
+	}
+
+	private Future<?> publish(final MqttClient c, final String topic, final ByteBuf payload,
+			final MqttQos qosLevel, final boolean retained, final @Nullable MqttProperties properties,
+			final boolean flush) {
+		final int payloadLength = payload.readableBytes();
+		io.netty.util.concurrent.Future<Void> f = c.publish(topic, payload,
+				NettyMqttUtils.qos(qosLevel), retained, properties, flush);
 
 		final StatTracker s = connectionConfig.getStats();
 		if ( s != null ) {
+			s.add(MqttBasicCount.PublishesInFlight, c.getPendingPublishCount());
 			f.addListener(new GenericFutureListener<io.netty.util.concurrent.Future<? super Void>>() {
 
 				@Override
@@ -606,8 +818,8 @@ public class NettyMqttConnection extends BaseMqttConnection
 						throws Exception {
 					if ( future.isSuccess() ) {
 						s.increment(MqttBasicCount.MessagesDelivered);
-						if ( payload != null && payload.length > 0 ) {
-							s.add(MqttBasicCount.PayloadBytesDelivered, payload.length);
+						if ( payloadLength > 0 ) {
+							s.add(MqttBasicCount.PayloadBytesDelivered, payloadLength);
 						}
 					} else {
 						s.increment(MqttBasicCount.MessagesDeliveredFail);
@@ -630,16 +842,9 @@ public class NettyMqttConnection extends BaseMqttConnection
 
 		@Override
 		public void onMqttMessage(MqttMessage message) {
-			StatTracker s = connectionConfig.getStats();
-			if ( s != null ) {
-				s.increment(MqttBasicCount.MessagesReceived);
-				byte[] payload = message.getPayload();
-				if ( payload != null && payload.length > 0 ) {
-					s.add(MqttBasicCount.PayloadBytesReceived, payload.length);
-				}
-			}
+			incrementMessageReceivedStats(message);
 			// bump to another thread so MQTT processing not affected by handler execution time
-			executor.execute(new MessageHandlerTask(message, delegate));
+			dispatchMessage(message, delegate);
 		}
 
 		// hashCode & equals are funny here so that the delegate is used
@@ -714,6 +919,171 @@ public class NettyMqttConnection extends BaseMqttConnection
 		this.ioThreadCount = ioThreadCount;
 	}
 
+	/**
+	 * Get the shared payloads mode.
+	 *
+	 * @return {@literal true} if inbound message payloads are shared with
+	 *         message handlers as reference-counted buffers; defaults to
+	 *         {@link #DEFAULT_SHARED_PAYLOADS}
+	 * @since 3.4
+	 */
+	public boolean isSharedPayloads() {
+		return sharedPayloads;
+	}
+
+	/**
+	 * Set the shared payloads mode.
+	 *
+	 * <p>
+	 * When enabled, inbound messages are passed to message handlers as
+	 * {@link NettyByteBufMqttMessage} instances that share a read-only view of
+	 * the network buffer, rather than having the payload copied into a new
+	 * array for each matching handler. Handlers that need to access a message
+	 * after returning must retain it, and later release it. Changes take effect
+	 * on the next connection.
+	 * </p>
+	 *
+	 * @param sharedPayloads
+	 *        {@literal true} to share inbound message payloads
+	 * @since 3.4
+	 */
+	public void setSharedPayloads(boolean sharedPayloads) {
+		this.sharedPayloads = sharedPayloads;
+	}
+
+	/**
+	 * Get the flush consolidation limit.
+	 *
+	 * @return the maximum number of published messages to consolidate into one
+	 *         network flush, or {@literal 0} to disable; defaults to
+	 *         {@link #DEFAULT_FLUSH_CONSOLIDATION_LIMIT}
+	 * @since 3.4
+	 */
+	public int getFlushConsolidationLimit() {
+		return flushConsolidationLimit;
+	}
+
+	/**
+	 * Set the flush consolidation limit.
+	 *
+	 * <p>
+	 * When greater than {@literal 0}, messages published in a burst are written
+	 * to the network together, flushing after this many messages or when no
+	 * further writes are pending, whichever comes first. Changes take effect on
+	 * the next connection.
+	 * </p>
+	 *
+	 * @param flushConsolidationLimit
+	 *        the maximum number of flushes to consolidate, or {@literal 0} to
+	 *        disable
+	 * @since 3.4
+	 */
+	public void setFlushConsolidationLimit(int flushConsolidationLimit) {
+		this.flushConsolidationLimit = flushConsolidationLimit;
+	}
+
+	/**
+	 * Get the dispatch queue capacity.
+	 *
+	 * @return the maximum number of received messages to queue for message
+	 *         handlers, or {@literal 0} for no limit; defaults to
+	 *         {@link #DEFAULT_DISPATCH_QUEUE_CAPACITY}
+	 * @since 3.4
+	 */
+	public int getDispatchQueueCapacity() {
+		return dispatchQueueCapacity;
+	}
+
+	/**
+	 * Set the dispatch queue capacity.
+	 *
+	 * <p>
+	 * Received messages are passed to message handlers on the configured
+	 * executor. When greater than {@literal 0}, at most this many messages are
+	 * queued waiting for a handler, and the {@code dispatchOverflowPolicy} is
+	 * applied when the queue is full. Changes take effect on the next
+	 * connection.
+	 * </p>
+	 *
+	 * @param dispatchQueueCapacity
+	 *        the queue capacity, or {@literal 0} for no limit
+	 * @since 3.4
+	 */
+	public void setDispatchQueueCapacity(int dispatchQueueCapacity) {
+		this.dispatchQueueCapacity = dispatchQueueCapacity;
+	}
+
+	/**
+	 * Get the dispatch overflow policy.
+	 *
+	 * @return the policy; defaults to {@link #DEFAULT_DISPATCH_OVERFLOW_POLICY}
+	 * @since 3.4
+	 */
+	public MqttDispatchOverflowPolicy getDispatchOverflowPolicy() {
+		return dispatchOverflowPolicy;
+	}
+
+	/**
+	 * Set the dispatch overflow policy.
+	 *
+	 * <p>
+	 * This policy is applied when the dispatch queue is full. Changes take
+	 * effect on the next connection.
+	 * </p>
+	 *
+	 * @param dispatchOverflowPolicy
+	 *        the policy to set; if {@code null} then
+	 *        {@link #DEFAULT_DISPATCH_OVERFLOW_POLICY} will be used
+	 * @since 3.4
+	 */
+	public void setDispatchOverflowPolicy(@Nullable MqttDispatchOverflowPolicy dispatchOverflowPolicy) {
+		this.dispatchOverflowPolicy = (dispatchOverflowPolicy != null ? dispatchOverflowPolicy
+				: DEFAULT_DISPATCH_OVERFLOW_POLICY);
+	}
+
+	/**
+	 * Get the dispatch ordered by topic mode.
+	 *
+	 * @return {@literal true} if messages for each topic are handled one at a
+	 *         time, in order; defaults to
+	 *         {@link #DEFAULT_DISPATCH_ORDERED_BY_TOPIC}
+	 * @since 3.4
+	 */
+	public boolean isDispatchOrderedByTopic() {
+		return dispatchOrderedByTopic;
+	}
+
+	/**
+	 * Set the dispatch ordered by topic mode.
+	 *
+	 * <p>
+	 * When enabled, the messages received for each topic are passed to message
+	 * handlers one at a time, in the order they were received, while messages
+	 * for different topics are handled in parallel. This mode only applies
+	 * when {@code dispatchQueueCapacity} is greater than {@literal 0}. Changes
+	 * take effect on the next connection.
+	 * </p>
+	 *
+	 * @param dispatchOrderedByTopic
+	 *        {@literal true} to handle messages for each topic in order
+	 * @since 3.4
+	 */
+	public void setDispatchOrderedByTopic(boolean dispatchOrderedByTopic) {
+		this.dispatchOrderedByTopic = dispatchOrderedByTopic;
+	}
+
+	/**
+	 * Get the number of received messages waiting for a message handler.
+	 *
+	 * @return the count; this is always {@literal 0} if the
+	 *         {@code dispatchQueueCapacity} is not greater than {@literal 0}
+	 * @since 3.4
+	 */
+	public int getDispatchQueueDepth() {
+		final MqttMessageDispatcher d = this.dispatcher;
+		return (d != null ? d.size() : 0);
+	}
+
 	@Override
 	public boolean isWireLoggingEnabled() {
 		return wireLogging;
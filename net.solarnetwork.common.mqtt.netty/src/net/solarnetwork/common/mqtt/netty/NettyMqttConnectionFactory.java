@@ -33,7 +33,7 @@ import net.solarnetwork.common.mqtt.WireLoggingSupport;
  * Netty implementation of {@link MqttConnectionFactory}.
  * 
  * @author matt
- * @version 1.1
+ * @version 1.2
  */
 public class NettyMqttConnectionFactory implements MqttConnectionFactory, WireLoggingSupport {
 
@@ -41,6 +41,11 @@ public class NettyMqttConnectionFactory implements MqttConnectionFactory, WireLo
 	private final TaskScheduler scheduler;
 	private int ioThreadCount = NettyMqttConnection.DEFAULT_IO_THREAD_COUNT;
 	private boolean wireLogging = NettyMqttConnection.DEFAULT_WIRE_LOGGING;
+	private boolean sharedPayloads = NettyMqttConnection.DEFAULT_SHARED_PAYLOADS;
+	private int flushConsolidationLimit = NettyMqttConnection.DEFAULT_FLUSH_CONSOLIDATION_LIMIT;
+	private int dispatchQueueCapacity = NettyMqttConnection.DEFAULT_DISPATCH_QUEUE_CAPACITY;
+	private MqttDispatchOverflowPolicy dispatchOverflowPolicy = NettyMqttConnection.DEFAULT_DISPATCH_OVERFLOW_POLICY;
+	private boolean dispatchOrderedByTopic = NettyMqttConnection.DEFAULT_DISPATCH_ORDERED_BY_TOPIC;
 
 	/**
 	 * Constructor.
@@ -61,6 +66,11 @@ public class NettyMqttConnectionFactory implements MqttConnectionFactory, WireLo
 		NettyMqttConnection conn = new NettyMqttConnection(executor, scheduler, config);
 		conn.setIoThreadCount(ioThreadCount);
 		conn.setWireLoggingEnabled(wireLogging);
+		conn.setSharedPayloads(sharedPayloads);
+		conn.setFlushConsolidationLimit(flushConsolidationLimit);
+		conn.setDispatchQueueCapacity(dispatchQueueCapacity);
+		conn.setDispatchOverflowPolicy(dispatchOverflowPolicy);
+		conn.setDispatchOrderedByTopic(dispatchOrderedByTopic);
 		return conn;
 	}
 
@@ -83,6 +93,122 @@ public class NettyMqttConnectionFactory implements MqttConnectionFactory, WireLo
 		this.ioThreadCount = ioThreadCount;
 	}
 
+	/**
+	 * Get the shared payloads mode.
+	 * 
+	 * @return {@literal true} to share inbound message payloads; defaults to
+	 *         {@link NettyMqttConnection#DEFAULT_SHARED_PAYLOADS}
+	 * @since 1.2
+	 */
+	public boolean isSharedPayloads() {
+		return sharedPayloads;
+	}
+
+	/**
+	 * Set the shared payloads mode.
+	 * 
+	 * @param sharedPayloads
+	 *        {@literal true} to share inbound message payloads
+	 * @see NettyMqttConnection#setSharedPayloads(boolean)
+	 * @since 1.2
+	 */
+	public void setSharedPayloads(boolean sharedPayloads) {
+		this.sharedPayloads = sharedPayloads;
+	}
+
+	/**
+	 * Get the flush consolidation limit.
+	 * 
+	 * @return the flush consolidation limit; defaults to
+	 *         {@link NettyMqttConnection#DEFAULT_FLUSH_CONSOLIDATION_LIMIT}
+	 * @since 1.2
+	 */
+	public int getFlushConsolidationLimit() {
+		return flushConsolidationLimit;
+	}
+
+	/**
+	 * Set the flush consolidation limit.
+	 * 
+	 * @param flushConsolidationLimit
+	 *        the flush consolidation limit, or {@literal 0} to disable
+	 * @see NettyMqttConnection#setFlushConsolidationLimit(int)
+	 * @since 1.2
+	 */
+	public void setFlushConsolidationLimit(int flushConsolidationLimit) {
+		this.flushConsolidationLimit = flushConsolidationLimit;
+	}
+
+	/**
+	 * Get the dispatch queue capacity.
+	 * 
+	 * @return the dispatch queue capacity; defaults to
+	 *         {@link NettyMqttConnection#DEFAULT_DISPATCH_QUEUE_CAPACITY}
+	 * @since 1.2
+	 */
+	public int getDispatchQueueCapacity() {
+		return dispatchQueueCapacity;
+	}
+
+	/**
+	 * Set the dispatch queue capacity.
+	 * 
+	 * @param dispatchQueueCapacity
+	 *        the dispatch queue capacity, or {@literal 0} for no limit
+	 * @see NettyMqttConnection#setDispatchQueueCapacity(int)
+	 * @since 1.2
+	 */
+	public void setDispatchQueueCapacity(int dispatchQueueCapacity) {
+		this.dispatchQueueCapacity = dispatchQueueCapacity;
+	}
+
+	/**
+	 * Get the dispatch overflow policy.
+	 * 
+	 * @return the policy; defaults to
+	 *         {@link NettyMqttConnection#DEFAULT_DISPATCH_OVERFLOW_POLICY}
+	 * @since 1.2
+	 */
+	public MqttDispatchOverflowPolicy getDispatchOverflowPolicy() {
+		return dispatchOverflowPolicy;
+	}
+
+	/**
+	 * Set the dispatch overflow policy.
+	 * 
+	 * @param dispatchOverflowPolicy
+	 *        the policy to set
+	 * @see NettyMqttConnection#setDispatchOverflowPolicy(MqttDispatchOverflowPolicy)
+	 * @since 1.2
+	 */
+	public void setDispatchOverflowPolicy(MqttDispatchOverflowPolicy dispatchOverflowPolicy) {
+		this.dispatchOverflowPolicy = dispatchOverflowPolicy;
+	}
+
+	/**
+	 * Get the dispatch ordered by topic mode.
+	 * 
+	 * @return {@literal true} to handle messages for each topic in order;
+	 *         defaults to
+	 *         {@link NettyMqttConnection#DEFAULT_DISPATCH_ORDERED_BY_TOPIC}
+	 * @since 1.2
+	 */
+	public boolean isDispatchOrderedByTopic() {
+		return dispatchOrderedByTopic;
+	}
+
+	/**
+	 * Set the dispatch ordered by topic mode.
+	 * 
+	 * @param dispatchOrderedByTopic
+	 *        {@literal true} to handle messages for each topic in order
+	 * @see NettyMqttConnection#setDispatchOrderedByTopic(boolean)
+	 * @since 1.2
+	 */
+	public void setDispatchOrderedByTopic(boolean dispatchOrderedByTopic) {
+		this.dispatchOrderedByTopic = dispatchOrderedByTopic;
+	}
+
 	/**
 	 * Get the wire-level logging flag.
 	 * 
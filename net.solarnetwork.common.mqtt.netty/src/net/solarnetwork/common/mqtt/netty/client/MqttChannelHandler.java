@@ -17,9 +17,8 @@
 
 package net.solarnetwork.common.mqtt.netty.client;
 
-import static java.util.stream.Collectors.toList;
 import java.io.IOException;
-import java.util.LinkedHashSet;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 import org.slf4j.Logger;
@@ -49,6 +48,7 @@ import io.netty.util.concurrent.Promise;
 import net.solarnetwork.common.mqtt.BasicMqttTopicAliases;
 import net.solarnetwork.common.mqtt.MqttTopicAliases;
 import net.solarnetwork.common.mqtt.NoOpMqttTopicAliases;
+import net.solarnetwork.common.mqtt.netty.NettyByteBufMqttMessage;
 import net.solarnetwork.common.mqtt.netty.NettyMqttMessage;
 import net.solarnetwork.service.RemoteServiceException;
 
@@ -60,6 +60,9 @@ final class MqttChannelHandler extends SimpleChannelInboundHandler<MqttMessage>
 	private final Promise<MqttConnectResult> connectFuture;
 	private final MqttTopicAliases serverAliases;
 
+	// a re-usable list of matching subscriptions; only accessed from the channel's event loop
+	private final List<MqttSubscription> matchingSubscriptions = new ArrayList<>(8);
+
 	MqttChannelHandler(MqttClientImpl client, Promise<MqttConnectResult> connectFuture) {
 		this.client = client;
 		this.connectFuture = connectFuture;
@@ -164,6 +167,9 @@ final class MqttChannelHandler extends SimpleChannelInboundHandler<MqttMessage>
 				topicAlias = ((MqttProperties.IntegerProperty) prop).value();
 			}
 		}
+		final List<MqttSubscription> matches = this.matchingSubscriptions;
+		final boolean sharedPayloads = client.getClientConfig().isSharedPayloads();
+		NettyByteBufMqttMessage sharedMessage = null;
 		try {
 			final String topic;
 			if ( topicAlias != null ) {
@@ -179,34 +185,55 @@ final class MqttChannelHandler extends SimpleChannelInboundHandler<MqttMessage>
 				topic = msgTopic;
 			}
 
-			for ( MqttSubscription subscription : new LinkedHashSet<>(this.client.getSubscriptions()
-					.values().stream().flatMap(List::stream).collect(toList())) ) {
-				if ( subscription.matches(topic) ) {
-					if ( subscription.isOnce() && subscription.isCalled() ) {
-						continue;
+			this.client.getSubscriptionIndex().findMatches(topic, matches);
+			for ( int i = 0, len = matches.size(); i < len; i++ ) {
+				final MqttSubscription subscription = matches.get(i);
+				if ( subscription.isOnce() && subscription.isCalled() ) {
+					continue;
+				}
+				subscription.setCalled(true);
+				if ( sharedPayloads ) {
+					if ( sharedMessage == null ) {
+						sharedMessage = sharedMessage(topic, message);
 					}
+					subscription.getHandler().onMqttMessage(sharedMessage);
+				} else {
 					message.payload().markReaderIndex();
-					subscription.setCalled(true);
 					subscription.getHandler()
 							.onMqttMessage(new NettyMqttMessage(topic, message.fixedHeader().isRetain(),
 									message.fixedHeader().qosLevel(), message.payload()));
-					if ( subscription.isOnce() ) {
-						this.client.off(subscription.getTopic(), subscription.getHandler());
-					}
 					message.payload().resetReaderIndex();
-					handlerInvoked = true;
 				}
+				if ( subscription.isOnce() ) {
+					this.client.off(subscription.getTopic(), subscription.getHandler());
+				}
+				handlerInvoked = true;
 			}
 			if ( !handlerInvoked && client.getDefaultHandler() != null ) {
-				client.getDefaultHandler()
-						.onMqttMessage(new NettyMqttMessage(topic, message.fixedHeader().isRetain(),
-								message.fixedHeader().qosLevel(), message.payload()));
+				if ( sharedPayloads ) {
+					sharedMessage = sharedMessage(topic, message);
+					client.getDefaultHandler().onMqttMessage(sharedMessage);
+				} else {
+					client.getDefaultHandler()
+							.onMqttMessage(new NettyMqttMessage(topic, message.fixedHeader().isRetain(),
+									message.fixedHeader().qosLevel(), message.payload()));
+				}
 			}
 		} finally {
+			matches.clear();
+			if ( sharedMessage != null ) {
+				// handlers that need the message after returning must have retained it
+				sharedMessage.release();
+			}
 			message.payload().release();
 		}
 	}
 
+	private static NettyByteBufMqttMessage sharedMessage(String topic, MqttPublishMessage message) {
+		return NettyByteBufMqttMessage.retainedSliceOf(topic, message.fixedHeader().isRetain(),
+				message.fixedHeader().qosLevel(), message.payload());
+	}
+
 	private void handleConack(Channel channel, MqttConnAckMessage message) {
 		MqttProperties props = message.variableHeader().properties();
 		int maxPublishTopicAliases = 0;
@@ -244,14 +271,16 @@ final class MqttChannelHandler extends SimpleChannelInboundHandler<MqttMessage>
 							e.getValue().setSent(true);
 						});
 
-				this.client.getPendingPublishes().forEach((id, publish) -> {
+				this.client.getPendingPublishes().forEach((publish) -> {
 					if ( publish.isSent() )
 						return;
 					channel.write(publish.getMessage());
 					publish.setSent(true);
 					if ( publish.getQos() == MqttQoS.AT_MOST_ONCE ) {
 						publish.getFuture().setSuccess(null); //We don't get an ACK for QOS 0
-						this.client.getPendingPublishes().remove(publish.getMessageId());
+						this.client.getPendingPublishes().remove(publish);
+						publish.stop();
+						publish.getPayload().release();
 					}
 				});
 				channel.flush();
@@ -307,7 +336,9 @@ final class MqttChannelHandler extends SimpleChannelInboundHandler<MqttMessage>
 			CopyOnWriteArrayList<MqttSubscription> l = (CopyOnWriteArrayList<MqttSubscription>) this.client
 					.getSubscriptions()
 					.computeIfAbsent(pendingSubscription.getTopic(), k -> new CopyOnWriteArrayList<>());
-			l.addIfAbsent(subscription);
+			if ( l.addIfAbsent(subscription) ) {
+				this.client.getSubscriptionIndex().add(subscription);
+			}
 			l = (CopyOnWriteArrayList<MqttSubscription>) this.client.getHandlerToSubscription()
 					.computeIfAbsent(handler.getHandler(), k -> new CopyOnWriteArrayList<>());
 			l.addIfAbsent(subscription);
@@ -377,13 +408,13 @@ final class MqttChannelHandler extends SimpleChannelInboundHandler<MqttMessage>
 	}
 
 	private void handlePuback(MqttPubAckMessage message) {
-		MqttPendingPublish pendingPublish = this.client.getPendingPublishes()
-				.get(message.variableHeader().messageId());
+		final MqttPendingPublish pendingPublish = this.client.getPendingPublishes()
+				.remove(message.variableHeader().messageId());
 		if ( pendingPublish == null ) {
 			return;
 		}
-		pendingPublish.onPubackReceived();
-		this.client.getPendingPublishes().remove(message.variableHeader().messageId());
+		pendingPublish.stop();
+		this.client.onPublishAcknowledged(pendingPublish);
 		byte reasonCode = 0;
 		if ( message.variableHeader() instanceof MqttPubReplyMessageVariableHeader ) {
 			MqttPubReplyMessageVariableHeader rep = (MqttPubReplyMessageVariableHeader) message
@@ -433,8 +464,8 @@ final class MqttChannelHandler extends SimpleChannelInboundHandler<MqttMessage>
 		channel.writeAndFlush(pubrelMessage);
 
 		pendingPublish.setPubrelMessage(pubrelMessage);
-		pendingPublish.startPubrelRetransmissionTimer(this.client.requireEventLoop().next(),
-				this.client::sendAndFlushPacket);
+		pendingPublish.startPubrelRetransmissionTimer(this.client.getTimer(),
+				this.client.requireEventLoop().next(), this.client::sendAndFlushPacket);
 	}
 
 	private void handlePubrel(Channel channel, MqttMessage message) {
@@ -458,16 +489,16 @@ final class MqttChannelHandler extends SimpleChannelInboundHandler<MqttMessage>
 		final MqttMessageIdVariableHeader variableHeader = (MqttMessageIdVariableHeader) message
 				.variableHeader();
 		final MqttPendingPublish pendingPublish = this.client.getPendingPublishes()
-				.get(variableHeader.messageId());
+				.remove(variableHeader.messageId());
 		if ( pendingPublish == null ) {
 			log.warn("Pending publish state not found for message {}",
 					((MqttMessageIdVariableHeader) message.variableHeader()).messageId());
 			return;
 		}
+		pendingPublish.stop();
+		this.client.onPublishAcknowledged(pendingPublish);
 		pendingPublish.getFuture().setSuccess(null);
-		this.client.getPendingPublishes().remove(variableHeader.messageId());
 		pendingPublish.getPayload().release();
-		pendingPublish.onPubcompReceived();
 	}
 
 	@Override
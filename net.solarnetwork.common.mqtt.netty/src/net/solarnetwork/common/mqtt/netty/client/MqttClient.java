@@ -21,6 +21,7 @@ import static net.solarnetwork.util.ObjectUtils.requireNonNullProperty;
 import java.net.URI;
 import org.jspecify.annotations.Nullable;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.EventLoopGroup;
 import io.netty.handler.codec.mqtt.MqttQoS;
@@ -40,7 +41,7 @@ import net.solarnetwork.common.mqtt.MqttTopicAliases;
  * </p>
  *
  * @author matt
- * @version 1.2
+ * @version 1.3
  */
 public interface MqttClient {
 
@@ -340,6 +341,81 @@ public interface MqttClient {
 	Future<Void> publish(String topic, ByteBuf payload, MqttQoS qos, boolean retain,
 			@Nullable MqttProperties properties);
 
+	/**
+	 * Publish a message to the given payload, using the given QOS and optional
+	 * retain flag, with control over flushing the message to the network.
+	 *
+	 * <p>
+	 * Passing {@literal false} for {@code flush} allows many messages to be
+	 * written to the network together: call {@link #flush()} after the last
+	 * message has been published. The returned future is not completed until
+	 * the message has been flushed.
+	 * </p>
+	 *
+	 * @param topic
+	 *        The topic to publish to
+	 * @param payload
+	 *        The payload to send
+	 * @param qos
+	 *        The qos to use while publishing
+	 * @param retain
+	 *        true if you want to retain the message on the server, false
+	 *        otherwise
+	 * @param properties
+	 *        properties, or {@code null}
+	 * @param flush
+	 *        {@literal true} to flush the message to the network immediately,
+	 *        {@literal false} to wait for a subsequent flush
+	 * @return A future which will be completed when the message is delivered to
+	 *         the server
+	 * @since 1.3
+	 */
+	Future<Void> publish(String topic, ByteBuf payload, MqttQoS qos, boolean retain,
+			@Nullable MqttProperties properties, boolean flush);
+
+	/**
+	 * Flush any messages previously published without being flushed.
+	 *
+	 * @since 1.3
+	 */
+	void flush();
+
+	/**
+	 * Get the buffer allocator of the active channel.
+	 *
+	 * <p>
+	 * Buffers allocated from this allocator can be passed as the payload to
+	 * the {@code publish()} methods, which take ownership of them.
+	 * </p>
+	 *
+	 * @return the allocator, or {@code null} if not connected
+	 * @since 1.3
+	 */
+	@Nullable
+	ByteBufAllocator getAllocator();
+
+	/**
+	 * Get the number of in-flight publish messages.
+	 *
+	 * <p>
+	 * This includes messages waiting to be sent and QoS 1 or 2 messages
+	 * waiting to be acknowledged by the server.
+	 * </p>
+	 *
+	 * @return the count
+	 * @since 1.3
+	 */
+	int getPendingPublishCount();
+
+	/**
+	 * Stop or resume reading messages from the active channel.
+	 *
+	 * @param autoRead
+	 *        {@literal false} to stop reading, {@literal true} to resume
+	 * @since 1.3
+	 */
+	void setAutoRead(boolean autoRead);
+
 	/**
 	 * Retrieve the MqttClient configuration.
 	 *
@@ -33,4 +33,15 @@ public interface MqttClientCallback {
      *
      */
     void onSuccessfulReconnect();
+
+    /**
+     * This method is called when a published QoS 1 or 2 message has been
+     * acknowledged by the server.
+     *
+     * @param latencyMs the time between publishing the message and receiving
+     *        the acknowledgement, in milliseconds
+     */
+    default void onPublishAcknowledged(long latencyMs) {
+        // nothing
+    }
 }
@@ -32,7 +32,7 @@ import io.netty.handler.ssl.SslContext;
  * MQTT client configuration.
  *
  * @author matt
- * @version 1.2
+ * @version 1.3
  */
 public final class MqttClientConfig {
 
@@ -54,6 +54,8 @@ public final class MqttClientConfig {
 	private boolean reconnect = true;
 	private long reconnectDelay = 1L;
 	private int maxBytesInMessage = 8092;
+	private boolean sharedPayloads = false;
+	private int flushConsolidationLimit = 0;
 
 	/**
 	 * Constructor.
@@ -365,6 +367,74 @@ public final class MqttClientConfig {
 		this.maxBytesInMessage = maxBytesInMessage;
 	}
 
+	/**
+	 * Get the shared payloads mode.
+	 *
+	 * @return {@literal true} if inbound message payloads are shared with
+	 *         message handlers as reference-counted buffer views rather than
+	 *         copied for each handler; defaults to {@literal false}
+	 * @since 1.3
+	 */
+	public boolean isSharedPayloads() {
+		return sharedPayloads;
+	}
+
+	/**
+	 * Set the shared payloads mode.
+	 *
+	 * <p>
+	 * When enabled, each inbound message is delivered to all matching handlers
+	 * as a single
+	 * {@link net.solarnetwork.common.mqtt.netty.NettyByteBufMqttMessage}
+	 * sharing a read-only view of the network buffer.
+	 * </p>
+	 *
+	 * @param sharedPayloads
+	 *        {@literal true} to share inbound message payloads
+	 * @since 1.3
+	 */
+	public void setSharedPayloads(boolean sharedPayloads) {
+		this.sharedPayloads = sharedPayloads;
+	}
+
+	/**
+	 * Get the flush consolidation limit.
+	 *
+	 * @return the maximum number of flushes to consolidate into one network
+	 *         flush, or {@literal 0} to disable flush consolidation; defaults
+	 *         to {@literal 0}
+	 * @since 1.3
+	 */
+	public int getFlushConsolidationLimit() {
+		return flushConsolidationLimit;
+	}
+
+	/**
+	 * Set the flush consolidation limit.
+	 *
+	 * <p>
+	 * When greater than {@literal 0}, a Netty
+	 * {@link io.netty.handler.flush.FlushConsolidationHandler} is added to the
+	 * channel pipeline so that messages published in a burst are written to the
+	 * network together. A flush is performed after this many messages have been
+	 * published, or when there are no further pending writes, whichever comes
+	 * first.
+	 * </p>
+	 *
+	 * @param flushConsolidationLimit
+	 *        the maximum number of flushes to consolidate, or {@literal 0} to
+	 *        disable
+	 * @throws IllegalArgumentException
+	 *         if {@code flushConsolidationLimit} is less than {@literal 0}
+	 * @since 1.3
+	 */
+	public void setFlushConsolidationLimit(int flushConsolidationLimit) {
+		if ( flushConsolidationLimit < 0 ) {
+			throw new IllegalArgumentException("flushConsolidationLimit must be >= 0");
+		}
+		this.flushConsolidationLimit = flushConsolidationLimit;
+	}
+
 	/**
 	 * Get the MQTT connection properties.
 	 *
@@ -24,16 +24,14 @@ import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -44,10 +42,12 @@ import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.MultiThreadIoEventLoopGroup;
 import io.netty.channel.nio.NioIoHandler;
@@ -69,11 +69,15 @@ import io.netty.handler.codec.mqtt.MqttTopicSubscription;
 import io.netty.handler.codec.mqtt.MqttUnsubscribeMessage;
 import io.netty.handler.codec.mqtt.MqttUnsubscribePayload;
 import io.netty.handler.codec.mqtt.MqttVersion;
+import io.netty.handler.flush.FlushConsolidationHandler;
 import io.netty.handler.logging.LoggingHandler;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.timeout.IdleStateHandler;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timer;
 import io.netty.util.collection.IntObjectHashMap;
 import io.netty.util.concurrent.DefaultPromise;
+import io.netty.util.concurrent.DefaultThreadFactory;
 import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.Promise;
 import net.solarnetwork.common.mqtt.BasicMqttTopicAliases;
@@ -85,7 +89,7 @@ import net.solarnetwork.domain.KeyValuePair;
  * Represents an MqttClientImpl connected to a single MQTT server. Will try to
  * keep the connection going at all times.
  *
- * @version 1.3
+ * @version 1.4
  */
 final class MqttClientImpl implements MqttClient {
 
@@ -98,14 +102,21 @@ final class MqttClientImpl implements MqttClient {
 	 */
 	public static final int READ_TIMEOUT_FACTOR = 2;
 
+	/**
+	 * The tick duration of the timeout wheel, in milliseconds.
+	 *
+	 * @since 1.4
+	 */
+	public static final long TIMEOUT_WHEEL_TICK_MS = 100L;
+
 	private static final Logger log = LoggerFactory.getLogger(MqttClientImpl.class);
 
 	private final Set<String> serverSubscriptions = new HashSet<>();
 	private final IntObjectHashMap<MqttPendingUnsubscription> pendingServerUnsubscribes = new IntObjectHashMap<>();
 	private final IntObjectHashMap<MqttIncomingQos2Publish> qos2PendingIncomingPublishes = new IntObjectHashMap<>();
-	private final ConcurrentMap<Integer, MqttPendingPublish> pendingPublishes = new ConcurrentHashMap<>(
-			16, 0.7f, 2);
+	private final MqttPendingPublishWindow pendingPublishes = new MqttPendingPublishWindow();
 	private final MultiValueMap<String, MqttSubscription> subscriptions = new LinkedMultiValueMap<>();
+	private final MqttSubscriptionIndex subscriptionIndex = new MqttSubscriptionIndex();
 	private final IntObjectHashMap<MqttPendingSubscription> pendingSubscriptions = new IntObjectHashMap<>();
 	private final Set<String> pendingSubscribeTopics = new HashSet<>();
 	private final MultiValueMap<MqttMessageHandler, MqttSubscription> handlerToSubscription = new LinkedMultiValueMap<>();
@@ -117,6 +128,7 @@ final class MqttClientImpl implements MqttClient {
 	private final @Nullable MqttMessageHandler defaultHandler;
 
 	private @Nullable EventLoopGroup eventLoop;
+	private @Nullable Timer timer;
 
 	private volatile @Nullable Channel channel;
 
@@ -224,9 +236,14 @@ final class MqttClientImpl implements MqttClient {
 					pendingSubscriptions.clear();
 					serverSubscriptions.clear();
 					subscriptions.clear();
+					subscriptionIndex.clear();
 					pendingServerUnsubscribes.clear();
 					qos2PendingIncomingPublishes.clear();
-					pendingPublishes.clear();
+					pendingPublishes.clear(p -> {
+						p.stop();
+						p.getFuture().tryFailure(e);
+						p.releasePayload();
+					});
 					pendingSubscribeTopics.clear();
 					handlerToSubscription.clear();
 					clientAliases.setMaximumAliasCount(0); // also clears
@@ -252,28 +269,6 @@ final class MqttClientImpl implements MqttClient {
 		}
 	}
 
-	private void cleanup() {
-		final int timeoutMins = getPendingAbortTimeoutMinutes();
-		final long timeout = TimeUnit.MINUTES.toMillis(timeoutMins);
-		if ( timeout < 1 ) {
-			return;
-		}
-		final long now = System.currentTimeMillis();
-		for ( Iterator<MqttPendingPublish> itr = getPendingPublishes().values().iterator(); itr
-				.hasNext(); ) {
-			MqttPendingPublish pending = itr.next();
-			if ( pending.getDate() + timeout < now ) {
-				log.warn("Timeout on pending publish message {}: aborting publish.",
-						pending.getMessageId());
-				pending.stop();
-				pending.getFuture().setFailure(new TimeoutException(
-						"Failed to publish message within " + timeoutMins + " minutes"));
-				pending.getPayload().release();
-				itr.remove();
-			}
-		}
-	}
-
 	@Override
 	public @Nullable URI getServerUri() {
 		String host = this.host;
@@ -313,7 +308,10 @@ final class MqttClientImpl implements MqttClient {
 	@Override
 	public void setEventLoop(EventLoopGroup eventLoop) {
 		this.eventLoop = requireNonNullArgument(eventLoop, "eventLoop");
-		eventLoop.scheduleWithFixedDelay(this::cleanup, 30, 30, TimeUnit.MINUTES);
+		final HashedWheelTimer t = new HashedWheelTimer(new DefaultThreadFactory("mqtt-timer", true),
+				TIMEOUT_WHEEL_TICK_MS, TimeUnit.MILLISECONDS);
+		this.timer = t;
+		eventLoop.terminationFuture().addListener(f -> t.stop());
 	}
 
 	@Override
@@ -350,6 +348,7 @@ final class MqttClientImpl implements MqttClient {
 						}
 						return v;
 					});
+					this.subscriptionIndex.remove(subscription);
 					subs.remove(subscription);
 				}
 			}
@@ -375,8 +374,8 @@ final class MqttClientImpl implements MqttClient {
 			if ( handSubs != null ) {
 				for ( MqttSubscription handSub : handSubs ) {
 					this.subscriptions.computeIfPresent(topic, (k, v) -> {
-						if ( v != null ) {
-							v.remove(handSub);
+						if ( v != null && v.remove(handSub) ) {
+							this.subscriptionIndex.remove(handSub);
 						}
 						return v;
 					});
@@ -416,6 +415,12 @@ final class MqttClientImpl implements MqttClient {
 	@Override
 	public Future<Void> publish(String topic, ByteBuf payload, MqttQoS qos, boolean retain,
 			net.solarnetwork.common.mqtt.@Nullable MqttProperties properties) {
+		return publish(topic, payload, qos, retain, properties, true);
+	}
+
+	@Override
+	public Future<Void> publish(String topic, ByteBuf payload, MqttQoS qos, boolean retain,
+			net.solarnetwork.common.mqtt.@Nullable MqttProperties properties, boolean flush) {
 		Promise<Void> future = new DefaultPromise<>(requireEventLoop().next());
 		MqttFixedHeader fixedHeader = new MqttFixedHeader(MqttMessageType.PUBLISH, false, qos, retain,
 				0);
@@ -439,33 +444,44 @@ final class MqttClientImpl implements MqttClient {
 
 		final boolean retransmit = (publishRetransmit && qos != MqttQoS.AT_MOST_ONCE
 				|| qos == MqttQoS.EXACTLY_ONCE);
-		MqttPublishVariableHeader variableHeader = new MqttPublishVariableHeader(topic,
-				getNewMessageId().messageId(), props);
+		final int messageId = getNewPublishMessageId();
+		if ( messageId < 1 ) {
+			payload.release();
+			future.setFailure(new IllegalStateException(
+					"No packet identifier available: " + pendingPublishes.size() + " in flight."));
+			return future;
+		}
+		MqttPublishVariableHeader variableHeader = new MqttPublishVariableHeader(topic, messageId,
+				props);
 		MqttPublishMessage message = new MqttPublishMessage(fixedHeader, variableHeader, payload);
 		MqttPendingPublish pendingPublish = new MqttPendingPublish(variableHeader.packetId(), future,
 				payload.retain(), message, qos, retransmit);
 
 		// immediately stash pending in case response comes immediately
-		this.pendingPublishes.put(pendingPublish.getMessageId(), pendingPublish);
-		ChannelFuture channelFuture = this.sendAndFlushPacket(message);
+		this.pendingPublishes.put(pendingPublish);
+		ChannelFuture channelFuture = (flush ? this.sendAndFlushPacket(message)
+				: this.sendPacket(message));
 
 		if ( channelFuture != null ) {
 			pendingPublish.setSent(true);
 			if ( channelFuture.cause() != null ) {
 				future.setFailure(channelFuture.cause());
-				this.pendingPublishes.remove(pendingPublish.getMessageId());
+				this.pendingPublishes.remove(pendingPublish);
 				payload.release();
 				return future;
 			}
 		}
+		// if not written, the message keeps its payload reference until it is sent after CONNACK
 		if ( pendingPublish.isSent() && pendingPublish.getQos() == MqttQoS.AT_MOST_ONCE ) {
 			pendingPublish.getFuture().setSuccess(null); //We don't get an ACK for QOS 0
-			this.pendingPublishes.remove(pendingPublish.getMessageId());
+			this.pendingPublishes.remove(pendingPublish);
 			payload.release();
+			return future;
 		} else if ( pendingPublish.isSent() && retransmit ) {
-			pendingPublish.startPublishRetransmissionTimer(requireEventLoop().next(),
+			pendingPublish.startPublishRetransmissionTimer(timer, requireEventLoop().next(),
 					this::sendAndFlushPacket);
 		}
+		startAbortTimer(pendingPublish);
 		return future;
 	}
 
@@ -493,6 +509,33 @@ final class MqttClientImpl implements MqttClient {
 		}
 	}
 
+	@Override
+	public void flush() {
+		final Channel ch = this.channel;
+		if ( ch != null ) {
+			ch.flush();
+		}
+	}
+
+	@Override
+	public @Nullable ByteBufAllocator getAllocator() {
+		final Channel ch = this.channel;
+		return (ch != null ? ch.alloc() : null);
+	}
+
+	@Override
+	public void setAutoRead(boolean autoRead) {
+		final Channel ch = this.channel;
+		if ( ch != null ) {
+			ch.config().setAutoRead(autoRead);
+		}
+	}
+
+	@Override
+	public int getPendingPublishCount() {
+		return pendingPublishes.size();
+	}
+
 	@Override
 	public MqttClientConfig getClientConfig() {
 		return clientConfig;
@@ -550,6 +593,18 @@ final class MqttClientImpl implements MqttClient {
 		return sendAndFlushPacket(this.channel, message);
 	}
 
+	@Nullable
+	ChannelFuture sendPacket(final Object message) {
+		final Channel ch = this.channel;
+		if ( ch == null ) {
+			return null;
+		}
+		if ( ch.isActive() ) {
+			return ch.write(message);
+		}
+		return ch.newFailedFuture(new ChannelClosedException("Channel is closed!"));
+	}
+
 	@Nullable
 	ChannelFuture sendAndFlushPacket(final @Nullable Channel ch, final Object message) {
 		if ( ch == null ) {
@@ -562,10 +617,99 @@ final class MqttClientImpl implements MqttClient {
 	}
 
 	private MqttMessageIdVariableHeader getNewMessageId() {
-		final int nextId = this.nextMessageId.accumulateAndGet(1, (c, d) -> {
-			return (c < 0xFFFF ? c + 1 : 1);
+		return MqttMessageIdVariableHeader.from(nextMessageId());
+	}
+
+	private int nextMessageId() {
+		return this.nextMessageId.accumulateAndGet(1, (c, d) -> {
+			return (c < MqttPendingPublishWindow.MAX_PACKET_ID ? c + 1 : 1);
 		});
-		return MqttMessageIdVariableHeader.from(nextId);
+	}
+
+	/**
+	 * Get a new packet identifier that is not used by any in-flight publish.
+	 *
+	 * @return the packet identifier, or {@literal 0} if all identifiers are in
+	 *         use
+	 */
+	private int getNewPublishMessageId() {
+		for ( int i = 0; i < MqttPendingPublishWindow.MAX_PACKET_ID; i++ ) {
+			final int id = nextMessageId();
+			if ( !pendingPublishes.contains(id) ) {
+				return id;
+			}
+		}
+		return 0;
+	}
+
+	private void startAbortTimer(final MqttPendingPublish pending) {
+		final int timeoutMins = getPendingAbortTimeoutMinutes();
+		final Timer t = this.timer;
+		if ( timeoutMins < 1 || t == null ) {
+			return;
+		}
+		pending.startAbortTimer(t, timeoutMins, TimeUnit.MINUTES, timeout -> {
+			// the wheel only tracks the timeout, the abort happens on the event loop
+			final Runnable abort = () -> abortPendingPublish(pending, timeoutMins);
+			final Channel ch = this.channel;
+			final EventLoopGroup group = getEventLoop();
+			final EventLoop loop = (ch != null ? ch.eventLoop()
+					: group != null ? group.next() : null);
+			if ( loop == null ) {
+				abort.run();
+				return;
+			}
+			try {
+				loop.execute(abort);
+			} catch ( RejectedExecutionException e ) {
+				// event loop shut down
+				abort.run();
+			}
+		});
+		if ( pendingPublishes.get(pending.getMessageId()) != pending ) {
+			// completed while starting timer
+			pending.stop();
+		}
+	}
+
+	private void abortPendingPublish(final MqttPendingPublish pending, final int timeoutMins) {
+		if ( pendingPublishes.remove(pending) ) {
+			log.warn("Timeout on pending publish message {}: aborting publish.",
+					pending.getMessageId());
+			pending.stop();
+			pending.getFuture().tryFailure(new TimeoutException(
+					"Failed to publish message within " + timeoutMins + " minutes"));
+			pending.releasePayload();
+		}
+	}
+
+	/**
+	 * Get the timeout wheel.
+	 *
+	 * @return the timer, or {@code null} if no event loop has been configured
+	 * @since 1.4
+	 */
+	@Nullable
+	Timer getTimer() {
+		return timer;
+	}
+
+	/**
+	 * Handle the acknowledgement of a pending publish.
+	 *
+	 * @param pending
+	 *        the acknowledged publish
+	 * @since 1.4
+	 */
+	void onPublishAcknowledged(MqttPendingPublish pending) {
+		final MqttClientCallback callback = this.callback;
+		if ( callback != null ) {
+			try {
+				callback.onPublishAcknowledged(System.currentTimeMillis() - pending.getDate());
+			} catch ( Throwable t ) {
+				// ignore
+			}
+		}
 	}
 
 	private Channel requireChannel() {
@@ -586,7 +730,9 @@ final class MqttClientImpl implements MqttClient {
 			MqttSubscription subscription = new MqttSubscription(topic, handler, once);
 			CopyOnWriteArrayList<MqttSubscription> l = (CopyOnWriteArrayList<MqttSubscription>) this.subscriptions
 					.computeIfAbsent(topic, k -> new CopyOnWriteArrayList<>());
-			l.addIfAbsent(subscription);
+			if ( l.addIfAbsent(subscription) ) {
+				this.subscriptionIndex.add(subscription);
+			}
 			l = (CopyOnWriteArrayList<MqttSubscription>) this.handlerToSubscription
 					.computeIfAbsent(handler, k -> new CopyOnWriteArrayList<>());
 			l.addIfAbsent(subscription);
@@ -644,6 +790,20 @@ final class MqttClientImpl implements MqttClient {
 		return subscriptions;
 	}
 
+	/**
+	 * Get the subscription index, for routing inbound messages.
+	 *
+	 * <p>
+	 * The index must be kept in sync with {@link #getSubscriptions()}.
+	 * </p>
+	 *
+	 * @return the subscription index
+	 * @since 1.4
+	 */
+	MqttSubscriptionIndex getSubscriptionIndex() {
+		return subscriptionIndex;
+	}
+
 	Set<String> getPendingSubscribeTopics() {
 		return pendingSubscribeTopics;
 	}
@@ -660,7 +820,7 @@ final class MqttClientImpl implements MqttClient {
 		return pendingServerUnsubscribes;
 	}
 
-	ConcurrentMap<Integer, MqttPendingPublish> getPendingPublishes() {
+	MqttPendingPublishWindow getPendingPublishes() {
 		return pendingPublishes;
 	}
 
@@ -685,6 +845,12 @@ final class MqttClientImpl implements MqttClient {
 
 		@Override
 		protected void initChannel(SocketChannel ch) throws Exception {
+			final int flushLimit = clientConfig.getFlushConsolidationLimit();
+			if ( flushLimit > 0 ) {
+				// must be first in pipeline to consolidate flushes of all downstream handlers
+				ch.pipeline().addLast("flushConsolidation",
+						new FlushConsolidationHandler(flushLimit, true));
+			}
 			if ( sslContext != null ) {
 				ch.pipeline().addLast(sslContext.newHandler(ch.alloc(), host, port));
 			}
@@ -18,6 +18,7 @@
 package net.solarnetwork.common.mqtt.netty.client;
 
 import static net.solarnetwork.util.ObjectUtils.requireNonNullProperty;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import org.jspecify.annotations.Nullable;
 import io.netty.buffer.ByteBuf;
@@ -25,12 +26,15 @@ import io.netty.channel.EventLoop;
 import io.netty.handler.codec.mqtt.MqttMessage;
 import io.netty.handler.codec.mqtt.MqttPublishMessage;
 import io.netty.handler.codec.mqtt.MqttQoS;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.netty.util.TimerTask;
 import io.netty.util.concurrent.Promise;
 
 /**
  * An in-flight publish message.
  *
- * @version 1.1
+ * @version 1.3
  */
 final class MqttPendingPublish {
 
@@ -44,6 +48,8 @@ final class MqttPendingPublish {
 	private final @Nullable RetransmissionHandler<MqttPublishMessage> publishRetransmissionHandler;
 	private final @Nullable RetransmissionHandler<MqttMessage> pubrelRetransmissionHandler;
 
+	private volatile @Nullable Timeout abortTimeout;
+
 	private boolean sent = false;
 
 	MqttPendingPublish(int messageId, Promise<Void> future, ByteBuf payload, MqttPublishMessage message,
@@ -78,6 +84,25 @@ final class MqttPendingPublish {
 		return payload;
 	}
 
+	/**
+	 * Release the payload references held by this publish, when it is removed
+	 * without being acknowledged.
+	 *
+	 * <p>
+	 * If the message has not been sent, the payload reference owned by the
+	 * message is released as well, as it will never be released by writing
+	 * the message.
+	 * </p>
+	 *
+	 * @since 1.3
+	 */
+	void releasePayload() {
+		if ( !sent ) {
+			payload.release();
+		}
+		payload.release();
+	}
+
 	boolean isSent() {
 		return sent;
 	}
@@ -104,13 +129,31 @@ final class MqttPendingPublish {
 		return date;
 	}
 
-	void startPublishRetransmissionTimer(EventLoop eventLoop, Consumer<Object> sendPacket) {
+	/**
+	 * Start a timer to abort this publish if it is not acknowledged in time.
+	 *
+	 * @param timer
+	 *        the timer to use
+	 * @param delay
+	 *        the abort delay
+	 * @param unit
+	 *        the delay unit
+	 * @param task
+	 *        the abort task
+	 * @since 1.2
+	 */
+	void startAbortTimer(Timer timer, long delay, TimeUnit unit, TimerTask task) {
+		this.abortTimeout = timer.newTimeout(task, delay, unit);
+	}
+
+	void startPublishRetransmissionTimer(@Nullable Timer timer, EventLoop eventLoop,
+			Consumer<Object> sendPacket) {
 		final RetransmissionHandler<MqttPublishMessage> publishRetransmissionHandler = requireNonNullProperty(
 				this.publishRetransmissionHandler, "Retransmission");
 		publishRetransmissionHandler.setHandler(
 				((fixedHeader, originalMessage) -> sendPacket.accept(new MqttPublishMessage(fixedHeader,
 						originalMessage.variableHeader(), this.payload.retain()))));
-		publishRetransmissionHandler.start(eventLoop);
+		publishRetransmissionHandler.start(timer, eventLoop);
 	}
 
 	void onPubackReceived() {
@@ -125,12 +168,13 @@ final class MqttPendingPublish {
 		}
 	}
 
-	void startPubrelRetransmissionTimer(EventLoop eventLoop, Consumer<Object> sendPacket) {
+	void startPubrelRetransmissionTimer(@Nullable Timer timer, EventLoop eventLoop,
+			Consumer<Object> sendPacket) {
 		final RetransmissionHandler<MqttMessage> pubrelRetransmissionHandler = requireNonNullProperty(
 				this.pubrelRetransmissionHandler, "Retransmission");
 		pubrelRetransmissionHandler.setHandler((fixedHeader, originalMessage) -> sendPacket
 				.accept(new MqttMessage(fixedHeader, originalMessage.variableHeader())));
-		pubrelRetransmissionHandler.start(eventLoop);
+		pubrelRetransmissionHandler.start(timer, eventLoop);
 	}
 
 	void onPubcompReceived() {
@@ -140,11 +184,16 @@ final class MqttPendingPublish {
 	}
 
 	/**
-	 * Stop all retransmission.
+	 * Stop all retransmission and the abort timer.
 	 *
 	 * @since 1.1
 	 */
 	void stop() {
+		final Timeout abortTimeout = this.abortTimeout;
+		if ( abortTimeout != null ) {
+			abortTimeout.cancel();
+			this.abortTimeout = null;
+		}
 		if ( publishRetransmissionHandler != null ) {
 			publishRetransmissionHandler.stop();
 		}
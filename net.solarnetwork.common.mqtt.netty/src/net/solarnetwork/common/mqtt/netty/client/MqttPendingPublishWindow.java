@@ -0,0 +1,216 @@
+/* ==================================================================
+ * MqttPendingPublishWindow.java - 16/10/2026 3:05:52 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.common.mqtt.netty.client;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A window of in-flight {@link MqttPendingPublish} instances, indexed by
+ * packet identifier.
+ *
+ * <p>
+ * MQTT packet identifiers are limited to the range {@code 1 - 65535}, so
+ * pending publishes are stored in an array slot indexed by their identifier.
+ * This avoids boxing the identifiers and allocating map entries for every
+ * message.
+ * </p>
+ *
+ * <p>
+ * This class is thread safe and lock-free.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ * @since 5.2
+ */
+final class MqttPendingPublishWindow {
+
+	/** The maximum MQTT packet identifier. */
+	static final int MAX_PACKET_ID = 0xFFFF;
+
+	private final AtomicReferenceArray<@Nullable MqttPendingPublish> slots = new AtomicReferenceArray<>(
+			MAX_PACKET_ID + 1);
+	private final AtomicInteger size = new AtomicInteger();
+
+	/**
+	 * Constructor.
+	 */
+	MqttPendingPublishWindow() {
+		super();
+	}
+
+	/**
+	 * Add a pending publish.
+	 *
+	 * @param pending
+	 *        the pending publish to add
+	 * @return the pending publish previously stored with the same packet
+	 *         identifier, or {@code null}
+	 * @throws IllegalArgumentException
+	 *         if the packet identifier of {@code pending} is out of range
+	 */
+	@Nullable
+	MqttPendingPublish put(MqttPendingPublish pending) {
+		final MqttPendingPublish old = slots.getAndSet(slot(pending.getMessageId()), pending);
+		if ( old == null ) {
+			size.incrementAndGet();
+		}
+		return old;
+	}
+
+	/**
+	 * Get a pending publish.
+	 *
+	 * @param messageId
+	 *        the packet identifier of the pending publish to get
+	 * @return the pending publish, or {@code null} if not available
+	 */
+	@Nullable
+	MqttPendingPublish get(int messageId) {
+		if ( messageId < 1 || messageId > MAX_PACKET_ID ) {
+			return null;
+		}
+		return slots.get(messageId);
+	}
+
+	/**
+	 * Test if a packet identifier is in use.
+	 *
+	 * @param messageId
+	 *        the packet identifier to test
+	 * @return {@code true} if a pending publish exists for {@code messageId}
+	 */
+	boolean contains(int messageId) {
+		return get(messageId) != null;
+	}
+
+	/**
+	 * Remove a pending publish.
+	 *
+	 * @param messageId
+	 *        the packet identifier of the pending publish to remove
+	 * @return the removed pending publish, or {@code null} if not available
+	 */
+	@Nullable
+	MqttPendingPublish remove(int messageId) {
+		if ( messageId < 1 || messageId > MAX_PACKET_ID ) {
+			return null;
+		}
+		final MqttPendingPublish old = slots.getAndSet(messageId, null);
+		if ( old != null ) {
+			size.decrementAndGet();
+		}
+		return old;
+	}
+
+	/**
+	 * Remove a specific pending publish.
+	 *
+	 * <p>
+	 * The pending publish will only be removed if it is still the one stored
+	 * for its packet identifier.
+	 * </p>
+	 *
+	 * @param pending
+	 *        the pending publish to remove
+	 * @return {@code true} if {@code pending} was removed
+	 */
+	boolean remove(MqttPendingPublish pending) {
+		final int messageId = pending.getMessageId();
+		if ( messageId < 1 || messageId > MAX_PACKET_ID ) {
+			return false;
+		}
+		if ( slots.compareAndSet(messageId, pending, null) ) {
+			size.decrementAndGet();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Get the number of pending publishes.
+	 *
+	 * @return the count
+	 */
+	int size() {
+		return size.get();
+	}
+
+	/**
+	 * Test if there are no pending publishes.
+	 *
+	 * @return {@code true} if there are no pending publishes
+	 */
+	boolean isEmpty() {
+		return size.get() < 1;
+	}
+
+	/**
+	 * Call a consumer for each pending publish, in packet identifier order.
+	 *
+	 * <p>
+	 * The consumer is allowed to remove pending publishes from this window.
+	 * </p>
+	 *
+	 * @param consumer
+	 *        the consumer
+	 */
+	void forEach(Consumer<MqttPendingPublish> consumer) {
+		for ( int i = 1, remaining = size.get(); i <= MAX_PACKET_ID && remaining > 0; i++ ) {
+			final MqttPendingPublish p = slots.get(i);
+			if ( p != null ) {
+				remaining--;
+				consumer.accept(p);
+			}
+		}
+	}
+
+	/**
+	 * Remove all pending publishes.
+	 *
+	 * @param consumer
+	 *        an optional consumer to call with each removed pending publish
+	 */
+	void clear(@Nullable Consumer<MqttPendingPublish> consumer) {
+		for ( int i = 1; i <= MAX_PACKET_ID && size.get() > 0; i++ ) {
+			final MqttPendingPublish p = slots.getAndSet(i, null);
+			if ( p != null ) {
+				size.decrementAndGet();
+				if ( consumer != null ) {
+					consumer.accept(p);
+				}
+			}
+		}
+	}
+
+	private static int slot(int messageId) {
+		if ( messageId < 1 || messageId > MAX_PACKET_ID ) {
+			throw new IllegalArgumentException("Packet identifier out of range: " + messageId);
+		}
+		return messageId;
+	}
+
+}
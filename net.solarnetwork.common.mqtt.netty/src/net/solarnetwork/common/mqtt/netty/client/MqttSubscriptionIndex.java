@@ -0,0 +1,479 @@
+/* ==================================================================
+ * MqttSubscriptionIndex.java - 16/10/2026 9:12:31 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.common.mqtt.netty.client;
+
+import static net.solarnetwork.util.ObjectUtils.requireNonNullArgument;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Matcher;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A topic-level trie of {@link MqttSubscription} instances, for routing
+ * inbound messages to matching subscriptions.
+ *
+ * <p>
+ * Each subscription topic filter is split into levels and stored along a path
+ * of trie nodes, with the single-level {@literal +} wildcard stored as a
+ * dedicated child of each node and the multi-level {@literal #} wildcard
+ * stored as a subscription list on the node of its parent level. Shared
+ * subscriptions have their {@literal $share/GROUP/} prefix removed when
+ * indexed, as the server delivers those messages using the underlying topic.
+ * </p>
+ *
+ * <p>
+ * Finding the subscriptions that match a topic costs time proportional to the
+ * number of topic levels (and the number of matching wildcard branches), and
+ * does not allocate any objects. Child nodes are resolved by hashing each
+ * topic level in place, without extracting the level as a string.
+ * </p>
+ *
+ * <p>
+ * Topic matching follows the MQTT specification: {@literal #} matches its
+ * parent level as well as any number of child levels, {@literal +} matches
+ * exactly one (possibly empty) level, and wildcards at the first level do not
+ * match topics that start with {@literal $}.
+ * </p>
+ *
+ * <p>
+ * This class is thread safe. Modifications are serialized, while lookups are
+ * lock-free and see a consistent snapshot of each node.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ * @since 5.2
+ */
+final class MqttSubscriptionIndex {
+
+	private static final MqttSubscription[] NO_SUBSCRIPTIONS = new MqttSubscription[0];
+
+	private static final String SINGLE_LEVEL_WILDCARD = "+";
+	private static final String MULTI_LEVEL_WILDCARD = "#";
+
+	private final Node root = new Node(null, "", 0);
+
+	/**
+	 * Constructor.
+	 */
+	MqttSubscriptionIndex() {
+		super();
+	}
+
+	/**
+	 * Add a subscription.
+	 *
+	 * @param subscription
+	 *        the subscription to add
+	 * @return {@literal true} if the subscription was added, {@literal false}
+	 *         if an equal subscription was already present
+	 * @throws IllegalArgumentException
+	 *         if {@code subscription} is {@literal null}
+	 */
+	synchronized boolean add(MqttSubscription subscription) {
+		requireNonNullArgument(subscription, "subscription");
+		final String filter = topicFilter(subscription.getTopic());
+		Node node = root;
+		int start = 0;
+		final int len = filter.length();
+		while ( true ) {
+			int end = filter.indexOf('/', start);
+			if ( end < 0 ) {
+				end = len;
+			}
+			final String level = filter.substring(start, end);
+			if ( end == len && MULTI_LEVEL_WILDCARD.equals(level) ) {
+				if ( contains(node.multiLevelSubscriptions, subscription) ) {
+					return false;
+				}
+				node.multiLevelSubscriptions = append(node.multiLevelSubscriptions, subscription);
+				return true;
+			}
+			node = node.addChild(level);
+			if ( end == len ) {
+				break;
+			}
+			start = end + 1;
+		}
+		if ( contains(node.subscriptions, subscription) ) {
+			return false;
+		}
+		node.subscriptions = append(node.subscriptions, subscription);
+		return true;
+	}
+
+	/**
+	 * Remove a subscription.
+	 *
+	 * @param subscription
+	 *        the subscription to remove
+	 * @return {@literal true} if the subscription was removed
+	 */
+	synchronized boolean remove(@Nullable MqttSubscription subscription) {
+		if ( subscription == null ) {
+			return false;
+		}
+		final String filter = topicFilter(subscription.getTopic());
+		Node node = root;
+		int start = 0;
+		final int len = filter.length();
+		boolean removed = false;
+		while ( true ) {
+			int end = filter.indexOf('/', start);
+			if ( end < 0 ) {
+				end = len;
+			}
+			final String level = filter.substring(start, end);
+			if ( end == len && MULTI_LEVEL_WILDCARD.equals(level) ) {
+				MqttSubscription[] subs = node.multiLevelSubscriptions;
+				MqttSubscription[] newSubs = without(subs, subscription);
+				if ( newSubs != subs ) {
+					node.multiLevelSubscriptions = newSubs;
+					removed = true;
+				}
+				break;
+			}
+			node = node.child(level);
+			if ( node == null ) {
+				return false;
+			}
+			if ( end == len ) {
+				MqttSubscription[] subs = node.subscriptions;
+				MqttSubscription[] newSubs = without(subs, subscription);
+				if ( newSubs != subs ) {
+					node.subscriptions = newSubs;
+					removed = true;
+				}
+				break;
+			}
+			start = end + 1;
+		}
+		if ( removed ) {
+			// prune any now-empty nodes, working back towards the root
+			while ( node != root && node.isEmpty() ) {
+				Node parent = node.parent;
+				parent.removeChild(node);
+				node = parent;
+			}
+		}
+		return removed;
+	}
+
+	/**
+	 * Remove all subscriptions.
+	 */
+	synchronized void clear() {
+		root.subscriptions = NO_SUBSCRIPTIONS;
+		root.multiLevelSubscriptions = NO_SUBSCRIPTIONS;
+		root.singleLevelChild = null;
+		root.children = Children.EMPTY;
+	}
+
+	/**
+	 * Test if there are no subscriptions.
+	 *
+	 * @return {@literal true} if there are no subscriptions
+	 */
+	boolean isEmpty() {
+		return root.isEmpty();
+	}
+
+	/**
+	 * Find all subscriptions that match a given topic.
+	 *
+	 * <p>
+	 * Matches are added to {@code result} in no particular order. No objects
+	 * are allocated by this method, other than any required by
+	 * {@code result} to grow.
+	 * </p>
+	 *
+	 * @param topic
+	 *        the topic to match, e.g. from an inbound message (must not contain
+	 *        wildcards)
+	 * @param result
+	 *        the collection to add the matching subscriptions to
+	 * @return the number of matching subscriptions added to {@code result}
+	 */
+	int findMatches(String topic, Collection<? super MqttSubscription> result) {
+		if ( topic == null ) {
+			return 0;
+		}
+		final boolean systemTopic = (!topic.isEmpty() && topic.charAt(0) == '$');
+		return match(root, topic, 0, systemTopic, result);
+	}
+
+	/**
+	 * Get a list of all subscriptions that match a given topic.
+	 *
+	 * @param topic
+	 *        the topic to match
+	 * @return the matching subscriptions, never {@literal null}
+	 */
+	List<MqttSubscription> matches(String topic) {
+		List<MqttSubscription> result = new ArrayList<>(4);
+		findMatches(topic, result);
+		return result;
+	}
+
+	private static int match(final Node node, final String topic, final int start,
+			final boolean systemTopic, final Collection<? super MqttSubscription> result) {
+		final int len = topic.length();
+		if ( start > len ) {
+			// all levels consumed: exact matches and parent-level multi-level wildcard matches
+			return addAll(node.subscriptions, result) + addAll(node.multiLevelSubscriptions, result);
+		}
+		final boolean wildcardsAllowed = !(systemTopic && node.parent == null);
+		int count = 0;
+		if ( wildcardsAllowed ) {
+			count += addAll(node.multiLevelSubscriptions, result);
+		}
+		int end = topic.indexOf('/', start);
+		if ( end < 0 ) {
+			end = len;
+		}
+		final Node child = node.children.get(topic, start, end);
+		if ( child != null ) {
+			count += match(child, topic, end + 1, systemTopic, result);
+		}
+		final Node single = node.singleLevelChild;
+		if ( single != null && wildcardsAllowed ) {
+			count += match(single, topic, end + 1, systemTopic, result);
+		}
+		return count;
+	}
+
+	private static int addAll(final MqttSubscription[] subs,
+			final Collection<? super MqttSubscription> result) {
+		for ( MqttSubscription sub : subs ) {
+			result.add(sub);
+		}
+		return subs.length;
+	}
+
+	private static String topicFilter(String topic) {
+		Matcher shareMatch = MqttSubscription.SHARE_SUBSCRIPTION_PREFIX.matcher(topic);
+		if ( shareMatch.matches() ) {
+			return topic.substring(shareMatch.end(1));
+		}
+		return topic;
+	}
+
+	private static boolean contains(MqttSubscription[] subs, MqttSubscription sub) {
+		for ( MqttSubscription s : subs ) {
+			if ( s.equals(sub) ) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static MqttSubscription[] append(MqttSubscription[] subs, MqttSubscription sub) {
+		MqttSubscription[] result = Arrays.copyOf(subs, subs.length + 1);
+		result[subs.length] = sub;
+		return result;
+	}
+
+	private static MqttSubscription[] without(MqttSubscription[] subs, MqttSubscription sub) {
+		for ( int i = 0; i < subs.length; i++ ) {
+			if ( subs[i].equals(sub) ) {
+				if ( subs.length == 1 ) {
+					return NO_SUBSCRIPTIONS;
+				}
+				MqttSubscription[] result = new MqttSubscription[subs.length - 1];
+				System.arraycopy(subs, 0, result, 0, i);
+				System.arraycopy(subs, i + 1, result, i, subs.length - i - 1);
+				return result;
+			}
+		}
+		return subs;
+	}
+
+	/**
+	 * Compute the hash of a region of a string, using the same algorithm as
+	 * {@link String#hashCode()}.
+	 */
+	private static int hash(String s, int start, int end) {
+		int h = 0;
+		for ( int i = start; i < end; i++ ) {
+			h = 31 * h + s.charAt(i);
+		}
+		return h;
+	}
+
+	/**
+	 * A trie node, representing one topic filter level.
+	 *
+	 * <p>
+	 * All fields are modified only while holding the index lock, by replacing
+	 * immutable values.
+	 * </p>
+	 */
+	private static final class Node {
+
+		private final @Nullable Node parent;
+		private final String level;
+		private final int hash;
+
+		private volatile MqttSubscription[] subscriptions = NO_SUBSCRIPTIONS;
+		private volatile MqttSubscription[] multiLevelSubscriptions = NO_SUBSCRIPTIONS;
+		private volatile @Nullable Node singleLevelChild;
+		private volatile Children children = Children.EMPTY;
+
+		private Node(@Nullable Node parent, String level, int hash) {
+			super();
+			this.parent = parent;
+			this.level = level;
+			this.hash = hash;
+		}
+
+		private boolean isEmpty() {
+			return (subscriptions.length == 0 && multiLevelSubscriptions.length == 0
+					&& singleLevelChild == null && children.size == 0);
+		}
+
+		private @Nullable Node child(String level) {
+			if ( SINGLE_LEVEL_WILDCARD.equals(level) ) {
+				return singleLevelChild;
+			}
+			return children.get(level, 0, level.length());
+		}
+
+		private Node addChild(String level) {
+			Node n = child(level);
+			if ( n != null ) {
+				return n;
+			}
+			n = new Node(this, level, level.hashCode());
+			if ( SINGLE_LEVEL_WILDCARD.equals(level) ) {
+				singleLevelChild = n;
+			} else {
+				children = children.with(n);
+			}
+			return n;
+		}
+
+		private void removeChild(Node n) {
+			if ( n == singleLevelChild ) {
+				singleLevelChild = null;
+			} else {
+				children = children.without(n);
+			}
+		}
+
+	}
+
+	/**
+	 * An immutable, open-addressed hash table of child nodes.
+	 *
+	 * <p>
+	 * Lookups hash a region of a topic string directly so no level substring
+	 * needs to be created.
+	 * </p>
+	 */
+	private static final class Children {
+
+		private static final Children EMPTY = new Children(new Node[0], 0);
+
+		private final Node[] table;
+		private final int size;
+
+		private Children(Node[] table, int size) {
+			super();
+			this.table = table;
+			this.size = size;
+		}
+
+		private @Nullable Node get(String topic, int start, int end) {
+			if ( size == 0 ) {
+				return null;
+			}
+			final int len = end - start;
+			final int h = hash(topic, start, end);
+			final int mask = table.length - 1;
+			for ( int i = spread(h) & mask;; i = (i + 1) & mask ) {
+				Node n = table[i];
+				if ( n == null ) {
+					return null;
+				}
+				if ( n.hash == h && n.level.length() == len
+						&& topic.regionMatches(start, n.level, 0, len) ) {
+					return n;
+				}
+			}
+		}
+
+		private Children with(Node n) {
+			Node[] nodes = Arrays.copyOf(nodes(), size + 1);
+			nodes[size] = n;
+			return build(nodes);
+		}
+
+		private Children without(Node n) {
+			Node[] nodes = nodes();
+			int count = 0;
+			for ( Node c : nodes ) {
+				if ( c != n ) {
+					nodes[count++] = c;
+				}
+			}
+			if ( count == size ) {
+				return this;
+			}
+			return (count == 0 ? EMPTY : build(Arrays.copyOf(nodes, count)));
+		}
+
+		private Node[] nodes() {
+			Node[] result = new Node[size];
+			int i = 0;
+			for ( Node n : table ) {
+				if ( n != null ) {
+					result[i++] = n;
+				}
+			}
+			return result;
+		}
+
+		private static Children build(Node[] nodes) {
+			// keep load factor at or below 0.5 for short probe sequences
+			int cap = Integer.highestOneBit(Math.max(2, nodes.length) * 2 - 1) << 1;
+			Node[] table = new Node[cap];
+			final int mask = cap - 1;
+			for ( Node n : nodes ) {
+				int i = spread(n.hash) & mask;
+				while ( table[i] != null ) {
+					i = (i + 1) & mask;
+				}
+				table[i] = n;
+			}
+			return new Children(table, nodes.length);
+		}
+
+		private static int spread(int h) {
+			return h ^ (h >>> 16);
+		}
+
+	}
+
+}
@@ -28,6 +28,8 @@ import io.netty.channel.EventLoop;
 import io.netty.handler.codec.mqtt.MqttFixedHeader;
 import io.netty.handler.codec.mqtt.MqttMessage;
 import io.netty.handler.codec.mqtt.MqttMessageIdVariableHeader;
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
 import io.netty.util.concurrent.ScheduledFuture;
 
 final class RetransmissionHandler<T extends MqttMessage> {
@@ -35,6 +37,8 @@ final class RetransmissionHandler<T extends MqttMessage> {
 	private static final Logger log = LoggerFactory.getLogger(RetransmissionHandler.class);
 
 	private @Nullable ScheduledFuture<?> timer;
+	private @Nullable Timeout wheelTimeout;
+	private @Nullable Timer wheel;
 	private int timeout = 10;
 	private @Nullable BiConsumer<MqttFixedHeader, T> handler;
 	private @Nullable T originalMessage;
@@ -42,8 +46,23 @@ final class RetransmissionHandler<T extends MqttMessage> {
 	private volatile boolean keepGoing;
 
 	void start(final EventLoop eventLoop) {
+		start(null, eventLoop);
+	}
+
+	/**
+	 * Start retransmission.
+	 *
+	 * @param wheel
+	 *        an optional timer to schedule retransmission with; if
+	 *        {@code null} then retransmission is scheduled with
+	 *        {@code eventLoop}
+	 * @param eventLoop
+	 *        the event loop to retransmit on
+	 */
+	void start(final @Nullable Timer wheel, final EventLoop eventLoop) {
 		final EventLoop loop = requireNonNullArgument(eventLoop, "eventLoop");
 		final BiConsumer<MqttFixedHeader, T> handler = requireNonNullProperty(this.handler, "Handler");
+		this.wheel = wheel;
 		this.timeout = 10;
 		this.keepGoing = true;
 		// requireNonNullArgument() used to avoid NullAway warning
@@ -51,7 +70,7 @@ final class RetransmissionHandler<T extends MqttMessage> {
 	}
 
 	private void startTimer(final EventLoop eventLoop, final BiConsumer<MqttFixedHeader, T> handler) {
-		this.timer = eventLoop.schedule(() -> {
+		final Runnable task = () -> {
 			final T originalMessage = this.originalMessage;
 			if ( originalMessage != null ) {
 				if ( log.isDebugEnabled() ) {
@@ -74,7 +93,18 @@ final class RetransmissionHandler<T extends MqttMessage> {
 			if ( keepGoing ) {
 				startTimer(eventLoop, handler);
 			}
-		}, timeout, TimeUnit.SECONDS);
+		};
+		final Timer wheel = this.wheel;
+		if ( wheel != null ) {
+			// the wheel only tracks the timeout, retransmission happens on the event loop
+			this.wheelTimeout = wheel.newTimeout(t -> {
+				if ( keepGoing ) {
+					eventLoop.execute(task);
+				}
+			}, timeout, TimeUnit.SECONDS);
+		} else {
+			this.timer = eventLoop.schedule(task, timeout, TimeUnit.SECONDS);
+		}
 	}
 
 	void stop() {
@@ -84,6 +114,11 @@ final class RetransmissionHandler<T extends MqttMessage> {
 			timer.cancel(true);
 			this.timer = null;
 		}
+		final Timeout wheelTimeout = this.wheelTimeout;
+		if ( wheelTimeout != null ) {
+			wheelTimeout.cancel();
+			this.wheelTimeout = null;
+		}
 	}
 
 	void setHandler(BiConsumer<MqttFixedHeader, T> runnable) {
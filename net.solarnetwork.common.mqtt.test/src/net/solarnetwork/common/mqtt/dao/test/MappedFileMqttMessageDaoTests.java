@@ -0,0 +1,415 @@
+/* ==================================================================
+ * MappedFileMqttMessageDaoTests.java - 16/10/2026 6:34:19 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.common.mqtt.dao.test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonMap;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import net.solarnetwork.common.mqtt.MqttQos;
+import net.solarnetwork.common.mqtt.dao.BasicMqttMessageEntity;
+import net.solarnetwork.common.mqtt.dao.MappedFileMqttMessageDao;
+import net.solarnetwork.common.mqtt.dao.MqttMessageDao;
+import net.solarnetwork.common.mqtt.dao.MqttMessageEntity;
+import net.solarnetwork.dao.BasicBatchOptions;
+import net.solarnetwork.dao.BatchableDao.BatchCallbackResult;
+import net.solarnetwork.dao.BatchableDao.BatchResult;
+import net.solarnetwork.dao.GenericDao;
+
+/**
+ * Test cases for the {@link MappedFileMqttMessageDao} class.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class MappedFileMqttMessageDaoTests {
+
+	private Path tmpDir;
+	private MappedFileMqttMessageDao dao;
+
+	@Before
+	public void setup() throws IOException {
+		tmpDir = Files.createTempDirectory(String.format("%s-", getClass().getSimpleName()));
+		dao = new MappedFileMqttMessageDao(tmpDir);
+		dao.setSegmentSize(MappedFileMqttMessageDao.MIN_SEGMENT_SIZE);
+		dao.serviceDidStartup();
+	}
+
+	@After
+	public void teardown() {
+		dao.serviceDidShutdown();
+		try {
+			try (Stream<Path> walk = Files.walk(tmpDir)) {
+				walk.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+			}
+		} catch ( IOException e ) {
+			// ignore
+		}
+	}
+
+	private static BasicMqttMessageEntity message(String destination, int i) {
+		return new BasicMqttMessageEntity(null, Instant.now().truncatedTo(ChronoUnit.MILLIS),
+				destination, "test/" + i, (i % 2 == 0), MqttQos.AtLeastOnce,
+				("Hello, world " + i).getBytes(UTF_8));
+	}
+
+	private List<Path> segmentFiles() throws IOException {
+		try (Stream<Path> s = Files.list(tmpDir)) {
+			return s.filter(p -> p.toString().endsWith(MappedFileMqttMessageDao.SEGMENT_FILE_EXTENSION))
+					.sorted().collect(Collectors.toList());
+		}
+	}
+
+	@Test
+	public void saveAndGet() {
+		// GIVEN
+		BasicMqttMessageEntity msg = message("dest", 1);
+
+		// WHEN
+		Long id = dao.save(msg);
+		MqttMessageEntity result = dao.get(id);
+
+		// THEN
+		assertThat("ID assigned", id, is(equalTo(1L)));
+		assertThat("Message returned", result, is(notNullValue()));
+		assertThat("ID", result.getId(), is(equalTo(id)));
+		assertThat("Created", result.getCreated(), is(equalTo(msg.getCreated())));
+		assertThat("Destination", result.getDestination(), is(equalTo("dest")));
+		assertThat("Topic", result.getTopic(), is(equalTo("test/1")));
+		assertThat("Retained", result.isRetained(), is(equalTo(false)));
+		assertThat("QoS", result.getQosLevel(), is(equalTo(MqttQos.AtLeastOnce)));
+		assertThat("Payload", new String(result.getPayload(), UTF_8), is(equalTo("Hello, world 1")));
+		assertThat("Message count", dao.getMessageCount(), is(equalTo(1)));
+	}
+
+	@Test
+	public void saveAndGet_nulls() {
+		// GIVEN
+		BasicMqttMessageEntity msg = new BasicMqttMessageEntity(null, null, null, "test", true,
+				MqttQos.AtMostOnce, null);
+
+		// WHEN
+		Long id = dao.save(msg);
+		MqttMessageEntity result = dao.get(id);
+
+		// THEN
+		assertThat("Message returned", result, is(notNullValue()));
+		assertThat("Created assigned", result.getCreated(), is(notNullValue()));
+		assertThat("Destination", result.getDestination(), is(nullValue()));
+		assertThat("Topic", result.getTopic(), is(equalTo("test")));
+		assertThat("Retained", result.isRetained(), is(equalTo(true)));
+		assertThat("Payload", result.getPayload(), is(nullValue()));
+	}
+
+	@Test
+	public void saveExisting() {
+		// GIVEN
+		Long id = dao.save(message("dest", 1));
+
+		// WHEN
+		Long result = dao.save(dao.get(id));
+
+		// THEN
+		assertThat("Existing message not saved again", result, is(equalTo(id)));
+		assertThat("Message count", dao.getMessageCount(), is(equalTo(1)));
+	}
+
+	@Test
+	public void delete() {
+		// GIVEN
+		Long id1 = dao.save(message("dest", 1));
+		Long id2 = dao.save(message("dest", 2));
+
+		// WHEN
+		dao.delete(dao.get(id1));
+
+		// THEN
+		assertThat("Deleted message not found", dao.get(id1), is(nullValue()));
+		assertThat("Other message found", dao.get(id2), is(notNullValue()));
+		assertThat("Message count", dao.getMessageCount(), is(equalTo(1)));
+	}
+
+	@Test
+	public void getAll() {
+		// GIVEN
+		for ( int i = 0; i < 3; i++ ) {
+			dao.save(message("dest", i));
+		}
+
+		// WHEN
+		List<Long> asc = dao.getAll(null).stream().map(MqttMessageEntity::getId)
+				.collect(Collectors.toList());
+		List<Long> desc = dao.getAll(GenericDao.SORT_BY_ID_DESCENDING).stream()
+				.map(MqttMessageEntity::getId).collect(Collectors.toList());
+
+		// THEN
+		assertThat("Ascending order", asc, contains(1L, 2L, 3L));
+		assertThat("Descending order", desc, contains(3L, 2L, 1L));
+	}
+
+	@Test
+	public void rollover() throws IOException {
+		// GIVEN
+		final int count = 500;
+
+		// WHEN
+		for ( int i = 0; i < count; i++ ) {
+			dao.save(message("dest", i));
+		}
+
+		// THEN
+		assertThat("Multiple segments created", dao.getSegmentCount() > 1, is(equalTo(true)));
+		assertThat("Segment files", segmentFiles().size(), is(equalTo(dao.getSegmentCount())));
+		assertThat("Message count", dao.getMessageCount(), is(equalTo(count)));
+		for ( int i = 0; i < count; i++ ) {
+			MqttMessageEntity m = dao.get(i + 1L);
+			assertThat("Message %d available".formatted(i), m, is(notNullValue()));
+			assertThat("Message %d topic".formatted(i), m.getTopic(), is(equalTo("test/" + i)));
+		}
+	}
+
+	@Test
+	public void rollover_largeMessage() {
+		// GIVEN
+		byte[] payload = new byte[MappedFileMqttMessageDao.MIN_SEGMENT_SIZE * 2];
+		payload[payload.length - 1] = 1;
+
+		// WHEN
+		Long id = dao.save(new BasicMqttMessageEntity(null, null, null, "test", false,
+				MqttQos.AtMostOnce, payload));
+
+		// THEN
+		MqttMessageEntity result = dao.get(id);
+		assertThat("Message larger than segment size saved", result.getPayload(),
+				is(equalTo(payload)));
+	}
+
+	@Test
+	public void reopen() {
+		// GIVEN
+		for ( int i = 0; i < 300; i++ ) {
+			dao.save(message("dest", i));
+		}
+		dao.delete(dao.get(2L));
+
+		// WHEN
+		dao.serviceDidShutdown();
+		dao = new MappedFileMqttMessageDao(tmpDir);
+		dao.serviceDidStartup();
+		Long id = dao.save(message("dest", 300));
+
+		// THEN
+		assertThat("Messages recovered", dao.getMessageCount(), is(equalTo(300)));
+		assertThat("Deleted message remains deleted", dao.get(2L), is(nullValue()));
+		assertThat("Message recovered", dao.get(300L).getTopic(), is(equalTo("test/299")));
+		assertThat("ID sequence continued", id, is(equalTo(301L)));
+	}
+
+	@Test
+	public void reopen_sameInstance() {
+		// GIVEN
+		for ( int i = 0; i < 300; i++ ) {
+			dao.save(message("dest", i));
+		}
+		dao.delete(dao.get(2L));
+
+		// WHEN
+		dao.serviceDidShutdown();
+		dao.serviceDidStartup();
+		Long id = dao.save(message("dest", 300));
+
+		// THEN
+		assertThat("Messages recovered", dao.getMessageCount(), is(equalTo(300)));
+		assertThat("Deleted message remains deleted", dao.get(2L), is(nullValue()));
+		assertThat("Message recovered", dao.get(300L).getTopic(), is(equalTo("test/299")));
+		assertThat("ID sequence continued", id, is(equalTo(301L)));
+	}
+
+	@Test
+	public void reopen_corruptRecord() throws IOException {
+		// GIVEN
+		for ( int i = 0; i < 3; i++ ) {
+			dao.save(message("dest", i));
+		}
+		dao.serviceDidShutdown();
+
+		// corrupt the last byte of the third record's payload; all records have the same length
+		final Path seg = segmentFiles().get(0);
+		try (FileChannel ch = FileChannel.open(seg, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			ByteBuffer buf = ByteBuffer.allocate(4);
+			ch.read(buf, 16);
+			buf.flip();
+			int recordLength = 9 + buf.getInt();
+			ch.write(ByteBuffer.wrap(new byte[] { 'X' }), 16 + recordLength * 3 - 1);
+		}
+
+		// WHEN
+		dao = new MappedFileMqttMessageDao(tmpDir);
+		dao.serviceDidStartup();
+		Long id = dao.save(message("dest", 3));
+
+		// THEN
+		assertThat("Valid messages recovered", dao.getAll(null).stream()
+				.map(MqttMessageEntity::getTopic).collect(Collectors.toList()),
+				contains("test/0", "test/1", "test/3"));
+		assertThat("Corrupt message discarded", dao.get(3L).getTopic(), is(equalTo("test/3")));
+		assertThat("ID of corrupt message reused", id, is(equalTo(3L)));
+	}
+
+	@Test
+	public void batchProcess() {
+		// GIVEN
+		for ( int i = 0; i < 10; i++ ) {
+			dao.save(message(i < 5 ? "a" : "b", i));
+		}
+
+		// WHEN
+		final List<String> topics = new ArrayList<>();
+		BatchResult result = dao.batchProcess(m -> {
+			topics.add(m.getTopic());
+			return BatchCallbackResult.DELETE;
+		}, new BasicBatchOptions("Test", 2, false,
+				singletonMap(MqttMessageDao.BATCH_OPTION_DESTINATION, "b")));
+
+		// THEN
+		assertThat("Processed count", result.numProcessed(), is(equalTo(5)));
+		assertThat("Destination messages processed in order", topics,
+				contains("test/5", "test/6", "test/7", "test/8", "test/9"));
+		assertThat("Processed messages deleted", dao.getAll(null).stream()
+				.map(MqttMessageEntity::getDestination).collect(Collectors.toList()),
+				contains("a", "a", "a", "a", "a"));
+	}
+
+	@Test
+	public void batchProcess_stop() {
+		// GIVEN
+		for ( int i = 0; i < 10; i++ ) {
+			dao.save(message("dest", i));
+		}
+
+		// WHEN
+		BatchResult result = dao.batchProcess(m -> {
+			return (m.getId() < 4L ? BatchCallbackResult.DELETE : BatchCallbackResult.STOP);
+		}, new BasicBatchOptions("Test", 3, false, null));
+
+		// THEN
+		assertThat("Processed count", result.numProcessed(), is(equalTo(4)));
+		assertThat("Message count", dao.getMessageCount(), is(equalTo(7)));
+		assertThat("Next message", dao.getAll(null).iterator().next().getId(), is(equalTo(4L)));
+	}
+
+	@Test
+	public void batchProcess_saveDuringReplay() {
+		// GIVEN
+		for ( int i = 0; i < 3; i++ ) {
+			dao.save(message("dest", i));
+		}
+
+		// WHEN
+		final List<Long> ids = new ArrayList<>();
+		BatchResult result = dao.batchProcess(m -> {
+			ids.add(m.getId());
+			if ( m.getId() == 1L ) {
+				dao.save(message("dest", 3));
+			}
+			return BatchCallbackResult.DELETE;
+		}, new BasicBatchOptions("Test", 1, false, null));
+
+		// THEN
+		assertThat("Processed count", result.numProcessed(), is(equalTo(4)));
+		assertThat("Messages saved during replay are processed", ids, contains(1L, 2L, 3L, 4L));
+		assertThat("Message count", dao.getMessageCount(), is(equalTo(0)));
+	}
+
+	@Test
+	public void emptySegmentsDeleted() throws IOException {
+		// GIVEN
+		for ( int i = 0; i < 500; i++ ) {
+			dao.save(message("dest", i));
+		}
+		final int segCount = dao.getSegmentCount();
+
+		// WHEN
+		dao.batchProcess(m -> BatchCallbackResult.DELETE, new BasicBatchOptions("Test"));
+
+		// THEN
+		assertThat("Multiple segments were created", segCount > 1, is(equalTo(true)));
+		assertThat("Only active segment remains", dao.getSegmentCount(), is(equalTo(1)));
+		assertThat("Segment files deleted", segmentFiles().size(), is(equalTo(1)));
+	}
+
+	@Test
+	public void compact() throws IOException {
+		// GIVEN
+		for ( int i = 0; i < 500; i++ ) {
+			dao.save(message("dest", i));
+		}
+		final Path firstSeg = segmentFiles().get(0);
+		final long firstSegSize = Files.size(firstSeg);
+
+		// delete every message except every 10th
+		dao.batchProcess(m -> {
+			return (m.getId() % 10 == 0 ? BatchCallbackResult.CONTINUE : BatchCallbackResult.DELETE);
+		}, new BasicBatchOptions("Test"));
+
+		// WHEN
+		int count = dao.compact();
+
+		// THEN
+		assertThat("Full segments compacted", count, is(equalTo(dao.getSegmentCount() - 1)));
+		assertThat("Segment file reduced in size", Files.size(firstSeg) < firstSegSize / 5,
+				is(equalTo(true)));
+		assertThat("Message count", dao.getMessageCount(), is(equalTo(50)));
+		assertThat("Compacted message", dao.get(10L).getTopic(), is(equalTo("test/9")));
+		assertThat("Deleted message", dao.get(11L), is(nullValue()));
+
+		dao.serviceDidShutdown();
+		dao = new MappedFileMqttMessageDao(tmpDir);
+		dao.serviceDidStartup();
+		assertThat("Compacted messages recovered", dao.getMessageCount(), is(equalTo(50)));
+		assertThat("Compacted message recovered", dao.get(10L).getTopic(), is(equalTo("test/9")));
+	}
+
+}
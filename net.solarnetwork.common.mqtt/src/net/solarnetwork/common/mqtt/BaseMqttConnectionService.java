@@ -35,13 +35,14 @@ import org.slf4j.LoggerFactory;
 import net.solarnetwork.service.PingTest;
 import net.solarnetwork.service.PingTestResult;
 import net.solarnetwork.service.support.BasicIdentifiable;
+import net.solarnetwork.util.StatRegistry;
 import net.solarnetwork.util.StatTracker;
 
 /**
  * An abstract service that uses a {@link MqttConnection}.
  *
  * @author matt
- * @version 2.0
+ * @version 2.1
  */
 public abstract class BaseMqttConnectionService extends BasicIdentifiable implements PingTest {
 
@@ -60,6 +61,7 @@ public abstract class BaseMqttConnectionService extends BasicIdentifiable implem
 	private MqttQos publishQos = DEFAULT_PUBLISH_QOS;
 	private MqttQos subscribeQos = DEFAULT_SUBSCRIBE_QOS;
 	private @Nullable MqttConnection connection;
+	private @Nullable StatRegistry statRegistry;
 
 	/**
 	 * Constructor.
@@ -99,6 +101,7 @@ public abstract class BaseMqttConnectionService extends BasicIdentifiable implem
 		if ( connection != null ) {
 			return CompletableFuture.completedFuture(null);
 		}
+		registerStats();
 		connection = connectionFactory.createConnection(mqttConfig);
 		if ( connection == null ) {
 			CompletableFuture<Void> f = new CompletableFuture<>();
@@ -115,6 +118,18 @@ public abstract class BaseMqttConnectionService extends BasicIdentifiable implem
 		}
 	}
 
+	private void registerStats() {
+		final StatRegistry registry = this.statRegistry;
+		final StatTracker stats = mqttConfig.getStats();
+		if ( registry == null || stats == null ) {
+			return;
+		}
+		if ( stats.getGroupUid() == null ) {
+			stats.setGroupUid(getGroupUid());
+		}
+		registry.register(stats);
+	}
+
 	/**
 	 * Callback to configure newly created MQTT connections.
 	 *
@@ -143,6 +158,11 @@ public abstract class BaseMqttConnectionService extends BasicIdentifiable implem
 	 * Call when no longer needed to release resources.
 	 */
 	public synchronized void shutdown() {
+		final StatRegistry registry = this.statRegistry;
+		final StatTracker stats = mqttConfig.getStats();
+		if ( registry != null && stats != null ) {
+			registry.unregister(stats);
+		}
 		if ( connection != null ) {
 			try {
 				connection.close();
@@ -298,6 +318,32 @@ public abstract class BaseMqttConnectionService extends BasicIdentifiable implem
 		return mqttConfig.getStats();
 	}
 
+	/**
+	 * Get the statistics registry.
+	 *
+	 * @return the registry, or {@literal null}
+	 * @since 2.1
+	 */
+	public @Nullable StatRegistry getStatRegistry() {
+		return statRegistry;
+	}
+
+	/**
+	 * Set the statistics registry.
+	 *
+	 * <p>
+	 * If configured, the MQTT statistics will be registered in
+	 * {@link #startup()} and unregistered in {@link #shutdown()}.
+	 * </p>
+	 *
+	 * @param statRegistry
+	 *        the registry to set
+	 * @since 2.1
+	 */
+	public void setStatRegistry(@Nullable StatRegistry statRegistry) {
+		this.statRegistry = statRegistry;
+	}
+
 	/**
 	 * Get the MQTT configuration.
 	 *
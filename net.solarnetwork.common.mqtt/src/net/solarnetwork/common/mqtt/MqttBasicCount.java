@@ -54,7 +54,39 @@ public enum MqttBasicCount {
 	PayloadBytesReceived("payload bytes received"),
 
 	/** The number of bytes in all messages delivered. */
-	PayloadBytesDelivered("payload bytes sent");
+	PayloadBytesDelivered("payload bytes sent"),
+
+	/**
+	 * The number of in-flight messages, sampled when each message is
+	 * published.
+	 *
+	 * @since 6.2
+	 */
+	PublishesInFlight("publishes in flight"),
+
+	/**
+	 * The time between publishing a QoS 1 or 2 message and receiving its
+	 * acknowledgement, in milliseconds, tracked as a histogram.
+	 *
+	 * @since 6.2
+	 */
+	PublishAckLatency("publish acknowledgement latency ms"),
+
+	/**
+	 * The number of received messages waiting for a handler, sampled when each
+	 * message is queued.
+	 *
+	 * @since 6.2
+	 */
+	DispatchQueueDepth("dispatch queue depth"),
+
+	/**
+	 * The number of received messages dropped because the dispatch queue was
+	 * full.
+	 *
+	 * @since 6.2
+	 */
+	MessagesDropped("messages dropped");
 
 	private final String description;
 
@@ -22,8 +22,13 @@
 
 package net.solarnetwork.common.mqtt;
 
+import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 import org.jspecify.annotations.Nullable;
 
@@ -31,7 +36,7 @@ import org.jspecify.annotations.Nullable;
  * API for a connection to a MQTT broker.
  *
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public interface MqttConnection extends Closeable {
 
@@ -87,6 +92,69 @@ public interface MqttConnection extends Closeable {
 	 */
 	Future<?> publish(MqttMessage message);
 
+	/**
+	 * Publish a batch of messages.
+	 *
+	 * <p>
+	 * Implementations can use this method to pipeline the messages to the
+	 * broker, for example by writing them all to the network before flushing.
+	 * This default implementation calls {@link #publish(MqttMessage)} for each
+	 * message.
+	 * </p>
+	 *
+	 * @param messages
+	 *        the messages to publish
+	 * @return a list of futures, one for each message in iteration order, that
+	 *         complete when the associated message has been published
+	 * @since 1.1
+	 */
+	default List<Future<?>> publish(Collection<? extends MqttMessage> messages) {
+		final List<Future<?>> result = new ArrayList<>(messages.size());
+		for ( MqttMessage message : messages ) {
+			result.add(publish(message));
+		}
+		return result;
+	}
+
+	/**
+	 * Publish a message whose payload is written by a callback.
+	 *
+	 * <p>
+	 * Implementations can use this method to encode the payload directly into
+	 * a network buffer, avoiding an intermediate payload array. This default
+	 * implementation writes the payload into a byte array and then calls
+	 * {@link #publish(MqttMessage)}.
+	 * </p>
+	 *
+	 * @param topic
+	 *        the topic to publish to
+	 * @param qosLevel
+	 *        the quality of service to publish with
+	 * @param retained
+	 *        the retained flag
+	 * @param properties
+	 *        the optional message properties
+	 * @param writer
+	 *        the payload writer
+	 * @return a future that completes when the message has been published; if
+	 *         {@code writer} throws an exception the future will complete
+	 *         exceptionally with that exception
+	 * @since 1.1
+	 */
+	default Future<?> publish(String topic, MqttQos qosLevel, boolean retained,
+			@Nullable MqttProperties properties, MqttPayloadWriter writer) {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try {
+			writer.writePayload(out);
+		} catch ( IOException | RuntimeException e ) {
+			CompletableFuture<Void> f = new CompletableFuture<>();
+			f.completeExceptionally(e);
+			return f;
+		}
+		return publish(
+				new BasicMqttMessage(topic, retained, qosLevel, out.toByteArray(), properties));
+	}
+
 	/**
 	 * Subscribe to a topic.
 	 *
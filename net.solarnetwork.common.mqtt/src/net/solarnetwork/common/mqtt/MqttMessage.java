@@ -22,13 +22,14 @@
 
 package net.solarnetwork.common.mqtt;
 
+import java.nio.ByteBuffer;
 import org.jspecify.annotations.Nullable;
 
 /**
  * MQTT message.
  *
  * @author matt
- * @version 1.1
+ * @version 1.2
  */
 public interface MqttMessage {
 
@@ -60,6 +61,41 @@ public interface MqttMessage {
 	 */
 	byte @Nullable [] getPayload();
 
+	/**
+	 * Get a read-only view of the message payload.
+	 *
+	 * <p>
+	 * Implementations that hold the payload in a buffer can return a view of
+	 * that buffer without copying it into a new array. Each call returns a new
+	 * buffer instance with its own position and limit. This default
+	 * implementation wraps the array returned by {@link #getPayload()}.
+	 * </p>
+	 *
+	 * @return the payload buffer, or {@literal null} if there is no payload
+	 * @since 1.2
+	 */
+	default @Nullable ByteBuffer getPayloadBuffer() {
+		final byte[] payload = getPayload();
+		return (payload != null ? ByteBuffer.wrap(payload).asReadOnlyBuffer() : null);
+	}
+
+	/**
+	 * Get the length of the message payload.
+	 *
+	 * <p>
+	 * This default implementation returns the length of the array returned by
+	 * {@link #getPayload()}. Implementations that hold the payload in a buffer
+	 * should override to avoid copying the buffer.
+	 * </p>
+	 *
+	 * @return the payload length, in bytes
+	 * @since 1.2
+	 */
+	default int getPayloadLength() {
+		final byte[] payload = getPayload();
+		return (payload != null ? payload.length : 0);
+	}
+
 	/**
 	 * Get the message properties.
 	 *
@@ -0,0 +1,58 @@
+/* ==================================================================
+ * MqttPayloadWriter.java - 16/10/2026 2:18:36 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.common.mqtt;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * API for writing a MQTT message payload to a stream.
+ *
+ * <p>
+ * This allows a payload to be encoded directly into a buffer managed by the
+ * MQTT connection, for example with a Jackson {@code ObjectMapper}, rather
+ * than first encoding into a byte array.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ * @since 6.2
+ */
+@FunctionalInterface
+public interface MqttPayloadWriter {
+
+	/**
+	 * Write the payload to a stream.
+	 *
+	 * <p>
+	 * The stream does not need to be closed by this method.
+	 * </p>
+	 *
+	 * @param out
+	 *        the stream to write the payload to
+	 * @throws IOException
+	 *         if any IO error occurs
+	 */
+	void writePayload(OutputStream out) throws IOException;
+
+}
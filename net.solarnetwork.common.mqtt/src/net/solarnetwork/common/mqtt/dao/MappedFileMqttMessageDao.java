@@ -0,0 +1,597 @@
+/* ==================================================================
+ * MappedFileMqttMessageDao.java - 16/10/2026 5:48:02 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.common.mqtt.dao;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static net.solarnetwork.util.ObjectUtils.requireNonNullArgument;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import net.solarnetwork.dao.BasicBatchOptions;
+import net.solarnetwork.dao.BasicBatchResult;
+import net.solarnetwork.domain.SortDescriptor;
+import net.solarnetwork.service.ServiceLifecycleObserver;
+
+/**
+ * {@link MqttMessageDao} that stores messages in an append-only spool of
+ * memory-mapped segment files.
+ *
+ * <p>
+ * This DAO is designed to buffer outbound messages while an MQTT server is not
+ * reachable, without the overhead of a database. Messages are appended to the
+ * active segment file until it is full, after which a new segment file is
+ * started. Each message record includes a CRC so that partially written
+ * records are discarded when the spool is opened after a crash.
+ * </p>
+ *
+ * <p>
+ * Messages are assigned sequential IDs, and are treated as immutable: saving a
+ * message that has already been stored does nothing. Deleting a message marks
+ * its record as deleted in place. Segment files that contain only deleted
+ * messages are removed, and {@link #compact()} rewrites segments whose deleted
+ * messages exceed the {@code compactionThreshold} ratio.
+ * </p>
+ *
+ * <p>
+ * The {@link #batchProcess(BatchCallback, BatchOptions)} method iterates over
+ * messages in ID order, reading up to the batch size number of messages at a
+ * time. Callbacks are invoked without holding the spool lock, so messages can
+ * be saved while a batch is being replayed. The
+ * {@link MqttMessageDao#BATCH_OPTION_DESTINATION} parameter is supported. The
+ * {@link BatchCallbackResult#DELETE} result deletes the message; the
+ * {@link BatchCallbackResult#UPDATE} result is treated like
+ * {@link BatchCallbackResult#CONTINUE} because messages cannot be updated.
+ * </p>
+ *
+ * <p>
+ * The {@link #serviceDidStartup()} method must be called before using this
+ * DAO, and {@link #serviceDidShutdown()} when finished.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ * @since 6.2
+ */
+public class MappedFileMqttMessageDao implements MqttMessageDao, ServiceLifecycleObserver {
+
+	/** The {@code segmentSize} property default value: 64 MB. */
+	public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+	/** The minimum {@code segmentSize} property value. */
+	public static final int MIN_SEGMENT_SIZE = 4096;
+
+	/** The {@code compactionThreshold} property default value. */
+	public static final double DEFAULT_COMPACTION_THRESHOLD = 0.5;
+
+	/** The segment file name extension. */
+	public static final String SEGMENT_FILE_EXTENSION = ".seg";
+
+	private static final String SEGMENT_FILE_PREFIX = "spool-";
+
+	private static final Logger log = LoggerFactory.getLogger(MappedFileMqttMessageDao.class);
+
+	private final Path directory;
+	private int segmentSize = DEFAULT_SEGMENT_SIZE;
+	private double compactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+	private boolean syncWrites;
+
+	// all fields below guarded by this
+
+	/** The segments, ordered by base ID; the last segment is active. */
+	private final List<MappedFileSegment> segments = new ArrayList<>(8);
+	private long nextId = 1;
+	private boolean open;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param directory
+	 *        the directory to store segment files in
+	 * @throws IllegalArgumentException
+	 *         if {@code directory} is {@code null}
+	 */
+	public MappedFileMqttMessageDao(Path directory) {
+		super();
+		this.directory = requireNonNullArgument(directory, "directory");
+	}
+
+	/**
+	 * Open the spool, recovering any existing segment files.
+	 *
+	 * @throws UncheckedIOException
+	 *         if an IO error occurs
+	 */
+	@Override
+	public synchronized void serviceDidStartup() {
+		if ( open ) {
+			return;
+		}
+		// the instance can be restarted, so reset any state from a previous open
+		resetState();
+		try {
+			Files.createDirectories(directory);
+			final List<Path> files = new ArrayList<>(8);
+			try (DirectoryStream<Path> ds = Files.newDirectoryStream(directory,
+					SEGMENT_FILE_PREFIX + "*" + SEGMENT_FILE_EXTENSION)) {
+				for ( Path p : ds ) {
+					files.add(p);
+				}
+			}
+			// file names sort in base ID order
+			Collections.sort(files);
+			for ( Path p : files ) {
+				final MappedFileSegment seg = MappedFileSegment.open(p);
+				if ( seg.getBaseId() < nextId ) {
+					log.warn("Ignoring spool segment [{}] with overlapping base ID {}", p,
+							seg.getBaseId());
+					continue;
+				}
+				if ( !segments.isEmpty() ) {
+					sealActive();
+				}
+				segments.add(seg);
+				nextId = seg.getNextId();
+			}
+		} catch ( IOException e ) {
+			resetState();
+			throw new UncheckedIOException("Error opening MQTT spool in " + directory, e);
+		}
+		open = true;
+		log.info("Opened MQTT spool in [{}] with {} messages in {} segments", directory,
+				getMessageCount(), segments.size());
+	}
+
+	/**
+	 * Flush and close the spool.
+	 */
+	@Override
+	public synchronized void serviceDidShutdown() {
+		if ( !open ) {
+			return;
+		}
+		for ( MappedFileSegment seg : segments ) {
+			seg.force();
+		}
+		resetState();
+		open = false;
+	}
+
+	private void resetState() {
+		segments.clear();
+		nextId = 1;
+	}
+
+	private void requireOpen() {
+		if ( !open ) {
+			throw new IllegalStateException("The MQTT spool is not open.");
+		}
+	}
+
+	@Override
+	public Class<? extends MqttMessageEntity> getObjectType() {
+		return BasicMqttMessageEntity.class;
+	}
+
+	@Override
+	public synchronized Long save(MqttMessageEntity entity) {
+		requireOpen();
+		final Long id = entity.getId();
+		if ( id != null && segment(id) != null ) {
+			// messages are immutable
+			return id;
+		}
+		final byte[] dest = utf8(entity.getDestination(), "destination");
+		final byte[] topic = requireNonNullArgument(utf8(entity.getTopic(), "topic"), "topic");
+		final byte[] payload = entity.getPayload();
+		final Instant created = entity.getCreated();
+		final long ts = (created != null ? created.toEpochMilli() : System.currentTimeMillis());
+		final long newId = nextId;
+		MappedFileSegment seg = (segments.isEmpty() ? null : segments.get(segments.size() - 1));
+		int offset = (seg != null
+				? seg.append(newId, ts, dest, topic, entity.isRetained(), entity.getQosLevel(), payload)
+				: -1);
+		if ( offset < 0 ) {
+			seg = rollover(MappedFileSegment.recordLength(dest, topic, payload));
+			offset = seg.append(newId, ts, dest, topic, entity.isRetained(), entity.getQosLevel(),
+					payload);
+			if ( offset < 0 ) {
+				throw new IllegalStateException("Unable to append message to new spool segment.");
+			}
+		}
+		if ( syncWrites ) {
+			seg.force(offset);
+		}
+		nextId = newId + 1;
+		return newId;
+	}
+
+	private static byte @Nullable [] utf8(@Nullable String s, String name) {
+		if ( s == null ) {
+			return null;
+		}
+		final byte[] result = s.getBytes(UTF_8);
+		if ( result.length > MappedFileSegment.MAX_STRING_LENGTH ) {
+			throw new IllegalArgumentException("The %s length %d exceeds the maximum %d bytes."
+					.formatted(name, result.length, MappedFileSegment.MAX_STRING_LENGTH));
+		}
+		return result;
+	}
+
+	private MappedFileSegment rollover(int recordLength) {
+		sealActive();
+		final int size = Math.max(segmentSize, MappedFileSegment.HEADER_LENGTH + recordLength);
+		final Path path = directory.resolve(segmentFileName(nextId));
+		try {
+			final MappedFileSegment seg = MappedFileSegment.create(path, nextId, size);
+			if ( syncWrites ) {
+				seg.force();
+			}
+			segments.add(seg);
+			log.debug("Created MQTT spool segment [{}]", path);
+			return seg;
+		} catch ( IOException e ) {
+			throw new UncheckedIOException("Error creating MQTT spool segment " + path, e);
+		}
+	}
+
+	private void sealActive() {
+		if ( segments.isEmpty() ) {
+			return;
+		}
+		final MappedFileSegment active = segments.get(segments.size() - 1);
+		active.seal();
+		if ( active.getLiveCount() < 1 ) {
+			removeSegment(segments.size() - 1);
+		}
+	}
+
+	/**
+	 * Get a segment file name for a base ID.
+	 *
+	 * @param baseId
+	 *        the base ID
+	 * @return the file name
+	 */
+	private static String segmentFileName(long baseId) {
+		// fixed-width hex so names sort in ID order
+		return SEGMENT_FILE_PREFIX + "%016x".formatted(baseId) + SEGMENT_FILE_EXTENSION;
+	}
+
+	private @Nullable MappedFileSegment segment(long id) {
+		int low = 0;
+		int high = segments.size() - 1;
+		while ( low <= high ) {
+			final int mid = (low + high) >>> 1;
+			final MappedFileSegment seg = segments.get(mid);
+			if ( id < seg.getBaseId() ) {
+				high = mid - 1;
+			} else if ( id >= seg.getNextId() ) {
+				low = mid + 1;
+			} else {
+				return seg;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public synchronized @Nullable MqttMessageEntity get(Long id) {
+		requireOpen();
+		final MappedFileSegment seg = segment(id);
+		return (seg != null ? seg.read(id, null) : null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>
+	 * Messages are returned in ID order, which is the same as creation order,
+	 * unless the first sort descriptor is descending.
+	 * </p>
+	 */
+	@Override
+	public synchronized Collection<MqttMessageEntity> getAll(@Nullable List<SortDescriptor> sorts) {
+		requireOpen();
+		final List<MqttMessageEntity> result = new ArrayList<>(getMessageCount());
+		for ( MappedFileSegment seg : segments ) {
+			for ( long id = seg.nextLiveId(0); id > 0; id = seg.nextLiveId(id + 1) ) {
+				final MqttMessageEntity e = seg.read(id, null);
+				if ( e != null ) {
+					result.add(e);
+				}
+			}
+		}
+		if ( sorts != null && !sorts.isEmpty() && sorts.get(0).isDescending() ) {
+			Collections.reverse(result);
+		}
+		return result;
+	}
+
+	@Override
+	public synchronized void delete(MqttMessageEntity entity) {
+		requireOpen();
+		final Long id = entity.getId();
+		if ( id != null ) {
+			deleteId(id);
+		}
+	}
+
+	private void deleteId(long id) {
+		final MappedFileSegment seg = segment(id);
+		if ( seg != null && seg.delete(id) && seg.getLiveCount() < 1 && seg.isSealed() ) {
+			removeSegment(segments.indexOf(seg));
+		}
+	}
+
+	private void removeSegment(int idx) {
+		final MappedFileSegment seg = segments.remove(idx);
+		try {
+			seg.deleteFile();
+			log.debug("Deleted MQTT spool segment [{}]", seg.getPath());
+		} catch ( IOException e ) {
+			log.warn("Error deleting MQTT spool segment [{}]: {}", seg.getPath(), e.toString());
+		}
+	}
+
+	@Override
+	public BatchResult batchProcess(BatchCallback<MqttMessageEntity> callback,
+			BatchOptions options) {
+		final Map<String, Object> params = options.getParameters();
+		final Object destParam = (params != null ? params.get(BATCH_OPTION_DESTINATION) : null);
+		final String destination = (destParam != null ? destParam.toString() : null);
+		final int batchSize = (options.getBatchSize() > 0 ? options.getBatchSize()
+				: BasicBatchOptions.DEFAULT_BATCH_SIZE);
+		final List<MqttMessageEntity> batch = new ArrayList<>(batchSize);
+		final List<Long> deleted = new ArrayList<>(batchSize);
+		long cursor = 0;
+		int processed = 0;
+		boolean stop = false;
+		while ( !stop ) {
+			cursor = readBatch(cursor, destination, batchSize, batch);
+			if ( batch.isEmpty() ) {
+				break;
+			}
+			for ( MqttMessageEntity e : batch ) {
+				final BatchCallbackResult result = callback.handle(e);
+				processed++;
+				if ( result == BatchCallbackResult.DELETE ) {
+					deleted.add(e.getId());
+				} else if ( result == BatchCallbackResult.STOP
+						|| result == BatchCallbackResult.UPDATE_STOP ) {
+					stop = true;
+					break;
+				}
+			}
+			batch.clear();
+			if ( !deleted.isEmpty() ) {
+				synchronized ( this ) {
+					if ( open ) {
+						for ( Long id : deleted ) {
+							deleteId(id);
+						}
+					}
+				}
+				deleted.clear();
+			}
+		}
+		return new BasicBatchResult(processed);
+	}
+
+	/**
+	 * Read a batch of messages.
+	 *
+	 * @param cursor
+	 *        the ID to start reading from
+	 * @param destination
+	 *        the optional destination to match
+	 * @param max
+	 *        the maximum number of messages to read
+	 * @param batch
+	 *        the list to add the messages to
+	 * @return the ID to continue reading from
+	 */
+	private synchronized long readBatch(long cursor, @Nullable String destination, int max,
+			List<MqttMessageEntity> batch) {
+		requireOpen();
+		for ( MappedFileSegment seg : segments ) {
+			if ( cursor >= seg.getNextId() ) {
+				continue;
+			}
+			for ( long id = seg.nextLiveId(cursor); id > 0; id = seg.nextLiveId(id + 1) ) {
+				cursor = id + 1;
+				final MqttMessageEntity e = seg.read(id, destination);
+				if ( e != null ) {
+					batch.add(e);
+					if ( batch.size() >= max ) {
+						return cursor;
+					}
+				}
+			}
+			cursor = seg.getNextId();
+		}
+		return cursor;
+	}
+
+	/**
+	 * Compact the spool.
+	 *
+	 * <p>
+	 * Each full segment whose deleted messages account for at least the
+	 * {@code compactionThreshold} ratio of its used space is rewritten to
+	 * contain only its remaining messages.
+	 * </p>
+	 *
+	 * @return the number of segments compacted
+	 * @throws UncheckedIOException
+	 *         if an IO error occurs
+	 */
+	public synchronized int compact() {
+		requireOpen();
+		int count = 0;
+		for ( int i = 0, len = segments.size(); i < len; i++ ) {
+			final MappedFileSegment seg = segments.get(i);
+			if ( !seg.isSealed() || seg.getDeletedLength() < 1
+					|| (double) seg.getDeletedLength() / seg.getUsedLength() < compactionThreshold ) {
+				continue;
+			}
+			try {
+				segments.set(i, seg.compact());
+				count++;
+			} catch ( IOException e ) {
+				throw new UncheckedIOException("Error compacting MQTT spool segment " + seg.getPath(),
+						e);
+			}
+		}
+		if ( count > 0 ) {
+			log.info("Compacted {} MQTT spool segments in [{}]", count, directory);
+		}
+		return count;
+	}
+
+	/**
+	 * Write all changes to the storage device.
+	 */
+	public synchronized void flush() {
+		for ( MappedFileSegment seg : segments ) {
+			seg.force();
+		}
+	}
+
+	/**
+	 * Get the number of stored messages.
+	 *
+	 * @return the message count
+	 */
+	public synchronized int getMessageCount() {
+		int count = 0;
+		for ( MappedFileSegment seg : segments ) {
+			count += seg.getLiveCount();
+		}
+		return count;
+	}
+
+	/**
+	 * Get the number of segment files.
+	 *
+	 * @return the segment count
+	 */
+	public synchronized int getSegmentCount() {
+		return segments.size();
+	}
+
+	/**
+	 * Get the spool directory.
+	 *
+	 * @return the directory
+	 */
+	public Path getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Get the segment size.
+	 *
+	 * @return the segment size, in bytes; defaults to
+	 *         {@link #DEFAULT_SEGMENT_SIZE}
+	 */
+	public int getSegmentSize() {
+		return segmentSize;
+	}
+
+	/**
+	 * Set the segment size.
+	 *
+	 * <p>
+	 * A segment larger than this is created if a single message does not fit.
+	 * Changes apply to segments created afterwards.
+	 * </p>
+	 *
+	 * @param segmentSize
+	 *        the segment size to set, in bytes; values less than
+	 *        {@link #MIN_SEGMENT_SIZE} will be set to that
+	 */
+	public synchronized void setSegmentSize(int segmentSize) {
+		this.segmentSize = Math.max(MIN_SEGMENT_SIZE, segmentSize);
+	}
+
+	/**
+	 * Get the compaction threshold.
+	 *
+	 * @return the ratio of deleted to used space at which a segment is
+	 *         compacted; defaults to {@link #DEFAULT_COMPACTION_THRESHOLD}
+	 */
+	public double getCompactionThreshold() {
+		return compactionThreshold;
+	}
+
+	/**
+	 * Set the compaction threshold.
+	 *
+	 * @param compactionThreshold
+	 *        the ratio of deleted to used space at which a segment is
+	 *        compacted, between {@literal 0} and {@literal 1}
+	 */
+	public synchronized void setCompactionThreshold(double compactionThreshold) {
+		this.compactionThreshold = compactionThreshold;
+	}
+
+	/**
+	 * Get the synchronous writes mode.
+	 *
+	 * @return {@code true} to write each message to the storage device before
+	 *         {@link #save(MqttMessageEntity)} returns; defaults to
+	 *         {@code false}
+	 */
+	public boolean isSyncWrites() {
+		return syncWrites;
+	}
+
+	/**
+	 * Set the synchronous writes mode.
+	 *
+	 * <p>
+	 * When disabled, the operating system writes changes to the storage device
+	 * at its own pace, and messages saved just before a system crash can be
+	 * lost. Use {@link #flush()} to write changes explicitly.
+	 * </p>
+	 *
+	 * @param syncWrites
+	 *        {@code true} to write each message to the storage device before
+	 *        {@link #save(MqttMessageEntity)} returns
+	 */
+	public synchronized void setSyncWrites(boolean syncWrites) {
+		this.syncWrites = syncWrites;
+	}
+
+}
@@ -0,0 +1,593 @@
+/* ==================================================================
+ * MappedFileSegment.java - 16/10/2026 5:12:36 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.common.mqtt.dao;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import net.solarnetwork.common.mqtt.MqttQos;
+
+/**
+ * A memory-mapped spool segment file of MQTT message records.
+ *
+ * <p>
+ * A segment starts with a header of a magic number, a format version, and the
+ * segment base ID. Records follow the header, each made of:
+ * </p>
+ *
+ * <ol>
+ * <li>body length (4 bytes)</li>
+ * <li>CRC-32C of the body (4 bytes)</li>
+ * <li>state (1 byte): {@link #STATE_LIVE} or {@link #STATE_DELETED}</li>
+ * <li>body: ID (8 bytes), creation date as epoch milliseconds (8 bytes), QoS
+ * (1 byte), flags (1 byte), destination, topic, and payload</li>
+ * </ol>
+ *
+ * <p>
+ * The destination and topic are stored as a 2-byte length followed by UTF-8
+ * bytes, and the payload as a 4-byte length followed by the payload bytes. A
+ * length of {@literal -1} represents {@code null}. The state byte is not part
+ * of the CRC so that records can be deleted in place.
+ * </p>
+ *
+ * <p>
+ * Records are appended with increasing IDs. A record length of {@literal 0}
+ * marks the end of the segment. When a segment is opened, records are scanned
+ * until the end marker or a record that fails the CRC check, which is
+ * considered the end of the segment.
+ * </p>
+ *
+ * <p>
+ * This class is not thread safe.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ * @since 6.2
+ */
+final class MappedFileSegment {
+
+	/** The segment file header magic number: {@code SNMS}. */
+	static final int MAGIC = 0x534E4D53;
+
+	/** The segment file format version. */
+	static final int VERSION = 1;
+
+	/** The segment file header length. */
+	static final int HEADER_LENGTH = 16;
+
+	/** The record header length. */
+	static final int RECORD_HEADER_LENGTH = 9;
+
+	/** The fixed record body length. */
+	static final int RECORD_FIXED_LENGTH = 8 + 8 + 1 + 1 + 2 + 2 + 4;
+
+	/** The maximum destination or topic length, in UTF-8 bytes. */
+	static final int MAX_STRING_LENGTH = 0xFFFE;
+
+	/** The live record state. */
+	static final byte STATE_LIVE = 1;
+
+	/** The deleted record state. */
+	static final byte STATE_DELETED = 2;
+
+	private static final int FLAG_RETAINED = 1;
+
+	private static final int NO_RECORD = -1;
+
+	private static final Logger log = LoggerFactory.getLogger(MappedFileSegment.class);
+
+	private final Path path;
+	private final long baseId;
+	private final MappedByteBuffer buf;
+	private final CRC32C crc = new CRC32C();
+
+	/** Record offsets, indexed by ID - baseId. */
+	private int[] offsets;
+
+	/** The number of record IDs in this segment. */
+	private int idCount;
+
+	private int writePos;
+	private int liveCount;
+	private int deadBytes;
+	private boolean sealed;
+
+	private MappedFileSegment(Path path, long baseId, MappedByteBuffer buf, int[] offsets) {
+		super();
+		this.path = path;
+		this.baseId = baseId;
+		this.buf = buf;
+		this.offsets = offsets;
+		this.writePos = HEADER_LENGTH;
+	}
+
+	/**
+	 * Copy constructor, for a segment moved to a new path.
+	 */
+	private MappedFileSegment(Path path, MappedFileSegment other) {
+		this(path, other.baseId, other.buf, other.offsets);
+		this.idCount = other.idCount;
+		this.writePos = other.writePos;
+		this.liveCount = other.liveCount;
+		this.deadBytes = other.deadBytes;
+		this.sealed = other.sealed;
+	}
+
+	/**
+	 * Create a new segment file.
+	 *
+	 * @param path
+	 *        the path of the file to create
+	 * @param baseId
+	 *        the ID of the first record
+	 * @param size
+	 *        the segment size, in bytes
+	 * @return the new segment
+	 * @throws IOException
+	 *         if an IO error occurs
+	 */
+	static MappedFileSegment create(Path path, long baseId, int size) throws IOException {
+		final MappedByteBuffer buf = map(path, size, StandardOpenOption.CREATE_NEW);
+		buf.putInt(0, MAGIC);
+		buf.putInt(4, VERSION);
+		buf.putLong(8, baseId);
+		return new MappedFileSegment(path, baseId, buf, new int[64]);
+	}
+
+	/**
+	 * Open an existing segment file, recovering its records.
+	 *
+	 * @param path
+	 *        the path of the file to open
+	 * @return the segment
+	 * @throws IOException
+	 *         if an IO error occurs or the file is not a valid segment
+	 */
+	static MappedFileSegment open(Path path) throws IOException {
+		final long size = Files.size(path);
+		if ( size < HEADER_LENGTH || size > Integer.MAX_VALUE ) {
+			throw new IOException("Invalid spool segment size %d: %s".formatted(size, path));
+		}
+		final MappedByteBuffer buf = map(path, (int) size);
+		if ( buf.getInt(0) != MAGIC || buf.getInt(4) != VERSION ) {
+			throw new IOException("Invalid spool segment header: " + path);
+		}
+		final MappedFileSegment seg = new MappedFileSegment(path, buf.getLong(8), buf, new int[64]);
+		seg.recover();
+		return seg;
+	}
+
+	private static MappedByteBuffer map(Path path, int size, StandardOpenOption... options)
+			throws IOException {
+		final StandardOpenOption[] opts = Arrays.copyOf(options, options.length + 2);
+		opts[options.length] = StandardOpenOption.READ;
+		opts[options.length + 1] = StandardOpenOption.WRITE;
+		try (FileChannel ch = FileChannel.open(path, opts)) {
+			// the mapping remains valid after the channel is closed
+			return ch.map(FileChannel.MapMode.READ_WRITE, 0, size);
+		}
+	}
+
+	private void recover() {
+		final int cap = buf.capacity();
+		int pos = HEADER_LENGTH;
+		long lastId = baseId - 1;
+		while ( pos + RECORD_HEADER_LENGTH <= cap ) {
+			final int len = buf.getInt(pos);
+			if ( len == 0 ) {
+				break;
+			}
+			final int end = pos + RECORD_HEADER_LENGTH + len;
+			if ( len < RECORD_FIXED_LENGTH || end < 0 || end > cap
+					|| buf.getInt(pos + 4) != crc(pos + RECORD_HEADER_LENGTH, len) ) {
+				log.warn("Spool segment [{}] corrupted at offset {}; discarding remaining data.", path,
+						pos);
+				// clear the remaining data so stale records are not recovered later
+				for ( int i = pos; i < cap; i++ ) {
+					buf.put(i, (byte) 0);
+				}
+				break;
+			}
+			final long id = buf.getLong(pos + RECORD_HEADER_LENGTH);
+			if ( id <= lastId || id - baseId >= Integer.MAX_VALUE ) {
+				log.warn("Spool segment [{}] has out-of-order record ID {} at offset {}; ignoring.",
+						path, id, pos);
+				deadBytes += end - pos;
+			} else {
+				final boolean live = (buf.get(pos + 8) == STATE_LIVE);
+				lastId = id;
+				index(id, live ? pos : NO_RECORD);
+				if ( live ) {
+					liveCount++;
+				} else {
+					deadBytes += end - pos;
+				}
+			}
+			pos = end;
+		}
+		writePos = pos;
+	}
+
+	private int crc(int pos, int len) {
+		crc.reset();
+		crc.update(buf.slice(pos, len));
+		return (int) crc.getValue();
+	}
+
+	private void index(long id, int offset) {
+		final int idx = (int) (id - baseId);
+		if ( idx >= offsets.length ) {
+			offsets = Arrays.copyOf(offsets, Math.max(idx + 1, offsets.length * 2));
+		}
+		for ( int i = idCount; i < idx; i++ ) {
+			offsets[i] = NO_RECORD;
+		}
+		offsets[idx] = offset;
+		idCount = idx + 1;
+	}
+
+	/**
+	 * Get the encoded length of a record.
+	 *
+	 * @param destination
+	 *        the UTF-8 destination, or {@code null}
+	 * @param topic
+	 *        the UTF-8 topic
+	 * @param payload
+	 *        the payload, or {@code null}
+	 * @return the record length, including the record header
+	 */
+	static int recordLength(byte @Nullable [] destination, byte[] topic, byte @Nullable [] payload) {
+		return RECORD_HEADER_LENGTH + RECORD_FIXED_LENGTH
+				+ (destination != null ? destination.length : 0) + topic.length
+				+ (payload != null ? payload.length : 0);
+	}
+
+	/**
+	 * Append a record.
+	 *
+	 * @param id
+	 *        the record ID, which must be greater than all IDs in this segment
+	 * @param created
+	 *        the creation date
+	 * @param destination
+	 *        the UTF-8 destination, or {@code null}
+	 * @param topic
+	 *        the UTF-8 topic
+	 * @param retained
+	 *        the retained flag
+	 * @param qos
+	 *        the QoS
+	 * @param payload
+	 *        the payload, or {@code null}
+	 * @return the offset of the appended record, or {@literal -1} if there is
+	 *         not enough space in this segment
+	 */
+	int append(long id, long created, byte @Nullable [] destination, byte[] topic,
+			boolean retained, MqttQos qos, byte @Nullable [] payload) {
+		final int recLen = recordLength(destination, topic, payload);
+		if ( sealed || recLen > buf.capacity() - writePos ) {
+			return NO_RECORD;
+		}
+		final int start = writePos;
+		int pos = start + RECORD_HEADER_LENGTH;
+		buf.putLong(pos, id);
+		buf.putLong(pos + 8, created);
+		buf.put(pos + 16, (byte) qos.getValue());
+		buf.put(pos + 17, (byte) (retained ? FLAG_RETAINED : 0));
+		pos = putBytes(pos + 18, destination, false);
+		pos = putBytes(pos, topic, false);
+		putBytes(pos, payload, true);
+
+		final int bodyLen = recLen - RECORD_HEADER_LENGTH;
+		buf.put(start + 8, STATE_LIVE);
+		buf.putInt(start + 4, crc(start + RECORD_HEADER_LENGTH, bodyLen));
+		// the length is written last, to commit the record
+		buf.putInt(start, bodyLen);
+
+		index(id, start);
+		writePos = start + recLen;
+		liveCount++;
+		return start;
+	}
+
+	private int putBytes(int pos, byte @Nullable [] data, boolean intLength) {
+		final int len = (data != null ? data.length : -1);
+		if ( intLength ) {
+			buf.putInt(pos, len);
+			pos += 4;
+		} else {
+			buf.putShort(pos, (short) len);
+			pos += 2;
+		}
+		if ( data != null ) {
+			buf.put(pos, data);
+			pos += data.length;
+		}
+		return pos;
+	}
+
+	private int offset(long id) {
+		final long idx = id - baseId;
+		if ( idx < 0 || idx >= idCount ) {
+			return NO_RECORD;
+		}
+		return offsets[(int) idx];
+	}
+
+	/**
+	 * Test if a live record exists.
+	 *
+	 * @param id
+	 *        the ID of the record
+	 * @return {@code true} if the record exists and has not been deleted
+	 */
+	boolean contains(long id) {
+		return offset(id) != NO_RECORD;
+	}
+
+	/**
+	 * Read a record.
+	 *
+	 * @param id
+	 *        the ID of the record to read
+	 * @param destination
+	 *        an optional destination to match
+	 * @return the record, or {@code null} if not available or the destination
+	 *         does not match
+	 */
+	@Nullable
+	BasicMqttMessageEntity read(long id, @Nullable String destination) {
+		final int offset = offset(id);
+		if ( offset == NO_RECORD ) {
+			return null;
+		}
+		int pos = offset + RECORD_HEADER_LENGTH;
+		final long created = buf.getLong(pos + 8);
+		final MqttQos qos = MqttQos.valueOf(buf.get(pos + 16));
+		final boolean retained = (buf.get(pos + 17) & FLAG_RETAINED) == FLAG_RETAINED;
+		pos += 18;
+		final short destLen = buf.getShort(pos);
+		pos += 2;
+		String dest = null;
+		if ( destLen != -1 ) {
+			final int l = Short.toUnsignedInt(destLen);
+			dest = getString(pos, l);
+			pos += l;
+		}
+		if ( destination != null && !destination.equals(dest) ) {
+			return null;
+		}
+		final int topicLen = Short.toUnsignedInt(buf.getShort(pos));
+		final String topic = getString(pos + 2, topicLen);
+		pos += 2 + topicLen;
+		final int payloadLen = buf.getInt(pos);
+		byte[] payload = null;
+		if ( payloadLen >= 0 ) {
+			payload = new byte[payloadLen];
+			buf.get(pos + 4, payload);
+		}
+		return new BasicMqttMessageEntity(id, Instant.ofEpochMilli(created), dest, topic, retained,
+				qos, payload);
+	}
+
+	private String getString(int pos, int len) {
+		final byte[] data = new byte[len];
+		buf.get(pos, data);
+		return new String(data, UTF_8);
+	}
+
+	/**
+	 * Delete a record.
+	 *
+	 * @param id
+	 *        the ID of the record to delete
+	 * @return {@code true} if the record was deleted
+	 */
+	boolean delete(long id) {
+		final int offset = offset(id);
+		if ( offset == NO_RECORD ) {
+			return false;
+		}
+		buf.put(offset + 8, STATE_DELETED);
+		offsets[(int) (id - baseId)] = NO_RECORD;
+		liveCount--;
+		deadBytes += RECORD_HEADER_LENGTH + buf.getInt(offset);
+		return true;
+	}
+
+	/**
+	 * Get the ID of the next record to read, starting from a given ID.
+	 *
+	 * @param id
+	 *        the ID to start from
+	 * @return the first live record ID greater than or equal to {@code id},
+	 *         or {@literal -1} if there are no more live records in this
+	 *         segment
+	 */
+	long nextLiveId(long id) {
+		for ( long i = Math.max(id, baseId) - baseId; i < idCount; i++ ) {
+			if ( offsets[(int) i] != NO_RECORD ) {
+				return baseId + i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Copy the live records of this segment into a new segment file.
+	 *
+	 * <p>
+	 * The new segment is written to a temporary file and then moved to replace
+	 * this segment's file. This segment must not be used after calling this
+	 * method.
+	 * </p>
+	 *
+	 * @return the new segment
+	 * @throws IOException
+	 *         if an IO error occurs
+	 */
+	MappedFileSegment compact() throws IOException {
+		final int len = HEADER_LENGTH + (writePos - HEADER_LENGTH - deadBytes);
+		final Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+		Files.deleteIfExists(tmp);
+		final MappedFileSegment result = create(tmp, baseId, len);
+		final MappedByteBuffer dest = result.buf;
+		int destPos = HEADER_LENGTH;
+		for ( int i = 0; i < idCount; i++ ) {
+			final int offset = offsets[i];
+			if ( offset == NO_RECORD ) {
+				continue;
+			}
+			final int recLen = RECORD_HEADER_LENGTH + buf.getInt(offset);
+			dest.put(destPos, buf, offset, recLen);
+			result.index(baseId + i, destPos);
+			result.liveCount++;
+			destPos += recLen;
+		}
+		result.writePos = destPos;
+		result.sealed = true;
+		dest.force();
+		Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		return new MappedFileSegment(path, result);
+	}
+
+	/**
+	 * Write changes to the storage device.
+	 */
+	void force() {
+		buf.force();
+	}
+
+	/**
+	 * Write a range of changes to the storage device.
+	 *
+	 * @param from
+	 *        the starting offset
+	 */
+	void force(int from) {
+		buf.force(from, writePos - from);
+	}
+
+	/**
+	 * Delete the segment file.
+	 *
+	 * @throws IOException
+	 *         if an IO error occurs
+	 */
+	void deleteFile() throws IOException {
+		Files.deleteIfExists(path);
+	}
+
+	/**
+	 * Get the segment file path.
+	 *
+	 * @return the path
+	 */
+	Path getPath() {
+		return path;
+	}
+
+	/**
+	 * Get the ID of the first record.
+	 *
+	 * @return the base ID
+	 */
+	long getBaseId() {
+		return baseId;
+	}
+
+	/**
+	 * Get the ID after the last record.
+	 *
+	 * @return the next ID
+	 */
+	long getNextId() {
+		return baseId + idCount;
+	}
+
+	/**
+	 * Get the number of live records.
+	 *
+	 * @return the live record count
+	 */
+	int getLiveCount() {
+		return liveCount;
+	}
+
+	/**
+	 * Get the number of bytes used by records.
+	 *
+	 * @return the used length
+	 */
+	int getUsedLength() {
+		return writePos - HEADER_LENGTH;
+	}
+
+	/**
+	 * Get the number of bytes used by deleted records.
+	 *
+	 * @return the deleted length
+	 */
+	int getDeletedLength() {
+		return deadBytes;
+	}
+
+	/**
+	 * Get the write position.
+	 *
+	 * @return the offset the next record will be written to
+	 */
+	int getWritePosition() {
+		return writePos;
+	}
+
+	/**
+	 * Test if this segment is sealed.
+	 *
+	 * @return {@code true} if no more records can be appended
+	 */
+	boolean isSealed() {
+		return sealed;
+	}
+
+	/**
+	 * Seal this segment, so no more records can be appended.
+	 */
+	void seal() {
+		this.sealed = true;
+	}
+
+}
@@ -0,0 +1,242 @@
+/* ==================================================================
+ * IndexedActionMessageQueueTests.java - 16/10/2026 9:48:31 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.ocpp.service.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import org.junit.Before;
+import org.junit.Test;
+import net.solarnetwork.ocpp.domain.Action;
+import net.solarnetwork.ocpp.domain.BasicActionMessage;
+import net.solarnetwork.ocpp.domain.ChargePointIdentity;
+import net.solarnetwork.ocpp.domain.PendingActionMessage;
+import net.solarnetwork.ocpp.service.IndexedActionMessageQueue;
+
+/**
+ * Test cases for the {@link IndexedActionMessageQueue} class.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class IndexedActionMessageQueueTests {
+
+	private IndexedActionMessageQueue amq;
+
+	private enum Work implements Action {
+
+		LazeAbout;
+
+		@Override
+		public String getName() {
+			return name();
+		}
+	}
+
+	@Before
+	public void setup() {
+		amq = new IndexedActionMessageQueue();
+	}
+
+	private ChargePointIdentity createClientId() {
+		return new ChargePointIdentity(UUID.randomUUID().toString(), UUID.randomUUID().toString());
+	}
+
+	private PendingActionMessage createMessage(ChargePointIdentity clientId) {
+		return new PendingActionMessage(
+				new BasicActionMessage<Object>(clientId, Work.LazeAbout, Boolean.TRUE));
+	}
+
+	private PendingActionMessage createMessage(ChargePointIdentity clientId, String messageId) {
+		return new PendingActionMessage(
+				new BasicActionMessage<Object>(clientId, messageId, Work.LazeAbout, Boolean.TRUE));
+	}
+
+	@Test
+	public void addPending_multi() {
+		// GIVEN
+		ChargePointIdentity clientId = createClientId();
+		PendingActionMessage msg1 = createMessage(clientId);
+		PendingActionMessage msg2 = createMessage(clientId);
+
+		// WHEN
+		amq.addPendingMessage(msg1);
+		amq.addPendingMessage(msg2);
+
+		// THEN
+		assertThat("Messages added to queue in order", amq.pendingMessageQueue(clientId),
+				contains(msg1, msg2));
+		assertThat("Pending message count", amq.getPendingMessageCount(), is(equalTo(2)));
+	}
+
+	@Test
+	public void pollMessage_middle() {
+		// GIVEN
+		ChargePointIdentity clientId = createClientId();
+		PendingActionMessage msg1 = createMessage(clientId);
+		PendingActionMessage msg2 = createMessage(clientId);
+		PendingActionMessage msg3 = createMessage(clientId);
+		amq.addPendingMessage(msg1);
+		amq.addPendingMessage(msg2);
+		amq.addPendingMessage(msg3);
+
+		// WHEN
+		PendingActionMessage result = amq.pollPendingMessage(clientId,
+				msg2.getMessage().getMessageId());
+
+		// THEN
+		assertThat("Message polled", result, is(sameInstance(msg2)));
+		assertThat("Message removed from queue", amq.pendingMessageQueue(clientId),
+				contains(msg1, msg3));
+		assertThat("Message no longer indexed",
+				amq.pollPendingMessage(clientId, msg2.getMessage().getMessageId()), is(nullValue()));
+		assertThat("Pending message count", amq.getPendingMessageCount(), is(equalTo(2)));
+	}
+
+	@Test
+	public void pollMessage_duplicateMessageId() {
+		// GIVEN
+		ChargePointIdentity clientId = createClientId();
+		PendingActionMessage msg1 = createMessage(clientId, "a");
+		PendingActionMessage msg2 = createMessage(clientId, "a");
+		amq.addPendingMessage(msg1);
+		amq.addPendingMessage(msg2);
+
+		// WHEN
+		PendingActionMessage result1 = amq.pollPendingMessage(clientId, "a");
+		PendingActionMessage result2 = amq.pollPendingMessage(clientId, "a");
+		PendingActionMessage result3 = amq.pollPendingMessage(clientId, "a");
+
+		// THEN
+		assertThat("Newest message polled first", result1, is(sameInstance(msg2)));
+		assertThat("Oldest message polled next", result2, is(sameInstance(msg1)));
+		assertThat("No more messages", result3, is(nullValue()));
+	}
+
+	@Test
+	public void queue_removeFirstOccurrence() {
+		// GIVEN
+		ChargePointIdentity clientId = createClientId();
+		PendingActionMessage msg1 = createMessage(clientId);
+		PendingActionMessage msg2 = createMessage(clientId);
+		amq.addPendingMessage(msg1);
+		amq.addPendingMessage(msg2);
+		Deque<PendingActionMessage> q = amq.pendingMessageQueue(clientId);
+
+		// WHEN
+		boolean removed;
+		synchronized ( q ) {
+			removed = q.removeFirstOccurrence(msg2);
+		}
+
+		// THEN
+		assertThat("Message removed", removed, is(equalTo(true)));
+		assertThat("Queue updated", q, contains(msg1));
+		assertThat("Removed message no longer indexed",
+				amq.pollPendingMessage(clientId, msg2.getMessage().getMessageId()), is(nullValue()));
+	}
+
+	@Test
+	public void queue_iteratorRemove() {
+		// GIVEN
+		ChargePointIdentity clientId = createClientId();
+		PendingActionMessage msg1 = createMessage(clientId);
+		PendingActionMessage msg2 = createMessage(clientId);
+		PendingActionMessage msg3 = createMessage(clientId);
+		amq.addPendingMessage(msg1);
+		amq.addPendingMessage(msg2);
+		amq.addPendingMessage(msg3);
+		Deque<PendingActionMessage> q = amq.pendingMessageQueue(clientId);
+
+		// WHEN
+		synchronized ( q ) {
+			for ( Iterator<PendingActionMessage> itr = q.descendingIterator(); itr.hasNext(); ) {
+				if ( itr.next() != msg2 ) {
+					itr.remove();
+				}
+			}
+		}
+
+		// THEN
+		assertThat("Queue updated", q, contains(msg2));
+		assertThat("Pending message count", amq.getPendingMessageCount(), is(equalTo(1)));
+		assertThat("Remaining message indexed",
+				amq.pollPendingMessage(clientId, msg2.getMessage().getMessageId()),
+				is(sameInstance(msg2)));
+	}
+
+	@Test
+	public void removeExpired() {
+		// GIVEN
+		ChargePointIdentity clientId1 = createClientId();
+		ChargePointIdentity clientId2 = createClientId();
+		PendingActionMessage msg1 = createMessage(clientId1);
+		PendingActionMessage msg2 = createMessage(clientId1);
+		PendingActionMessage msg3 = createMessage(clientId2);
+		amq.addPendingMessage(msg1);
+		amq.addPendingMessage(msg2);
+		amq.addPendingMessage(msg3);
+
+		// WHEN
+		final List<PendingActionMessage> expired = new ArrayList<>();
+		amq.removeExpiredPendingMessages(System.currentTimeMillis() + 1, (q, msg) -> {
+			assertThat("Queue for client provided",
+					q == amq.pendingMessageQueue(msg.getMessage().getClientId()));
+			expired.add(msg);
+		});
+
+		// THEN
+		assertThat("Head messages of each client expired", expired, containsInAnyOrder(msg1, msg3));
+		assertThat("Waiting message not expired", amq.pendingMessageQueue(clientId1),
+				contains(msg2));
+		assertThat("Expired client queue emptied", amq.pendingMessageQueue(clientId2), hasSize(0));
+		assertThat("Pending message count", amq.getPendingMessageCount(), is(equalTo(1)));
+	}
+
+	@Test
+	public void removeExpired_none() {
+		// GIVEN
+		ChargePointIdentity clientId = createClientId();
+		PendingActionMessage msg = createMessage(clientId);
+		amq.addPendingMessage(msg);
+
+		// WHEN
+		final List<PendingActionMessage> expired = new ArrayList<>();
+		amq.removeExpiredPendingMessages(msg.getDate(), (q, m) -> expired.add(m));
+
+		// THEN
+		assertThat("No messages expired", expired, hasSize(0));
+		assertThat("Message still queued", amq.pendingMessageQueue(clientId), contains(msg));
+	}
+
+}
@@ -42,6 +42,8 @@ import ocpp.v16.jakarta.cs.AuthorizeResponse;
 import ocpp.v16.jakarta.cs.BootNotificationRequest;
 import ocpp.v16.jakarta.cs.BootNotificationResponse;
 import ocpp.v16.jakarta.cs.RegistrationStatus;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
 import tools.jackson.databind.JsonNode;
 import tools.jackson.databind.ObjectMapper;
 
@@ -49,7 +51,7 @@ import tools.jackson.databind.ObjectMapper;
  * Test cases for the {@link CentralServiceActionPayloadDecoder} class.
  *
  * @author matt
- * @version 2.0
+ * @version 2.1
  */
 public class CentralServiceActionPayloadDecoderTests {
 
@@ -68,6 +70,15 @@ public class CentralServiceActionPayloadDecoderTests {
 		return mapper.readTree(getClass().getResourceAsStream(resource));
 	}
 
+	private JsonParser frameParser(String payload) {
+		// position the parser on the payload of a Call message frame
+		JsonParser parser = mapper.createParser("[2,\"1\",\"Authorize\"," + payload + "]");
+		for ( int i = 0; i < 5; i++ ) {
+			parser.nextToken();
+		}
+		return parser;
+	}
+
 	@Before
 	public void setup() {
 		mapper = createObjectMapper();
@@ -162,5 +173,34 @@ public class CentralServiceActionPayloadDecoderTests {
 		assertThat("Interval", result.getInterval(), equalTo(600));
 	}
 
+	@Test
+	public void readJsonEmptyObject() throws IOException {
+		try (JsonParser parser = frameParser("{}")) {
+			AuthorizeRequest result = decoder.readActionPayload(CentralSystemAction.Authorize, false,
+					parser);
+			assertThat("Null returned on JSON empty object input", result, is(nullValue()));
+		}
+	}
+
+	@Test
+	public void readAuthorizeRequest() throws IOException {
+		try (JsonParser parser = frameParser("{\"idTag\":\"abc123\"}")) {
+			AuthorizeRequest result = decoder.readActionPayload(CentralSystemAction.Authorize, false,
+					parser);
+			assertThat("Result decoded", result, notNullValue());
+			assertThat("IdTag", result.getIdTag(), equalTo("abc123"));
+			assertThat("Parser positioned after payload", parser.nextToken(),
+					equalTo(JsonToken.END_ARRAY));
+		}
+	}
+
+	@Test(expected = SchemaValidationException.class)
+	public void readAuthorizeRequest_invalid() throws IOException {
+		try (JsonParser parser = frameParser(
+				"{\"idTag\":\"This Glorious IdToken Value Is Too Long For You To Handle\"}")) {
+			decoder.readActionPayload(CentralSystemAction.Authorize, false, parser);
+		}
+	}
+
 	// TODO: other actions
 }
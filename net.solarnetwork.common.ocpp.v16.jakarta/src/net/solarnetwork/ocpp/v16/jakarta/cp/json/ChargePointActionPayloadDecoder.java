@@ -70,6 +70,7 @@ import ocpp.v16.jakarta.cp.UnlockConnectorResponse;
 import ocpp.v16.jakarta.cp.UpdateFirmwareRequest;
 import ocpp.v16.jakarta.cp.UpdateFirmwareResponse;
 import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
 import tools.jackson.databind.JsonNode;
 import tools.jackson.databind.ObjectMapper;
 
@@ -79,7 +80,7 @@ import tools.jackson.databind.ObjectMapper;
  * actions.
  *
  * @author matt
- * @version 2.0
+ * @version 2.1
  */
 public class ChargePointActionPayloadDecoder extends BaseActionPayloadDecoder {
 
@@ -133,6 +134,23 @@ public class ChargePointActionPayloadDecoder extends BaseActionPayloadDecoder {
 
 	}
 
+	@Override
+	public <T> @Nullable T readActionPayload(final Action action, final boolean forResult,
+			final JsonParser parser) throws IOException {
+		if ( !hasPayload(parser) ) {
+			return null;
+		}
+		final ChargePointAction a = action instanceof ChargePointAction ? (ChargePointAction) action
+				: ChargePointAction.valueOf(action.getName());
+		final Class<T> clazz = messageClassForAction(a, forResult);
+		if ( clazz == null ) {
+			throw new SchemaValidationException(null, "Action %s not supported.".formatted(a));
+		}
+		final T result = readPayload(parser, clazz);
+		validateActionMessage(a, forResult, result);
+		return result;
+	}
+
 	@SuppressWarnings("unchecked")
 	private <T> @Nullable Class<T> messageClassForAction(final ChargePointAction action,
 			final boolean forResult) {
@@ -52,6 +52,7 @@ import ocpp.v16.jakarta.cs.StatusNotificationResponse;
 import ocpp.v16.jakarta.cs.StopTransactionRequest;
 import ocpp.v16.jakarta.cs.StopTransactionResponse;
 import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
 import tools.jackson.databind.JsonNode;
 import tools.jackson.databind.ObjectMapper;
 
@@ -61,7 +62,7 @@ import tools.jackson.databind.ObjectMapper;
  * actions.
  *
  * @author matt
- * @version 2.0
+ * @version 2.1
  */
 public class CentralServiceActionPayloadDecoder extends BaseActionPayloadDecoder {
 
@@ -115,6 +116,24 @@ public class CentralServiceActionPayloadDecoder extends BaseActionPayloadDecoder
 		return result;
 	}
 
+	@Override
+	public <T> @Nullable T readActionPayload(final Action action, final boolean forResult,
+			final JsonParser parser) throws IOException {
+		if ( !hasPayload(parser) ) {
+			return null;
+		}
+		final CentralSystemAction a = action instanceof CentralSystemAction
+				? (CentralSystemAction) action
+				: CentralSystemAction.valueOf(action.getName());
+		final Class<T> clazz = messageClassForAction(a, forResult);
+		if ( clazz == null ) {
+			throw new SchemaValidationException(null, "Action %s not supported.".formatted(a));
+		}
+		final T result = readPayload(parser, clazz);
+		validateActionMessage(a, forResult, result);
+		return result;
+	}
+
 	@SuppressWarnings("unchecked")
 	private <T> @Nullable Class<T> messageClassForAction(final CentralSystemAction action,
 			final boolean forResult) {
@@ -27,10 +27,17 @@ import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import jakarta.xml.bind.JAXBContext;
 import jakarta.xml.bind.JAXBException;
 import jakarta.xml.bind.annotation.XmlRegistry;
+import net.solarnetwork.ocpp.domain.SchemaValidationException;
 import net.solarnetwork.ocpp.json.ActionPayloadDecoder;
 import net.solarnetwork.ocpp.xml.jakarta.support.JaxbUtils;
 import net.solarnetwork.ocpp.xml.jakarta.support.SchemaValidationHelper;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.core.exc.StreamReadException;
+import tools.jackson.databind.DeserializationFeature;
 import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.ObjectReader;
 import tools.jackson.databind.cfg.DateTimeFeature;
 import tools.jackson.databind.json.JsonMapper;
 import tools.jackson.databind.util.StdDateFormat;
@@ -41,7 +48,7 @@ import tools.jackson.module.jakarta.xmlbind.JakartaXmlBindAnnotationModule;
  * validation support.
  *
  * @author matt
- * @version 2.0
+ * @version 2.1
  */
 public abstract class BaseActionPayloadDecoder implements ActionPayloadDecoder {
 
@@ -54,6 +61,9 @@ public abstract class BaseActionPayloadDecoder implements ActionPayloadDecoder {
 	/** The JAXB context. */
 	protected final JAXBContext jaxbContext;
 
+	/** A reader for payloads within a message frame. */
+	private final ObjectReader payloadReader;
+
 	/**
 	 * Get a default {@link ObjectMapper} instance.
 	 *
@@ -87,6 +97,7 @@ public abstract class BaseActionPayloadDecoder implements ActionPayloadDecoder {
 			ClassLoader classLoader) {
 		super();
 		this.mapper = requireNonNullArgument(mapper, "mapper");
+		this.payloadReader = mapper.reader().without(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
 		try {
 			this.jaxbContext = JaxbUtils.jaxbContextForRegistry(jaxbRegistry);
 		} catch ( JAXBException e ) {
@@ -96,4 +107,52 @@ public abstract class BaseActionPayloadDecoder implements ActionPayloadDecoder {
 				SchemaValidationHelper.schemaFromWsdl(wsdlResource, classLoader));
 	}
 
+	/**
+	 * Test if a payload is available from a parser.
+	 *
+	 * <p>
+	 * In the OCPP specification a JSON {@code null} or empty object payload
+	 * means "no payload". If the payload is an object, the parser will be
+	 * advanced to the first token within the object.
+	 * </p>
+	 *
+	 * @param parser
+	 *        the parser, positioned on the first token of the payload
+	 * @return {@literal true} if a payload is available
+	 * @since 2.1
+	 */
+	protected static boolean hasPayload(JsonParser parser) {
+		final JsonToken t = parser.currentToken();
+		if ( t == null || t == JsonToken.VALUE_NULL ) {
+			return false;
+		}
+		return !(t == JsonToken.START_OBJECT && parser.nextToken() == JsonToken.END_OBJECT);
+	}
+
+	/**
+	 * Read a payload from a parser.
+	 *
+	 * @param <T>
+	 *        the payload type
+	 * @param parser
+	 *        the parser, positioned on the first token of the payload
+	 * @param clazz
+	 *        the payload class
+	 * @return the payload
+	 * @throws StreamReadException
+	 *         if the payload is not well-formed JSON
+	 * @throws SchemaValidationException
+	 *         if the payload cannot be read
+	 * @since 2.1
+	 */
+	protected <T> T readPayload(JsonParser parser, Class<T> clazz) {
+		try {
+			return payloadReader.forType(clazz).readValue(parser);
+		} catch ( StreamReadException e ) {
+			throw e;
+		} catch ( JacksonException e ) {
+			throw new SchemaValidationException(null, e.getMessage(), e);
+		}
+	}
+
 }
@@ -0,0 +1,169 @@
+/* ==================================================================
+ * OcppSchemaValidatorTests.java - 16/10/2026 8:41:05 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.ocpp.v201.util.tests;
+
+import static java.util.Collections.singletonMap;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import com.networknt.schema.SchemaRegistry;
+import net.solarnetwork.ocpp.domain.SchemaValidationException;
+import net.solarnetwork.ocpp.v201.util.ActionPayloadDecoder;
+import net.solarnetwork.ocpp.v201.util.OcppSchemaValidator;
+import net.solarnetwork.ocpp.v201.util.OcppUtils;
+import net.solarnetwork.util.StatTracker;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Test cases for the {@link OcppSchemaValidator} class.
+ *
+ * @author matt
+ * @version 1.1
+ */
+public class OcppSchemaValidatorTests {
+
+	private ObjectMapper mapper;
+	private SchemaRegistry registry;
+
+	@Before
+	public void setup() {
+		mapper = OcppUtils.newObjectMapper();
+		registry = OcppUtils.ocppSchemaRegistry_v201();
+	}
+
+	private JsonNode json(String resource) throws IOException {
+		return mapper.readTree(getClass().getResourceAsStream(resource));
+	}
+
+	@Test
+	public void warm() {
+		// WHEN
+		OcppSchemaValidator validator = new OcppSchemaValidator(registry);
+
+		// THEN
+		assertThat("All action schemas compiled", validator.getSchemaCount(),
+				is(equalTo(OcppUtils.OCPP_ACTION_SCHEMA_LOCATIONS.size())));
+	}
+
+	@Test
+	public void decoder_ownValidator() {
+		// WHEN
+		ActionPayloadDecoder d1 = new ActionPayloadDecoder(registry);
+		ActionPayloadDecoder d2 = new ActionPayloadDecoder(registry);
+
+		// THEN
+		assertThat("Decoder creates validator", d1.getSchemaValidator(), is(notNullValue()));
+		assertThat("Validator registry", d1.getSchemaValidator().getRegistry(),
+				is(sameInstance(registry)));
+		assertThat("Validator not shared between decoders", d2.getSchemaValidator(),
+				is(not(sameInstance(d1.getSchemaValidator()))));
+	}
+
+	@Test
+	public void decoder_sharedValidator() {
+		// GIVEN
+		OcppSchemaValidator validator = new OcppSchemaValidator(registry);
+
+		// WHEN
+		ActionPayloadDecoder d1 = new ActionPayloadDecoder(validator, mapper);
+		ActionPayloadDecoder d2 = new ActionPayloadDecoder(validator, mapper);
+
+		// THEN
+		assertThat("Validator shared by decoder", d1.getSchemaValidator(),
+				is(sameInstance(validator)));
+		assertThat("Validator shared by decoder", d2.getSchemaValidator(),
+				is(sameInstance(validator)));
+	}
+
+	@Test
+	public void validate() throws IOException {
+		// GIVEN
+		OcppSchemaValidator validator = new OcppSchemaValidator(registry);
+		StatTracker stats = new StatTracker("Test", null, null, 1);
+		validator.setStats(stats);
+
+		// WHEN
+		validator.validate("StatusNotification", true,
+				json("test-ocpp-StatusNotificationRequest-01.json"));
+
+		// THEN
+		assertThat("Validation time recorded", stats.getAccumulation(
+				OcppSchemaValidator.VALIDATION_TIME_STAT_PREFIX + "StatusNotificationRequest")
+				.count(), is(equalTo(1L)));
+	}
+
+	@Test(expected = SchemaValidationException.class)
+	public void validate_invalid() throws IOException {
+		// GIVEN
+		OcppSchemaValidator validator = new OcppSchemaValidator(registry);
+
+		// WHEN
+		validator.validate("StatusNotification", true,
+				json("test-ocpp-StatusNotificationRequest-02.json"));
+	}
+
+	@Test
+	public void validate_unknownAction() throws IOException {
+		// GIVEN
+		OcppSchemaValidator validator = new OcppSchemaValidator(registry);
+
+		// WHEN
+		validator.validate("Foo", true, json("test-ocpp-StatusNotificationRequest-02.json"));
+
+		// THEN
+		assertThat("Action without schema not validated", validator.getSchemaCount(),
+				is(equalTo(OcppUtils.OCPP_ACTION_SCHEMA_LOCATIONS.size())));
+	}
+
+	@Test
+	public void sample() {
+		// GIVEN
+		OcppSchemaValidator validator = new OcppSchemaValidator(registry);
+		validator.setSampleRates(singletonMap("MeterValues", 3));
+
+		// WHEN
+		List<Boolean> sampled = new ArrayList<>();
+		List<Boolean> other = new ArrayList<>();
+		for ( int i = 0; i < 6; i++ ) {
+			sampled.add(validator.sample("MeterValues", true));
+			other.add(validator.sample("StatusNotification", true));
+		}
+
+		// THEN
+		assertThat("Sampled action validated 1 in 3", sampled,
+				contains(true, false, false, true, false, false));
+		assertThat("Other action always validated", other,
+				contains(true, true, true, true, true, true));
+	}
+
+}
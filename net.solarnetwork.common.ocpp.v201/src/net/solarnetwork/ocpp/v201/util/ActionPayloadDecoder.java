@@ -29,6 +29,8 @@ import org.jspecify.annotations.Nullable;
 import com.networknt.schema.SchemaRegistry;
 import net.solarnetwork.ocpp.domain.Action;
 import net.solarnetwork.ocpp.domain.SchemaValidationException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
 import tools.jackson.databind.JsonNode;
 import tools.jackson.databind.ObjectMapper;
 import tools.jackson.databind.node.ObjectNode;
@@ -37,12 +39,19 @@ import tools.jackson.databind.node.ObjectNode;
  * Implementation of {@link net.solarnetwork.ocpp.json.ActionPayloadDecoder}
  * with schema validation support.
  *
+ * <p>
+ * Schema validation is performed by an {@link OcppSchemaValidator}. A decoder
+ * created with a registry creates its own validator; to compile the schemas
+ * only once, create a validator and pass it to each decoder that should share
+ * it.
+ * </p>
+ *
  * @author matt
- * @version 2.0
+ * @version 2.1
  */
 public class ActionPayloadDecoder implements net.solarnetwork.ocpp.json.ActionPayloadDecoder {
 
-	private final @Nullable SchemaRegistry registry;
+	private final @Nullable OcppSchemaValidator validator;
 	private final ObjectMapper objectMapper;
 
 	/**
@@ -77,7 +86,24 @@ public class ActionPayloadDecoder implements net.solarnetwork.ocpp.json.ActionPa
 	public ActionPayloadDecoder(ObjectMapper objectMapper, @Nullable SchemaRegistry registry) {
 		super();
 		this.objectMapper = requireNonNullArgument(objectMapper, "objectMapper");
-		this.registry = registry;
+		this.validator = (registry != null ? new OcppSchemaValidator(registry) : null);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param validator
+	 *        the validator to use
+	 * @param objectMapper
+	 *        the mapper to use
+	 * @throws IllegalArgumentException
+	 *         if any argument is {@code null}
+	 * @since 2.1
+	 */
+	public ActionPayloadDecoder(OcppSchemaValidator validator, ObjectMapper objectMapper) {
+		super();
+		this.validator = requireNonNullArgument(validator, "validator");
+		this.objectMapper = requireNonNullArgument(objectMapper, "objectMapper");
 	}
 
 	@Override
@@ -89,10 +115,65 @@ public class ActionPayloadDecoder implements net.solarnetwork.ocpp.json.ActionPa
 		if ( !(payload instanceof ObjectNode) ) {
 			throw new SchemaValidationException(payload, "Message is not a JSON object.");
 		}
+		final OcppSchemaValidator v = this.validator;
+		if ( v != null && v.sample(action.getName(), !forResult) ) {
+			v.validate(action.getName(), !forResult, payload);
+		}
+		@SuppressWarnings("unchecked")
+		T result = (T) parseOcppMessage(action.getName(), !forResult, (ObjectNode) payload,
+				(SchemaRegistry) null, objectMapper);
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>
+	 * If the payload is to be validated it is read into a tree so it can be
+	 * validated, otherwise the payload is bound directly from the parser.
+	 * </p>
+	 *
+	 * @since 2.1
+	 */
+	@Override
+	public <T> @Nullable T readActionPayload(Action action, boolean forResult, JsonParser parser)
+			throws IOException {
+		final OcppSchemaValidator v = this.validator;
+		if ( v != null && v.sample(action.getName(), !forResult) ) {
+			final JsonNode payload = parser.readValueAsTree();
+			if ( payload == null || payload.isNull() ) {
+				return null;
+			}
+			if ( !(payload instanceof ObjectNode) ) {
+				throw new SchemaValidationException(payload, "Message is not a JSON object.");
+			}
+			v.validate(action.getName(), !forResult, payload);
+			@SuppressWarnings("unchecked")
+			T result = (T) parseOcppMessage(action.getName(), !forResult, (ObjectNode) payload,
+					(SchemaRegistry) null, objectMapper);
+			return result;
+		}
+		final JsonToken t = parser.currentToken();
+		if ( t == JsonToken.VALUE_NULL ) {
+			return null;
+		}
+		if ( t != JsonToken.START_OBJECT ) {
+			throw new SchemaValidationException(null, "Message is not a JSON object.");
+		}
 		@SuppressWarnings("unchecked")
-		T result = (T) parseOcppMessage(action.getName(), !forResult, (ObjectNode) payload, registry,
-				objectMapper);
+		T result = (T) parseOcppMessage(action.getName(), !forResult, parser, objectMapper);
 		return result;
 	}
 
+	/**
+	 * Get the schema validator.
+	 *
+	 * @return the validator, or {@code null} if schema validation is not
+	 *         enabled
+	 * @since 2.1
+	 */
+	public final @Nullable OcppSchemaValidator getSchemaValidator() {
+		return validator;
+	}
+
 }
@@ -0,0 +1,308 @@
+/* ==================================================================
+ * OcppSchemaValidator.java - 16/10/2026 8:12:40 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.ocpp.v201.util;
+
+import static net.solarnetwork.ocpp.v201.util.OcppUtils.OCPP_ACTION_SCHEMA_LOCATIONS;
+import static net.solarnetwork.ocpp.v201.util.OcppUtils.actionClassName;
+import static net.solarnetwork.util.ObjectUtils.requireNonNullArgument;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.networknt.schema.Error;
+import com.networknt.schema.Schema;
+import com.networknt.schema.SchemaLocation;
+import com.networknt.schema.SchemaRegistry;
+import net.solarnetwork.ocpp.domain.SchemaValidationException;
+import net.solarnetwork.util.StatTracker;
+import tools.jackson.databind.JsonNode;
+
+/**
+ * Validate OCPP 2.0.1 messages using compiled JSON schemas.
+ *
+ * <p>
+ * Each action schema is compiled once and cached, keyed by action and
+ * direction. All schemas are compiled when the validator is created, so the
+ * first message of each action does not pay the cost. The compiled schemas are
+ * owned by the validator instance, so they are released along with it; share
+ * one instance between all users that should share the compiled schemas.
+ * </p>
+ *
+ * <p>
+ * Validation can be sampled on a per-action basis via
+ * {@link #setSampleRates(Map)}, for example to validate only 1 in 10
+ * {@code MeterValues} messages.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ * @since 3.2
+ */
+public class OcppSchemaValidator {
+
+	/**
+	 * The statistic name prefix used for validation time accumulations, in
+	 * microseconds.
+	 *
+	 * <p>
+	 * The action class name is appended to this prefix, for example
+	 * {@code SchemaValidationMeterValuesRequest}.
+	 * </p>
+	 */
+	public static final String VALIDATION_TIME_STAT_PREFIX = "SchemaValidation";
+
+	private static final Logger log = LoggerFactory.getLogger(OcppSchemaValidator.class);
+
+	private final SchemaRegistry registry;
+	private final ConcurrentMap<String, Schema> schemas;
+	private final ConcurrentMap<String, AtomicLong> sampleCounters;
+	private volatile Map<String, Integer> sampleRates;
+	private volatile @Nullable StatTracker stats;
+
+	/**
+	 * Constructor.
+	 *
+	 * <p>
+	 * All known action schemas will be compiled.
+	 * </p>
+	 *
+	 * @param registry
+	 *        the registry to load schemas from
+	 * @throws IllegalArgumentException
+	 *         if {@code registry} is {@code null}
+	 */
+	public OcppSchemaValidator(SchemaRegistry registry) {
+		super();
+		this.registry = requireNonNullArgument(registry, "registry");
+		this.schemas = new ConcurrentHashMap<>(OCPP_ACTION_SCHEMA_LOCATIONS.size());
+		this.sampleCounters = new ConcurrentHashMap<>(8, 0.9f, 2);
+		this.sampleRates = Collections.emptyMap();
+		warm();
+	}
+
+	/**
+	 * Compile all known action schemas.
+	 *
+	 * @return the number of schemas compiled
+	 */
+	public final int warm() {
+		final long start = System.currentTimeMillis();
+		int count = 0;
+		for ( String actionClassName : OCPP_ACTION_SCHEMA_LOCATIONS.keySet() ) {
+			try {
+				if ( schema(actionClassName) != null ) {
+					count++;
+				}
+			} catch ( RuntimeException e ) {
+				log.warn("Error compiling OCPP 2.0.1 JSON schema for [{}]: {}", actionClassName,
+						e.toString());
+			}
+		}
+		log.info("Compiled {} OCPP 2.0.1 JSON schemas in {}ms", count,
+				System.currentTimeMillis() - start);
+		return count;
+	}
+
+	private @Nullable Schema schema(final String actionClassName) {
+		Schema schema = schemas.get(actionClassName);
+		if ( schema != null ) {
+			return schema;
+		}
+		final SchemaLocation loc = OCPP_ACTION_SCHEMA_LOCATIONS.get(actionClassName);
+		if ( loc == null ) {
+			return null;
+		}
+		return schemas.computeIfAbsent(actionClassName, k -> {
+			Schema s = registry.getSchema(loc);
+			s.initializeValidators();
+			return s;
+		});
+	}
+
+	/**
+	 * Test if the next message for an action should be validated, according
+	 * to the configured sample rates.
+	 *
+	 * <p>
+	 * Each call counts as one message, so this method should be called once
+	 * per message.
+	 * </p>
+	 *
+	 * @param action
+	 *        the OCPP action, for example "MeterValues"
+	 * @param request
+	 *        {@literal true} if the message represents a request,
+	 *        {@literal false} for a response
+	 * @return {@literal true} if the message should be validated
+	 */
+	public boolean sample(final String action, final boolean request) {
+		final Integer rate = sampleRates.get(action);
+		if ( rate == null || rate.intValue() < 2 ) {
+			return true;
+		}
+		final AtomicLong counter = sampleCounters.computeIfAbsent(actionClassName(action, request),
+				k -> new AtomicLong());
+		return (counter.getAndIncrement() % rate.intValue() == 0);
+	}
+
+	/**
+	 * Validate a message.
+	 *
+	 * <p>
+	 * Sampling is not applied by this method: see
+	 * {@link #sample(String, boolean)}. Messages for actions without a schema
+	 * are not validated.
+	 * </p>
+	 *
+	 * @param action
+	 *        the OCPP action, for example "MeterValues"
+	 * @param request
+	 *        {@literal true} if the message represents a request,
+	 *        {@literal false} for a response
+	 * @param message
+	 *        the message to validate
+	 * @throws SchemaValidationException
+	 *         if validation fails
+	 */
+	public void validate(final String action, final boolean request,
+			final @Nullable JsonNode message) {
+		final String actionClassName = actionClassName(action, request);
+		final Schema schema = schema(actionClassName);
+		if ( schema == null ) {
+			return;
+		}
+		final long start = System.nanoTime();
+		try {
+			validate(schema, actionClassName, message);
+		} finally {
+			final StatTracker s = this.stats;
+			if ( s != null ) {
+				s.add(VALIDATION_TIME_STAT_PREFIX + actionClassName,
+						TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+			}
+		}
+	}
+
+	/**
+	 * Validate a message against a schema.
+	 *
+	 * @param schema
+	 *        the schema
+	 * @param actionClassName
+	 *        the action class name, for error messages
+	 * @param message
+	 *        the message to validate
+	 * @throws SchemaValidationException
+	 *         if validation fails
+	 */
+	static void validate(final Schema schema, final String actionClassName,
+			final @Nullable JsonNode message) {
+		final List<Error> errors = schema.validate(message);
+		if ( !errors.isEmpty() ) {
+			throw new SchemaValidationException(message,
+					String.format("JSON schema validation error on [%s] OCPP action: %s.",
+							actionClassName,
+							errors.stream().map(Object::toString).collect(Collectors.joining(", "))));
+		}
+	}
+
+	/**
+	 * Get the registry.
+	 *
+	 * @return the registry
+	 */
+	public final SchemaRegistry getRegistry() {
+		return registry;
+	}
+
+	/**
+	 * Get the number of compiled schemas.
+	 *
+	 * @return the number of compiled schemas
+	 */
+	public final int getSchemaCount() {
+		return schemas.size();
+	}
+
+	/**
+	 * Get the validation sample rates.
+	 *
+	 * @return the sample rates, never {@code null}
+	 */
+	public final Map<String, Integer> getSampleRates() {
+		return sampleRates;
+	}
+
+	/**
+	 * Set the validation sample rates.
+	 *
+	 * <p>
+	 * This is a mapping of OCPP action names, for example "MeterValues", to a
+	 * sample rate {@code N}, such that only 1 in {@code N} messages of that
+	 * action will be validated. Actions without a rate, or with a rate less
+	 * than {@literal 2}, will have every message validated.
+	 * </p>
+	 *
+	 * @param sampleRates
+	 *        the sample rates to set
+	 */
+	public final void setSampleRates(@Nullable Map<String, Integer> sampleRates) {
+		this.sampleRates = (sampleRates != null ? Collections.unmodifiableMap(new HashMap<>(sampleRates))
+				: Collections.emptyMap());
+		sampleCounters.clear();
+	}
+
+	/**
+	 * Get the statistics to record validation times in.
+	 *
+	 * @return the statistics, or {@code null}
+	 */
+	public final @Nullable StatTracker getStats() {
+		return stats;
+	}
+
+	/**
+	 * Set the statistics to record validation times in.
+	 *
+	 * <p>
+	 * The time taken to validate each message is added as an accumulation
+	 * named {@link #VALIDATION_TIME_STAT_PREFIX} followed by the action class
+	 * name, in microseconds.
+	 * </p>
+	 *
+	 * @param stats
+	 *        the statistics to set
+	 */
+	public final void setStats(@Nullable StatTracker stats) {
+		this.stats = stats;
+	}
+
+}
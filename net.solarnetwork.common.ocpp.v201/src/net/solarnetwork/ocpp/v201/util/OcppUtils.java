@@ -28,18 +28,14 @@ import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 import org.jspecify.annotations.Nullable;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.networknt.schema.AbsoluteIri;
-import com.networknt.schema.Error;
-import com.networknt.schema.Schema;
 import com.networknt.schema.SchemaLocation;
 import com.networknt.schema.SchemaRegistry;
 import com.networknt.schema.dialect.BasicDialectRegistry;
@@ -57,6 +53,10 @@ import net.solarnetwork.ocpp.domain.SchemaValidationException;
 import net.solarnetwork.ocpp.domain.UnitOfMeasure;
 import ocpp.v201.ReasonEnum;
 import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.core.exc.StreamReadException;
+import tools.jackson.databind.DeserializationFeature;
 import tools.jackson.databind.JsonNode;
 import tools.jackson.databind.ObjectMapper;
 import tools.jackson.databind.cfg.DateTimeFeature;
@@ -68,7 +68,7 @@ import tools.jackson.databind.util.StdDateFormat;
  * Utilities for OCPP v2.
  *
  * @author matt
- * @version 2.0
+ * @version 2.1
  */
 public final class OcppUtils {
 
@@ -320,7 +320,9 @@ public final class OcppUtils {
 	 *        the OCPP message content
 	 * @param registry
 	 *        if provided, validate the message content using the schema
-	 *        associated with {@code action}
+	 *        associated with {@code action}; use an
+	 *        {@link OcppSchemaValidator} to validate many messages with
+	 *        compiled schemas
 	 * @param objectMapper
 	 *        the mapper to use
 	 * @return the parsed OCPP action instance
@@ -342,14 +344,7 @@ public final class OcppUtils {
 			if ( registry != null ) {
 				SchemaLocation loc = OCPP_ACTION_SCHEMA_LOCATIONS.get(actionClassName);
 				if ( loc != null ) {
-					Schema schema = registry.getSchema(loc);
-					List<Error> errors = schema.validate(message);
-					if ( !errors.isEmpty() ) {
-						throw new SchemaValidationException(message,
-								String.format("JSON schema validation error on [%s] OCPP action: %s.",
-										actionClassName, errors.stream().map(Object::toString)
-												.collect(Collectors.joining(", "))));
-					}
+					OcppSchemaValidator.validate(registry.getSchema(loc), actionClassName, message);
 				}
 			}
 			return objectMapper.treeToValue(message, actionClass);
@@ -359,6 +354,54 @@ public final class OcppUtils {
 		}
 	}
 
+	/**
+	 * Parse an OCPP message from a JSON parser.
+	 *
+	 * <p>
+	 * The message is bound directly from the parser, without first reading it
+	 * into a tree. No schema validation is performed.
+	 * </p>
+	 *
+	 * @param action
+	 *        the OCPP action
+	 * @param request
+	 *        {@literal true} if the message represents a request,
+	 *        {@literal false} for a response
+	 * @param parser
+	 *        the parser, positioned on the first token of the message content
+	 * @param objectMapper
+	 *        the mapper to use
+	 * @return the parsed OCPP action instance, or {@code null} if the message
+	 *         content is a JSON {@code null}
+	 * @throws StreamReadException
+	 *         if the message is not well-formed JSON
+	 * @throws IllegalArgumentException
+	 *         if the action is not known or the message is not valid for the
+	 *         action
+	 * @since 2.1
+	 */
+	public static @Nullable Object parseOcppMessage(final String action, final boolean request,
+			final JsonParser parser, final ObjectMapper objectMapper) {
+		String actionClassName = actionClassName(action, request);
+		Class<?> actionClass = OCPP_ACTION_CLASSES.get(actionClassName);
+		if ( actionClass == null ) {
+			throw new IllegalArgumentException("Unknown OCPP action [" + action + "]");
+		}
+		if ( parser.currentToken() == JsonToken.VALUE_NULL ) {
+			return null;
+		}
+		try {
+			// the message is usually followed by the rest of the message frame
+			return objectMapper.readerFor(actionClass)
+					.without(DeserializationFeature.FAIL_ON_TRAILING_TOKENS).readValue(parser);
+		} catch ( StreamReadException e ) {
+			throw e;
+		} catch ( JacksonException e ) {
+			throw new IllegalArgumentException(String.format("Invalid JSON for [%s] OCPP action: %s",
+					actionClassName, e.getMessage()));
+		}
+	}
+
 	/**
 	 * Get a {@link ocpp.v201.AuthorizationStatusEnum} for an
 	 * {@link AuthorizationStatus}.
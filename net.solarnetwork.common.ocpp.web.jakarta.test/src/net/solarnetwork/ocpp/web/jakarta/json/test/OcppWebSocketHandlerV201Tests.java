@@ -65,7 +65,7 @@ import tools.jackson.databind.ObjectMapper;
  * actions.
  *
  * @author matt
- * @version 2.0
+ * @version 2.1
  */
 public class OcppWebSocketHandlerV201Tests {
 
@@ -238,4 +238,47 @@ public class OcppWebSocketHandlerV201Tests {
 				.matches("\\[3,\"1603881305171\",\\{\"currentTime\":\"[^\"]+\"\\}\\]"), equalTo(true));
 	}
 
+	private void malformedPayload() throws Exception {
+		// GIVEN
+		final ChargePointIdentity cpIdent = new ChargePointIdentity("foo", "user");
+		final Map<String, Object> sessionAttributes = Collections
+				.singletonMap(OcppWebSocketHandshakeInterceptor.CLIENT_ID_ATTR, cpIdent);
+		final String sessionId = UUID.randomUUID().toString();
+		expect(session.getId()).andReturn(sessionId).anyTimes();
+		expect(session.getAttributes()).andReturn(sessionAttributes).anyTimes();
+		handler.addActionMessageProcessor(new HeartbeatProcessor(Clock.systemUTC()));
+
+		// send CallError
+		Capture<TextMessage> outMessageCaptor = Capture.newInstance();
+		session.sendMessage(capture(outMessageCaptor));
+
+		// WHEN
+		replayAll();
+		handler.startup(false);
+		handler.afterConnectionEstablished(session);
+		TextMessage msg = new TextMessage("[2,"1603881305171","Heartbeat",{"foo":bar}]");
+		handler.handleMessage(session, msg);
+
+		// THEN
+		TextMessage outMsg = outMessageCaptor.getValue();
+		assertThat("Error message sent", outMsg, notNullValue());
+		assertThat("Malformed JSON reported as protocol error", outMsg.getPayload(), is(equalTo(
+				"[4,"1603881305171","ProtocolError","Message malformed JSON.",{}]")));
+	}
+
+	@Test
+	public void malformedPayload_validated() throws Exception {
+		malformedPayload();
+	}
+
+	@Test
+	public void malformedPayload_notValidated() throws Exception {
+		// GIVEN
+		ActionPayloadDecoder decoder = new ActionPayloadDecoder();
+		handler.setChargePointActionPayloadDecoder(decoder);
+		handler.setCentralServiceActionPayloadDecoder(decoder);
+
+		malformedPayload();
+	}
+
 }
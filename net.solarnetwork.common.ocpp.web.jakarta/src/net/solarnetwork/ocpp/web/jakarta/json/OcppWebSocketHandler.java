@@ -87,15 +87,21 @@ import net.solarnetwork.ocpp.service.ActionMessageQueue;
 import net.solarnetwork.ocpp.service.ActionMessageResultHandler;
 import net.solarnetwork.ocpp.service.ChargePointBroker;
 import net.solarnetwork.ocpp.service.ErrorCodeResolver;
-import net.solarnetwork.ocpp.service.SimpleActionMessageQueue;
+import net.solarnetwork.ocpp.service.IndexedActionMessageQueue;
 import net.solarnetwork.security.AuthorizationException;
 import net.solarnetwork.service.PingTest;
 import net.solarnetwork.service.PingTestResult;
 import net.solarnetwork.settings.SettingsChangeObserver;
+import net.solarnetwork.util.StatRegistry;
 import net.solarnetwork.util.StatTracker;
 import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.core.exc.StreamReadException;
 import tools.jackson.databind.JsonNode;
 import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.node.MissingNode;
+import tools.jackson.databind.node.NullNode;
 
 /**
  * OCPP Charge Point JSON web socket handler.
@@ -127,7 +133,7 @@ import tools.jackson.databind.ObjectMapper;
  * @param <S>
  *        the central system action enumeration to use
  * @author matt
- * @version 3.2
+ * @version 3.3
  */
 public class OcppWebSocketHandler<C extends Enum<C> & Action, S extends Enum<S> & Action>
 		extends AbstractWebSocketHandler implements WebSocketHandler, SubProtocolCapable,
@@ -219,6 +225,7 @@ public class OcppWebSocketHandler<C extends Enum<C> & Action, S extends Enum<S>
 	private Duration sendTimeLimit = DEFAULT_SEND_TIME_LIMIT;
 	private DataSize sendBufferSizeLimit = DEFAULT_SEND_BUFFER_SIZE_LIMIT;
 	private OverflowStrategy sendOverflowStrategy = DEFAULT_SEND_OVERFLOW_STRATEGY;
+	private @Nullable StatRegistry statRegistry;
 
 	private boolean started;
 	private @Nullable Future<?> startupTask;
@@ -286,7 +293,7 @@ public class OcppWebSocketHandler<C extends Enum<C> & Action, S extends Enum<S>
 		this.executor = requireNonNullArgument(executor, "executor");
 		this.processors = new ConcurrentHashMap<>(16, 0.9f, 1);
 		this.clientSessions = new ConcurrentSkipListMap<>();
-		this.pendingMessages = new SimpleActionMessageQueue();
+		this.pendingMessages = new IndexedActionMessageQueue();
 		this.mapper = mapper;
 		this.subProtocols = Arrays.asList(subProtocols != null ? subProtocols
 				: new String[] { WebSocketSubProtocol.OCPP_V16.getValue() });
@@ -405,6 +412,10 @@ public class OcppWebSocketHandler<C extends Enum<C> & Action, S extends Enum<S>
 		if ( scheduleJobs ) {
 			configurationChanged(null);
 		}
+		final StatRegistry registry = this.statRegistry;
+		if ( registry != null ) {
+			registry.register(stats);
+		}
 		started = true;
 	}
 
@@ -427,6 +438,10 @@ public class OcppWebSocketHandler<C extends Enum<C> & Action, S extends Enum<S>
 		if ( startupTask != null ) {
 			startupTask.cancel(true);
 		}
+		final StatRegistry registry = this.statRegistry;
+		if ( registry != null ) {
+			registry.unregister(stats);
+		}
 		unshceduleChores();
 		disconnectClients();
 	}
@@ -493,30 +508,18 @@ public class OcppWebSocketHandler<C extends Enum<C> & Action, S extends Enum<S>
 		public void run() {
 			log.debug("Looking for expired pending message to clean...");
 			final long expiration = System.currentTimeMillis() - pendingMessageTimeout;
-			for ( Entry<ChargePointIdentity, Deque<PendingActionMessage>> me : pendingMessages
-					.allQueues() ) {
-				boolean processNext = false;
-				ChargePointIdentity clientId = me.getKey();
-				Deque<PendingActionMessage> q = me.getValue();
-				PendingActionMessage msg = q.peek();
-				if ( msg != null && msg.getDate() < expiration ) {
-					log.warn("Cleaning client {} expired pending message {}", clientId, msg);
-					synchronized ( q ) {
-						q.removeFirstOccurrence(msg);
-						processNext = true;
-					}
-					// let handler know we've timed out
-					try {
-						msg.getHandler().handleActionMessageResult(msg.getMessage(), null,
-								new TimeoutException("Message not handled within configured timeout."));
-					} catch ( Throwable t ) {
-						// ignore
-					}
-				}
-				if ( processNext ) {
-					processNextPendingMessage(q);
+			pendingMessages.removeExpiredPendingMessages(expiration, (q, msg) -> {
+				log.warn("Cleaning client {} expired pending message {}", msg.getMessage().getClientId(),
+						msg);
+				// let handler know we've timed out
+				try {
+					msg.getHandler().handleActionMessageResult(msg.getMessage(), null,
+							new TimeoutException("Message not handled within configured timeout."));
+				} catch ( Throwable t ) {
+					// ignore
 				}
-			}
+				processNextPendingMessage(q);
+			});
 		}
 
 	}
@@ -782,17 +785,14 @@ public class OcppWebSocketHandler<C extends Enum<C> & Action, S extends Enum<S>
 		}
 		stats.increment(Stats.MessagesReceived);
 		log.trace("OCPP {} <<< {}", clientId, message.getPayload());
-		JsonNode tree;
-		try {
-			tree = mapper.readTree(message.getPayload());
-		} catch ( JacksonException e ) {
-			sendCallError(session, clientId, null, requireErrorCode(RpcError.PayloadProtocolError),
-					"Message malformed JSON.", null);
-			return;
-		}
-		if ( tree.isArray() ) {
-			JsonNode msgTypeNode = tree.path(0);
-			JsonNode messageIdNode = tree.path(1);
+		// decode the message frame in a single pass, leaving the parser positioned on the
+		// payload so it can be decoded directly into the action class
+		try (JsonParser parser = mapper.createParser(message.getPayload())) {
+			if ( parser.nextToken() != JsonToken.START_ARRAY ) {
+				return;
+			}
+			JsonNode msgTypeNode = nextFrameElement(parser);
+			JsonNode messageIdNode = nextFrameElement(parser);
 			final String messageId = messageIdNode.isString() ? messageIdNode.stringValue() : "NULL";
 			if ( !msgTypeNode.isInt() ) {
 				sendCallError(session, clientId, messageId,
@@ -812,20 +812,64 @@ public class OcppWebSocketHandler<C extends Enum<C> & Action, S extends Enum<S>
 			switch (msgType) {
 				case Call:
 					stats.increment(Stats.CallMessagesReceived);
-					handleCallMessage(session, clientId, messageId, message, tree);
+					handleCallMessage(session, clientId, messageId, message, parser);
 					break;
 
 				case CallError:
 					stats.increment(Stats.CallErrorMessagesReceived);
-					handleCallErrorMessage(session, clientId, messageId, message, tree);
+					handleCallErrorMessage(session, clientId, messageId, message, parser);
 					break;
 
 				case CallResult:
 					stats.increment(Stats.CallResultMessagesReceived);
-					handleCallResultMessage(session, clientId, messageId, message, tree);
+					handleCallResultMessage(session, clientId, messageId, message, parser);
 					break;
 			}
+		} catch ( JacksonException e ) {
+			sendCallError(session, clientId, null, requireErrorCode(RpcError.PayloadProtocolError),
+					"Message malformed JSON.", null);
+		}
+	}
+
+	/**
+	 * Read the next element of a message frame array as a tree.
+	 *
+	 * @param parser
+	 *        the parser, positioned before the element to read
+	 * @return the element, or a missing node if there are no more elements
+	 */
+	private static JsonNode nextFrameElement(JsonParser parser) {
+		final JsonToken t = parser.nextToken();
+		if ( t == null || t == JsonToken.END_ARRAY ) {
+			return MissingNode.getInstance();
 		}
+		final JsonNode node = parser.readValueAsTree();
+		return (node != null ? node : NullNode.getInstance());
+	}
+
+	/**
+	 * Read and decode the next element of a message frame array as an action
+	 * payload.
+	 *
+	 * @param decoder
+	 *        the decoder to use
+	 * @param action
+	 *        the action
+	 * @param forResult
+	 *        {@literal true} if the payload is the {@code action} result
+	 * @param parser
+	 *        the parser, positioned before the payload element
+	 * @return the payload
+	 * @throws IOException
+	 *         if any decoding error occurs
+	 */
+	private static <T> @Nullable T nextFramePayload(ActionPayloadDecoder decoder, Action action,
+			boolean forResult, JsonParser parser) throws IOException {
+		final JsonToken t = parser.nextToken();
+		if ( t == null || t == JsonToken.END_ARRAY ) {
+			return decoder.decodeActionPayload(action, forResult, MissingNode.getInstance());
+		}
+		return decoder.readActionPayload(action, forResult, parser);
 	}
 
 	/**
@@ -878,15 +922,15 @@ public class OcppWebSocketHandler<C extends Enum<C> & Action, S extends Enum<S>
 	 *        the message ID
 	 * @param message
 	 *        the web socket message
-	 * @param tree
-	 *        the parsed JSON from the message
+	 * @param parser
+	 *        the message JSON parser, positioned after the message ID
 	 * @return {@literal true} if the message was processed
 	 * @see #handleCallMessageResult(CallMessage, CallResultMessage,
 	 *      CallErrorMessage)
 	 */
 	private boolean handleCallMessage(final WebSocketSession session, final ChargePointIdentity clientId,
-			final String messageId, final TextMessage message, final JsonNode tree) {
-		final JsonNode actionNode = tree.path(2);
+			final String messageId, final TextMessage message, final JsonParser parser) {
+		final JsonNode actionNode = nextFrameElement(parser);
 		final Action action;
 		try {
 			action = actionNode.isString() ? centralSystemAction(actionNode.stringValue()) : null;
@@ -901,13 +945,16 @@ public class OcppWebSocketHandler<C extends Enum<C> & Action, S extends Enum<S>
 			}
 			Object payload;
 			try {
-				payload = centralServiceActionPayloadDecoder.decodeActionPayload(action, false,
-						tree.path(3));
+				payload = nextFramePayload(centralServiceActionPayloadDecoder, action, false, parser);
 			} catch ( SchemaValidationException e ) {
 				return sendCallError(session, clientId, messageId,
 						requireErrorCode(RpcError.PayloadTypeConstraintViolation),
 						"Schema validation error: " + e.getMessage(), null);
-			} catch ( IOException e ) {
+			} catch ( StreamReadException e ) {
+				return sendCallError(session, clientId, messageId,
+						requireErrorCode(RpcError.PayloadProtocolError), "Message malformed JSON.",
+						null);
+			} catch ( IOException | JacksonException e ) {
 				return sendCallError(session, clientId, messageId,
 						requireErrorCode(RpcError.PayloadSyntaxError),
 						"Error parsing payload: " + e.getMessage(), null);
@@ -1105,14 +1152,19 @@ public class OcppWebSocketHandler<C extends Enum<C> & Action, S extends Enum<S>
 	 *        the message ID
 	 * @param message
 	 *        the message
-	 * @param tree
-	 *        the JSON
+	 * @param parser
+	 *        the message JSON parser, positioned after the message ID
 	 */
 	@SuppressWarnings("unchecked")
 	private void handleCallErrorMessage(final WebSocketSession session,
 			final ChargePointIdentity clientId, final String messageId, final TextMessage message,
-			final JsonNode tree) {
+			final JsonParser parser) {
 		try {
+			// read the error before polling the original message, so any JSON error leaves the
+			// original message to time out
+			final JsonNode errorCodeNode = nextFrameElement(parser);
+			final JsonNode descriptionNode = nextFrameElement(parser);
+			final JsonNode detailsNode = nextFrameElement(parser);
 			PendingActionMessage msg = pendingMessages.pollPendingMessage(clientId, messageId);
 			if ( msg == null ) {
 				log.warn(
@@ -1133,21 +1185,21 @@ public class OcppWebSocketHandler<C extends Enum<C> & Action, S extends Enum<S>
 
 			ErrorCode errorCode;
 			try {
-				errorCode = errorCodeResolver.errorCodeForName(tree.path(2).asString());
+				errorCode = errorCodeResolver.errorCodeForName(errorCodeNode.asString());
 			} catch ( IllegalArgumentException e ) {
 				log.warn("OCPP {} <<< Error code {} not valid; ignoring CallError message: {}", clientId,
-						tree.path(2).asString(), message.getPayload());
+						errorCodeNode.asString(), message.getPayload());
 				return;
 			}
 			Map<String, ?> details = null;
 			try {
-				details = mapper.treeToValue(tree.path(4), Map.class);
+				details = mapper.treeToValue(detailsNode, Map.class);
 			} catch ( JacksonException e ) {
 				log.warn("OCPP {} <<< Error parsing CallError details object {}, ignoring: {}", clientId,
-						tree.path(4), e.toString());
+						detailsNode, e.toString());
 			}
-			ErrorCodeException err = new ErrorCodeException(errorCode, details, tree.path(3).asString(),
-					null);
+			ErrorCodeException err = new ErrorCodeException(errorCode, details,
+					descriptionNode.asString(), null);
 			willProcessCallResponse(msg, null, err);
 			msg.getHandler().handleActionMessageResult(msg.getMessage(), null, err);
 		} finally {
@@ -1195,12 +1247,12 @@ public class OcppWebSocketHandler<C extends Enum<C> & Action, S extends Enum<S>
 	 *        the message ID
 	 * @param message
 	 *        the message
-	 * @param tree
-	 *        the JSON
+	 * @param parser
+	 *        the message JSON parser, positioned after the message ID
 	 */
 	private void handleCallResultMessage(final WebSocketSession session,
 			final ChargePointIdentity clientId, final String messageId, final TextMessage message,
-			final JsonNode tree) {
+			final JsonParser parser) {
 		try {
 			PendingActionMessage msg = pendingMessages.pollPendingMessage(clientId, messageId);
 			if ( msg == null ) {
@@ -1223,12 +1275,15 @@ public class OcppWebSocketHandler<C extends Enum<C> & Action, S extends Enum<S>
 			ErrorCodeException err = null;
 			Object payload = null;
 			try {
-				payload = chargePointActionPayloadDecoder
-						.decodeActionPayload(msg.getMessage().getAction(), true, tree.path(2));
+				payload = nextFramePayload(chargePointActionPayloadDecoder,
+						msg.getMessage().getAction(), true, parser);
 			} catch ( SchemaValidationException e ) {
 				err = new ErrorCodeException(requireErrorCode(RpcError.PayloadTypeConstraintViolation),
 						null, "Payload schema violation: " + e.getMessage(), e);
-			} catch ( IOException e ) {
+			} catch ( StreamReadException e ) {
+				err = new ErrorCodeException(requireErrorCode(RpcError.PayloadProtocolError), null,
+						"Message malformed JSON.", e);
+			} catch ( IOException | JacksonException e ) {
 				err = new ErrorCodeException(requireErrorCode(RpcError.PayloadSyntaxError), null,
 						"Error parsing payload: " + e.getMessage(), e);
 			}
@@ -1861,4 +1916,30 @@ public class OcppWebSocketHandler<C extends Enum<C> & Action, S extends Enum<S>
 				: DEFAULT_SEND_OVERFLOW_STRATEGY);
 	}
 
+	/**
+	 * Get the statistics registry.
+	 *
+	 * @return the registry, or {@code null}
+	 * @since 3.3
+	 */
+	public final @Nullable StatRegistry getStatRegistry() {
+		return statRegistry;
+	}
+
+	/**
+	 * Set the statistics registry.
+	 *
+	 * <p>
+	 * If configured, the statistics of this service will be registered in
+	 * {@link #startup(boolean)} and unregistered in {@link #shutdown()}.
+	 * </p>
+	 *
+	 * @param statRegistry
+	 *        the registry to set
+	 * @since 3.3
+	 */
+	public final void setStatRegistry(@Nullable StatRegistry statRegistry) {
+		this.statRegistry = statRegistry;
+	}
+
 }
@@ -25,14 +25,16 @@ package net.solarnetwork.ocpp.json;
 import java.io.IOException;
 import org.jspecify.annotations.Nullable;
 import net.solarnetwork.ocpp.domain.Action;
+import tools.jackson.core.JsonParser;
 import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.node.NullNode;
 
 /**
  * A service that can decode the JSON payload of an action message into a domain
  * object.
  *
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public interface ActionPayloadDecoder {
 
@@ -57,4 +59,44 @@ public interface ActionPayloadDecoder {
 	<T> @Nullable T decodeActionPayload(Action action, boolean forResult, JsonNode payload)
 			throws IOException;
 
+	/**
+	 * Read and decode the payload of an action message from a JSON parser.
+	 *
+	 * <p>
+	 * The parser must be positioned on the first token of the payload, and
+	 * this method reads the payload value from the parser. This allows the
+	 * payload to be decoded directly from a message frame while it is being
+	 * parsed, without first reading the payload into a {@link JsonNode} tree.
+	 * </p>
+	 *
+	 * <p>
+	 * This default implementation reads the payload into a tree and then
+	 * calls {@link #decodeActionPayload(Action, boolean, JsonNode)}.
+	 * Implementations are encouraged to bind the payload directly from the
+	 * parser instead.
+	 * </p>
+	 *
+	 * @param <T>
+	 *        the expected type
+	 * @param action
+	 *        the action
+	 * @param forResult
+	 *        {@literal true} if the payload is the {@code action} result;
+	 *        {@literal false} if it is the {@code action} request
+	 * @param parser
+	 *        the parser, positioned on the first token of the payload JSON
+	 * @return the payload object
+	 * @throws IOException
+	 *         if there is any error decoding the JSON payload
+	 * @throws UnsupportedOperationException
+	 *         if {@code action} is not supported
+	 * @since 1.1
+	 */
+	default <T> @Nullable T readActionPayload(Action action, boolean forResult, JsonParser parser)
+			throws IOException {
+		final JsonNode payload = parser.readValueAsTree();
+		return decodeActionPayload(action, forResult,
+				payload != null ? payload : NullNode.getInstance());
+	}
+
 }
@@ -24,6 +24,7 @@ package net.solarnetwork.ocpp.service;
 
 import java.util.Deque;
 import java.util.Map.Entry;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import org.jspecify.annotations.Nullable;
 import net.solarnetwork.ocpp.domain.ActionMessage;
@@ -43,7 +44,7 @@ import net.solarnetwork.ocpp.domain.PendingActionMessage;
  * </p>
  *
  * @author matt
- * @version 1.0
+ * @version 1.1
  */
 public interface ActionMessageQueue {
 
@@ -124,4 +125,46 @@ public interface ActionMessageQueue {
 	 * @return the iterable, never {@code null}
 	 */
 	Iterable<Entry<ChargePointIdentity, Deque<PendingActionMessage>>> allQueues();
+
+	/**
+	 * Remove expired messages from the head of their client queues.
+	 *
+	 * <p>
+	 * Only the first message of each client queue is considered, as that is
+	 * the message being processed, so at most one message is removed from
+	 * each queue. The {@code handler} will be invoked for
+	 * each removed message, without holding the lock of the client queue.
+	 * </p>
+	 *
+	 * <p>
+	 * This default implementation examines every queue returned by
+	 * {@link #allQueues()}. Implementations are encouraged to provide a more
+	 * efficient implementation.
+	 * </p>
+	 *
+	 * @param expiration
+	 *        the date, in milliseconds since the epoch, before which messages
+	 *        are expired
+	 * @param handler
+	 *        a function to invoke with the client queue and the message removed
+	 *        from it
+	 * @since 1.1
+	 */
+	default void removeExpiredPendingMessages(long expiration,
+			BiConsumer<Deque<PendingActionMessage>, PendingActionMessage> handler) {
+		for ( Entry<ChargePointIdentity, Deque<PendingActionMessage>> me : allQueues() ) {
+			final Deque<PendingActionMessage> q = me.getValue();
+			PendingActionMessage msg = null;
+			synchronized ( q ) {
+				PendingActionMessage head = q.peek();
+				if ( head != null && head.getDate() < expiration ) {
+					msg = q.pollFirst();
+				}
+			}
+			if ( msg != null ) {
+				handler.accept(q, msg);
+			}
+		}
+	}
+
 }
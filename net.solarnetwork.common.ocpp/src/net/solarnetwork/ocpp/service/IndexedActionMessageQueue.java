@@ -0,0 +1,566 @@
+/* ==================================================================
+ * IndexedActionMessageQueue.java - 16/10/2026 9:05:12 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.ocpp.service;
+
+import static net.solarnetwork.util.ObjectUtils.requireNonNullArgument;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import org.jspecify.annotations.Nullable;
+import net.solarnetwork.ocpp.domain.ChargePointIdentity;
+import net.solarnetwork.ocpp.domain.PendingActionMessage;
+
+/**
+ * In-memory implementation of {@link ActionMessageQueue} that indexes pending
+ * messages by message ID and date.
+ *
+ * <p>
+ * Each client queue keeps an index of its messages by message ID, so
+ * {@link #pollPendingMessage(ChargePointIdentity, String)} does not have to
+ * search the queue. All messages are also kept in a global index ordered by
+ * date, so {@link #removeExpiredPendingMessages(long, BiConsumer)} only has to
+ * examine expired messages, rather than every client queue.
+ * </p>
+ *
+ * <p>
+ * The client queues follow the same thread-safety rules as described in
+ * {@link ActionMessageQueue}: callers <b>must</b> synchronize on a queue
+ * instance when accessing it directly. As each queue is only locked for the
+ * messages of its own client, this lock is not expected to be contended.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ * @since 6.2
+ */
+public class IndexedActionMessageQueue implements ActionMessageQueue {
+
+	private final ConcurrentMap<ChargePointIdentity, Deque<PendingActionMessage>> pendingMessages;
+	private final ConcurrentSkipListSet<Node> deadlines;
+	private final AtomicLong sequence;
+
+	/**
+	 * Constructor.
+	 */
+	public IndexedActionMessageQueue() {
+		super();
+		this.pendingMessages = new ConcurrentHashMap<>(8, 0.7f, 2);
+		this.deadlines = new ConcurrentSkipListSet<>();
+		this.sequence = new AtomicLong();
+	}
+
+	/**
+	 * A queued message.
+	 */
+	private static final class Node implements Comparable<Node> {
+
+		private final PendingActionMessage msg;
+		private final ClientQueue queue;
+		private final long seq;
+
+		// all fields below guarded by queue
+
+		private @Nullable Node prev;
+		private @Nullable Node next;
+
+		/** An older node with the same message ID. */
+		private @Nullable Node dup;
+
+		private Node(PendingActionMessage msg, ClientQueue queue, long seq) {
+			super();
+			this.msg = msg;
+			this.queue = queue;
+			this.seq = seq;
+		}
+
+		@Override
+		public int compareTo(Node o) {
+			int result = Long.compare(msg.getDate(), o.msg.getDate());
+			if ( result == 0 ) {
+				result = Long.compare(seq, o.seq);
+			}
+			return result;
+		}
+
+	}
+
+	/**
+	 * A client queue, as a linked list of nodes indexed by message ID.
+	 */
+	private final class ClientQueue extends AbstractCollection<PendingActionMessage>
+			implements Deque<PendingActionMessage> {
+
+		private final Map<String, Node> index = new HashMap<>(8);
+		private @Nullable Node head;
+		private @Nullable Node tail;
+		private int size;
+		private int modCount;
+
+		private Node newNode(PendingActionMessage msg) {
+			requireNonNullArgument(msg, "msg");
+			final Node n = new Node(msg, this, sequence.incrementAndGet());
+			n.dup = index.put(msg.getMessage().getMessageId(), n);
+			deadlines.add(n);
+			size++;
+			modCount++;
+			return n;
+		}
+
+		private void linkFirst(PendingActionMessage msg) {
+			final Node n = newNode(msg);
+			final Node h = head;
+			n.next = h;
+			if ( h == null ) {
+				tail = n;
+			} else {
+				h.prev = n;
+			}
+			head = n;
+		}
+
+		private void linkLast(PendingActionMessage msg) {
+			final Node n = newNode(msg);
+			final Node t = tail;
+			n.prev = t;
+			if ( t == null ) {
+				head = n;
+			} else {
+				t.next = n;
+			}
+			tail = n;
+		}
+
+		private PendingActionMessage unlink(Node n) {
+			final Node p = n.prev;
+			final Node x = n.next;
+			if ( p == null ) {
+				head = x;
+			} else {
+				p.next = x;
+			}
+			if ( x == null ) {
+				tail = p;
+			} else {
+				x.prev = p;
+			}
+			n.prev = null;
+			n.next = null;
+
+			// remove from message ID index
+			final String id = n.msg.getMessage().getMessageId();
+			Node d = index.get(id);
+			if ( d == n ) {
+				if ( n.dup == null ) {
+					index.remove(id);
+				} else {
+					index.put(id, n.dup);
+				}
+			} else {
+				while ( d != null && d.dup != n ) {
+					d = d.dup;
+				}
+				if ( d != null ) {
+					d.dup = n.dup;
+				}
+			}
+			n.dup = null;
+
+			deadlines.remove(n);
+			size--;
+			modCount++;
+			return n.msg;
+		}
+
+		/**
+		 * Find the node for a message.
+		 *
+		 * @param o
+		 *        the message to find
+		 * @param oldest
+		 *        {@literal true} to find the oldest node, {@literal false} for
+		 *        the newest, if the message has been queued more than once
+		 * @return the node, or {@code null} if not found
+		 */
+		private @Nullable Node find(@Nullable Object o, boolean oldest) {
+			if ( !(o instanceof PendingActionMessage) ) {
+				return null;
+			}
+			final PendingActionMessage msg = (PendingActionMessage) o;
+			Node result = null;
+			for ( Node n = index.get(msg.getMessage().getMessageId()); n != null; n = n.dup ) {
+				if ( n.msg == msg ) {
+					result = n;
+					if ( !oldest ) {
+						break;
+					}
+				}
+			}
+			return result;
+		}
+
+		private @Nullable PendingActionMessage pollId(String messageId) {
+			final Node n = index.get(messageId);
+			return (n != null ? unlink(n) : null);
+		}
+
+		@Override
+		public void addFirst(PendingActionMessage e) {
+			linkFirst(e);
+		}
+
+		@Override
+		public void addLast(PendingActionMessage e) {
+			linkLast(e);
+		}
+
+		@Override
+		public boolean offerFirst(PendingActionMessage e) {
+			linkFirst(e);
+			return true;
+		}
+
+		@Override
+		public boolean offerLast(PendingActionMessage e) {
+			linkLast(e);
+			return true;
+		}
+
+		@Override
+		public PendingActionMessage removeFirst() {
+			final Node h = head;
+			if ( h == null ) {
+				throw new NoSuchElementException();
+			}
+			return unlink(h);
+		}
+
+		@Override
+		public PendingActionMessage removeLast() {
+			final Node t = tail;
+			if ( t == null ) {
+				throw new NoSuchElementException();
+			}
+			return unlink(t);
+		}
+
+		@Override
+		public @Nullable PendingActionMessage pollFirst() {
+			final Node h = head;
+			return (h != null ? unlink(h) : null);
+		}
+
+		@Override
+		public @Nullable PendingActionMessage pollLast() {
+			final Node t = tail;
+			return (t != null ? unlink(t) : null);
+		}
+
+		@Override
+		public PendingActionMessage getFirst() {
+			final Node h = head;
+			if ( h == null ) {
+				throw new NoSuchElementException();
+			}
+			return h.msg;
+		}
+
+		@Override
+		public PendingActionMessage getLast() {
+			final Node t = tail;
+			if ( t == null ) {
+				throw new NoSuchElementException();
+			}
+			return t.msg;
+		}
+
+		@Override
+		public @Nullable PendingActionMessage peekFirst() {
+			final Node h = head;
+			return (h != null ? h.msg : null);
+		}
+
+		@Override
+		public @Nullable PendingActionMessage peekLast() {
+			final Node t = tail;
+			return (t != null ? t.msg : null);
+		}
+
+		@Override
+		public boolean removeFirstOccurrence(@Nullable Object o) {
+			final Node n = find(o, true);
+			if ( n == null ) {
+				return false;
+			}
+			unlink(n);
+			return true;
+		}
+
+		@Override
+		public boolean removeLastOccurrence(@Nullable Object o) {
+			final Node n = find(o, false);
+			if ( n == null ) {
+				return false;
+			}
+			unlink(n);
+			return true;
+		}
+
+		@Override
+		public boolean add(PendingActionMessage e) {
+			linkLast(e);
+			return true;
+		}
+
+		@Override
+		public boolean offer(PendingActionMessage e) {
+			linkLast(e);
+			return true;
+		}
+
+		@Override
+		public PendingActionMessage remove() {
+			return removeFirst();
+		}
+
+		@Override
+		public @Nullable PendingActionMessage poll() {
+			return pollFirst();
+		}
+
+		@Override
+		public PendingActionMessage element() {
+			return getFirst();
+		}
+
+		@Override
+		public @Nullable PendingActionMessage peek() {
+			return peekFirst();
+		}
+
+		@Override
+		public void push(PendingActionMessage e) {
+			linkFirst(e);
+		}
+
+		@Override
+		public PendingActionMessage pop() {
+			return removeFirst();
+		}
+
+		@Override
+		public boolean remove(@Nullable Object o) {
+			return removeFirstOccurrence(o);
+		}
+
+		@Override
+		public boolean contains(@Nullable Object o) {
+			return find(o, false) != null;
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		@Override
+		public void clear() {
+			while ( head != null ) {
+				unlink(head);
+			}
+		}
+
+		@Override
+		public Iterator<PendingActionMessage> iterator() {
+			return new Itr(false);
+		}
+
+		@Override
+		public Iterator<PendingActionMessage> descendingIterator() {
+			return new Itr(true);
+		}
+
+		private final class Itr implements Iterator<PendingActionMessage> {
+
+			private final boolean descending;
+			private @Nullable Node next;
+			private @Nullable Node lastReturned;
+			private int expectedModCount;
+
+			private Itr(boolean descending) {
+				super();
+				this.descending = descending;
+				this.next = (descending ? tail : head);
+				this.expectedModCount = modCount;
+			}
+
+			@Override
+			public boolean hasNext() {
+				return next != null;
+			}
+
+			@Override
+			public PendingActionMessage next() {
+				if ( modCount != expectedModCount ) {
+					throw new ConcurrentModificationException();
+				}
+				final Node n = next;
+				if ( n == null ) {
+					throw new NoSuchElementException();
+				}
+				lastReturned = n;
+				next = (descending ? n.prev : n.next);
+				return n.msg;
+			}
+
+			@Override
+			public void remove() {
+				final Node n = lastReturned;
+				if ( n == null ) {
+					throw new IllegalStateException();
+				}
+				if ( modCount != expectedModCount ) {
+					throw new ConcurrentModificationException();
+				}
+				unlink(n);
+				lastReturned = null;
+				expectedModCount = modCount;
+			}
+
+		}
+
+	}
+
+	@Override
+	public Deque<PendingActionMessage> pendingMessageQueue(ChargePointIdentity clientId) {
+		return pendingMessages.computeIfAbsent(clientId, k -> new ClientQueue());
+	}
+
+	@Override
+	public void addPendingMessage(final PendingActionMessage msg,
+			final @Nullable Consumer<Deque<PendingActionMessage>> fn) {
+		ChargePointIdentity clientId = requireNonNullArgument(msg.getMessage().getClientId(),
+				"msg.message.clientId");
+		Deque<PendingActionMessage> q = pendingMessageQueue(clientId);
+		synchronized ( q ) {
+			// enqueue the call
+			q.add(msg);
+			if ( fn != null && q.peek() == msg ) {
+				fn.accept(q);
+			}
+		}
+	}
+
+	@Override
+	public @Nullable PendingActionMessage pollPendingMessage(ChargePointIdentity clientId) {
+		PendingActionMessage msg = null;
+		Deque<PendingActionMessage> q = pendingMessages.get(clientId);
+		if ( q != null ) {
+			synchronized ( q ) {
+				msg = q.pollFirst();
+			}
+		}
+		return msg;
+	}
+
+	@Override
+	public @Nullable PendingActionMessage pollPendingMessage(final ChargePointIdentity clientId,
+			final String messageId) {
+		PendingActionMessage msg = null;
+		ClientQueue q = (ClientQueue) pendingMessages.get(clientId);
+		if ( q != null ) {
+			synchronized ( q ) {
+				msg = q.pollId(messageId);
+			}
+		}
+		return msg;
+	}
+
+	@Override
+	public Iterable<Entry<ChargePointIdentity, Deque<PendingActionMessage>>> allQueues() {
+		return pendingMessages.entrySet();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>
+	 * This implementation only examines expired messages, in date order.
+	 * </p>
+	 */
+	@Override
+	public void removeExpiredPendingMessages(long expiration,
+			BiConsumer<Deque<PendingActionMessage>, PendingActionMessage> handler) {
+		List<Node> expired = null;
+		Set<ClientQueue> expiredQueues = null;
+		for ( Node n : deadlines ) {
+			if ( n.msg.getDate() >= expiration ) {
+				break;
+			}
+			if ( expiredQueues != null && expiredQueues.contains(n.queue) ) {
+				// only expire one message per queue, as the next message has not been processed yet
+				continue;
+			}
+			synchronized ( n.queue ) {
+				if ( n.queue.head == n ) {
+					n.queue.unlink(n);
+					if ( expired == null ) {
+						expired = new ArrayList<>(4);
+						expiredQueues = new HashSet<>(4);
+					}
+					expired.add(n);
+					expiredQueues.add(n.queue);
+				}
+			}
+		}
+		if ( expired != null ) {
+			for ( Node n : expired ) {
+				handler.accept(n.queue, n.msg);
+			}
+		}
+	}
+
+	/**
+	 * Get the count of all pending messages.
+	 *
+	 * @return the count of pending messages across all client queues
+	 */
+	public int getPendingMessageCount() {
+		return deadlines.size();
+	}
+
+}
@@ -28,6 +28,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 import org.osgi.service.event.Event;
 import org.osgi.service.event.EventAdmin;
 import org.osgi.service.event.EventHandler;
@@ -35,13 +36,31 @@ import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.config.DestructionAwareBeanPostProcessor;
 import org.springframework.util.AntPathMatcher;
 import org.springframework.util.PathMatcher;
+import net.solarnetwork.util.BoundedMailbox;
+import net.solarnetwork.util.MailboxOverflowPolicy;
+import net.solarnetwork.util.StatTracker;
 
 /**
  * Adapts the OSGi {@link EventAdmin} API to a non-OSGi, Spring based
  * application context environment.
  * 
+ * <p>
+ * By default posted events are handed to the configured executor, one task
+ * per handler, with no ordering guarantee. When {@code mailboxCapacity} is
+ * greater than {@literal 0}, each handler is instead given its own
+ * {@link BoundedMailbox} that delivers posted events to the handler one at a
+ * time, in the order they were posted, and queues at most
+ * {@code mailboxCapacity} events before applying
+ * {@code mailboxOverflowPolicy}. Changing the mailbox settings reconfigures
+ * the existing mailboxes in place. Each mailbox is created when its handler is
+ * registered, or when mailboxes are enabled, and deregistering a handler
+ * closes its mailbox. Mailbox statistics use the handler's class name and a
+ * mailbox index, for example {@code com.example.MyHandler-1}, as the key
+ * prefix.
+ * </p>
+ * 
  * @author matt
- * @version 1.1
+ * @version 1.2
  * @since 1.36
  */
 public class SimpleEventAdmin
@@ -50,6 +69,13 @@ public class SimpleEventAdmin
 	private final PathMatcher pathMatcher = new AntPathMatcher();
 	private final ConcurrentMap<String, Set<EventHandler>> eventHandlers = new ConcurrentHashMap<String, Set<EventHandler>>();
 	private final Executor executor;
+	private final ConcurrentMap<EventHandler, BoundedMailbox<Event>> mailboxes = new ConcurrentHashMap<>(
+			32, 0.9f, 4);
+	private final AtomicLong mailboxIds = new AtomicLong();
+	private volatile int mailboxCapacity;
+	private volatile MailboxOverflowPolicy mailboxOverflowPolicy = MailboxOverflowPolicy.Block;
+	private volatile long mailboxBlockTimeout = BoundedMailbox.DEFAULT_BLOCK_TIMEOUT;
+	private volatile StatTracker stats;
 
 	/**
 	 * Constructor.
@@ -85,7 +111,11 @@ public class SimpleEventAdmin
 	}
 
 	@Override
-	public void registerEventHandler(EventHandler handler, String... topics) {
+	public synchronized void registerEventHandler(EventHandler handler, String... topics) {
+		// create the mailbox first, so a registered handler always has one
+		if ( mailboxCapacity > 0 ) {
+			mailboxes.computeIfAbsent(handler, this::createMailbox);
+		}
 		for ( String topic : topics ) {
 			// note: in 1.8, computeIfAbsent would be better; for now assuming this is called during
 			// application initialization (by Spring) and from a single thread only
@@ -99,18 +129,31 @@ public class SimpleEventAdmin
 	}
 
 	@Override
-	public void deregisterEventHandler(EventHandler handler) {
+	public synchronized void deregisterEventHandler(EventHandler handler) {
 		for ( Set<EventHandler> handlers : eventHandlers.values() ) {
 			handlers.remove(handler);
 		}
+		final BoundedMailbox<Event> mailbox = mailboxes.remove(handler);
+		if ( mailbox != null ) {
+			mailbox.close();
+		}
 	}
 
 	@Override
 	public void postEvent(final Event event) {
+		final boolean useMailboxes = (mailboxCapacity > 0);
 		for ( Map.Entry<String, Set<EventHandler>> me : eventHandlers.entrySet() ) {
 			String topic = event.getTopic();
 			if ( pathMatcher.match(me.getKey(), topic) ) {
 				for ( final EventHandler handler : me.getValue() ) {
+					if ( useMailboxes ) {
+						// no mailbox if deregistered while posting
+						final BoundedMailbox<Event> mailbox = mailboxes.get(handler);
+						if ( mailbox != null ) {
+							mailbox.offer(event);
+						}
+						continue;
+					}
 					executor.execute(new Runnable() {
 
 						@Override
@@ -123,6 +166,14 @@ public class SimpleEventAdmin
 		}
 	}
 
+	private BoundedMailbox<Event> createMailbox(EventHandler handler) {
+		final String name = handler.getClass().getName() + '-' + mailboxIds.incrementAndGet();
+		BoundedMailbox<Event> mailbox = new BoundedMailbox<>(name, executor, mailboxCapacity,
+				mailboxOverflowPolicy, handler::handleEvent, stats);
+		mailbox.setBlockTimeout(mailboxBlockTimeout);
+		return mailbox;
+	}
+
 	@Override
 	public void sendEvent(Event event) {
 		for ( Map.Entry<String, Set<EventHandler>> me : eventHandlers.entrySet() ) {
@@ -134,4 +185,123 @@ public class SimpleEventAdmin
 			}
 		}
 	}
+
+	/**
+	 * Get the per-handler mailbox capacity.
+	 * 
+	 * @return the maximum number of posted events queued per handler, or
+	 *         {@literal 0} if mailboxes are not used; defaults to {@literal 0}
+	 * @since 1.2
+	 */
+	public int getMailboxCapacity() {
+		return mailboxCapacity;
+	}
+
+	/**
+	 * Set the per-handler mailbox capacity.
+	 * 
+	 * <p>
+	 * Existing mailboxes are updated in place. When set to {@literal 0}
+	 * existing mailboxes still deliver the events already queued, and are used
+	 * again if mailboxes are later re-enabled.
+	 * </p>
+	 * 
+	 * @param mailboxCapacity
+	 *        the maximum number of posted events queued per handler, or
+	 *        {@literal 0} to not use mailboxes
+	 * @since 1.2
+	 */
+	public synchronized void setMailboxCapacity(int mailboxCapacity) {
+		this.mailboxCapacity = mailboxCapacity;
+		if ( mailboxCapacity < 1 ) {
+			return;
+		}
+		for ( BoundedMailbox<Event> mailbox : mailboxes.values() ) {
+			mailbox.setCapacity(mailboxCapacity);
+		}
+		for ( Set<EventHandler> handlers : eventHandlers.values() ) {
+			for ( EventHandler handler : handlers ) {
+				mailboxes.computeIfAbsent(handler, this::createMailbox);
+			}
+		}
+	}
+
+	/**
+	 * Get the policy to apply when a handler mailbox is full.
+	 * 
+	 * @return the policy; defaults to {@link MailboxOverflowPolicy#Block}
+	 * @since 1.2
+	 */
+	public MailboxOverflowPolicy getMailboxOverflowPolicy() {
+		return mailboxOverflowPolicy;
+	}
+
+	/**
+	 * Set the policy to apply when a handler mailbox is full.
+	 * 
+	 * @param mailboxOverflowPolicy
+	 *        the policy to set; if {@literal null} then
+	 *        {@link MailboxOverflowPolicy#Block} will be used
+	 * @since 1.2
+	 */
+	public void setMailboxOverflowPolicy(MailboxOverflowPolicy mailboxOverflowPolicy) {
+		final MailboxOverflowPolicy policy = (mailboxOverflowPolicy != null ? mailboxOverflowPolicy
+				: MailboxOverflowPolicy.Block);
+		this.mailboxOverflowPolicy = policy;
+		for ( BoundedMailbox<Event> mailbox : mailboxes.values() ) {
+			mailbox.setOverflowPolicy(policy);
+		}
+	}
+
+	/**
+	 * Get the maximum time to block posting an event to a full handler
+	 * mailbox, with the {@link MailboxOverflowPolicy#Block} policy.
+	 * 
+	 * @return the timeout, in milliseconds; defaults to
+	 *         {@link BoundedMailbox#DEFAULT_BLOCK_TIMEOUT}
+	 * @since 1.2
+	 */
+	public long getMailboxBlockTimeout() {
+		return mailboxBlockTimeout;
+	}
+
+	/**
+	 * Set the maximum time to block posting an event to a full handler
+	 * mailbox, with the {@link MailboxOverflowPolicy#Block} policy.
+	 * 
+	 * @param mailboxBlockTimeout
+	 *        the timeout, in milliseconds
+	 * @since 1.2
+	 */
+	public void setMailboxBlockTimeout(long mailboxBlockTimeout) {
+		this.mailboxBlockTimeout = mailboxBlockTimeout;
+		for ( BoundedMailbox<Event> mailbox : mailboxes.values() ) {
+			mailbox.setBlockTimeout(mailboxBlockTimeout);
+		}
+	}
+
+	/**
+	 * Get the statistics to update with handler mailbox statistics.
+	 * 
+	 * @return the statistics, or {@literal null}
+	 * @since 1.2
+	 */
+	public StatTracker getStats() {
+		return stats;
+	}
+
+	/**
+	 * Set the statistics to update with handler mailbox statistics.
+	 * 
+	 * @param stats
+	 *        the statistics to set, or {@literal null}
+	 * @since 1.2
+	 */
+	public void setStats(StatTracker stats) {
+		this.stats = stats;
+		for ( BoundedMailbox<Event> mailbox : mailboxes.values() ) {
+			mailbox.setStats(stats);
+		}
+	}
+
 }
@@ -0,0 +1,144 @@
+/* ==================================================================
+ * PrometheusStatWriterTests.java - 18/10/2026 12:48:10 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.web.jakarta.support.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import java.io.IOException;
+import java.io.StringWriter;
+import org.junit.Before;
+import org.junit.Test;
+import net.solarnetwork.util.SimpleStatRegistry;
+import net.solarnetwork.util.StatTracker;
+import net.solarnetwork.web.jakarta.support.PrometheusStatWriter;
+
+/**
+ * Test cases for the {@link PrometheusStatWriter} class.
+ *
+ * @author matt
+ * @version 1.0
+ */
+public class PrometheusStatWriterTests {
+
+	private SimpleStatRegistry registry;
+	private PrometheusStatWriter writer;
+
+	@Before
+	public void setup() {
+		registry = new SimpleStatRegistry();
+		writer = new PrometheusStatWriter();
+	}
+
+	private String write() throws IOException {
+		StringWriter out = new StringWriter();
+		writer.write(registry, out);
+		return out.toString();
+	}
+
+	@Test
+	public void empty() throws IOException {
+		// WHEN
+		String result = write();
+
+		// THEN
+		assertThat("Nothing written", result, is(equalTo("")));
+	}
+
+	@Test
+	public void countsAndAccumulations() throws IOException {
+		// GIVEN
+		StatTracker stats = new StatTracker("Test Stats", "u1", null, 1);
+		stats.increment("MessagesSent", 2L);
+		stats.add("HandleTime", 5L);
+		stats.add("HandleTime", 7L);
+		registry.register(stats);
+
+		// WHEN
+		String result = write();
+
+		// THEN
+		// @formatter:off
+		assertThat("Metrics written", result, is(equalTo(
+				"# TYPE solarnetwork_test_stats_handle_time summary\n"
+				+ "solarnetwork_test_stats_handle_time_sum{source=\"Test Stats\",uid=\"u1\"} 12\n"
+				+ "solarnetwork_test_stats_handle_time_count{source=\"Test Stats\",uid=\"u1\"} 2\n"
+				+ "# TYPE solarnetwork_test_stats_handle_time_max gauge\n"
+				+ "solarnetwork_test_stats_handle_time_max{source=\"Test Stats\",uid=\"u1\"} 7\n"
+				+ "# TYPE solarnetwork_test_stats_handle_time_min gauge\n"
+				+ "solarnetwork_test_stats_handle_time_min{source=\"Test Stats\",uid=\"u1\"} 5\n"
+				+ "# TYPE solarnetwork_test_stats_messages_sent_total counter\n"
+				+ "solarnetwork_test_stats_messages_sent_total{source=\"Test Stats\",uid=\"u1\"} 2\n"
+				)));
+		// @formatter:on
+	}
+
+	@Test
+	public void histogram() throws IOException {
+		// GIVEN
+		StatTracker stats = new StatTracker("H", null, null, 1);
+		stats.setGroupUid("g");
+		stats.record("Lat", 100L);
+		registry.register(stats);
+
+		// WHEN
+		String result = write();
+
+		// THEN
+		// @formatter:off
+		assertThat("Histogram written as summary with quantiles", result, is(equalTo(
+				"# TYPE solarnetwork_h_lat summary\n"
+				+ "solarnetwork_h_lat{source=\"H\",group=\"g\",quantile=\"0.5\"} 100\n"
+				+ "solarnetwork_h_lat{source=\"H\",group=\"g\",quantile=\"0.9\"} 100\n"
+				+ "solarnetwork_h_lat{source=\"H\",group=\"g\",quantile=\"0.99\"} 100\n"
+				+ "solarnetwork_h_lat{source=\"H\",group=\"g\",quantile=\"0.999\"} 100\n"
+				+ "solarnetwork_h_lat_sum{source=\"H\",group=\"g\"} 100\n"
+				+ "solarnetwork_h_lat_count{source=\"H\",group=\"g\"} 1\n"
+				+ "# TYPE solarnetwork_h_lat_max gauge\n"
+				+ "solarnetwork_h_lat_max{source=\"H\",group=\"g\"} 100\n"
+				+ "# TYPE solarnetwork_h_lat_min gauge\n"
+				+ "solarnetwork_h_lat_min{source=\"H\",group=\"g\"} 100\n"
+				)));
+		// @formatter:on
+	}
+
+	@Test
+	public void escapeLabels() throws IOException {
+		// GIVEN
+		StatTracker stats = new StatTracker("A\"b\\c", null, null, 1);
+		stats.increment("x");
+		registry.register(stats);
+
+		// WHEN
+		String result = write();
+
+		// THEN
+		// @formatter:off
+		assertThat("Name sanitized and label escaped", result, is(equalTo(
+				"# TYPE solarnetwork_a_b_c_x_total counter\n"
+				+ "solarnetwork_a_b_c_x_total{source=\"A\\\"b\\\\c\"} 1\n"
+				)));
+		// @formatter:on
+	}
+
+}
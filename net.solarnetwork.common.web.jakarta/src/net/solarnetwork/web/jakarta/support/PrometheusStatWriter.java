@@ -0,0 +1,295 @@
+/* ==================================================================
+ * PrometheusStatWriter.java - 18/10/2026 11:12:04 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.web.jakarta.support;
+
+import static net.solarnetwork.util.ObjectUtils.requireNonNullArgument;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.jspecify.annotations.Nullable;
+import net.solarnetwork.util.LogLinearHistogram;
+import net.solarnetwork.util.StatRegistry;
+import net.solarnetwork.util.StatSource;
+import net.solarnetwork.util.StatTracker.Accumulation;
+import net.solarnetwork.util.StatVisitor;
+
+/**
+ * Write the statistics of a {@link StatRegistry} in the Prometheus text
+ * exposition format.
+ *
+ * <p>
+ * Metric names are derived from the source display name and statistic key,
+ * converted to "snake case" and prefixed with {@link #getPrefix()}. Each
+ * sample is labeled with the source display name, and the source UID and
+ * group UID when available. Counts are written as {@code counter} metrics
+ * with a {@code _total} suffix. Accumulations are written as {@code summary}
+ * metrics, with additional {@code _min} and {@code _max} gauge metrics.
+ * Histograms also include quantile samples.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ * @since 2.5
+ */
+public class PrometheusStatWriter {
+
+	/** The Prometheus text exposition format content type. */
+	public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+	/** The default metric name prefix. */
+	public static final String DEFAULT_PREFIX = "solarnetwork_";
+
+	/** The maximum number of metric names to cache. */
+	public static final int NAME_CACHE_SIZE = 1000;
+
+	private static final double[] QUANTILES = new double[] { 0.5, 0.9, 0.99, 0.999 };
+
+	private final String prefix;
+	private final ConcurrentMap<String, String> names;
+
+	/**
+	 * Constructor.
+	 *
+	 * <p>
+	 * The {@link #DEFAULT_PREFIX} will be used.
+	 * </p>
+	 */
+	public PrometheusStatWriter() {
+		this(DEFAULT_PREFIX);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param prefix
+	 *        the metric name prefix
+	 * @throws IllegalArgumentException
+	 *         if {@code prefix} is {@code null}
+	 */
+	public PrometheusStatWriter(String prefix) {
+		super();
+		this.prefix = requireNonNullArgument(prefix, "prefix");
+		this.names = new ConcurrentHashMap<>(64, 0.9f, 2);
+	}
+
+	/**
+	 * Write the statistics of all sources in a registry.
+	 *
+	 * @param registry
+	 *        the registry
+	 * @param out
+	 *        the destination
+	 * @throws IOException
+	 *         if any IO error occurs
+	 */
+	public void write(StatRegistry registry, Writer out) throws IOException {
+		final Map<String, Family> families = new TreeMap<>();
+		registry.forEachSource(source -> collect(source, families));
+		for ( Map.Entry<String, Family> e : families.entrySet() ) {
+			out.write("# TYPE ");
+			out.write(e.getKey());
+			out.write(' ');
+			out.write(e.getValue().type);
+			out.write('\n');
+			out.append(e.getValue().samples);
+		}
+	}
+
+	private void collect(StatSource source, Map<String, Family> families) {
+		final String name = source.getDisplayName();
+		final String labels = labels(source);
+		source.visitStatistics(new StatVisitor() {
+
+			@Override
+			public void visitCount(String key, long value) {
+				String metric = metricName(name, key) + "_total";
+				family(families, metric, "counter").sample(metric, labels, null, value);
+			}
+
+			@Override
+			public void visitAccumulation(String key, Accumulation accumulation) {
+				visit(key, accumulation, null);
+			}
+
+			@Override
+			public void visitHistogram(String key, LogLinearHistogram.Snapshot histogram) {
+				visit(key, histogram, histogram);
+			}
+
+			private void visit(String key, Accumulation acc,
+					LogLinearHistogram.@Nullable Snapshot hist) {
+				final String metric = metricName(name, key);
+				final Family summary = family(families, metric, "summary");
+				if ( hist != null ) {
+					for ( double q : QUANTILES ) {
+						summary.sample(metric, labels, "quantile=\"" + q + "\"",
+								hist.valueAtPercentile(q * 100.0));
+					}
+				}
+				summary.sample(metric + "_sum", labels, null, acc.total());
+				summary.sample(metric + "_count", labels, null, acc.count());
+				family(families, metric + "_min", "gauge").sample(metric + "_min", labels, null,
+						acc.min());
+				family(families, metric + "_max", "gauge").sample(metric + "_max", labels, null,
+						acc.max());
+			}
+
+		});
+	}
+
+	private static Family family(Map<String, Family> families, String name, String type) {
+		return families.computeIfAbsent(name, k -> new Family(type));
+	}
+
+	private static String labels(StatSource source) {
+		StringBuilder buf = new StringBuilder(64);
+		appendLabel(buf, "source", source.getDisplayName());
+		appendLabel(buf, "uid", source.getUid());
+		appendLabel(buf, "group", source.getGroupUid());
+		return buf.toString();
+	}
+
+	private static void appendLabel(StringBuilder buf, String name, @Nullable String value) {
+		if ( value == null || value.isEmpty() ) {
+			return;
+		}
+		if ( buf.length() > 0 ) {
+			buf.append(',');
+		}
+		buf.append(name).append("=\"");
+		for ( int i = 0, len = value.length(); i < len; i++ ) {
+			char c = value.charAt(i);
+			switch (c) {
+				case '\\':
+					buf.append("\\\\");
+					break;
+
+				case '"':
+					buf.append("\\\"");
+					break;
+
+				case '\n':
+					buf.append("\\n");
+					break;
+
+				default:
+					buf.append(c);
+			}
+		}
+		buf.append('"');
+	}
+
+	/**
+	 * Get a metric name for a source statistic.
+	 *
+	 * @param sourceName
+	 *        the source display name
+	 * @param key
+	 *        the statistic key
+	 * @return the metric name
+	 */
+	protected String metricName(String sourceName, String key) {
+		final String cacheKey = sourceName + '\u0000' + key;
+		String result = names.get(cacheKey);
+		if ( result == null ) {
+			StringBuilder buf = new StringBuilder(prefix);
+			appendSnakeCase(buf, sourceName);
+			buf.append('_');
+			appendSnakeCase(buf, key);
+			result = buf.toString();
+			if ( names.size() >= NAME_CACHE_SIZE ) {
+				names.clear();
+			}
+			names.put(cacheKey, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Append a string in "snake case" form, with all characters not valid in a
+	 * Prometheus metric name replaced by underscores.
+	 *
+	 * @param buf
+	 *        the buffer to append to
+	 * @param s
+	 *        the string to append
+	 */
+	private static void appendSnakeCase(StringBuilder buf, String s) {
+		boolean underscore = (buf.length() > 0 && buf.charAt(buf.length() - 1) == '_');
+		boolean lower = false;
+		for ( int i = 0, len = s.length(); i < len; i++ ) {
+			char c = s.charAt(i);
+			if ( (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') ) {
+				buf.append(c);
+				underscore = false;
+				lower = true;
+			} else if ( c >= 'A' && c <= 'Z' ) {
+				if ( lower && !underscore ) {
+					buf.append('_');
+				}
+				buf.append(Character.toLowerCase(c));
+				underscore = false;
+				lower = false;
+			} else if ( !underscore ) {
+				buf.append('_');
+				underscore = true;
+				lower = false;
+			}
+		}
+		while ( buf.length() > 0 && buf.charAt(buf.length() - 1) == '_' ) {
+			buf.setLength(buf.length() - 1);
+		}
+	}
+
+	private static final class Family {
+
+		private final String type;
+		private final StringBuilder samples = new StringBuilder(256);
+
+		private Family(String type) {
+			super();
+			this.type = type;
+		}
+
+		private void sample(String name, String labels, @Nullable String extraLabel,
+				long value) {
+			samples.append(name);
+			if ( !labels.isEmpty() || extraLabel != null ) {
+				samples.append('{').append(labels);
+				if ( extraLabel != null ) {
+					if ( !labels.isEmpty() ) {
+						samples.append(',');
+					}
+					samples.append(extraLabel);
+				}
+				samples.append('}');
+			}
+			samples.append(' ').append(value).append('\n');
+		}
+
+	}
+
+}
@@ -0,0 +1,91 @@
+/* ==================================================================
+ * PrometheusStatsController.java - 18/10/2026 11:40:52 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.web.jakarta.support;
+
+import static net.solarnetwork.util.ObjectUtils.requireNonNullArgument;
+import java.io.IOException;
+import java.io.Writer;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import jakarta.servlet.http.HttpServletResponse;
+import net.solarnetwork.util.StatRegistry;
+
+/**
+ * A web controller for exporting the statistics of a {@link StatRegistry} in
+ * the Prometheus text exposition format.
+ *
+ * @author matt
+ * @version 1.0
+ * @since 2.5
+ */
+@RequestMapping("/metrics")
+public class PrometheusStatsController {
+
+	private final StatRegistry registry;
+	private final PrometheusStatWriter writer;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param registry
+	 *        the registry to export
+	 * @throws IllegalArgumentException
+	 *         if {@code registry} is {@code null}
+	 */
+	public PrometheusStatsController(StatRegistry registry) {
+		this(registry, new PrometheusStatWriter());
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param registry
+	 *        the registry to export
+	 * @param writer
+	 *        the writer to use
+	 * @throws IllegalArgumentException
+	 *         if any argument is {@code null}
+	 */
+	public PrometheusStatsController(StatRegistry registry, PrometheusStatWriter writer) {
+		super();
+		this.registry = requireNonNullArgument(registry, "registry");
+		this.writer = requireNonNullArgument(writer, "writer");
+	}
+
+	/**
+	 * Write all registered statistics.
+	 *
+	 * @param response
+	 *        the response
+	 * @throws IOException
+	 *         if any IO error occurs
+	 */
+	@RequestMapping(value = "", method = RequestMethod.GET)
+	public void metrics(HttpServletResponse response) throws IOException {
+		response.setContentType(PrometheusStatWriter.CONTENT_TYPE);
+		Writer out = response.getWriter();
+		writer.write(registry, out);
+		out.flush();
+	}
+
+}
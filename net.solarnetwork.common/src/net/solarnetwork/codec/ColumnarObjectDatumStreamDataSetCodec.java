@@ -0,0 +1,867 @@
+/* ==================================================================
+ * ColumnarObjectDatumStreamDataSetCodec.java - 16/10/2026 10:21:37 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.codec;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.jspecify.annotations.Nullable;
+import net.solarnetwork.codec.jackson.JsonUtils;
+import net.solarnetwork.domain.Location;
+import net.solarnetwork.domain.datum.BasicObjectDatumStreamDataSet;
+import net.solarnetwork.domain.datum.BasicObjectDatumStreamMetadata;
+import net.solarnetwork.domain.datum.BasicStreamDatum;
+import net.solarnetwork.domain.datum.DatumProperties;
+import net.solarnetwork.domain.datum.DatumSamplesType;
+import net.solarnetwork.domain.datum.ObjectDatumKind;
+import net.solarnetwork.domain.datum.ObjectDatumStreamDataSet;
+import net.solarnetwork.domain.datum.ObjectDatumStreamMetadata;
+import net.solarnetwork.domain.datum.StreamDatum;
+import tools.jackson.core.JacksonException;
+
+/**
+ * Columnar binary codec for {@link ObjectDatumStreamDataSet}.
+ *
+ * <p>
+ * The datum of each stream are grouped together and encoded column by column,
+ * so that similar values are stored next to each other:
+ * </p>
+ *
+ * <ul>
+ * <li>timestamps use delta-of-delta encoding, with runs of equal values
+ * stored once, so regularly spaced readings take just a few bytes per
+ * stream</li>
+ * <li>instantaneous values are stored as scaled integers, delta encoded
+ * against the previous value of the same property</li>
+ * <li>accumulating values are stored as scaled integers, delta-of-delta
+ * encoded against the previous values of the same property, so steadily
+ * increasing values take a single byte</li>
+ * <li>status and tag values are dictionary encoded per stream</li>
+ * </ul>
+ *
+ * <p>
+ * Numbers are written as variable-length integers. Decimal values keep their
+ * scale, so decoded values are equal to the encoded values. Timestamps are
+ * stored with millisecond precision. The order of the datum in the data set is
+ * preserved.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ * @since 4.37
+ */
+public final class ColumnarObjectDatumStreamDataSetCodec {
+
+	/** The magic number that starts all encoded data, {@literal SNDC}. */
+	public static final int MAGIC = 0x534E4443;
+
+	/** The encoding version. */
+	public static final int VERSION = 1;
+
+	private static final int FLAG_RETURNED_RESULT_COUNT = 1;
+	private static final int FLAG_STARTING_OFFSET = 2;
+	private static final int FLAG_TOTAL_RESULT_COUNT = 4;
+
+	/** The decimal value tag for a delta from the previous value. */
+	private static final int TAG_DELTA = 0;
+
+	/** The decimal value tag for a {@code null} value. */
+	private static final int TAG_NULL = 1;
+
+	/** The decimal value tag for a scale and scaled integer value. */
+	private static final int TAG_SCALED = 2;
+
+	/** The decimal value tag for a scale and arbitrary precision value. */
+	private static final int TAG_BIG = 3;
+
+	private ColumnarObjectDatumStreamDataSetCodec() {
+		// not available
+	}
+
+	/**
+	 * Encode a data set.
+	 *
+	 * @param dataSet
+	 *        the data set to encode
+	 * @return the encoded data
+	 * @throws IOException
+	 *         if metadata for a datum stream is not available
+	 */
+	public static byte[] encode(ObjectDatumStreamDataSet<? extends StreamDatum> dataSet)
+			throws IOException {
+		final Encoder enc = new Encoder();
+		enc.encode(dataSet);
+		return Arrays.copyOf(enc.buf, enc.pos);
+	}
+
+	/**
+	 * Encode a data set to an output stream.
+	 *
+	 * @param dataSet
+	 *        the data set to encode
+	 * @param out
+	 *        the stream to write to; it will not be closed
+	 * @throws IOException
+	 *         if metadata for a datum stream is not available or any IO error
+	 *         occurs
+	 */
+	public static void encode(ObjectDatumStreamDataSet<? extends StreamDatum> dataSet,
+			OutputStream out) throws IOException {
+		final Encoder enc = new Encoder();
+		enc.encode(dataSet);
+		out.write(enc.buf, 0, enc.pos);
+	}
+
+	/**
+	 * Decode a data set.
+	 *
+	 * @param data
+	 *        the encoded data
+	 * @return the data set
+	 * @throws IOException
+	 *         if the data is not valid
+	 */
+	public static ObjectDatumStreamDataSet<StreamDatum> decode(byte[] data) throws IOException {
+		try {
+			return new Decoder(data).decode();
+		} catch ( IndexOutOfBoundsException | IllegalArgumentException e ) {
+			throw new IOException("Invalid encoded data set: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Decode a data set from an input stream.
+	 *
+	 * @param in
+	 *        the stream to read the encoded data from; it will be read
+	 *        completely but not closed
+	 * @return the data set
+	 * @throws IOException
+	 *         if the data is not valid or any IO error occurs
+	 */
+	public static ObjectDatumStreamDataSet<StreamDatum> decode(InputStream in) throws IOException {
+		return decode(in.readAllBytes());
+	}
+
+	private static long zigZag(long n) {
+		return (n << 1) ^ (n >> 63);
+	}
+
+	private static long unZigZag(long n) {
+		return (n >>> 1) ^ -(n & 1);
+	}
+
+	private static int lengthCode(Object @Nullable [] array) {
+		return (array != null ? array.length + 1 : 0);
+	}
+
+	/**
+	 * A decimal column encoding state.
+	 */
+	private static final class DecimalState {
+
+		private final boolean deltaOfDelta;
+		private boolean hasPrev;
+		private int prevScale;
+		private long prevUnscaled;
+		private long prevDelta;
+
+		private DecimalState(boolean deltaOfDelta) {
+			super();
+			this.deltaOfDelta = deltaOfDelta;
+		}
+
+	}
+
+	private static final class Encoder {
+
+		private byte[] buf = new byte[4096];
+		private int pos;
+
+		private void ensure(int len) {
+			if ( pos + len > buf.length ) {
+				buf = Arrays.copyOf(buf, Math.max(buf.length << 1, pos + len));
+			}
+		}
+
+		private void writeByte(int b) {
+			ensure(1);
+			buf[pos++] = (byte) b;
+		}
+
+		private void writeInt(int v) {
+			ensure(4);
+			buf[pos++] = (byte) (v >>> 24);
+			buf[pos++] = (byte) (v >>> 16);
+			buf[pos++] = (byte) (v >>> 8);
+			buf[pos++] = (byte) v;
+		}
+
+		private void writeLong(long v) {
+			writeInt((int) (v >>> 32));
+			writeInt((int) v);
+		}
+
+		private void writeVarLong(long v) {
+			ensure(10);
+			while ( (v & ~0x7FL) != 0 ) {
+				buf[pos++] = (byte) ((v & 0x7F) | 0x80);
+				v >>>= 7;
+			}
+			buf[pos++] = (byte) v;
+		}
+
+		private void writeBytes(byte[] b) {
+			writeVarLong(b.length);
+			ensure(b.length);
+			System.arraycopy(b, 0, buf, pos, b.length);
+			pos += b.length;
+		}
+
+		private void writeString(@Nullable String s) {
+			if ( s == null ) {
+				writeVarLong(0);
+				return;
+			}
+			final byte[] b = s.getBytes(UTF_8);
+			writeVarLong(b.length + 1L);
+			ensure(b.length);
+			System.arraycopy(b, 0, buf, pos, b.length);
+			pos += b.length;
+		}
+
+		private void writeStringArray(@Nullable String @Nullable [] a) {
+			writeVarLong(lengthCode(a));
+			if ( a != null ) {
+				for ( String s : a ) {
+					writeString(s);
+				}
+			}
+		}
+
+		private void encode(ObjectDatumStreamDataSet<? extends StreamDatum> dataSet)
+				throws IOException {
+			writeInt(MAGIC);
+			writeByte(VERSION);
+
+			final Integer returnedResultCount = dataSet.getReturnedResultCount();
+			final Integer startingOffset = dataSet.getStartingOffset();
+			final Long totalResultCount = dataSet.getTotalResultCount();
+			writeVarLong((returnedResultCount != null ? FLAG_RETURNED_RESULT_COUNT : 0)
+					| (startingOffset != null ? FLAG_STARTING_OFFSET : 0)
+					| (totalResultCount != null ? FLAG_TOTAL_RESULT_COUNT : 0));
+			if ( returnedResultCount != null ) {
+				writeVarLong(zigZag(returnedResultCount));
+			}
+			if ( startingOffset != null ) {
+				writeVarLong(zigZag(startingOffset));
+			}
+			if ( totalResultCount != null ) {
+				writeVarLong(zigZag(totalResultCount));
+			}
+
+			// metadata
+			final Collection<UUID> streamIds = dataSet.metadataStreamIds();
+			final int streamCount = (streamIds != null ? streamIds.size() : 0);
+			final Map<UUID, Integer> streamIndexes = new HashMap<>(streamCount);
+			final List<List<StreamDatum>> streams = new ArrayList<>(streamCount);
+			writeVarLong(streamCount);
+			if ( streamIds != null ) {
+				for ( UUID streamId : streamIds ) {
+					final ObjectDatumStreamMetadata meta = dataSet.metadataForStreamId(streamId);
+					if ( meta == null ) {
+						throw new IOException("Metadata for stream %s not available".formatted(streamId));
+					}
+					streamIndexes.put(streamId, streams.size());
+					streams.add(new ArrayList<>());
+					writeMetadata(meta);
+				}
+			}
+
+			// group datum by stream, tracking the stream order as runs of stream indexes
+			final List<int[]> runs = new ArrayList<>(Math.max(streamCount, 1));
+			int[] run = null;
+			int i = 0;
+			for ( StreamDatum d : dataSet ) {
+				final Integer idx = streamIndexes.get(d.getStreamId());
+				if ( idx == null ) {
+					throw new IOException("Metadata for stream %s not available for datum %d"
+							.formatted(d.getStreamId(), i));
+				}
+				if ( d.getTimestamp() == null ) {
+					throw new IOException("Timestamp not available for datum %d".formatted(i));
+				}
+				if ( run != null && run[0] == idx.intValue() ) {
+					run[1]++;
+				} else {
+					run = new int[] { idx.intValue(), 1 };
+					runs.add(run);
+				}
+				streams.get(idx).add(d);
+				i++;
+			}
+			writeVarLong(runs.size());
+			for ( int[] r : runs ) {
+				writeVarLong(r[0]);
+				writeVarLong(r[1]);
+			}
+
+			for ( List<StreamDatum> rows : streams ) {
+				writeStream(rows);
+			}
+		}
+
+		private void writeMetadata(ObjectDatumStreamMetadata meta) {
+			final UUID streamId = meta.getStreamId();
+			writeLong(streamId.getMostSignificantBits());
+			writeLong(streamId.getLeastSignificantBits());
+			writeString(meta.getTimeZoneId());
+			writeByte(meta.getKind().getKey());
+			writeVarLong(zigZag(meta.getObjectId()));
+			writeString(meta.getSourceId());
+			writeStringArray(meta.propertyNamesForType(DatumSamplesType.Instantaneous));
+			writeStringArray(meta.propertyNamesForType(DatumSamplesType.Accumulating));
+			writeStringArray(meta.propertyNamesForType(DatumSamplesType.Status));
+			writeString(meta.getMetaJson());
+			final Location loc = meta.getLocation();
+			writeString(loc != null ? JsonUtils.getJSONString(loc) : null);
+		}
+
+		private void writeStream(List<StreamDatum> rows) {
+			final int n = rows.size();
+			writeVarLong(n);
+			if ( n < 1 ) {
+				return;
+			}
+
+			// timestamps, as runs of delta-of-delta values
+			long prevTs = 0;
+			long prevDelta = 0;
+			long runValue = 0;
+			int runLength = 0;
+			for ( int i = 0; i < n; i++ ) {
+				final long ts = rows.get(i).getTimestamp().toEpochMilli();
+				final long v;
+				if ( i == 0 ) {
+					v = ts;
+				} else {
+					final long delta = ts - prevTs;
+					v = (i == 1 ? delta : delta - prevDelta);
+					prevDelta = delta;
+				}
+				prevTs = ts;
+				if ( runLength > 0 && v == runValue ) {
+					runLength++;
+				} else {
+					if ( runLength > 0 ) {
+						writeVarLong(zigZag(runValue));
+						writeVarLong(runLength);
+					}
+					runValue = v;
+					runLength = 1;
+				}
+			}
+			writeVarLong(zigZag(runValue));
+			writeVarLong(runLength);
+
+			// shapes, as runs of array length codes
+			final DatumProperties[] props = new DatumProperties[n];
+			int maxI = 0;
+			int maxA = 0;
+			int maxS = 0;
+			int maxT = 0;
+			int[] shape = null;
+			runLength = 0;
+			for ( int i = 0; i < n; i++ ) {
+				final DatumProperties p = rows.get(i).getProperties();
+				props[i] = p;
+				final int iCode, aCode, sCode, tCode;
+				if ( p == null ) {
+					iCode = 0;
+					aCode = 0;
+					sCode = 0;
+					tCode = 0;
+				} else {
+					iCode = lengthCode(p.getInstantaneous()) + 1;
+					aCode = lengthCode(p.getAccumulating());
+					sCode = lengthCode(p.getStatus());
+					tCode = lengthCode(p.getTags());
+					maxI = Math.max(maxI, p.getInstantaneousLength());
+					maxA = Math.max(maxA, p.getAccumulatingLength());
+					maxS = Math.max(maxS, p.getStatusLength());
+					maxT = Math.max(maxT, p.getTagsLength());
+				}
+				if ( shape != null && shape[0] == iCode && shape[1] == aCode && shape[2] == sCode
+						&& shape[3] == tCode ) {
+					runLength++;
+				} else {
+					if ( shape != null ) {
+						writeShape(shape, runLength);
+					}
+					shape = new int[] { iCode, aCode, sCode, tCode };
+					runLength = 1;
+				}
+			}
+			writeShape(shape, runLength);
+
+			// property columns
+			for ( int j = 0; j < maxI; j++ ) {
+				final DecimalState state = new DecimalState(false);
+				for ( DatumProperties p : props ) {
+					if ( p != null && p.getInstantaneousLength() > j ) {
+						writeDecimal(state, p.instantaneousValue(j));
+					}
+				}
+			}
+			for ( int j = 0; j < maxA; j++ ) {
+				final DecimalState state = new DecimalState(true);
+				for ( DatumProperties p : props ) {
+					if ( p != null && p.getAccumulatingLength() > j ) {
+						writeDecimal(state, p.accumulatingValue(j));
+					}
+				}
+			}
+			final Map<String, Integer> dict = new HashMap<>(16);
+			for ( int j = 0; j < maxS; j++ ) {
+				for ( DatumProperties p : props ) {
+					if ( p != null && p.getStatusLength() > j ) {
+						writeDictionaryString(dict, p.statusValue(j));
+					}
+				}
+			}
+			for ( int j = 0; j < maxT; j++ ) {
+				for ( DatumProperties p : props ) {
+					if ( p != null && p.getTagsLength() > j ) {
+						writeDictionaryString(dict, p.tagValue(j));
+					}
+				}
+			}
+		}
+
+		private void writeShape(int[] shape, int runLength) {
+			writeVarLong(runLength);
+			for ( int code : shape ) {
+				writeVarLong(code);
+			}
+		}
+
+		private void writeDecimal(DecimalState state, @Nullable BigDecimal value) {
+			if ( value == null ) {
+				writeVarLong(TAG_NULL);
+				return;
+			}
+			final int scale = value.scale();
+			final BigInteger unscaledValue = value.unscaledValue();
+			if ( unscaledValue.bitLength() > 62 ) {
+				writeVarLong(TAG_BIG);
+				writeVarLong(zigZag(scale));
+				writeBytes(unscaledValue.toByteArray());
+				state.hasPrev = false;
+				return;
+			}
+			final long unscaled = unscaledValue.longValue();
+			if ( state.hasPrev && scale == state.prevScale ) {
+				// both values are within 62 bits, so the delta cannot overflow
+				final long delta = unscaled - state.prevUnscaled;
+				long v = delta;
+				boolean ok = true;
+				if ( state.deltaOfDelta ) {
+					try {
+						v = Math.subtractExact(delta, state.prevDelta);
+					} catch ( ArithmeticException e ) {
+						ok = false;
+					}
+				}
+				final long zz = zigZag(v);
+				if ( ok && (zz >>> 61) == 0 ) {
+					writeVarLong((zz << 2) | TAG_DELTA);
+					state.prevUnscaled = unscaled;
+					state.prevDelta = delta;
+					return;
+				}
+			}
+			writeVarLong(TAG_SCALED);
+			writeVarLong(zigZag(scale));
+			writeVarLong(zigZag(unscaled));
+			state.hasPrev = true;
+			state.prevScale = scale;
+			state.prevUnscaled = unscaled;
+			state.prevDelta = 0;
+		}
+
+		private void writeDictionaryString(Map<String, Integer> dict, @Nullable String s) {
+			if ( s == null ) {
+				writeVarLong(0);
+				return;
+			}
+			final Integer idx = dict.get(s);
+			if ( idx != null ) {
+				writeVarLong(idx.intValue() + 1L);
+				return;
+			}
+			final int size = dict.size();
+			dict.put(s, size);
+			writeVarLong(size + 1L);
+			writeString(s);
+		}
+
+	}
+
+	private static final class Decoder {
+
+		private final byte[] buf;
+		private int pos;
+
+		private Decoder(byte[] buf) {
+			super();
+			this.buf = buf;
+		}
+
+		private int readByte() {
+			return buf[pos++] & 0xFF;
+		}
+
+		private int readInt() {
+			return (readByte() << 24) | (readByte() << 16) | (readByte() << 8) | readByte();
+		}
+
+		private long readLong() {
+			return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+		}
+
+		private long readVarLong() throws IOException {
+			long result = 0;
+			for ( int shift = 0; shift < 64; shift += 7 ) {
+				final int b = buf[pos++];
+				result |= (long) (b & 0x7F) << shift;
+				if ( (b & 0x80) == 0 ) {
+					return result;
+				}
+			}
+			throw new IOException("Malformed variable-length integer at " + pos);
+		}
+
+		private int readLength() throws IOException {
+			final long len = readVarLong();
+			if ( len < 0 || len > buf.length - pos + 1 ) {
+				throw new IOException("Invalid length %d at %d".formatted(len, pos));
+			}
+			return (int) len;
+		}
+
+		private byte[] readBytes() throws IOException {
+			final int len = readLength();
+			if ( len > buf.length - pos ) {
+				throw new IOException("Invalid length %d at %d".formatted(len, pos));
+			}
+			final byte[] b = Arrays.copyOfRange(buf, pos, pos + len);
+			pos += len;
+			return b;
+		}
+
+		private @Nullable String readString() throws IOException {
+			final int code = readLength();
+			if ( code == 0 ) {
+				return null;
+			}
+			final int len = code - 1;
+			final String s = new String(buf, pos, len, UTF_8);
+			pos += len;
+			return s;
+		}
+
+		private @Nullable String @Nullable [] readStringArray() throws IOException {
+			final int code = readLength();
+			if ( code == 0 ) {
+				return null;
+			}
+			final String[] a = new String[code - 1];
+			for ( int i = 0; i < a.length; i++ ) {
+				a[i] = readString();
+			}
+			return a;
+		}
+
+		private ObjectDatumStreamDataSet<StreamDatum> decode() throws IOException {
+			if ( readInt() != MAGIC ) {
+				throw new IOException("Unsupported data set encoding.");
+			}
+			final int version = readByte();
+			if ( version != VERSION ) {
+				throw new IOException("Unsupported data set encoding version %d.".formatted(version));
+			}
+			final long flags = readVarLong();
+			final Integer returnedResultCount = ((flags & FLAG_RETURNED_RESULT_COUNT) != 0
+					? (int) unZigZag(readVarLong())
+					: null);
+			final Integer startingOffset = ((flags & FLAG_STARTING_OFFSET) != 0
+					? (int) unZigZag(readVarLong())
+					: null);
+			final Long totalResultCount = ((flags & FLAG_TOTAL_RESULT_COUNT) != 0
+					? unZigZag(readVarLong())
+					: null);
+
+			final int streamCount = readLength();
+			final List<ObjectDatumStreamMetadata> metas = new ArrayList<>(streamCount);
+			for ( int i = 0; i < streamCount; i++ ) {
+				metas.add(readMetadata());
+			}
+
+			final int runCount = readLength();
+			final int[] runs = new int[runCount * 2];
+			int total = 0;
+			for ( int i = 0; i < runs.length; i += 2 ) {
+				runs[i] = readLength();
+				runs[i + 1] = readLength();
+				if ( runs[i] >= streamCount ) {
+					throw new IOException("Invalid stream index %d.".formatted(runs[i]));
+				}
+				total += runs[i + 1];
+			}
+
+			final StreamDatum[][] streams = new StreamDatum[streamCount][];
+			for ( int i = 0; i < streamCount; i++ ) {
+				streams[i] = readStream(metas.get(i).getStreamId());
+			}
+
+			final List<StreamDatum> data = new ArrayList<>(total);
+			final int[] offsets = new int[streamCount];
+			for ( int i = 0; i < runs.length; i += 2 ) {
+				final int idx = runs[i];
+				final int len = runs[i + 1];
+				final StreamDatum[] rows = streams[idx];
+				if ( offsets[idx] + len > rows.length ) {
+					throw new IOException("Invalid datum count for stream %d.".formatted(idx));
+				}
+				data.addAll(Arrays.asList(rows).subList(offsets[idx], offsets[idx] + len));
+				offsets[idx] += len;
+			}
+			if ( pos != buf.length ) {
+				throw new IOException("Unexpected data at " + pos);
+			}
+			return BasicObjectDatumStreamDataSet.dataSet(metas, data, totalResultCount,
+					startingOffset, returnedResultCount);
+		}
+
+		@SuppressWarnings("NullAway")
+		private ObjectDatumStreamMetadata readMetadata() throws IOException {
+			final UUID streamId = new UUID(readLong(), readLong());
+			final String timeZoneId = readString();
+			final ObjectDatumKind kind = ObjectDatumKind.forKey(String.valueOf((char) readByte()));
+			final Long objectId = unZigZag(readVarLong());
+			final String sourceId = readString();
+			final String[] i = readStringArray();
+			final String[] a = readStringArray();
+			final String[] s = readStringArray();
+			final String metaJson = readString();
+			final String locJson = readString();
+			Location loc = null;
+			if ( locJson != null ) {
+				try {
+					loc = JsonUtils.JSON_OBJECT_MAPPER.readValue(locJson, Location.class);
+				} catch ( JacksonException e ) {
+					throw new IOException("Invalid location JSON at " + pos, e);
+				}
+			}
+			return new BasicObjectDatumStreamMetadata(streamId, timeZoneId, kind, objectId, sourceId,
+					loc, i, a, s, metaJson);
+		}
+
+		private StreamDatum[] readStream(UUID streamId) throws IOException {
+			final int n = readLength();
+			final StreamDatum[] result = new StreamDatum[n];
+			if ( n < 1 ) {
+				return result;
+			}
+
+			// timestamps
+			final long[] ts = new long[n];
+			long prevTs = 0;
+			long prevDelta = 0;
+			for ( int i = 0; i < n; ) {
+				final long v = unZigZag(readVarLong());
+				final int runLength = readLength();
+				if ( runLength < 1 || i + runLength > n ) {
+					throw new IOException("Invalid timestamp run length %d.".formatted(runLength));
+				}
+				for ( int end = i + runLength; i < end; i++ ) {
+					if ( i == 0 ) {
+						ts[i] = v;
+					} else {
+						final long delta = (i == 1 ? v : prevDelta + v);
+						ts[i] = prevTs + delta;
+						prevDelta = delta;
+					}
+					prevTs = ts[i];
+				}
+			}
+
+			// shapes
+			final DatumProperties[] props = new DatumProperties[n];
+			int maxI = 0;
+			int maxA = 0;
+			int maxS = 0;
+			int maxT = 0;
+			for ( int i = 0; i < n; ) {
+				final int runLength = readLength();
+				final int iCode = readLength();
+				final int aCode = readLength();
+				final int sCode = readLength();
+				final int tCode = readLength();
+				if ( runLength < 1 || i + runLength > n ) {
+					throw new IOException("Invalid shape run length %d.".formatted(runLength));
+				}
+				for ( int end = i + runLength; i < end; i++ ) {
+					if ( iCode == 0 ) {
+						continue;
+					}
+					final DatumProperties p = new DatumProperties();
+					if ( iCode > 1 ) {
+						p.setInstantaneous(new BigDecimal[iCode - 2]);
+						maxI = Math.max(maxI, iCode - 2);
+					}
+					if ( aCode > 0 ) {
+						p.setAccumulating(new BigDecimal[aCode - 1]);
+						maxA = Math.max(maxA, aCode - 1);
+					}
+					if ( sCode > 0 ) {
+						p.setStatus(new String[sCode - 1]);
+						maxS = Math.max(maxS, sCode - 1);
+					}
+					if ( tCode > 0 ) {
+						p.setTags(new String[tCode - 1]);
+						maxT = Math.max(maxT, tCode - 1);
+					}
+					props[i] = p;
+				}
+			}
+
+			// property columns
+			for ( int j = 0; j < maxI; j++ ) {
+				final DecimalState state = new DecimalState(false);
+				for ( DatumProperties p : props ) {
+					if ( p != null && p.getInstantaneousLength() > j ) {
+						p.getInstantaneous()[j] = readDecimal(state);
+					}
+				}
+			}
+			for ( int j = 0; j < maxA; j++ ) {
+				final DecimalState state = new DecimalState(true);
+				for ( DatumProperties p : props ) {
+					if ( p != null && p.getAccumulatingLength() > j ) {
+						p.getAccumulating()[j] = readDecimal(state);
+					}
+				}
+			}
+			final List<String> dict = new ArrayList<>(16);
+			for ( int j = 0; j < maxS; j++ ) {
+				for ( DatumProperties p : props ) {
+					if ( p != null && p.getStatusLength() > j ) {
+						p.getStatus()[j] = readDictionaryString(dict);
+					}
+				}
+			}
+			for ( int j = 0; j < maxT; j++ ) {
+				for ( DatumProperties p : props ) {
+					if ( p != null && p.getTagsLength() > j ) {
+						p.getTags()[j] = readDictionaryString(dict);
+					}
+				}
+			}
+
+			for ( int i = 0; i < n; i++ ) {
+				result[i] = new BasicStreamDatum(streamId, Instant.ofEpochMilli(ts[i]), props[i]);
+			}
+			return result;
+		}
+
+		private @Nullable BigDecimal readDecimal(DecimalState state) throws IOException {
+			final long h = readVarLong();
+			final int tag = (int) (h & 0x3);
+			switch (tag) {
+				case TAG_DELTA: {
+					if ( !state.hasPrev ) {
+						throw new IOException("Decimal delta without previous value at " + pos);
+					}
+					final long v = unZigZag(h >>> 2);
+					final long delta = (state.deltaOfDelta ? state.prevDelta + v : v);
+					state.prevUnscaled += delta;
+					state.prevDelta = delta;
+					return BigDecimal.valueOf(state.prevUnscaled, state.prevScale);
+				}
+
+				case TAG_NULL:
+					return null;
+
+				case TAG_SCALED: {
+					final int scale = (int) unZigZag(readVarLong());
+					final long unscaled = unZigZag(readVarLong());
+					state.hasPrev = true;
+					state.prevScale = scale;
+					state.prevUnscaled = unscaled;
+					state.prevDelta = 0;
+					return BigDecimal.valueOf(unscaled, scale);
+				}
+
+				default: {
+					final int scale = (int) unZigZag(readVarLong());
+					final BigInteger unscaled = new BigInteger(readBytes());
+					state.hasPrev = false;
+					return new BigDecimal(unscaled, scale);
+				}
+			}
+		}
+
+		private @Nullable String readDictionaryString(List<String> dict) throws IOException {
+			final int code = readLength();
+			if ( code == 0 ) {
+				return null;
+			}
+			if ( code <= dict.size() ) {
+				return dict.get(code - 1);
+			}
+			if ( code != dict.size() + 1 ) {
+				throw new IOException("Invalid dictionary index %d at %d.".formatted(code, pos));
+			}
+			final String s = readString();
+			if ( s == null ) {
+				throw new IOException("Missing dictionary value at " + pos);
+			}
+			dict.add(s);
+			return s;
+		}
+
+	}
+
+}
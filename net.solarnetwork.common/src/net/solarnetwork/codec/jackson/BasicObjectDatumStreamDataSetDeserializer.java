@@ -59,7 +59,7 @@ import tools.jackson.databind.exc.MismatchedInputException;
  * </p>
  *
  * @author matt
- * @version 1.0
+ * @version 1.1
  * @since 4.13
  */
 public class BasicObjectDatumStreamDataSetDeserializer
@@ -96,142 +96,11 @@ public class BasicObjectDatumStreamDataSetDeserializer
 				} else if ( TOTAL_RESULT_COUNT_FIELD_NAME.toString().equals(p.currentName()) ) {
 					totalResultCount = p.getLongValue();
 				} else if ( META_FIELD_NAME.toString().equals(p.currentName()) ) {
-					if ( p.nextToken() == JsonToken.START_ARRAY ) {
-						for ( t = p.nextToken(); t != null
-								&& t != JsonToken.END_ARRAY; t = p.nextToken() ) {
-							ObjectDatumStreamMetadata meta = BasicObjectDatumStreamMetadataDeserializer.INSTANCE
-									.deserialize(p, ctxt);
-							metadatas.add(meta);
-						}
-					}
+					parseMetadata(p, ctxt, metadatas);
 				} else if ( DATA_FIELD_NAME.toString().equals(p.currentName()) ) {
 					if ( p.nextToken() == JsonToken.START_ARRAY ) {
 						while ( p.nextToken() == JsonToken.START_ARRAY ) {
-							int i = -2;
-							ObjectDatumStreamMetadata meta = null;
-							long ts = 0;
-							long tsEnd = -1;
-
-							String[] iNames = null;
-							String[] aNames = null;
-							String[] sNames = null;
-							int iLen = 0;
-							int aLen = 0;
-							int sLen = 0;
-							int aStart = 0;
-							int sStart = 0;
-							int tStart = 0;
-
-							BigDecimal[] iData = null;
-							BigDecimal[] aData = null;
-							String[] sData = null;
-							List<String> tags = null;
-							BigDecimal[][] iStats = null;
-							BigDecimal[][] aStats = null;
-
-							for ( t = p.nextToken(); t != null
-									&& t != JsonToken.END_ARRAY; t = p.nextToken(), i++ ) {
-								if ( i == -2 ) {
-									int idx = p.getIntValue();
-									if ( idx >= metadatas.size() ) {
-										throw MismatchedInputException.from(p,
-												"Missing metadata index %d".formatted(idx));
-									}
-									meta = metadatas.get(idx);
-									iNames = meta.propertyNamesForType(DatumSamplesType.Instantaneous);
-									aNames = meta.propertyNamesForType(DatumSamplesType.Accumulating);
-									sNames = meta.propertyNamesForType(DatumSamplesType.Status);
-									iLen = (iNames != null ? iNames.length : 0);
-									aLen = (aNames != null ? aNames.length : 0);
-									sLen = (sNames != null ? sNames.length : 0);
-									aStart = iLen;
-									sStart = aStart + aLen;
-									tStart = sStart + sLen;
-
-									iData = (iLen > 0 ? new BigDecimal[iLen] : null);
-									aData = (aLen > 0 ? new BigDecimal[aLen] : null);
-									sData = (sLen > 0 ? new String[sLen] : null);
-								} else if ( i == -1 ) {
-									if ( t == JsonToken.START_ARRAY ) {
-										// we have a 2-element start/end array
-										t = p.nextToken();
-										ts = p.getLongValue();
-										t = p.nextToken();
-										if ( t != JsonToken.VALUE_NULL ) {
-											tsEnd = p.getLongValue();
-										} else {
-											tsEnd = 0;
-										}
-										t = p.nextToken(); // consume end array
-										iStats = new BigDecimal[iLen][];
-										aStats = new BigDecimal[aLen][];
-									} else {
-										ts = p.getLongValue();
-									}
-								} else if ( iLen > 0 && i < aStart ) {
-									if ( t == JsonToken.START_ARRAY ) {
-										BigDecimal[] stats = new BigDecimal[4];
-										iStats[i] = stats;
-										int j = 0;
-										for ( t = p.nextToken(); t != null
-												&& t != JsonToken.END_ARRAY; t = p.nextToken(), j++ ) {
-											BigDecimal val = (t == JsonToken.VALUE_NULL ? null
-													: p.getDecimalValue());
-											if ( j == 0 ) {
-												iData[i] = val;
-											}
-											if ( j < 4 ) {
-												stats[j] = val;
-											}
-										}
-									} else {
-										iData[i] = (t == JsonToken.VALUE_NULL ? null
-												: p.getDecimalValue());
-									}
-								} else if ( aLen > 0 && i < sStart ) {
-									if ( t == JsonToken.START_ARRAY ) {
-										BigDecimal[] stats = new BigDecimal[3];
-										aStats[i - aStart] = stats;
-										int j = 0;
-										for ( t = p.nextToken(); t != null
-												&& t != JsonToken.END_ARRAY; t = p.nextToken(), j++ ) {
-											BigDecimal val = (t == JsonToken.VALUE_NULL ? null
-													: p.getDecimalValue());
-											if ( j == 0 ) {
-												aData[i - aStart] = val;
-											}
-											if ( j < 3 ) {
-												stats[j] = val;
-											}
-										}
-									} else {
-										aData[i - aStart] = (t == JsonToken.VALUE_NULL ? null
-												: p.getDecimalValue());
-									}
-								} else if ( sLen > 0 && i < tStart ) {
-									sData[i - sStart] = (t == JsonToken.VALUE_NULL ? null
-											: p.getString());
-								} else if ( t == JsonToken.VALUE_STRING ) {
-									if ( tags == null ) {
-										tags = new ArrayList<>(4);
-									}
-									tags.add(p.getString());
-								}
-							}
-							if ( tsEnd > -1 ) {
-								data.add(new BasicAggregateStreamDatum(meta.getStreamId(),
-										ofEpochMilli(ts),
-										propertiesOf(iData, aData, sData,
-												tags != null ? tags.toArray(new String[tags.size()])
-														: null),
-										tsEnd > 0 ? ofEpochMilli(tsEnd) : null,
-										statisticsOf(iStats, aStats)));
-							} else {
-								data.add(new BasicStreamDatum(meta.getStreamId(), ofEpochMilli(ts),
-										propertiesOf(iData, aData, sData,
-												tags != null ? tags.toArray(new String[tags.size()])
-														: null)));
-							}
+							data.add(parseStreamDatum(p, metadatas));
 						}
 					}
 				}
@@ -243,4 +112,168 @@ public class BasicObjectDatumStreamDataSetDeserializer
 				"Unable to parse ObjectDatumStreamDataSet (not an array)");
 	}
 
+	/**
+	 * Parse a metadata array.
+	 *
+	 * <p>
+	 * The parser must be positioned on the {@literal meta} property name.
+	 * </p>
+	 *
+	 * @param p
+	 *        the parser
+	 * @param ctxt
+	 *        the context
+	 * @param metadatas
+	 *        the list to add the parsed metadata to
+	 * @throws JacksonException
+	 *         if any parsing error occurs
+	 * @since 1.1
+	 */
+	static void parseMetadata(JsonParser p, DeserializationContext ctxt,
+			List<ObjectDatumStreamMetadata> metadatas) throws JacksonException {
+		if ( p.nextToken() == JsonToken.START_ARRAY ) {
+			for ( JsonToken t = p.nextToken(); t != null && t != JsonToken.END_ARRAY; t = p
+					.nextToken() ) {
+				ObjectDatumStreamMetadata meta = BasicObjectDatumStreamMetadataDeserializer.INSTANCE
+						.deserialize(p, ctxt);
+				metadatas.add(meta);
+			}
+		}
+	}
+
+	/**
+	 * Parse a single stream datum array.
+	 *
+	 * <p>
+	 * The parser must be positioned on the start of the datum array.
+	 * </p>
+	 *
+	 * @param p
+	 *        the parser
+	 * @param metadatas
+	 *        the available metadata
+	 * @return the datum, never {@code null}
+	 * @throws JacksonException
+	 *         if any parsing error occurs
+	 * @since 1.1
+	 */
+	@SuppressWarnings({ "null", "NullAway" })
+	static StreamDatum parseStreamDatum(JsonParser p, List<ObjectDatumStreamMetadata> metadatas)
+			throws JacksonException {
+		int i = -2;
+		ObjectDatumStreamMetadata meta = null;
+		long ts = 0;
+		long tsEnd = -1;
+
+		String[] iNames = null;
+		String[] aNames = null;
+		String[] sNames = null;
+		int iLen = 0;
+		int aLen = 0;
+		int sLen = 0;
+		int aStart = 0;
+		int sStart = 0;
+		int tStart = 0;
+
+		BigDecimal[] iData = null;
+		BigDecimal[] aData = null;
+		String[] sData = null;
+		List<String> tags = null;
+		BigDecimal[][] iStats = null;
+		BigDecimal[][] aStats = null;
+
+		for ( JsonToken t = p.nextToken(); t != null
+				&& t != JsonToken.END_ARRAY; t = p.nextToken(), i++ ) {
+			if ( i == -2 ) {
+				int idx = p.getIntValue();
+				if ( idx >= metadatas.size() ) {
+					throw MismatchedInputException.from(p,
+							"Missing metadata index %d".formatted(idx));
+				}
+				meta = metadatas.get(idx);
+				iNames = meta.propertyNamesForType(DatumSamplesType.Instantaneous);
+				aNames = meta.propertyNamesForType(DatumSamplesType.Accumulating);
+				sNames = meta.propertyNamesForType(DatumSamplesType.Status);
+				iLen = (iNames != null ? iNames.length : 0);
+				aLen = (aNames != null ? aNames.length : 0);
+				sLen = (sNames != null ? sNames.length : 0);
+				aStart = iLen;
+				sStart = aStart + aLen;
+				tStart = sStart + sLen;
+
+				iData = (iLen > 0 ? new BigDecimal[iLen] : null);
+				aData = (aLen > 0 ? new BigDecimal[aLen] : null);
+				sData = (sLen > 0 ? new String[sLen] : null);
+			} else if ( i == -1 ) {
+				if ( t == JsonToken.START_ARRAY ) {
+					// we have a 2-element start/end array
+					t = p.nextToken();
+					ts = p.getLongValue();
+					t = p.nextToken();
+					if ( t != JsonToken.VALUE_NULL ) {
+						tsEnd = p.getLongValue();
+					} else {
+						tsEnd = 0;
+					}
+					t = p.nextToken(); // consume end array
+					iStats = new BigDecimal[iLen][];
+					aStats = new BigDecimal[aLen][];
+				} else {
+					ts = p.getLongValue();
+				}
+			} else if ( iLen > 0 && i < aStart ) {
+				if ( t == JsonToken.START_ARRAY ) {
+					BigDecimal[] stats = new BigDecimal[4];
+					iStats[i] = stats;
+					int j = 0;
+					for ( t = p.nextToken(); t != null
+							&& t != JsonToken.END_ARRAY; t = p.nextToken(), j++ ) {
+						BigDecimal val = (t == JsonToken.VALUE_NULL ? null : p.getDecimalValue());
+						if ( j == 0 ) {
+							iData[i] = val;
+						}
+						if ( j < 4 ) {
+							stats[j] = val;
+						}
+					}
+				} else {
+					iData[i] = (t == JsonToken.VALUE_NULL ? null : p.getDecimalValue());
+				}
+			} else if ( aLen > 0 && i < sStart ) {
+				if ( t == JsonToken.START_ARRAY ) {
+					BigDecimal[] stats = new BigDecimal[3];
+					aStats[i - aStart] = stats;
+					int j = 0;
+					for ( t = p.nextToken(); t != null
+							&& t != JsonToken.END_ARRAY; t = p.nextToken(), j++ ) {
+						BigDecimal val = (t == JsonToken.VALUE_NULL ? null : p.getDecimalValue());
+						if ( j == 0 ) {
+							aData[i - aStart] = val;
+						}
+						if ( j < 3 ) {
+							stats[j] = val;
+						}
+					}
+				} else {
+					aData[i - aStart] = (t == JsonToken.VALUE_NULL ? null : p.getDecimalValue());
+				}
+			} else if ( sLen > 0 && i < tStart ) {
+				sData[i - sStart] = (t == JsonToken.VALUE_NULL ? null : p.getString());
+			} else if ( t == JsonToken.VALUE_STRING ) {
+				if ( tags == null ) {
+					tags = new ArrayList<>(4);
+				}
+				tags.add(p.getString());
+			}
+		}
+		if ( tsEnd > -1 ) {
+			return new BasicAggregateStreamDatum(meta.getStreamId(), ofEpochMilli(ts),
+					propertiesOf(iData, aData, sData,
+							tags != null ? tags.toArray(new String[tags.size()]) : null),
+					tsEnd > 0 ? ofEpochMilli(tsEnd) : null, statisticsOf(iStats, aStats));
+		}
+		return new BasicStreamDatum(meta.getStreamId(), ofEpochMilli(ts), propertiesOf(iData, aData,
+				sData, tags != null ? tags.toArray(new String[tags.size()]) : null));
+	}
+
 }
@@ -22,6 +22,9 @@
 
 package net.solarnetwork.codec.jackson;
 
+import net.solarnetwork.domain.datum.StreamDatum;
+import tools.jackson.databind.JacksonModule;
+import tools.jackson.databind.module.SimpleModule;
 import tools.jackson.dataformat.cbor.CBORFactory;
 import tools.jackson.dataformat.cbor.CBORFactoryBuilder;
 import tools.jackson.dataformat.cbor.CBORMapper;
@@ -32,7 +35,7 @@ import tools.jackson.dataformat.cbor.CBORWriteFeature;
  * CBOR helper methods.
  *
  * @author matt
- * @version 1.2
+ * @version 1.3
  * @since 4.13
  */
 public final class CborUtils {
@@ -58,6 +61,46 @@ public final class CborUtils {
 		CBOR_OBJECT_MAPPER = builder.build();
 	}
 
+	/**
+	 * A module for handling datum objects in a compact CBOR form.
+	 *
+	 * <p>
+	 * This module is the same as {@link JsonUtils#DATUM_MODULE} except that
+	 * {@link StreamDatum} instances are handled by
+	 * {@link CompactStreamDatumArraySerializer} and
+	 * {@link CompactStreamDatumArrayDeserializer}.
+	 * </p>
+	 *
+	 * @since 1.3
+	 */
+	public static final JacksonModule COMPACT_DATUM_MODULE;
+	static {
+		SimpleModule m = JsonUtils.datumModule("SolarNetwork Compact CBOR Datum");
+		m.addSerializer(CompactStreamDatumArraySerializer.INSTANCE);
+		m.addDeserializer(StreamDatum.class, CompactStreamDatumArrayDeserializer.INSTANCE);
+		COMPACT_DATUM_MODULE = m;
+	}
+
+	/**
+	 * A mapper for compact CBOR datum encoding.
+	 *
+	 * <p>
+	 * This mapper uses a factory created by {@link #compactCborFactory()} and
+	 * contains the {@link JsonDateUtils#JAVA_TIME_MODULE},
+	 * {@link JsonUtils#CORE_MODULE}, and {@link #COMPACT_DATUM_MODULE}
+	 * modules.
+	 * </p>
+	 *
+	 * @since 1.3
+	 */
+	public static final CBORMapper COMPACT_CBOR_OBJECT_MAPPER;
+	static {
+		var builder = CBORMapper.builder(compactCborFactory());
+		JsonUtils.setupMapperBuilder(builder, JsonDateUtils.JAVA_TIME_MODULE, JsonUtils.CORE_MODULE,
+				COMPACT_DATUM_MODULE);
+		COMPACT_CBOR_OBJECT_MAPPER = builder.build();
+	}
+
 	/**
 	 * Construct a standard CBORFactory.
 	 *
@@ -77,4 +120,24 @@ public final class CborUtils {
 				.configure(CBORReadFeature.DECODE_USING_STANDARD_NEGATIVE_BIGINT_ENCODING, true).build();
 	}
 
+	/**
+	 * Construct a CBORFactory for compact encoding.
+	 *
+	 * <p>
+	 * The returned factory has the same settings as {@link #cborFactory()} and
+	 * also enables {@link CBORWriteFeature#STRINGREF}, so repeated strings such
+	 * as property names and source IDs are written as references to their
+	 * first occurrence within a single CBOR document (using the CBOR
+	 * {@literal stringref} tags 25 and 256). CBOR parsers created by any
+	 * factory decode these references.
+	 * </p>
+	 *
+	 * @return the new factory instance
+	 * @since 1.3
+	 */
+	public static CBORFactory compactCborFactory() {
+		return new CBORFactoryBuilder(cborFactory()).configure(CBORWriteFeature.STRINGREF, true)
+				.build();
+	}
+
 }
@@ -0,0 +1,228 @@
+/* ==================================================================
+ * CompactStreamDatumArrayDeserializer.java - 17/10/2026 4:48:02 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.codec.jackson;
+
+import static java.time.Instant.ofEpochMilli;
+import static net.solarnetwork.domain.datum.DatumProperties.propertiesOf;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.jspecify.annotations.Nullable;
+import net.solarnetwork.domain.datum.BasicStreamDatum;
+import net.solarnetwork.domain.datum.StreamDatum;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.DeserializationContext;
+import tools.jackson.databind.ValueDeserializer;
+import tools.jackson.databind.deser.std.StdDeserializer;
+import tools.jackson.databind.exc.MismatchedInputException;
+import tools.jackson.dataformat.cbor.CBORParser;
+
+/**
+ * Deserializer for {@link StreamDatum} arrays written by
+ * {@link CompactStreamDatumArraySerializer}.
+ *
+ * <p>
+ * Arrays written by {@link BasicStreamDatumArraySerializer} are also
+ * supported.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ * @since 4.37
+ */
+public class CompactStreamDatumArrayDeserializer extends StdDeserializer<StreamDatum> {
+
+	/** A default instance. */
+	public static final ValueDeserializer<StreamDatum> INSTANCE = new CompactStreamDatumArrayDeserializer();
+
+	/**
+	 * Constructor.
+	 */
+	public CompactStreamDatumArrayDeserializer() {
+		super(StreamDatum.class);
+	}
+
+	@Override
+	public @Nullable StreamDatum deserialize(JsonParser p, DeserializationContext ctxt)
+			throws JacksonException {
+		JsonToken t = p.currentToken();
+		if ( t == JsonToken.VALUE_NULL ) {
+			return null;
+		} else if ( p.isExpectedStartArrayToken() ) {
+			long ts = p.nextLongValue(0);
+			long idHi = p.nextLongValue(0);
+			long idLo = p.nextLongValue(0);
+			if ( ts < 1 || idHi == 0 || idLo == 0 ) {
+				throw MismatchedInputException.from(p,
+						"Unable to parse StreamDatum (timestamp or stream ID missing)");
+			}
+			var i = parsePackedDecimalArray(p);
+			var a = parsePackedDecimalArray(p);
+			var s = JsonUtils.parseStringArray(p);
+			var tags = JsonUtils.parseStringArrayStrict(p);
+			p.nextToken(); // advance to final end-array ']'
+			return new BasicStreamDatum(new UUID(idHi, idLo), ofEpochMilli(ts),
+					propertiesOf(i, a, s, tags));
+		}
+		throw MismatchedInputException.from(p, "Unable to parse StreamDatum (not an array)");
+	}
+
+	/**
+	 * Parse a decimal array that might be a packed decimal array.
+	 *
+	 * <p>
+	 * The parser is advanced to the next token, which must be either a
+	 * {@code null} or the start of an array. The array can be either a packed
+	 * decimal array as written by
+	 * {@link CompactStreamDatumArraySerializer#writePackedDecimalArray(tools.jackson.core.JsonGenerator, BigDecimal[])}
+	 * or a normal array of numbers. The packed values must be tagged with one
+	 * of the big-endian signed integer typed array tags, for example
+	 * {@link CompactStreamDatumArraySerializer#TAG_SINT16_BE}.
+	 * </p>
+	 *
+	 * @param p
+	 *        the parser
+	 * @return the parsed array, or {@code null} if a {@code null} value or no
+	 *         array is available
+	 * @throws JacksonException
+	 *         if any parsing error occurs
+	 */
+	@SuppressWarnings({ "null", "NullAway" })
+	public static @Nullable BigDecimal @Nullable [] parsePackedDecimalArray(JsonParser p)
+			throws JacksonException {
+		p.nextToken();
+		if ( !p.isExpectedStartArrayToken() ) {
+			return null;
+		}
+		final List<@Nullable BigDecimal> l = new ArrayList<>(8);
+		JsonToken t;
+		while ( (t = p.nextToken()) != null && t != JsonToken.END_ARRAY ) {
+			if ( t == JsonToken.VALUE_EMBEDDED_OBJECT && l.size() == 2 && l.get(0) != null
+					&& l.get(1) != null ) {
+				final int exponent;
+				final int count;
+				try {
+					exponent = l.get(0).intValueExact();
+					count = l.get(1).intValueExact();
+				} catch ( ArithmeticException e ) {
+					throw MismatchedInputException.from(p,
+							"Unable to parse packed decimal array (invalid exponent or count)");
+				}
+				final BigDecimal[] result = unpack(p, exponent, count, elementSize(p),
+						p.getBinaryValue());
+				if ( p.nextToken() != JsonToken.END_ARRAY ) {
+					throw MismatchedInputException.from(p,
+							"Unable to parse packed decimal array (end of array expected)");
+				}
+				return result;
+			} else if ( t == JsonToken.VALUE_NULL ) {
+				l.add(null);
+			} else if ( t.isNumeric() ) {
+				l.add(p.getDecimalValue());
+			} else {
+				throw MismatchedInputException.from(p,
+						"Unable to parse decimal array (unexpected token " + t + ")");
+			}
+		}
+		return l.toArray(new BigDecimal[l.size()]);
+	}
+
+	/**
+	 * Get the typed array element size of the current binary value.
+	 *
+	 * @param p
+	 *        the parser
+	 * @return the element size, in bytes
+	 * @throws JacksonException
+	 *         if the value is not tagged as a supported typed array
+	 */
+	private static int elementSize(JsonParser p) throws JacksonException {
+		final int tag = (p instanceof CBORParser cbor ? cbor.currentTag() : -1);
+		switch (tag) {
+			case CompactStreamDatumArraySerializer.TAG_SINT8:
+				return Byte.BYTES;
+
+			case CompactStreamDatumArraySerializer.TAG_SINT16_BE:
+				return Short.BYTES;
+
+			case CompactStreamDatumArraySerializer.TAG_SINT32_BE:
+				return Integer.BYTES;
+
+			case CompactStreamDatumArraySerializer.TAG_SINT64_BE:
+				return Long.BYTES;
+
+			default:
+				throw MismatchedInputException.from(p,
+						"Unable to parse packed decimal array (unsupported typed array tag " + tag
+								+ ")");
+		}
+	}
+
+	private static BigDecimal[] unpack(JsonParser p, int exponent, int count, int elementSize,
+			byte[] data) throws JacksonException {
+		if ( count < 1 || data.length != (long) count * elementSize ) {
+			throw MismatchedInputException.from(p, "Unable to parse packed decimal array (data length "
+					+ data.length + " invalid for count " + count + " of " + elementSize
+					+ " byte elements)");
+		}
+		final int scale = -exponent;
+		final BigDecimal[] result = new BigDecimal[count];
+		final ByteBuffer buf = ByteBuffer.wrap(data);
+		switch (elementSize) {
+			case Byte.BYTES:
+				for ( int i = 0; i < count; i++ ) {
+					result[i] = BigDecimal.valueOf(buf.get(), scale);
+				}
+				break;
+
+			case Short.BYTES:
+				for ( int i = 0; i < count; i++ ) {
+					result[i] = BigDecimal.valueOf(buf.getShort(), scale);
+				}
+				break;
+
+			case Integer.BYTES:
+				for ( int i = 0; i < count; i++ ) {
+					result[i] = BigDecimal.valueOf(buf.getInt(), scale);
+				}
+				break;
+
+			case Long.BYTES:
+				for ( int i = 0; i < count; i++ ) {
+					result[i] = BigDecimal.valueOf(buf.getLong(), scale);
+				}
+				break;
+
+			default:
+				throw MismatchedInputException.from(p,
+						"Unable to parse packed decimal array (unsupported element size "
+								+ elementSize + ")");
+		}
+		return result;
+	}
+
+}
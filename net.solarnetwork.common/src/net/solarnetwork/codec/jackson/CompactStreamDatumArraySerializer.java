@@ -0,0 +1,236 @@
+/* ==================================================================
+ * CompactStreamDatumArraySerializer.java - 17/10/2026 4:12:40 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.codec.jackson;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import org.jspecify.annotations.Nullable;
+import net.solarnetwork.domain.datum.DatumProperties;
+import net.solarnetwork.domain.datum.StreamDatum;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.SerializationContext;
+import tools.jackson.databind.ValueSerializer;
+import tools.jackson.databind.ser.std.StdSerializer;
+import tools.jackson.dataformat.cbor.CBORGenerator;
+
+/**
+ * Serializer for {@link StreamDatum} to an array, using packed CBOR typed
+ * arrays for the numeric property values.
+ *
+ * <p>
+ * This serializer writes the same array structure as
+ * {@link BasicStreamDatumArraySerializer}, except that when writing to CBOR
+ * the instantaneous and accumulating property values are written as a
+ * <i>packed decimal array</i> when possible. A packed decimal array is a
+ * 3-element array of:
+ * </p>
+ *
+ * <ol>
+ * <li>the decimal exponent shared by all values (the negated scale)</li>
+ * <li>the number of values</li>
+ * <li>the unscaled values, as an <a href="https://www.rfc-editor.org/rfc/rfc8746">RFC
+ * 8746</a> big-endian signed integer typed array, using the smallest of the
+ * 8, 16, 32, or 64 bit element types that fits all values</li>
+ * </ol>
+ *
+ * <p>
+ * Property value arrays that contain {@code null} values, or values that
+ * cannot be represented as a 64-bit integer at a shared scale, are written as
+ * a normal array. All packed values are returned with the shared scale when
+ * decoded, so they are numerically equal to, but might have a larger scale
+ * than, the original values. Use {@link CompactStreamDatumArrayDeserializer} to
+ * decode the output.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ * @since 4.37
+ */
+public class CompactStreamDatumArraySerializer extends StdSerializer<StreamDatum> {
+
+	/** The RFC 8746 typed array tag for signed 8-bit integers. */
+	public static final int TAG_SINT8 = 72;
+
+	/** The RFC 8746 typed array tag for big-endian signed 16-bit integers. */
+	public static final int TAG_SINT16_BE = 73;
+
+	/** The RFC 8746 typed array tag for big-endian signed 32-bit integers. */
+	public static final int TAG_SINT32_BE = 74;
+
+	/** The RFC 8746 typed array tag for big-endian signed 64-bit integers. */
+	public static final int TAG_SINT64_BE = 75;
+
+	/** The maximum difference in value scales allowed for packing. */
+	private static final int MAX_SCALE_RANGE = 18;
+
+	/** A default instance. */
+	public static final ValueSerializer<StreamDatum> INSTANCE = new CompactStreamDatumArraySerializer();
+
+	/**
+	 * Constructor.
+	 */
+	public CompactStreamDatumArraySerializer() {
+		super(StreamDatum.class);
+	}
+
+	@Override
+	public void serialize(StreamDatum datum, JsonGenerator generator, SerializationContext provider)
+			throws JacksonException {
+		generator.writeStartArray(datum, 7);
+
+		// 1: timestamp
+		if ( datum.getTimestamp() != null ) {
+			generator.writeNumber(datum.getTimestamp().toEpochMilli());
+		} else {
+			generator.writeNull();
+		}
+
+		// 2-3: UUID high,low
+		final UUID streamId = datum.getStreamId();
+		if ( streamId != null ) {
+			generator.writeNumber(streamId.getMostSignificantBits());
+			generator.writeNumber(streamId.getLeastSignificantBits());
+		} else {
+			generator.writeNull();
+			generator.writeNull();
+		}
+
+		final DatumProperties props = datum.getProperties();
+
+		if ( props != null ) {
+			// 4: array of i props
+			writePackedDecimalArray(generator, props.getInstantaneous());
+
+			// 5: array of a props
+			writePackedDecimalArray(generator, props.getAccumulating());
+
+			// 6: array of s props
+			JsonUtils.writeStringArray(generator, props.getStatus());
+
+			// 7: array of tags
+			JsonUtils.writeStringArray(generator, props.getTags());
+		}
+
+		generator.writeEndArray();
+	}
+
+	/**
+	 * Write a decimal array as a packed decimal array if possible.
+	 *
+	 * <p>
+	 * If {@code generator} is not a {@link CBORGenerator} or {@code array}
+	 * cannot be packed, the array is written with
+	 * {@link JsonUtils#writeDecimalArray(JsonGenerator, BigDecimal[])}.
+	 * </p>
+	 *
+	 * @param generator
+	 *        the generator to write to
+	 * @param array
+	 *        the array to write
+	 * @throws JacksonException
+	 *         if any IO error occurs
+	 */
+	public static void writePackedDecimalArray(JsonGenerator generator,
+			@Nullable BigDecimal @Nullable [] array) throws JacksonException {
+		if ( !(generator instanceof CBORGenerator cbor) || array == null || array.length < 1 ) {
+			JsonUtils.writeDecimalArray(generator, array);
+			return;
+		}
+		int minScale = Integer.MAX_VALUE;
+		int maxScale = Integer.MIN_VALUE;
+		for ( BigDecimal n : array ) {
+			if ( n == null ) {
+				JsonUtils.writeDecimalArray(generator, array);
+				return;
+			}
+			final int s = n.scale();
+			if ( s < minScale ) {
+				minScale = s;
+			}
+			if ( s > maxScale ) {
+				maxScale = s;
+			}
+		}
+		if ( maxScale - minScale > MAX_SCALE_RANGE ) {
+			JsonUtils.writeDecimalArray(generator, array);
+			return;
+		}
+		final long[] unscaled = new long[array.length];
+		long min = 0;
+		long max = 0;
+		for ( int i = 0; i < array.length; i++ ) {
+			final BigInteger v = array[i].setScale(maxScale).unscaledValue();
+			if ( v.bitLength() > 63 ) {
+				JsonUtils.writeDecimalArray(generator, array);
+				return;
+			}
+			final long l = v.longValue();
+			unscaled[i] = l;
+			if ( l < min ) {
+				min = l;
+			}
+			if ( l > max ) {
+				max = l;
+			}
+		}
+
+		final int tag;
+		final ByteBuffer buf;
+		if ( min >= Byte.MIN_VALUE && max <= Byte.MAX_VALUE ) {
+			tag = TAG_SINT8;
+			buf = ByteBuffer.allocate(unscaled.length);
+			for ( long l : unscaled ) {
+				buf.put((byte) l);
+			}
+		} else if ( min >= Short.MIN_VALUE && max <= Short.MAX_VALUE ) {
+			tag = TAG_SINT16_BE;
+			buf = ByteBuffer.allocate(unscaled.length * Short.BYTES);
+			for ( long l : unscaled ) {
+				buf.putShort((short) l);
+			}
+		} else if ( min >= Integer.MIN_VALUE && max <= Integer.MAX_VALUE ) {
+			tag = TAG_SINT32_BE;
+			buf = ByteBuffer.allocate(unscaled.length * Integer.BYTES);
+			for ( long l : unscaled ) {
+				buf.putInt((int) l);
+			}
+		} else {
+			tag = TAG_SINT64_BE;
+			buf = ByteBuffer.allocate(unscaled.length * Long.BYTES);
+			for ( long l : unscaled ) {
+				buf.putLong(l);
+			}
+		}
+
+		cbor.writeStartArray(array, 3);
+		cbor.writeNumber(-maxScale);
+		cbor.writeNumber(unscaled.length);
+		cbor.writeTag(tag);
+		cbor.writeBinary(buf.array());
+		cbor.writeEndArray();
+	}
+
+}
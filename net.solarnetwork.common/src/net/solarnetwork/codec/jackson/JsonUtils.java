@@ -91,7 +91,7 @@ import tools.jackson.databind.module.SimpleModule;
  * </ul>
  *
  * @author matt
- * @version 1.3
+ * @version 1.4
  * @since 4.13
  */
 public final class JsonUtils {
@@ -122,9 +122,18 @@ public final class JsonUtils {
 	/**
 	 * A module for handling datum objects.
 	 */
-	public static final JacksonModule DATUM_MODULE;
-	static {
-		SimpleModule m = new SimpleModule("SolarNetwork Datum");
+	public static final JacksonModule DATUM_MODULE = datumModule("SolarNetwork Datum");
+
+	/**
+	 * Create a new module for handling datum objects.
+	 *
+	 * @param name
+	 *        the module name
+	 * @return the new module
+	 * @since 1.4
+	 */
+	static SimpleModule datumModule(String name) {
+		SimpleModule m = new SimpleModule(name);
 		m.addSerializer(BasicGeneralDatumSerializer.INSTANCE);
 		m.addSerializer(BasicObjectDatumStreamMetadataSerializer.INSTANCE);
 		m.addSerializer(BasicStreamDatumArraySerializer.INSTANCE);
@@ -140,7 +149,7 @@ public final class JsonUtils {
 				BasicObjectDatumStreamMetadataIdDeserializer.INSTANCE);
 		m.addDeserializer(ObjectDatumStreamDataSet.class,
 				BasicObjectDatumStreamDataSetDeserializer.INSTANCE);
-		DATUM_MODULE = m;
+		return m;
 	}
 
 	/**
@@ -0,0 +1,319 @@
+/* ==================================================================
+ * StreamingObjectDatumStreamDataSet.java - 17/10/2026 9:34:50 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.codec.jackson;
+
+import static net.solarnetwork.codec.jackson.BasicObjectDatumStreamDataSetSerializer.DATA_FIELD_NAME;
+import static net.solarnetwork.codec.jackson.BasicObjectDatumStreamDataSetSerializer.META_FIELD_NAME;
+import static net.solarnetwork.codec.jackson.BasicObjectDatumStreamDataSetSerializer.RETURNED_RESULT_COUNT_FIELD_NAME;
+import static net.solarnetwork.codec.jackson.BasicObjectDatumStreamDataSetSerializer.STARTING_OFFSET_FIELD_NAME;
+import static net.solarnetwork.codec.jackson.BasicObjectDatumStreamDataSetSerializer.TOTAL_RESULT_COUNT_FIELD_NAME;
+import static net.solarnetwork.util.ObjectUtils.requireNonNullArgument;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import org.jspecify.annotations.Nullable;
+import net.solarnetwork.domain.datum.ObjectDatumStreamDataSet;
+import net.solarnetwork.domain.datum.ObjectDatumStreamMetadata;
+import net.solarnetwork.domain.datum.ObjectDatumStreamMetadataProvider;
+import net.solarnetwork.domain.datum.StreamDatum;
+import net.solarnetwork.util.CloseableIterator;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.core.ObjectReadContext;
+import tools.jackson.databind.DeserializationContext;
+import tools.jackson.databind.exc.MismatchedInputException;
+
+/**
+ * A {@link ObjectDatumStreamDataSet} that reads its datum lazily from a
+ * {@link JsonParser}.
+ *
+ * <p>
+ * The data set must be encoded in the form produced by
+ * {@link BasicObjectDatumStreamDataSetSerializer}, using JSON or CBOR. The
+ * result counts and stream metadata are read when the data set is opened. The
+ * datum are read one at a time from the parser as the iterator is advanced, so
+ * large data sets can be processed without holding all datum in memory.
+ * </p>
+ *
+ * <p>
+ * The data set can only be iterated once. The parser is closed when either
+ * the data set or its iterator is closed. Note that any result count or
+ * metadata properties that appear after the {@literal data} property are only
+ * available after all datum have been iterated over.
+ * </p>
+ *
+ * <pre>
+ * <code>
+ * try (JsonParser p = JsonUtils.JSON_OBJECT_MAPPER.createParser(in);
+ *     StreamingObjectDatumStreamDataSet dataSet = StreamingObjectDatumStreamDataSet.open(p);
+ *     CloseableIterator&lt;StreamDatum&gt; itr = dataSet.iterator()) {
+ *   while ( itr.hasNext() ) {
+ *     StreamDatum d = itr.next();
+ *     // do something with datum
+ *   }
+ * }
+ * </code>
+ * </pre>
+ *
+ * @author matt
+ * @version 1.0
+ * @since 4.37
+ */
+public final class StreamingObjectDatumStreamDataSet
+		implements ObjectDatumStreamDataSet<StreamDatum>, Closeable {
+
+	private final JsonParser parser;
+	private final DeserializationContext ctxt;
+	private final List<ObjectDatumStreamMetadata> metadatas;
+	private final ObjectDatumStreamMetadataProvider provider;
+	private @Nullable Integer returnedResultCount;
+	private @Nullable Integer startingOffset;
+	private @Nullable Long totalResultCount;
+
+	/** Flag if data remains to be read. */
+	private boolean dataAvailable;
+
+	/** Flag if the iterator has been requested. */
+	private boolean iterated;
+
+	private StreamingObjectDatumStreamDataSet(JsonParser parser, DeserializationContext ctxt) {
+		super();
+		this.parser = parser;
+		this.ctxt = ctxt;
+		this.metadatas = new ArrayList<>(4);
+		this.provider = ObjectDatumStreamMetadataProvider.staticProvider(metadatas);
+	}
+
+	/**
+	 * Open a streaming data set.
+	 *
+	 * <p>
+	 * The parser must have been created by an {@code ObjectMapper}, for example
+	 * {@link JsonUtils#JSON_OBJECT_MAPPER} or
+	 * {@link CborUtils#CBOR_OBJECT_MAPPER}.
+	 * </p>
+	 *
+	 * @param parser
+	 *        the parser to read from, positioned before or on the start of the
+	 *        data set object
+	 * @return the data set, or {@code null} if the parser contains a
+	 *         {@code null} value or no content
+	 * @throws IllegalArgumentException
+	 *         if {@code parser} is {@code null} or was not created by an
+	 *         {@code ObjectMapper}
+	 * @throws JacksonException
+	 *         if any parsing error occurs
+	 */
+	public static @Nullable StreamingObjectDatumStreamDataSet open(JsonParser parser)
+			throws JacksonException {
+		requireNonNullArgument(parser, "parser");
+		final ObjectReadContext readContext = parser.objectReadContext();
+		if ( !(readContext instanceof DeserializationContext ctxt) ) {
+			throw new IllegalArgumentException("The parser must be created by an ObjectMapper.");
+		}
+		return open(parser, ctxt);
+	}
+
+	/**
+	 * Open a streaming data set.
+	 *
+	 * @param parser
+	 *        the parser to read from, positioned before or on the start of the
+	 *        data set object
+	 * @param ctxt
+	 *        the deserialization context
+	 * @return the data set, or {@code null} if the parser contains a
+	 *         {@code null} value or no content
+	 * @throws IllegalArgumentException
+	 *         if any argument is {@code null}
+	 * @throws JacksonException
+	 *         if any parsing error occurs
+	 */
+	public static @Nullable StreamingObjectDatumStreamDataSet open(JsonParser parser,
+			DeserializationContext ctxt) throws JacksonException {
+		requireNonNullArgument(parser, "parser");
+		requireNonNullArgument(ctxt, "ctxt");
+		JsonToken t = parser.currentToken();
+		if ( t == null ) {
+			t = parser.nextToken();
+		}
+		if ( t == null || t == JsonToken.VALUE_NULL ) {
+			return null;
+		} else if ( t != JsonToken.START_OBJECT ) {
+			throw MismatchedInputException.from(parser,
+					"Unable to parse ObjectDatumStreamDataSet (not an object)");
+		}
+		StreamingObjectDatumStreamDataSet result = new StreamingObjectDatumStreamDataSet(parser,
+				ctxt);
+		result.readProperties();
+		return result;
+	}
+
+	/**
+	 * Read object properties until the start of the data array or the end of
+	 * the object.
+	 */
+	private void readProperties() throws JacksonException {
+		final JsonParser p = parser;
+		JsonToken t;
+		while ( (t = p.nextToken()) != null && t != JsonToken.END_OBJECT ) {
+			final String name = p.currentName();
+			if ( RETURNED_RESULT_COUNT_FIELD_NAME.toString().equals(name) ) {
+				p.nextToken();
+				returnedResultCount = p.getIntValue();
+			} else if ( STARTING_OFFSET_FIELD_NAME.toString().equals(name) ) {
+				p.nextToken();
+				startingOffset = p.getIntValue();
+			} else if ( TOTAL_RESULT_COUNT_FIELD_NAME.toString().equals(name) ) {
+				p.nextToken();
+				totalResultCount = p.getLongValue();
+			} else if ( META_FIELD_NAME.toString().equals(name) ) {
+				BasicObjectDatumStreamDataSetDeserializer.parseMetadata(p, ctxt, metadatas);
+			} else if ( DATA_FIELD_NAME.toString().equals(name) && !iterated ) {
+				if ( p.nextToken() == JsonToken.START_ARRAY ) {
+					dataAvailable = true;
+					return;
+				}
+			} else {
+				p.nextToken();
+				p.skipChildren();
+			}
+		}
+	}
+
+	/**
+	 * Get an iterator over the data set datum.
+	 *
+	 * <p>
+	 * The returned iterator reads each datum from the parser as it is
+	 * advanced. A {@link JacksonException} is thrown by the iterator if any
+	 * parsing error occurs.
+	 * </p>
+	 *
+	 * @return the iterator
+	 * @throws IllegalStateException
+	 *         if this method has already been called
+	 */
+	@Override
+	public CloseableIterator<StreamDatum> iterator() {
+		if ( iterated ) {
+			throw new IllegalStateException("The data set can only be iterated once.");
+		}
+		iterated = true;
+		return new DatumIterator();
+	}
+
+	private final class DatumIterator implements CloseableIterator<StreamDatum> {
+
+		private @Nullable StreamDatum next;
+
+		@Override
+		public boolean hasNext() {
+			if ( next != null ) {
+				return true;
+			}
+			if ( !dataAvailable ) {
+				return false;
+			}
+			if ( parser.nextToken() == JsonToken.START_ARRAY ) {
+				next = BasicObjectDatumStreamDataSetDeserializer.parseStreamDatum(parser,
+						metadatas);
+				return true;
+			}
+			// end of data array: read any remaining properties
+			dataAvailable = false;
+			readProperties();
+			return false;
+		}
+
+		@Override
+		public StreamDatum next() {
+			if ( !hasNext() ) {
+				throw new NoSuchElementException();
+			}
+			final StreamDatum result = next;
+			next = null;
+			return result;
+		}
+
+		@Override
+		public void close() {
+			StreamingObjectDatumStreamDataSet.this.close();
+		}
+
+	}
+
+	/**
+	 * Close the data set and the underlying parser.
+	 */
+	@Override
+	public void close() {
+		dataAvailable = false;
+		parser.close();
+	}
+
+	@Override
+	public Collection<UUID> metadataStreamIds() {
+		return provider.metadataStreamIds();
+	}
+
+	@Override
+	public @Nullable ObjectDatumStreamMetadata metadataForStreamId(UUID streamId) {
+		return provider.metadataForStreamId(streamId);
+	}
+
+	@Override
+	public @Nullable ObjectDatumStreamMetadata metadataForObjectSource(Long objectId, String sourceId) {
+		return provider.metadataForObjectSource(objectId, sourceId);
+	}
+
+	/**
+	 * Get the results.
+	 *
+	 * @return this instance
+	 */
+	@Override
+	public Iterable<StreamDatum> getResults() {
+		return this;
+	}
+
+	@Override
+	public @Nullable Long getTotalResultCount() {
+		return totalResultCount;
+	}
+
+	@Override
+	public @Nullable Integer getStartingOffset() {
+		return startingOffset;
+	}
+
+	@Override
+	public @Nullable Integer getReturnedResultCount() {
+		return returnedResultCount;
+	}
+
+}
@@ -0,0 +1,62 @@
+/* ==================================================================
+ * JdbcBulkCopyHandler.java - 18/10/2026 2:14:36 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.dao.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * API for a bulk "copy" fast path for {@link JdbcBulkLoadingContextSupport}.
+ *
+ * <p>
+ * A copy handler can load an entire batch of entities in a single database
+ * operation, for example with the PostgreSQL {@code COPY ... FROM STDIN}
+ * command via the driver's {@code CopyManager} API. The copy is assumed to be
+ * all-or-nothing: if an exception is thrown none of the given entities are
+ * considered loaded.
+ * </p>
+ *
+ * @param <T>
+ *        the entity type
+ * @author matt
+ * @version 1.0
+ * @since 4.37
+ */
+@FunctionalInterface
+public interface JdbcBulkCopyHandler<T> {
+
+	/**
+	 * Copy a batch of entities into the database.
+	 *
+	 * @param con
+	 *        the JDBC connection to use
+	 * @param entities
+	 *        the entities to copy, in load order
+	 * @return the number of rows copied
+	 * @throws SQLException
+	 *         if any SQL error occurs
+	 */
+	long copy(Connection con, List<T> entities) throws SQLException;
+
+}
@@ -27,9 +27,13 @@ import static net.solarnetwork.dao.BulkLoadingDao.LoadingTransactionMode.NoTrans
 import static net.solarnetwork.dao.BulkLoadingDao.LoadingTransactionMode.SingleTransaction;
 import static net.solarnetwork.dao.BulkLoadingDao.LoadingTransactionMode.TransactionCheckpoints;
 import static net.solarnetwork.util.ObjectUtils.requireNonNullArgument;
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
 import javax.sql.DataSource;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
@@ -55,10 +59,25 @@ import net.solarnetwork.dao.BulkLoadingDao.LoadingOptions;
  * into the backend database.
  * </p>
  *
+ * <p>
+ * By default each entity is executed individually. If a
+ * {@link #setJdbcBatchSize(int)} greater than {@literal 0} is configured, then
+ * entities that are loaded via {@link #executeLoadStatement(PreparedStatement)}
+ * are added to a JDBC batch instead, and the batch is executed when it
+ * reaches that size, or when {@link #commit()} or {@link #createCheckpoint()}
+ * is called. In {@code NoTransaction} mode {@link #close()} also executes any
+ * pending batch; in other modes it discards the batch, as does
+ * {@link #rollback()}, passing the discarded entities to
+ * {@link #entityFailed(Object)}. If a
+ * {@link #setCopyHandler(JdbcBulkCopyHandler)} is also configured, then
+ * {@code doLoad()} is not called and each batch is passed to the copy handler
+ * instead.
+ * </p>
+ *
  * @param <T>
  *        the entity type
  * @author matt
- * @version 1.1
+ * @version 1.2
  */
 public abstract class JdbcBulkLoadingContextSupport<T>
 		implements BulkLoadingDao.LoadingContext<T>, SqlProvider {
@@ -93,6 +112,10 @@ public abstract class JdbcBulkLoadingContextSupport<T>
 	private @Nullable TransactionStatus batchTransaction;
 	private @Nullable CountAwareCheckpoint transactionCheckpoint;
 	private @Nullable T lastLoadedEntity;
+	private int jdbcBatchSize;
+	private @Nullable JdbcBulkCopyHandler<T> copyHandler;
+	private final List<T> pendingBatch = new ArrayList<>(8);
+	private boolean entityBatched;
 
 	/**
 	 * Constructor.
@@ -221,17 +244,188 @@ public abstract class JdbcBulkLoadingContextSupport<T>
 					}
 				}
 			}
-			if ( doLoad(entity, getPreparedStatement(), numLoaded) ) {
+			final boolean loaded;
+			if ( jdbcBatchSize > 0 && copyHandler != null ) {
+				pendingBatch.add(entity);
+				loaded = true;
+			} else {
+				entityBatched = false;
+				final PreparedStatement ps = getPreparedStatement();
+				loaded = doLoad(entity, ps, numLoaded);
+				if ( loaded && entityBatched ) {
+					// only add to the batch once the entity has loaded successfully
+					ps.addBatch();
+					pendingBatch.add(entity);
+				}
+			}
+			if ( loaded ) {
 				numLoaded++;
 				if ( transaction == null ) {
 					numCommitted++;
 				}
+				entityLoaded(entity);
 			}
 		} catch ( Exception e ) {
 			if ( exceptionHandler != null ) {
 				exceptionHandler.handleLoadingException(e, this);
 			}
 		}
+		if ( jdbcBatchSize > 0 && pendingBatch.size() >= jdbcBatchSize ) {
+			flushBatch();
+		}
+	}
+
+	/**
+	 * Execute the load statement for the current entity.
+	 *
+	 * <p>
+	 * Extending classes should call this method from
+	 * {@link #doLoad(Object, PreparedStatement, long)} after setting the
+	 * statement parameters, rather than executing the statement directly. If
+	 * JDBC batching is enabled the statement is marked to be added to the
+	 * current batch, which happens only after {@code doLoad()} returns
+	 * {@literal true}, so an entity that fails to load never enters the batch.
+	 * Otherwise the statement is executed immediately.
+	 * </p>
+	 *
+	 * @param stmt
+	 *        the statement to execute
+	 * @throws SQLException
+	 *         if any SQL error occurs
+	 * @since 1.2
+	 */
+	protected void executeLoadStatement(PreparedStatement stmt) throws SQLException {
+		if ( jdbcBatchSize > 0 ) {
+			entityBatched = true;
+		} else {
+			stmt.execute();
+		}
+	}
+
+	/**
+	 * Callback after an entity has been loaded.
+	 *
+	 * <p>
+	 * When JDBC batching is enabled, this is called when the entity is added
+	 * to the batch. If the batch later fails for the entity,
+	 * {@link #entityFailed(Object)} will be called. This implementation does
+	 * nothing.
+	 * </p>
+	 *
+	 * @param entity
+	 *        the loaded entity
+	 * @since 1.2
+	 */
+	protected void entityLoaded(T entity) {
+		// extending classes can override
+	}
+
+	/**
+	 * Callback after a batched entity has failed to load.
+	 *
+	 * <p>
+	 * This implementation does nothing.
+	 * </p>
+	 *
+	 * @param entity
+	 *        the entity that failed to load
+	 * @since 1.2
+	 */
+	protected void entityFailed(T entity) {
+		// extending classes can override
+	}
+
+	/**
+	 * Execute any pending JDBC batch.
+	 *
+	 * <p>
+	 * Any failed entities are removed from the loaded count and passed to
+	 * {@link #entityFailed(Object)}, and then the configured exception handler
+	 * is invoked for each one, with {@link #getLastLoadedEntity()} set to the
+	 * failed entity. If a {@link BatchUpdateException} provides update counts
+	 * then only the entities marked as failed (or not processed) are treated
+	 * as failed, otherwise the entire batch is treated as failed and the
+	 * exception handler is invoked once, for the first entity in the batch.
+	 * </p>
+	 *
+	 * @since 1.2
+	 */
+	protected void flushBatch() {
+		if ( pendingBatch.isEmpty() ) {
+			return;
+		}
+		final List<T> batch = new ArrayList<>(pendingBatch);
+		pendingBatch.clear();
+		log.debug("Executing bulk load [{}] batch of {} @ row {}", options.getName(), batch.size(),
+				numLoaded);
+		try {
+			final JdbcBulkCopyHandler<T> copier = this.copyHandler;
+			if ( copier != null ) {
+				copier.copy(getConnection(), batch);
+			} else {
+				getPreparedStatement().executeBatch();
+			}
+		} catch ( BatchUpdateException e ) {
+			batchFailed(batch, e, e.getUpdateCounts());
+		} catch ( Exception e ) {
+			batchFailed(batch, e, null);
+		}
+	}
+
+	private void batchFailed(List<T> batch, Exception e, int @Nullable [] updateCounts) {
+		final List<T> failed;
+		if ( updateCounts != null && updateCounts.length > 0 ) {
+			failed = new ArrayList<>(batch.size());
+			for ( int i = 0, len = batch.size(); i < len; i++ ) {
+				if ( i >= updateCounts.length || updateCounts[i] == Statement.EXECUTE_FAILED ) {
+					failed.add(batch.get(i));
+				}
+			}
+		} else {
+			failed = batch;
+		}
+		log.debug("Bulk load [{}] batch failed for {} of {} rows: {}", options.getName(),
+				failed.size(), batch.size(), e.toString());
+		entitiesFailed(failed);
+		if ( failed.isEmpty() ) {
+			return;
+		}
+		final List<T> report = (failed == batch ? failed.subList(0, 1) : failed);
+		for ( T entity : report ) {
+			lastLoadedEntity = entity;
+			if ( exceptionHandler != null ) {
+				exceptionHandler.handleLoadingException(e, this);
+			}
+		}
+	}
+
+	private void entitiesFailed(List<T> failed) {
+		numLoaded -= failed.size();
+		if ( transaction == null ) {
+			numCommitted -= failed.size();
+		}
+		for ( T entity : failed ) {
+			entityFailed(entity);
+		}
+	}
+
+	/**
+	 * Discard any pending JDBC batch without executing it.
+	 *
+	 * <p>
+	 * The discarded entities are removed from the loaded count and passed to
+	 * {@link #entityFailed(Object)}.
+	 * </p>
+	 */
+	private void discardBatch() {
+		if ( pendingBatch.isEmpty() ) {
+			return;
+		}
+		final List<T> discarded = new ArrayList<>(pendingBatch);
+		clearBatch();
+		log.debug("Bulk load [{}] batch of {} discarded @ row {}", options.getName(),
+				discarded.size(), numLoaded);
+		entitiesFailed(discarded);
 	}
 
 	/**
@@ -239,7 +433,9 @@ public abstract class JdbcBulkLoadingContextSupport<T>
 	 *
 	 * <p>
 	 * Extending classes must implement this method to perform the actual saving
-	 * of the entity to JDBC.
+	 * of the entity to JDBC. To support JDBC batching, implementations should
+	 * set the statement parameters and then call
+	 * {@link #executeLoadStatement(PreparedStatement)}.
 	 * </p>
 	 *
 	 * @param entity
@@ -275,6 +471,7 @@ public abstract class JdbcBulkLoadingContextSupport<T>
 
 	@Override
 	public void createCheckpoint() {
+		flushBatch();
 		if ( options.getTransactionMode() == TransactionCheckpoints && transaction != null
 				&& !transaction.isCompleted() ) {
 			Object checkpoint = transaction.createSavepoint();
@@ -288,6 +485,7 @@ public abstract class JdbcBulkLoadingContextSupport<T>
 
 	@Override
 	public void commit() {
+		flushBatch();
 		if ( txManager != null && batchTransaction != null ) {
 			log.debug("Committing bulk load [{}] batch transaction @ row {}", options.getName(),
 					numLoaded);
@@ -306,6 +504,7 @@ public abstract class JdbcBulkLoadingContextSupport<T>
 
 	@Override
 	public void rollback() {
+		discardBatch();
 		if ( transactionCheckpoint != null && transaction != null ) {
 			transaction.rollbackToSavepoint(transactionCheckpoint.savepoint);
 			transaction.releaseSavepoint(transactionCheckpoint.savepoint);
@@ -322,8 +521,28 @@ public abstract class JdbcBulkLoadingContextSupport<T>
 		}
 	}
 
+	private void clearBatch() {
+		if ( pendingBatch.isEmpty() ) {
+			return;
+		}
+		pendingBatch.clear();
+		if ( stmt != null && copyHandler == null ) {
+			try {
+				stmt.clearBatch();
+			} catch ( SQLException e ) {
+				log.debug("Error clearing bulk loading batch: {}", e.toString());
+			}
+		}
+	}
+
 	@Override
 	public void close() {
+		if ( options.getTransactionMode() == NoTransaction ) {
+			// auto-commit rows are expected to be written as they are loaded
+			flushBatch();
+		} else {
+			discardBatch();
+		}
 		if ( stmt != null ) {
 			try {
 				if ( !stmt.isClosed() ) {
@@ -407,4 +626,60 @@ public abstract class JdbcBulkLoadingContextSupport<T>
 		return exceptionHandler;
 	}
 
+	/**
+	 * Get the JDBC batch size.
+	 *
+	 * @return the batch size, or {@literal 0} if JDBC batching is disabled
+	 * @since 1.2
+	 */
+	public int getJdbcBatchSize() {
+		return jdbcBatchSize;
+	}
+
+	/**
+	 * Set the JDBC batch size.
+	 *
+	 * <p>
+	 * This is independent of the {@link LoadingOptions#getBatchSize()}, which
+	 * controls transaction boundaries when using
+	 * {@link BulkLoadingDao.LoadingTransactionMode#BatchTransactions}. Any
+	 * pending JDBC batch is executed before each transaction is committed.
+	 * </p>
+	 *
+	 * @param jdbcBatchSize
+	 *        the number of entities to add to each JDBC batch, or
+	 *        {@literal 0} to execute each entity individually
+	 * @since 1.2
+	 */
+	public void setJdbcBatchSize(int jdbcBatchSize) {
+		this.jdbcBatchSize = Math.max(0, jdbcBatchSize);
+	}
+
+	/**
+	 * Get the bulk copy handler.
+	 *
+	 * @return the handler, or {@code null}
+	 * @since 1.2
+	 */
+	public @Nullable JdbcBulkCopyHandler<T> getCopyHandler() {
+		return copyHandler;
+	}
+
+	/**
+	 * Set a bulk copy handler.
+	 *
+	 * <p>
+	 * The handler is only used when {@link #setJdbcBatchSize(int)} is greater
+	 * than {@literal 0}, in which case each batch of entities is passed to the
+	 * handler instead of {@link #doLoad(Object, PreparedStatement, long)}.
+	 * </p>
+	 *
+	 * @param copyHandler
+	 *        the handler to set, or {@code null} to use JDBC statements
+	 * @since 1.2
+	 */
+	public void setCopyHandler(@Nullable JdbcBulkCopyHandler<T> copyHandler) {
+		this.copyHandler = copyHandler;
+	}
+
 }
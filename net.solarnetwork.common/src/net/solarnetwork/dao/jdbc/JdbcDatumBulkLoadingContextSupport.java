@@ -42,7 +42,7 @@ import net.solarnetwork.util.CountTracker;
  * @param <T>
  *        the entity type
  * @author matt
- * @version 1.0
+ * @version 1.1
  * @since 4.36
  */
 public abstract class JdbcDatumBulkLoadingContextSupport<T extends Datum>
@@ -78,19 +78,30 @@ public abstract class JdbcDatumBulkLoadingContextSupport<T extends Datum>
 
 	@Override
 	protected final boolean doLoad(T entity, PreparedStatement stmt, long index) throws SQLException {
-		boolean result = doLoadDatum(entity, stmt, index);
-		if ( result && entity.getSourceId() != null ) {
-			if ( loadedCountsBySource != null ) {
-				loadedCountsBySource.incrementCount(entity.getSourceId());
-			} else if ( countTrackerProvider != null ) {
-				loadedCountsBySource = countTrackerProvider.get();
-				loadedCountsBySource.putCount(entity.getSourceId(), 1L);
-				if ( transaction == null ) {
-					committedCountsBySource = loadedCountsBySource;
-				}
+		return doLoadDatum(entity, stmt, index);
+	}
+
+	@Override
+	protected void entityLoaded(T entity) {
+		if ( entity.getSourceId() == null ) {
+			return;
+		}
+		if ( loadedCountsBySource != null ) {
+			loadedCountsBySource.incrementCount(entity.getSourceId());
+		} else if ( countTrackerProvider != null ) {
+			loadedCountsBySource = countTrackerProvider.get();
+			loadedCountsBySource.putCount(entity.getSourceId(), 1L);
+			if ( transaction == null ) {
+				committedCountsBySource = loadedCountsBySource;
 			}
 		}
-		return result;
+	}
+
+	@Override
+	protected void entityFailed(T entity) {
+		if ( loadedCountsBySource != null && entity.getSourceId() != null ) {
+			loadedCountsBySource.addCount(entity.getSourceId(), -1L);
+		}
 	}
 
 	/**
@@ -136,6 +147,7 @@ public abstract class JdbcDatumBulkLoadingContextSupport<T extends Datum>
 
 	@Override
 	public void createCheckpoint() {
+		flushBatch();
 		if ( options.getTransactionMode() == TransactionCheckpoints && transaction != null
 				&& !transaction.isCompleted() ) {
 			if ( loadedCountsBySource != null ) {
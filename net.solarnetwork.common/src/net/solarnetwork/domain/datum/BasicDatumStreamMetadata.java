@@ -33,7 +33,7 @@ import org.jspecify.annotations.Nullable;
  * Implementation of {@link DatumStreamMetadata}.
  *
  * @author matt
- * @version 2.0
+ * @version 2.1
  * @since 1.72
  */
 public class BasicDatumStreamMetadata implements DatumStreamMetadata, Serializable {
@@ -55,6 +55,9 @@ public class BasicDatumStreamMetadata implements DatumStreamMetadata, Serializab
 	/** The status property names. */
 	private final String @Nullable [] statusProperties;
 
+	/** The cached stream layout. */
+	private transient volatile @Nullable DatumStreamLayout layout;
+
 	/**
 	 * Constructor.
 	 *
@@ -184,6 +187,39 @@ public class BasicDatumStreamMetadata implements DatumStreamMetadata, Serializab
 		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>
+	 * The layout is created on first use and then cached.
+	 * </p>
+	 *
+	 * @since 2.1
+	 */
+	@Override
+	public DatumStreamLayout streamLayout() {
+		DatumStreamLayout result = layout;
+		if ( result == null ) {
+			result = new DatumStreamLayout(this);
+			layout = result;
+		}
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>
+	 * This implementation uses the cached {@link #streamLayout()}.
+	 * </p>
+	 *
+	 * @since 2.1
+	 */
+	@Override
+	public int propertyIndex(DatumSamplesType type, String name) {
+		return streamLayout().propertyIndex(type, name);
+	}
+
 	/**
 	 * Get the instantaneous property names array length.
 	 *
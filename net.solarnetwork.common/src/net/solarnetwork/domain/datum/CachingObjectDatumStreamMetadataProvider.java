@@ -0,0 +1,659 @@
+/* ==================================================================
+ * CachingObjectDatumStreamMetadataProvider.java - 17/10/2026 7:04:18 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.domain.datum;
+
+import static net.solarnetwork.util.ObjectUtils.requireNonNullArgument;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.jspecify.annotations.Nullable;
+import net.solarnetwork.util.StatTracker;
+
+/**
+ * Caching {@link ObjectDatumStreamMetadataProvider} that delegates to another
+ * provider for metadata not already cached.
+ *
+ * <p>
+ * Cached metadata expires after {@link #getTimeToLive()}. Lookups that do not
+ * resolve any metadata are also cached, for {@link #getNegativeTimeToLive()},
+ * so that repeated lookups of unknown streams do not reach the delegate. At
+ * most {@link #getMaximumSize()} results are cached, after which the oldest
+ * cached results are evicted first.
+ * </p>
+ *
+ * <p>
+ * Object and source ID lookups are resolved by a primitive {@code long} keyed
+ * index of object IDs, each holding a map of source IDs, so no {@code Long} or
+ * composite key objects are created to find a cached value. The cache can be
+ * warmed with {@link #preload(Iterable)}. If a {@link StatTracker} is
+ * configured, the {@link Stats} counts are maintained on it.
+ * </p>
+ *
+ * <p>
+ * The {@link #metadataStreamIds()} method is not cached, and is passed
+ * directly to the delegate.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ * @since 4.37
+ */
+public class CachingObjectDatumStreamMetadataProvider implements ObjectDatumStreamMetadataProvider {
+
+	/** The {@code maximumSize} property default value. */
+	public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+
+	/** The {@code timeToLive} property default value. */
+	public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(10);
+
+	/** The {@code negativeTimeToLive} property default value. */
+	public static final Duration DEFAULT_NEGATIVE_TIME_TO_LIVE = Duration.ofMinutes(1);
+
+	/**
+	 * Cache statistics.
+	 */
+	public static enum Stats {
+
+		/** Lookups resolved from cached metadata. */
+		Hits,
+
+		/** Lookups resolved from a cached "not found" result. */
+		NegativeHits,
+
+		/** Lookups passed to the delegate provider. */
+		Misses,
+
+		/** Cached results removed to keep the cache within its maximum size. */
+		Evictions,
+
+		/** Cached results removed because they expired. */
+		Expirations,
+
+		/**
+		 * Results cached by
+		 * {@link CachingObjectDatumStreamMetadataProvider#preload(Iterable)}.
+		 */
+		Preloads,
+
+	}
+
+	private final ObjectDatumStreamMetadataProvider delegate;
+	private final Clock clock;
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final ObjectSourceIndex objectIndex = new ObjectSourceIndex();
+	private final Map<UUID, Entry> streamIndex = new HashMap<>(64);
+	private final ArrayDeque<Entry> insertionOrder = new ArrayDeque<>(64);
+	private int size;
+	private int maximumSize = DEFAULT_MAXIMUM_SIZE;
+	private long timeToLiveMs = DEFAULT_TIME_TO_LIVE.toMillis();
+	private long negativeTimeToLiveMs = DEFAULT_NEGATIVE_TIME_TO_LIVE.toMillis();
+	private volatile @Nullable StatTracker stats;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param delegate
+	 *        the provider to resolve metadata from
+	 * @throws IllegalArgumentException
+	 *         if {@code delegate} is {@code null}
+	 */
+	public CachingObjectDatumStreamMetadataProvider(ObjectDatumStreamMetadataProvider delegate) {
+		this(delegate, Clock.systemUTC());
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param delegate
+	 *        the provider to resolve metadata from
+	 * @param clock
+	 *        the clock to use for expiring cached results
+	 * @throws IllegalArgumentException
+	 *         if any argument is {@code null}
+	 */
+	public CachingObjectDatumStreamMetadataProvider(ObjectDatumStreamMetadataProvider delegate,
+			Clock clock) {
+		super();
+		this.delegate = requireNonNullArgument(delegate, "delegate");
+		this.clock = requireNonNullArgument(clock, "clock");
+	}
+
+	/**
+	 * A cached result.
+	 *
+	 * <p>
+	 * A result is indexed by object and source ID if {@code sourceId} is not
+	 * {@code null}, and by stream ID if {@code streamId} is not {@code null}.
+	 * </p>
+	 */
+	private static final class Entry {
+
+		private final @Nullable ObjectDatumStreamMetadata meta;
+		private final long objectId;
+		private final @Nullable String sourceId;
+		private final @Nullable UUID streamId;
+		private final long expires;
+		private boolean removed;
+
+		private Entry(@Nullable ObjectDatumStreamMetadata meta, long objectId,
+				@Nullable String sourceId, @Nullable UUID streamId, long expires) {
+			super();
+			this.meta = meta;
+			this.objectId = objectId;
+			this.sourceId = sourceId;
+			this.streamId = streamId;
+			this.expires = expires;
+		}
+
+	}
+
+	@Override
+	public Collection<UUID> metadataStreamIds() {
+		return delegate.metadataStreamIds();
+	}
+
+	@Override
+	public @Nullable ObjectDatumStreamMetadata metadataForStreamId(UUID streamId) {
+		if ( streamId == null ) {
+			return null;
+		}
+		final long now = clock.millis();
+		final Entry cached;
+		final Lock r = lock.readLock();
+		r.lock();
+		try {
+			cached = streamIndex.get(streamId);
+		} finally {
+			r.unlock();
+		}
+		if ( cached != null && cached.expires > now ) {
+			return hit(cached);
+		}
+		incrementStat(Stats.Misses, 1);
+		final ObjectDatumStreamMetadata meta = delegate.metadataForStreamId(streamId);
+		final Entry entry = (meta != null ? positiveEntry(meta, now)
+				: negativeTimeToLiveMs > 0
+						? new Entry(null, 0L, null, streamId, now + negativeTimeToLiveMs)
+						: null);
+		put(cached, entry);
+		return meta;
+	}
+
+	@Override
+	public @Nullable ObjectDatumStreamMetadata metadataForObjectSource(Long objectId,
+			String sourceId) {
+		if ( objectId == null || sourceId == null ) {
+			return null;
+		}
+		final long now = clock.millis();
+		final Entry cached;
+		final Lock r = lock.readLock();
+		r.lock();
+		try {
+			cached = objectIndex.get(objectId, sourceId);
+		} finally {
+			r.unlock();
+		}
+		if ( cached != null && cached.expires > now ) {
+			return hit(cached);
+		}
+		incrementStat(Stats.Misses, 1);
+		final ObjectDatumStreamMetadata meta = delegate.metadataForObjectSource(objectId, sourceId);
+		final Entry entry = (meta != null
+				? new Entry(meta, objectId, sourceId, meta.getStreamId(), now + timeToLiveMs)
+				: negativeTimeToLiveMs > 0
+						? new Entry(null, objectId, sourceId, null, now + negativeTimeToLiveMs)
+						: null);
+		put(cached, entry);
+		return meta;
+	}
+
+	/**
+	 * Preload the cache with a set of streams.
+	 *
+	 * <p>
+	 * Identities that are {@link ObjectDatumStreamMetadata} instances are
+	 * cached directly. Metadata for other identities is resolved by stream ID
+	 * from the delegate provider; if no metadata is found then a "not found"
+	 * result is cached for both the stream ID and the object and source ID of
+	 * the identity.
+	 * </p>
+	 *
+	 * @param identities
+	 *        the streams to preload
+	 * @return the number of metadata instances cached
+	 */
+	public int preload(Iterable<? extends ObjectDatumStreamIdentity> identities) {
+		if ( identities == null ) {
+			return 0;
+		}
+		final long now = clock.millis();
+		final List<Entry> entries = new ArrayList<>(32);
+		int count = 0;
+		for ( ObjectDatumStreamIdentity ident : identities ) {
+			if ( ident == null || ident.getStreamId() == null ) {
+				continue;
+			}
+			ObjectDatumStreamMetadata meta = (ident instanceof ObjectDatumStreamMetadata m ? m
+					: delegate.metadataForStreamId(ident.getStreamId()));
+			if ( meta != null ) {
+				entries.add(positiveEntry(meta, now));
+				count++;
+			} else if ( negativeTimeToLiveMs > 0 ) {
+				final long expires = now + negativeTimeToLiveMs;
+				entries.add(new Entry(null, 0L, null, ident.getStreamId(), expires));
+				if ( ident.getObjectId() != null && ident.getSourceId() != null ) {
+					entries.add(new Entry(null, ident.getObjectId(), ident.getSourceId(), null,
+							expires));
+				}
+			}
+		}
+		if ( entries.isEmpty() ) {
+			return 0;
+		}
+		final Lock w = lock.writeLock();
+		w.lock();
+		try {
+			for ( Entry e : entries ) {
+				add(e);
+			}
+		} finally {
+			w.unlock();
+		}
+		incrementStat(Stats.Preloads, entries.size());
+		return count;
+	}
+
+	/**
+	 * Remove all cached results.
+	 */
+	public void invalidateAll() {
+		final Lock w = lock.writeLock();
+		w.lock();
+		try {
+			objectIndex.clear();
+			streamIndex.clear();
+			insertionOrder.clear();
+			size = 0;
+		} finally {
+			w.unlock();
+		}
+	}
+
+	/**
+	 * Get the number of cached results.
+	 *
+	 * <p>
+	 * Both cached metadata and cached "not found" results are included in the
+	 * returned count, including results that have expired but not yet been
+	 * removed.
+	 * </p>
+	 *
+	 * @return the number of cached results
+	 */
+	public int getSize() {
+		final Lock r = lock.readLock();
+		r.lock();
+		try {
+			return size;
+		} finally {
+			r.unlock();
+		}
+	}
+
+	private @Nullable ObjectDatumStreamMetadata hit(Entry entry) {
+		incrementStat(entry.meta != null ? Stats.Hits : Stats.NegativeHits, 1);
+		return entry.meta;
+	}
+
+	private Entry positiveEntry(ObjectDatumStreamMetadata meta, long now) {
+		final Long objectId = meta.getObjectId();
+		final String sourceId = meta.getSourceId();
+		return new Entry(meta, objectId != null ? objectId : 0L,
+				objectId != null ? sourceId : null, meta.getStreamId(), now + timeToLiveMs);
+	}
+
+	private void put(@Nullable Entry expired, @Nullable Entry entry) {
+		if ( expired == null && entry == null ) {
+			return;
+		}
+		int expirations = 0;
+		final Lock w = lock.writeLock();
+		w.lock();
+		try {
+			if ( expired != null && !expired.removed ) {
+				remove(expired);
+				expirations++;
+			}
+			if ( entry != null ) {
+				add(entry);
+			}
+		} finally {
+			w.unlock();
+		}
+		if ( expirations > 0 ) {
+			incrementStat(Stats.Expirations, expirations);
+		}
+	}
+
+	/**
+	 * Add an entry, replacing any existing entries for the same keys.
+	 *
+	 * <p>
+	 * The write lock must be held when calling this method.
+	 * </p>
+	 */
+	private void add(Entry entry) {
+		if ( entry.sourceId != null ) {
+			Entry old = objectIndex.put(entry.objectId, entry.sourceId, entry);
+			if ( old != null ) {
+				remove(old);
+			}
+		}
+		if ( entry.streamId != null ) {
+			Entry old = streamIndex.put(entry.streamId, entry);
+			if ( old != null ) {
+				remove(old);
+			}
+		}
+		insertionOrder.add(entry);
+		size++;
+		int evictions = 0;
+		while ( size > maximumSize ) {
+			Entry oldest = insertionOrder.poll();
+			if ( oldest == null ) {
+				break;
+			}
+			if ( !oldest.removed ) {
+				remove(oldest);
+				evictions++;
+			}
+		}
+		if ( insertionOrder.size() > size * 2 + 64 ) {
+			// purge entries replaced before reaching the front of the queue
+			insertionOrder.removeIf(e -> e.removed);
+		}
+		if ( evictions > 0 ) {
+			incrementStat(Stats.Evictions, evictions);
+		}
+	}
+
+	/**
+	 * Remove an entry from all indexes it is still mapped in.
+	 *
+	 * <p>
+	 * The write lock must be held when calling this method.
+	 * </p>
+	 */
+	private void remove(Entry entry) {
+		if ( entry.removed ) {
+			return;
+		}
+		entry.removed = true;
+		size--;
+		if ( entry.sourceId != null ) {
+			objectIndex.remove(entry.objectId, entry.sourceId, entry);
+		}
+		if ( entry.streamId != null ) {
+			streamIndex.remove(entry.streamId, entry);
+		}
+	}
+
+	private void incrementStat(Stats stat, long amount) {
+		final StatTracker s = this.stats;
+		if ( s != null ) {
+			s.increment(stat, amount);
+		}
+	}
+
+	/**
+	 * An open-addressing hash table of object IDs to maps of source IDs to
+	 * cached entries.
+	 *
+	 * <p>
+	 * This class is not thread-safe.
+	 * </p>
+	 */
+	private static final class ObjectSourceIndex {
+
+		private static final int INITIAL_CAPACITY = 64;
+
+		private long[] keys = new long[INITIAL_CAPACITY];
+		private @Nullable Object[] values = new Object[INITIAL_CAPACITY];
+		private int size;
+
+		private static int slot(long key, int mask) {
+			final long h = key * 0x9E3779B97F4A7C15L;
+			return (int) (h ^ (h >>> 32)) & mask;
+		}
+
+		private int indexOf(long objectId) {
+			final int mask = keys.length - 1;
+			int i = slot(objectId, mask);
+			while ( values[i] != null ) {
+				if ( keys[i] == objectId ) {
+					return i;
+				}
+				i = (i + 1) & mask;
+			}
+			return -1;
+		}
+
+		@SuppressWarnings("unchecked")
+		private @Nullable Map<String, Entry> sources(long objectId) {
+			final int i = indexOf(objectId);
+			return (i < 0 ? null : (Map<String, Entry>) values[i]);
+		}
+
+		private @Nullable Entry get(long objectId, String sourceId) {
+			final Map<String, Entry> m = sources(objectId);
+			return (m != null ? m.get(sourceId) : null);
+		}
+
+		private @Nullable Entry put(long objectId, String sourceId, Entry entry) {
+			Map<String, Entry> m = sources(objectId);
+			if ( m == null ) {
+				m = new HashMap<>(4);
+				if ( (size + 1) * 4 > keys.length * 3 ) {
+					resize(keys.length * 2);
+				}
+				insert(objectId, m);
+				size++;
+			}
+			return m.put(sourceId, entry);
+		}
+
+		private void insert(long objectId, Object value) {
+			final int mask = keys.length - 1;
+			int i = slot(objectId, mask);
+			while ( values[i] != null ) {
+				i = (i + 1) & mask;
+			}
+			keys[i] = objectId;
+			values[i] = value;
+		}
+
+		private void resize(int capacity) {
+			final long[] oldKeys = keys;
+			final @Nullable Object[] oldValues = values;
+			keys = new long[capacity];
+			values = new Object[capacity];
+			for ( int i = 0; i < oldKeys.length; i++ ) {
+				final Object v = oldValues[i];
+				if ( v != null ) {
+					insert(oldKeys[i], v);
+				}
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private void remove(long objectId, String sourceId, Entry entry) {
+			final int i = indexOf(objectId);
+			if ( i < 0 ) {
+				return;
+			}
+			final Map<String, Entry> m = (Map<String, Entry>) values[i];
+			if ( m != null && m.remove(sourceId, entry) && m.isEmpty() ) {
+				deleteSlot(i);
+				size--;
+			}
+		}
+
+		/**
+		 * Delete a slot, shifting following entries in the same probe sequence
+		 * backwards so lookups do not need deletion markers.
+		 */
+		private void deleteSlot(int slot) {
+			final int mask = keys.length - 1;
+			int hole = slot;
+			values[hole] = null;
+			int i = hole;
+			while ( true ) {
+				i = (i + 1) & mask;
+				final Object v = values[i];
+				if ( v == null ) {
+					return;
+				}
+				final int home = slot(keys[i], mask);
+				// the entry can move into the hole unless its home slot lies
+				// cyclically within (hole, i]
+				final boolean homeBetween = (hole <= i ? (hole < home && home <= i)
+						: (hole < home || home <= i));
+				if ( !homeBetween ) {
+					keys[hole] = keys[i];
+					values[hole] = v;
+					values[i] = null;
+					hole = i;
+				}
+			}
+		}
+
+		private void clear() {
+			keys = new long[INITIAL_CAPACITY];
+			values = new Object[INITIAL_CAPACITY];
+			size = 0;
+		}
+
+	}
+
+	/**
+	 * Get the maximum number of results to cache.
+	 *
+	 * @return the maximum size; defaults to {@link #DEFAULT_MAXIMUM_SIZE}
+	 */
+	public final int getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * Set the maximum number of results to cache.
+	 *
+	 * <p>
+	 * Both cached metadata and cached "not found" results count towards this
+	 * limit.
+	 * </p>
+	 *
+	 * @param maximumSize
+	 *        the maximum size to set; anything less than {@literal 1} will be
+	 *        treated as {@literal 1}
+	 */
+	public final void setMaximumSize(int maximumSize) {
+		this.maximumSize = Math.max(1, maximumSize);
+	}
+
+	/**
+	 * Get the amount of time to cache metadata.
+	 *
+	 * @return the time to live; defaults to {@link #DEFAULT_TIME_TO_LIVE}
+	 */
+	public final Duration getTimeToLive() {
+		return Duration.ofMillis(timeToLiveMs);
+	}
+
+	/**
+	 * Set the amount of time to cache metadata.
+	 *
+	 * @param timeToLive
+	 *        the time to live to set; if {@code null} then
+	 *        {@link #DEFAULT_TIME_TO_LIVE} will be used
+	 */
+	public final void setTimeToLive(@Nullable Duration timeToLive) {
+		this.timeToLiveMs = (timeToLive != null ? timeToLive : DEFAULT_TIME_TO_LIVE).toMillis();
+	}
+
+	/**
+	 * Get the amount of time to cache "not found" results.
+	 *
+	 * @return the negative time to live; defaults to
+	 *         {@link #DEFAULT_NEGATIVE_TIME_TO_LIVE}
+	 */
+	public final Duration getNegativeTimeToLive() {
+		return Duration.ofMillis(negativeTimeToLiveMs);
+	}
+
+	/**
+	 * Set the amount of time to cache "not found" results.
+	 *
+	 * @param negativeTimeToLive
+	 *        the negative time to live to set; if {@code null} then
+	 *        {@link #DEFAULT_NEGATIVE_TIME_TO_LIVE} will be used; a zero
+	 *        duration disables caching "not found" results
+	 */
+	public final void setNegativeTimeToLive(@Nullable Duration negativeTimeToLive) {
+		this.negativeTimeToLiveMs = (negativeTimeToLive != null ? negativeTimeToLive
+				: DEFAULT_NEGATIVE_TIME_TO_LIVE).toMillis();
+	}
+
+	/**
+	 * Get the statistics to track cache activity in.
+	 *
+	 * @return the statistics, or {@code null}
+	 */
+	public final @Nullable StatTracker getStats() {
+		return stats;
+	}
+
+	/**
+	 * Set the statistics to track cache activity in.
+	 *
+	 * <p>
+	 * The {@link Stats} values are maintained as counts.
+	 * </p>
+	 *
+	 * @param stats
+	 *        the statistics to set
+	 */
+	public final void setStats(@Nullable StatTracker stats) {
+		this.stats = stats;
+	}
+
+}
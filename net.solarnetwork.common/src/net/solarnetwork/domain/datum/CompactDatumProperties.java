@@ -0,0 +1,263 @@
+/* ==================================================================
+ * CompactDatumProperties.java - 16/10/2026 11:05:12 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.domain.datum;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A {@link DatumProperties} that stores numeric values in a compact primitive
+ * form.
+ *
+ * <p>
+ * The instantaneous and accumulating values are stored as {@code long} unscaled
+ * values with {@code byte} scales, rather than {@link BigDecimal} instances.
+ * {@link BigDecimal} instances are created only when the values are accessed,
+ * for example via {@link #getInstantaneous()} or
+ * {@link #instantaneousValue(int)}. Decoded values are equal to the values
+ * originally set, including their scale.
+ * </p>
+ *
+ * <p>
+ * If any value of an array has an unscaled value that does not fit in a
+ * {@code long} or a scale that does not fit in a {@code byte}, the array is
+ * stored as given instead.
+ * </p>
+ *
+ * <p>
+ * <b>Note</b> that because {@link #getInstantaneous()} and
+ * {@link #getAccumulating()} return a new array each time they are called,
+ * changes made to the returned arrays are not reflected in this instance. Use
+ * the {@link #setInstantaneous(BigDecimal[])} and
+ * {@link #setAccumulating(BigDecimal[])} methods to change the values.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ * @since 4.37
+ */
+public class CompactDatumProperties extends DatumProperties {
+
+	private static final long serialVersionUID = 4096470207396045626L;
+
+	/** The instantaneous values. */
+	private @Nullable DecimalValues instantaneousValues;
+
+	/** The accumulating values. */
+	private @Nullable DecimalValues accumulatingValues;
+
+	/**
+	 * Constructor.
+	 */
+	public CompactDatumProperties() {
+		super();
+	}
+
+	/**
+	 * Copy constructor.
+	 *
+	 * @param properties
+	 *        the properties to copy; if {@code null} then an empty instance
+	 *        will be created
+	 */
+	public CompactDatumProperties(@Nullable DatumProperties properties) {
+		super();
+		if ( properties != null ) {
+			setInstantaneous(properties.getInstantaneous());
+			setAccumulating(properties.getAccumulating());
+			setStatus(properties.getStatus());
+			setTags(properties.getTags());
+		}
+	}
+
+	/**
+	 * Get a compact copy of a datum properties instance.
+	 *
+	 * @param properties
+	 *        the properties to copy
+	 * @return the compact properties, or {@code properties} itself if it is
+	 *         already a {@code CompactDatumProperties} or {@code null}
+	 */
+	public static @Nullable CompactDatumProperties compactProperties(
+			@Nullable DatumProperties properties) {
+		if ( properties == null ) {
+			return null;
+		}
+		if ( properties instanceof CompactDatumProperties c ) {
+			return c;
+		}
+		return new CompactDatumProperties(properties);
+	}
+
+	@Override
+	public int getInstantaneousLength() {
+		final DecimalValues values = instantaneousValues;
+		return (values != null ? values.length() : 0);
+	}
+
+	@Override
+	public @Nullable BigDecimal @Nullable [] getInstantaneous() {
+		final DecimalValues values = instantaneousValues;
+		return (values != null ? values.toArray() : null);
+	}
+
+	@Override
+	public void setInstantaneous(@Nullable BigDecimal @Nullable [] values) {
+		this.instantaneousValues = DecimalValues.valueOf(values);
+	}
+
+	@Override
+	public @Nullable BigDecimal instantaneousValue(int index) {
+		final DecimalValues values = instantaneousValues;
+		return (values != null ? values.value(index) : null);
+	}
+
+	@Override
+	public int getAccumulatingLength() {
+		final DecimalValues values = accumulatingValues;
+		return (values != null ? values.length() : 0);
+	}
+
+	@Override
+	public @Nullable BigDecimal @Nullable [] getAccumulating() {
+		final DecimalValues values = accumulatingValues;
+		return (values != null ? values.toArray() : null);
+	}
+
+	@Override
+	public void setAccumulating(@Nullable BigDecimal @Nullable [] values) {
+		this.accumulatingValues = DecimalValues.valueOf(values);
+	}
+
+	@Override
+	public @Nullable BigDecimal accumulatingValue(int index) {
+		final DecimalValues values = accumulatingValues;
+		return (values != null ? values.value(index) : null);
+	}
+
+	/**
+	 * Test if the instantaneous and accumulating values are all stored in the
+	 * compact primitive form.
+	 *
+	 * @return {@code true} if no values had to be stored as
+	 *         {@link BigDecimal} instances
+	 */
+	public boolean isFullyCompact() {
+		final DecimalValues i = instantaneousValues;
+		final DecimalValues a = accumulatingValues;
+		return (i == null || i.decimals == null) && (a == null || a.decimals == null);
+	}
+
+	/**
+	 * An array of decimal values.
+	 *
+	 * <p>
+	 * Either {@code unscaled} and {@code scales} are provided, or
+	 * {@code decimals} is.
+	 * </p>
+	 */
+	private static final class DecimalValues implements Serializable {
+
+		private static final long serialVersionUID = -5395766929373524049L;
+
+		/** The scale used to represent a {@code null} value. */
+		private static final byte NULL_SCALE = Byte.MIN_VALUE;
+
+		private final long @Nullable [] unscaled;
+		private final byte @Nullable [] scales;
+		private final @Nullable BigDecimal @Nullable [] decimals;
+
+		private DecimalValues(long @Nullable [] unscaled, byte @Nullable [] scales,
+				@Nullable BigDecimal @Nullable [] decimals) {
+			super();
+			this.unscaled = unscaled;
+			this.scales = scales;
+			this.decimals = decimals;
+		}
+
+		private static @Nullable DecimalValues valueOf(@Nullable BigDecimal @Nullable [] values) {
+			if ( values == null ) {
+				return null;
+			}
+			final int len = values.length;
+			final long[] unscaled = new long[len];
+			final byte[] scales = new byte[len];
+			for ( int i = 0; i < len; i++ ) {
+				final BigDecimal d = values[i];
+				if ( d == null ) {
+					scales[i] = NULL_SCALE;
+					continue;
+				}
+				final int scale = d.scale();
+				if ( scale <= NULL_SCALE || scale > Byte.MAX_VALUE ) {
+					return new DecimalValues(null, null, values.clone());
+				}
+				final BigInteger u = d.unscaledValue();
+				if ( u.bitLength() > 63 ) {
+					return new DecimalValues(null, null, values.clone());
+				}
+				unscaled[i] = u.longValue();
+				scales[i] = (byte) scale;
+			}
+			return new DecimalValues(unscaled, scales, null);
+		}
+
+		private int length() {
+			final BigDecimal[] d = decimals;
+			if ( d != null ) {
+				return d.length;
+			}
+			final byte[] s = scales;
+			return (s != null ? s.length : 0);
+		}
+
+		@SuppressWarnings("NullAway")
+		private @Nullable BigDecimal value(int index) {
+			final BigDecimal[] d = decimals;
+			if ( d != null ) {
+				return (index < d.length ? d[index] : null);
+			}
+			if ( index >= scales.length || scales[index] == NULL_SCALE ) {
+				return null;
+			}
+			return BigDecimal.valueOf(unscaled[index], scales[index]);
+		}
+
+		private @Nullable BigDecimal[] toArray() {
+			final BigDecimal[] d = decimals;
+			if ( d != null ) {
+				return d.clone();
+			}
+			final int len = length();
+			final BigDecimal[] result = new BigDecimal[len];
+			for ( int i = 0; i < len; i++ ) {
+				result[i] = value(i);
+			}
+			return result;
+		}
+
+	}
+
+}
@@ -25,9 +25,6 @@ package net.solarnetwork.domain.datum;
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
 import org.jspecify.annotations.Nullable;
 
 /**
@@ -40,8 +37,13 @@ import org.jspecify.annotations.Nullable;
  * instances.
  * </p>
  *
+ * <p>
+ * Extending classes may store the values in a different form by overriding the
+ * property accessor methods, for example {@link CompactDatumProperties}.
+ * </p>
+ *
  * @author matt
- * @version 1.4
+ * @version 1.5
  * @since 1.72
  */
 public class DatumProperties implements Serializable {
@@ -110,6 +112,11 @@ public class DatumProperties implements Serializable {
 	 * instantaneous, accumulating, and status data arrays.
 	 * </p>
 	 *
+	 * <p>
+	 * The properties are mapped using the {@link DatumStreamLayout} provided
+	 * by {@link DatumStreamMetadata#streamLayout()}.
+	 * </p>
+	 *
 	 * @param datum
 	 *        the datum to create properties from
 	 * @param meta
@@ -130,104 +137,17 @@ public class DatumProperties implements Serializable {
 		if ( ops == null ) {
 			return null;
 		}
-		BigDecimal[] data_i = decimalPropertiesFrom(meta, ops, DatumSamplesType.Instantaneous);
-		BigDecimal[] data_a = decimalPropertiesFrom(meta, ops, DatumSamplesType.Accumulating);
-		String[] data_s = stringPropertiesFrom(meta, ops, DatumSamplesType.Status);
-		Set<String> tags = ops.getTags();
-		String[] data_t = (tags != null && !tags.isEmpty() ? tags.toArray(new String[tags.size()])
-				: null);
-		return DatumProperties.propertiesOf(data_i, data_a, data_s, data_t);
-	}
-
-	@SuppressWarnings({ "null", "NullAway" })
-	private static BigDecimal @Nullable [] decimalPropertiesFrom(ObjectDatumStreamMetadata meta,
-			DatumSamplesOperations ops, DatumSamplesType type) {
-		String[] propNames = meta.propertyNamesForType(type);
-		int len = (propNames != null ? propNames.length : 0);
-		BigDecimal[] data = null;
-		Map<String, ?> map = ops.getSampleData(type);
-		if ( len < 1 ) {
-			if ( map != null && !map.isEmpty() ) {
-				// unknown property; cannot map to stream
-				throw new IllegalArgumentException(
-						"Datum stream unknown " + type + " properties encountered: " + map.keySet());
-			}
-		} else if ( map != null && !map.isEmpty() ) {
-			Set<String> props = new HashSet<>(map.keySet());
-			data = new BigDecimal[propNames.length];
-			int nonNullLength = 0;
-			for ( int i = 0; i < len; i++ ) {
-				BigDecimal n = ops.getSampleBigDecimal(type, propNames[i]);
-				if ( n != null ) {
-					data[i] = n;
-					nonNullLength = i + 1;
-				}
-				props.remove(propNames[i]);
-			}
-			if ( !props.isEmpty() ) {
-				// unknown property; cannot map to stream
-				throw new IllegalArgumentException(
-						"Datum stream unknown " + type + " properties encountered: " + props);
-			}
-			if ( nonNullLength < len ) {
-				// optimization: trim trailing null values into shorter array
-				BigDecimal[] trimmedData = new BigDecimal[nonNullLength];
-				System.arraycopy(data, 0, trimmedData, 0, nonNullLength);
-				data = trimmedData;
-			}
-		}
-		return data;
-	}
-
-	@SuppressWarnings({ "null", "NullAway" })
-	private static String @Nullable [] stringPropertiesFrom(ObjectDatumStreamMetadata meta,
-			DatumSamplesOperations ops, DatumSamplesType type) {
-		String[] propNames = meta.propertyNamesForType(type);
-		int len = (propNames != null ? propNames.length : 0);
-		String[] data = null;
-		Map<String, ?> map = ops.getSampleData(type);
-		if ( len < 1 ) {
-			if ( map != null && !map.isEmpty() ) {
-				// unknown property; cannot map to stream
-				throw new IllegalArgumentException(
-						"Datum stream unknown " + type + " properties encountered: " + map.keySet());
-			}
-		} else if ( map != null && !map.isEmpty() ) {
-			Set<String> props = new HashSet<>(map.keySet());
-			data = new String[propNames.length];
-			int nonNullLength = 0;
-			for ( int i = 0; i < len; i++ ) {
-				String s = ops.getSampleString(type, propNames[i]);
-				if ( s != null ) {
-					data[i] = s;
-					nonNullLength = i + 1;
-				}
-				props.remove(propNames[i]);
-			}
-			if ( !props.isEmpty() ) {
-				// unknown property; cannot map to stream
-				throw new IllegalArgumentException(
-						"Datum stream unknown " + type + " properties encountered: " + props);
-			}
-			if ( nonNullLength < len ) {
-				// optimization: trim trailing null values into shorter array
-				String[] trimmedData = new String[nonNullLength];
-				System.arraycopy(data, 0, trimmedData, 0, nonNullLength);
-				data = trimmedData;
-			}
-		}
-
-		return data;
+		return meta.streamLayout().propertiesFrom(ops);
 	}
 
 	@Override
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
-		result = prime * result + Arrays.hashCode(accumulating);
-		result = prime * result + Arrays.hashCode(instantaneous);
-		result = prime * result + Arrays.hashCode(status);
-		result = prime * result + Arrays.hashCode(tags);
+		result = prime * result + Arrays.hashCode(getAccumulating());
+		result = prime * result + Arrays.hashCode(getInstantaneous());
+		result = prime * result + Arrays.hashCode(getStatus());
+		result = prime * result + Arrays.hashCode(getTags());
 		return result;
 	}
 
@@ -239,13 +159,18 @@ public class DatumProperties implements Serializable {
 		if ( !(obj instanceof DatumProperties other) ) {
 			return false;
 		}
-		return Arrays.equals(accumulating, other.accumulating)
-				&& Arrays.equals(instantaneous, other.instantaneous)
-				&& Arrays.equals(status, other.status) && Arrays.equals(tags, other.tags);
+		return Arrays.equals(getAccumulating(), other.getAccumulating())
+				&& Arrays.equals(getInstantaneous(), other.getInstantaneous())
+				&& Arrays.equals(getStatus(), other.getStatus())
+				&& Arrays.equals(getTags(), other.getTags());
 	}
 
 	@Override
 	public String toString() {
+		final var instantaneous = getInstantaneous();
+		final var accumulating = getAccumulating();
+		final var status = getStatus();
+		final var tags = getTags();
 		StringBuilder builder = new StringBuilder();
 		builder.append("DatumProperties{");
 		if ( instantaneous != null ) {
@@ -0,0 +1,295 @@
+/* ==================================================================
+ * DatumSamplesSchema.java - 17/10/2026 11:05:12 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.domain.datum;
+
+import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An immutable, shared set of datum sample property names.
+ *
+ * <p>
+ * A schema defines the instantaneous, accumulating, and status property names
+ * that {@link SchemaDatumSamples} stores in flat arrays. Schemas are interned,
+ * so all datum with the same property names share a single schema instance.
+ * Use one of the {@code schema()} factory methods to obtain an instance.
+ * </p>
+ *
+ * <p>
+ * Interned schemas are weakly held, and are released once no datum refers to
+ * them any longer.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ * @since 4.37
+ */
+public final class DatumSamplesSchema implements Serializable {
+
+	private static final long serialVersionUID = -2254624930317014372L;
+
+	private static final String[] NO_NAMES = new String[0];
+
+	/** The interned schemas. */
+	private static final Map<DatumSamplesSchema, WeakReference<DatumSamplesSchema>> INTERNED = new WeakHashMap<>(
+			32);
+
+	private final String[] instantaneous;
+	private final String[] accumulating;
+	private final String[] status;
+	private final int hashCode;
+	private final transient Map<String, Integer> instantaneousIndexes;
+	private final transient Map<String, Integer> accumulatingIndexes;
+	private final transient Map<String, Integer> statusIndexes;
+
+	private DatumSamplesSchema(String @Nullable [] instantaneous, String @Nullable [] accumulating,
+			String @Nullable [] status) {
+		super();
+		this.instantaneous = names(instantaneous);
+		this.accumulating = names(accumulating);
+		this.status = names(status);
+		this.hashCode = 31 * (31 * Arrays.hashCode(this.instantaneous)
+				+ Arrays.hashCode(this.accumulating)) + Arrays.hashCode(this.status);
+		this.instantaneousIndexes = indexes(this.instantaneous);
+		this.accumulatingIndexes = indexes(this.accumulating);
+		this.statusIndexes = indexes(this.status);
+	}
+
+	private static String[] names(String @Nullable [] names) {
+		if ( names == null || names.length < 1 ) {
+			return NO_NAMES;
+		}
+		for ( String name : names ) {
+			if ( name == null ) {
+				throw new IllegalArgumentException("Schema property names must not be null.");
+			}
+		}
+		return names.clone();
+	}
+
+	private static Map<String, Integer> indexes(String[] names) {
+		if ( names.length < 1 ) {
+			return Collections.emptyMap();
+		}
+		final Map<String, Integer> result = new HashMap<>((int) Math.ceil(names.length / 0.75));
+		for ( int i = 0, len = names.length; i < len; i++ ) {
+			result.putIfAbsent(names[i], i);
+		}
+		return result;
+	}
+
+	private static DatumSamplesSchema intern(DatumSamplesSchema candidate) {
+		synchronized ( INTERNED ) {
+			final WeakReference<DatumSamplesSchema> ref = INTERNED.get(candidate);
+			final DatumSamplesSchema existing = (ref != null ? ref.get() : null);
+			if ( existing != null ) {
+				return existing;
+			}
+			INTERNED.put(candidate, new WeakReference<>(candidate));
+			return candidate;
+		}
+	}
+
+	/**
+	 * Get a schema for a set of property names.
+	 *
+	 * @param instantaneous
+	 *        the instantaneous property names
+	 * @param accumulating
+	 *        the accumulating property names
+	 * @param status
+	 *        the status property names
+	 * @return the shared schema instance, never {@code null}
+	 * @throws IllegalArgumentException
+	 *         if any property name is {@code null}
+	 */
+	public static DatumSamplesSchema schema(String @Nullable [] instantaneous,
+			String @Nullable [] accumulating, String @Nullable [] status) {
+		return intern(new DatumSamplesSchema(instantaneous, accumulating, status));
+	}
+
+	/**
+	 * Get a schema for the property names of a datum stream.
+	 *
+	 * @param meta
+	 *        the metadata to get the property names from
+	 * @return the shared schema instance, never {@code null}
+	 * @throws IllegalArgumentException
+	 *         if {@code meta} is {@code null}
+	 */
+	public static DatumSamplesSchema schema(DatumStreamMetadata meta) {
+		if ( meta == null ) {
+			throw new IllegalArgumentException("The meta argument must not be null.");
+		}
+		return schema(meta.propertyNamesForType(DatumSamplesType.Instantaneous),
+				meta.propertyNamesForType(DatumSamplesType.Accumulating),
+				meta.propertyNamesForType(DatumSamplesType.Status));
+	}
+
+	/**
+	 * Get a schema for the property names present in a set of samples.
+	 *
+	 * @param samples
+	 *        the samples to get the property names from
+	 * @return the shared schema instance, never {@code null}
+	 * @throws IllegalArgumentException
+	 *         if {@code samples} is {@code null}
+	 */
+	public static DatumSamplesSchema schema(DatumSamplesOperations samples) {
+		if ( samples == null ) {
+			throw new IllegalArgumentException("The samples argument must not be null.");
+		}
+		return schema(sampleNames(samples, DatumSamplesType.Instantaneous),
+				sampleNames(samples, DatumSamplesType.Accumulating),
+				sampleNames(samples, DatumSamplesType.Status));
+	}
+
+	private static String @Nullable [] sampleNames(DatumSamplesOperations samples,
+			DatumSamplesType type) {
+		final Map<String, ?> data = samples.getSampleData(type);
+		return (data != null ? data.keySet().toArray(String[]::new) : null);
+	}
+
+	private String[] namesForType(@Nullable DatumSamplesType type) {
+		if ( type == null ) {
+			return NO_NAMES;
+		}
+		return switch (type) {
+			case Instantaneous -> instantaneous;
+			case Accumulating -> accumulating;
+			case Status -> status;
+			default -> NO_NAMES;
+		};
+	}
+
+	/**
+	 * Get the property names of a specific type.
+	 *
+	 * @param type
+	 *        the type of property to get the names for
+	 * @return the property names, never {@code null}
+	 */
+	public String[] propertyNamesForType(@Nullable DatumSamplesType type) {
+		final String[] names = namesForType(type);
+		return (names.length > 0 ? names.clone() : names);
+	}
+
+	/**
+	 * Get the number of properties of a specific type.
+	 *
+	 * @param type
+	 *        the type of property to get the count for
+	 * @return the number of properties
+	 */
+	public int propertyCount(@Nullable DatumSamplesType type) {
+		return namesForType(type).length;
+	}
+
+	/**
+	 * Get the name of a property at a specific index.
+	 *
+	 * @param type
+	 *        the type of property to get the name for
+	 * @param index
+	 *        the property index
+	 * @return the name
+	 * @throws ArrayIndexOutOfBoundsException
+	 *         if {@code index} is out of range
+	 */
+	String propertyName(@Nullable DatumSamplesType type, int index) {
+		return namesForType(type)[index];
+	}
+
+	/**
+	 * Get the index of a specific property name.
+	 *
+	 * @param type
+	 *        the type of property to get the index for
+	 * @param name
+	 *        the property name to look for
+	 * @return the index, or {@literal -1} if not available
+	 */
+	public int propertyIndex(@Nullable DatumSamplesType type, @Nullable Object name) {
+		if ( type == null || name == null ) {
+			return -1;
+		}
+		final Map<String, Integer> indexes = switch (type) {
+			case Instantaneous -> instantaneousIndexes;
+			case Accumulating -> accumulatingIndexes;
+			case Status -> statusIndexes;
+			default -> null;
+		};
+		if ( indexes == null ) {
+			return -1;
+		}
+		final Integer idx = indexes.get(name);
+		return (idx != null ? idx.intValue() : -1);
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+	@Override
+	public boolean equals(@Nullable Object obj) {
+		if ( this == obj ) {
+			return true;
+		}
+		if ( !(obj instanceof DatumSamplesSchema other) ) {
+			return false;
+		}
+		return hashCode == other.hashCode && Arrays.equals(instantaneous, other.instantaneous)
+				&& Arrays.equals(accumulating, other.accumulating)
+				&& Arrays.equals(status, other.status);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("DatumSamplesSchema{i=");
+		builder.append(Arrays.toString(instantaneous));
+		builder.append(", a=");
+		builder.append(Arrays.toString(accumulating));
+		builder.append(", s=");
+		builder.append(Arrays.toString(status));
+		builder.append("}");
+		return builder.toString();
+	}
+
+	/**
+	 * Resolve a deserialized instance to the shared schema instance.
+	 *
+	 * @return the shared schema instance
+	 */
+	private Object readResolve() {
+		return schema(instantaneous, accumulating, status);
+	}
+
+}
@@ -0,0 +1,336 @@
+/* ==================================================================
+ * DatumStreamLayout.java - 17/10/2026 8:12:03 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.domain.datum;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The property layout of a datum stream, derived from
+ * {@link DatumStreamMetadata}.
+ *
+ * <p>
+ * This class holds a property name to index table for each of the
+ * instantaneous, accumulating, and status property types, so property indexes
+ * can be found without searching the property name arrays. It also maps
+ * {@link DatumSamplesOperations} into {@link DatumProperties} and back.
+ * </p>
+ *
+ * <p>
+ * Instances are immutable. The layout reflects the metadata property names at
+ * the time it was created. Use {@link DatumStreamMetadata#streamLayout()} to
+ * get a (possibly cached) layout for a stream.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ * @since 4.37
+ */
+public final class DatumStreamLayout {
+
+	private final String @Nullable [] instantaneousNames;
+	private final String @Nullable [] accumulatingNames;
+	private final String @Nullable [] statusNames;
+	private final Map<String, Integer> instantaneousIndexes;
+	private final Map<String, Integer> accumulatingIndexes;
+	private final Map<String, Integer> statusIndexes;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param meta
+	 *        the metadata to derive the layout from
+	 * @throws IllegalArgumentException
+	 *         if {@code meta} is {@code null}
+	 */
+	public DatumStreamLayout(DatumStreamMetadata meta) {
+		super();
+		if ( meta == null ) {
+			throw new IllegalArgumentException("The meta argument must not be null.");
+		}
+		this.instantaneousNames = names(meta, DatumSamplesType.Instantaneous);
+		this.accumulatingNames = names(meta, DatumSamplesType.Accumulating);
+		this.statusNames = names(meta, DatumSamplesType.Status);
+		this.instantaneousIndexes = indexes(instantaneousNames);
+		this.accumulatingIndexes = indexes(accumulatingNames);
+		this.statusIndexes = indexes(statusNames);
+	}
+
+	private static String @Nullable [] names(DatumStreamMetadata meta, DatumSamplesType type) {
+		final String[] names = meta.propertyNamesForType(type);
+		return (names != null && names.length > 0 ? names.clone() : null);
+	}
+
+	private static Map<String, Integer> indexes(String @Nullable [] names) {
+		if ( names == null ) {
+			return Collections.emptyMap();
+		}
+		final Map<String, Integer> result = new HashMap<>((int) Math.ceil(names.length / 0.75));
+		for ( int i = 0, len = names.length; i < len; i++ ) {
+			// keep the first index of any duplicate name, like a linear search would
+			result.putIfAbsent(names[i], i);
+		}
+		return result;
+	}
+
+	private @Nullable Map<String, Integer> indexesForType(@Nullable DatumSamplesType type) {
+		if ( type == null ) {
+			return null;
+		}
+		return switch (type) {
+			case Instantaneous -> instantaneousIndexes;
+			case Accumulating -> accumulatingIndexes;
+			case Status -> statusIndexes;
+			default -> null;
+		};
+	}
+
+	private String @Nullable [] namesForType(@Nullable DatumSamplesType type) {
+		if ( type == null ) {
+			return null;
+		}
+		return switch (type) {
+			case Instantaneous -> instantaneousNames;
+			case Accumulating -> accumulatingNames;
+			case Status -> statusNames;
+			default -> null;
+		};
+	}
+
+	/**
+	 * Get the property names of a specific type.
+	 *
+	 * @param type
+	 *        the type of property to get the names for
+	 * @return the property names, or {@code null} if none available or
+	 *         {@code type} is {@link DatumSamplesType#Tag}
+	 */
+	public String @Nullable [] propertyNamesForType(@Nullable DatumSamplesType type) {
+		final String[] names = namesForType(type);
+		return (names != null ? names.clone() : null);
+	}
+
+	/**
+	 * Get the number of properties of a specific type.
+	 *
+	 * @param type
+	 *        the type of property to get the count for
+	 * @return the number of properties
+	 */
+	public int propertyCount(@Nullable DatumSamplesType type) {
+		final String[] names = namesForType(type);
+		return (names != null ? names.length : 0);
+	}
+
+	/**
+	 * Get the index of a specific property name.
+	 *
+	 * @param type
+	 *        the type of property to get the index for
+	 * @param name
+	 *        the property name to look for
+	 * @return the index, or {@literal -1} if not available
+	 */
+	public int propertyIndex(@Nullable DatumSamplesType type, @Nullable String name) {
+		final Map<String, Integer> indexes = indexesForType(type);
+		if ( indexes == null || name == null ) {
+			return -1;
+		}
+		final Integer idx = indexes.get(name);
+		return (idx != null ? idx.intValue() : -1);
+	}
+
+	/**
+	 * Create a datum properties instance out of datum samples.
+	 *
+	 * <p>
+	 * Note that trailing {@code null} values will be removed from the
+	 * instantaneous, accumulating, and status data arrays.
+	 * </p>
+	 *
+	 * @param ops
+	 *        the samples to create properties from
+	 * @return the properties, never {@code null}
+	 * @throws IllegalArgumentException
+	 *         if the layout does not support a property found in the samples
+	 */
+	public DatumProperties propertiesFrom(DatumSamplesOperations ops) {
+		BigDecimal[] data_i = decimalPropertiesFrom(ops, DatumSamplesType.Instantaneous);
+		BigDecimal[] data_a = decimalPropertiesFrom(ops, DatumSamplesType.Accumulating);
+		String[] data_s = stringPropertiesFrom(ops, DatumSamplesType.Status);
+		Set<String> tags = ops.getTags();
+		String[] data_t = (tags != null && !tags.isEmpty() ? tags.toArray(new String[tags.size()])
+				: null);
+		return DatumProperties.propertiesOf(data_i, data_a, data_s, data_t);
+	}
+
+	@SuppressWarnings({ "null", "NullAway" })
+	private BigDecimal @Nullable [] decimalPropertiesFrom(DatumSamplesOperations ops,
+			DatumSamplesType type) {
+		final Map<String, ?> map = ops.getSampleData(type);
+		if ( map == null || map.isEmpty() ) {
+			return null;
+		}
+		final Map<String, Integer> indexes = indexesForType(type);
+		final BigDecimal[] data = new BigDecimal[propertyCount(type)];
+		int nonNullLength = 0;
+		for ( String key : map.keySet() ) {
+			final Integer idx = indexes.get(key);
+			if ( idx == null ) {
+				throw unknownProperties(type, map, indexes);
+			}
+			final int i = idx.intValue();
+			BigDecimal n = ops.getSampleBigDecimal(type, key);
+			if ( n != null ) {
+				data[i] = n;
+				if ( i >= nonNullLength ) {
+					nonNullLength = i + 1;
+				}
+			}
+		}
+		if ( nonNullLength < data.length ) {
+			// optimization: trim trailing null values into shorter array
+			BigDecimal[] trimmedData = new BigDecimal[nonNullLength];
+			System.arraycopy(data, 0, trimmedData, 0, nonNullLength);
+			return trimmedData;
+		}
+		return data;
+	}
+
+	@SuppressWarnings({ "null", "NullAway" })
+	private String @Nullable [] stringPropertiesFrom(DatumSamplesOperations ops,
+			DatumSamplesType type) {
+		final Map<String, ?> map = ops.getSampleData(type);
+		if ( map == null || map.isEmpty() ) {
+			return null;
+		}
+		final Map<String, Integer> indexes = indexesForType(type);
+		final String[] data = new String[propertyCount(type)];
+		int nonNullLength = 0;
+		for ( String key : map.keySet() ) {
+			final Integer idx = indexes.get(key);
+			if ( idx == null ) {
+				throw unknownProperties(type, map, indexes);
+			}
+			final int i = idx.intValue();
+			String s = ops.getSampleString(type, key);
+			if ( s != null ) {
+				data[i] = s;
+				if ( i >= nonNullLength ) {
+					nonNullLength = i + 1;
+				}
+			}
+		}
+		if ( nonNullLength < data.length ) {
+			// optimization: trim trailing null values into shorter array
+			String[] trimmedData = new String[nonNullLength];
+			System.arraycopy(data, 0, trimmedData, 0, nonNullLength);
+			return trimmedData;
+		}
+		return data;
+	}
+
+	private static IllegalArgumentException unknownProperties(DatumSamplesType type,
+			Map<String, ?> map, Map<String, Integer> indexes) {
+		if ( indexes.isEmpty() ) {
+			return new IllegalArgumentException(
+					"Datum stream unknown " + type + " properties encountered: " + map.keySet());
+		}
+		final List<String> unknown = new ArrayList<>(map.size());
+		for ( String key : map.keySet() ) {
+			if ( !indexes.containsKey(key) ) {
+				unknown.add(key);
+			}
+		}
+		return new IllegalArgumentException(
+				"Datum stream unknown " + type + " properties encountered: " + unknown);
+	}
+
+	/**
+	 * Populate datum samples from a datum properties instance.
+	 *
+	 * <p>
+	 * Each non-{@code null} property value is stored on {@code samples} using
+	 * the property name at the same index in this layout. Values without a
+	 * corresponding property name are ignored. All tags are added.
+	 * </p>
+	 *
+	 * @param props
+	 *        the properties to read from
+	 * @param samples
+	 *        the samples to populate
+	 */
+	public void populateSamples(@Nullable DatumProperties props,
+			MutableDatumSamplesOperations samples) {
+		if ( props == null ) {
+			return;
+		}
+		populateSamples(samples, DatumSamplesType.Instantaneous, instantaneousNames,
+				props.getInstantaneous());
+		populateSamples(samples, DatumSamplesType.Accumulating, accumulatingNames,
+				props.getAccumulating());
+		populateSamples(samples, DatumSamplesType.Status, statusNames, props.getStatus());
+		final String[] tags = props.getTags();
+		if ( tags != null ) {
+			for ( String tag : tags ) {
+				if ( tag != null ) {
+					samples.addTag(tag);
+				}
+			}
+		}
+	}
+
+	private static void populateSamples(MutableDatumSamplesOperations samples,
+			DatumSamplesType type, String @Nullable [] names, Object @Nullable [] values) {
+		if ( names == null || values == null ) {
+			return;
+		}
+		for ( int i = 0, len = Math.min(names.length, values.length); i < len; i++ ) {
+			final Object v = values[i];
+			if ( v != null ) {
+				samples.putSampleValue(type, names[i], v);
+			}
+		}
+	}
+
+	/**
+	 * Create a new datum samples instance from a datum properties instance.
+	 *
+	 * @param props
+	 *        the properties to read from
+	 * @return the new samples, never {@code null}
+	 * @see #populateSamples(DatumProperties, MutableDatumSamplesOperations)
+	 */
+	public DatumSamples samplesFrom(@Nullable DatumProperties props) {
+		final DatumSamples samples = new DatumSamples();
+		populateSamples(props, samples);
+		return samples;
+	}
+
+}
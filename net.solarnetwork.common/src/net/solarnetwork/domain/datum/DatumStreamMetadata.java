@@ -32,7 +32,7 @@ import net.solarnetwork.domain.datum.DatumPropertiesStatistics.InstantaneousStat
  * Metadata about a datum stream.
  *
  * @author matt
- * @version 2.2
+ * @version 2.3
  * @since 2.0
  */
 public interface DatumStreamMetadata {
@@ -91,6 +91,21 @@ public interface DatumStreamMetadata {
 		return -1;
 	}
 
+	/**
+	 * Get the property layout of this stream.
+	 *
+	 * <p>
+	 * This default implementation creates a new layout on each call.
+	 * Implementations are encouraged to cache the layout.
+	 * </p>
+	 *
+	 * @return the layout, never {@code null}
+	 * @since 2.3
+	 */
+	default DatumStreamLayout streamLayout() {
+		return new DatumStreamLayout(this);
+	}
+
 	/**
 	 * Extract a datum property value for a property index.
 	 *
@@ -0,0 +1,544 @@
+/* ==================================================================
+ * DatumStreamRollup.java - 17/10/2026 2:08:33 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.domain.datum;
+
+import static net.solarnetwork.util.ObjectUtils.requireNonNullArgument;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Roll up datum streams into aggregate datum.
+ *
+ * <p>
+ * Datum are grouped by stream and bucketed into {@link Aggregation} periods,
+ * using the time zone of each stream's metadata (or UTC if the metadata does
+ * not specify a time zone). The following statistics are accumulated in
+ * primitive arrays indexed by the stream's {@link DatumStreamLayout}:
+ * </p>
+ *
+ * <ul>
+ * <li>instantaneous properties: count, minimum, maximum, and sum, producing an
+ * average property value with {@code Count}, {@code Minimum}, and
+ * {@code Maximum} statistics</li>
+ * <li>accumulating properties: the earliest and latest readings, producing a
+ * difference property value with {@code Difference}, {@code Start}, and
+ * {@code End} statistics; the latest reading of the preceding period is used
+ * as the start reading of the following period, so the differences of
+ * consecutive periods add up to the overall difference</li>
+ * <li>status properties and tags: the values of the latest datum in the
+ * period</li>
+ * </ul>
+ *
+ * <p>
+ * Statistics are computed with {@code double} precision, and averages are
+ * rounded to {@link #AVERAGE_SCALE} decimal places. Datum do not need to
+ * be ordered by date. Independent streams are rolled up in parallel on a
+ * {@link ForkJoinPool}. Instances of this class are immutable and thread
+ * safe.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ * @since 4.37
+ */
+public class DatumStreamRollup {
+
+	/** The decimal scale averages are rounded to. */
+	public static final int AVERAGE_SCALE = 12;
+
+	private final Aggregation aggregation;
+	private final ForkJoinPool pool;
+
+	/**
+	 * Constructor.
+	 *
+	 * <p>
+	 * The common fork-join pool will be used.
+	 * </p>
+	 *
+	 * @param aggregation
+	 *        the aggregation to roll up to
+	 * @throws IllegalArgumentException
+	 *         if {@code aggregation} is {@code null} or not supported
+	 */
+	public DatumStreamRollup(Aggregation aggregation) {
+		this(aggregation, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param aggregation
+	 *        the aggregation to roll up to; only {@link Aggregation#Minute}
+	 *        through {@link Aggregation#Hour}, and {@link Aggregation#Day},
+	 *        {@link Aggregation#Week}, {@link Aggregation#Month}, and
+	 *        {@link Aggregation#Year} are supported
+	 * @param pool
+	 *        the pool to process streams with
+	 * @throws IllegalArgumentException
+	 *         if any argument is {@code null} or {@code aggregation} is not
+	 *         supported
+	 */
+	public DatumStreamRollup(Aggregation aggregation, ForkJoinPool pool) {
+		super();
+		this.aggregation = requireNonNullArgument(aggregation, "aggregation");
+		this.pool = requireNonNullArgument(pool, "pool");
+		if ( !isSupported(aggregation) ) {
+			throw new IllegalArgumentException(
+					"Aggregation [" + aggregation + "] is not supported for rollup.");
+		}
+	}
+
+	/**
+	 * Test if an aggregation is supported.
+	 *
+	 * @param aggregation
+	 *        the aggregation to test
+	 * @return {@literal true} if {@code aggregation} is supported
+	 */
+	public static boolean isSupported(@Nullable Aggregation aggregation) {
+		if ( aggregation == null ) {
+			return false;
+		}
+		return switch (aggregation) {
+			case Minute, FiveMinute, TenMinute, FifteenMinute, ThirtyMinute, Hour, Day, Week, Month,
+					Year -> true;
+			default -> false;
+		};
+	}
+
+	/**
+	 * Get the start of the aggregation period that contains a given date.
+	 *
+	 * @param aggregation
+	 *        the aggregation
+	 * @param date
+	 *        the date
+	 * @return the period start date
+	 * @throws IllegalArgumentException
+	 *         if {@code aggregation} is not supported
+	 */
+	public static ZonedDateTime periodStart(Aggregation aggregation, ZonedDateTime date) {
+		return switch (aggregation) {
+			case Minute, FiveMinute, TenMinute, FifteenMinute, ThirtyMinute -> {
+				final int minutes = aggregation.getLevel() / 60;
+				final ZonedDateTime d = date.truncatedTo(ChronoUnit.MINUTES);
+				yield d.withMinute(d.getMinute() - (d.getMinute() % minutes));
+			}
+			case Hour -> date.truncatedTo(ChronoUnit.HOURS);
+			case Day -> date.truncatedTo(ChronoUnit.DAYS);
+			case Week -> date.truncatedTo(ChronoUnit.DAYS)
+					.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+			case Month -> date.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+			case Year -> date.truncatedTo(ChronoUnit.DAYS).withDayOfYear(1);
+			default -> throw new IllegalArgumentException(
+					"Aggregation [" + aggregation + "] is not supported for rollup.");
+		};
+	}
+
+	/**
+	 * Get the start of the aggregation period that follows a given period
+	 * start date.
+	 *
+	 * @param aggregation
+	 *        the aggregation
+	 * @param periodStart
+	 *        the period start date
+	 * @return the next period start date
+	 * @throws IllegalArgumentException
+	 *         if {@code aggregation} is not supported
+	 */
+	public static ZonedDateTime nextPeriodStart(Aggregation aggregation, ZonedDateTime periodStart) {
+		return switch (aggregation) {
+			case Minute, FiveMinute, TenMinute, FifteenMinute, ThirtyMinute -> periodStart
+					.plusMinutes(aggregation.getLevel() / 60);
+			case Hour -> periodStart.plusHours(1);
+			case Day -> periodStart.plusDays(1);
+			case Week -> periodStart.plusWeeks(1);
+			case Month -> periodStart.plusMonths(1);
+			case Year -> periodStart.plusYears(1);
+			default -> throw new IllegalArgumentException(
+					"Aggregation [" + aggregation + "] is not supported for rollup.");
+		};
+	}
+
+	/**
+	 * Roll up stream datum.
+	 *
+	 * @param datum
+	 *        the datum to roll up
+	 * @param metadataProvider
+	 *        the metadata provider for all streams in {@code datum}
+	 * @return the aggregate datum, grouped by stream in the order each stream
+	 *         first appears in {@code datum}, and ordered by date within each
+	 *         stream
+	 * @throws IllegalArgumentException
+	 *         if any argument is {@code null} or the metadata for a datum
+	 *         stream is not available
+	 */
+	public List<AggregateStreamDatum> rollup(Iterable<? extends StreamDatum> datum,
+			ObjectDatumStreamMetadataProvider metadataProvider) {
+		requireNonNullArgument(datum, "datum");
+		requireNonNullArgument(metadataProvider, "metadataProvider");
+		final Map<UUID, StreamRollup> streams = new LinkedHashMap<>(8);
+		for ( StreamDatum d : datum ) {
+			if ( d == null ) {
+				continue;
+			}
+			StreamRollup stream = streams.get(d.getStreamId());
+			if ( stream == null ) {
+				stream = new StreamRollup(metadata(metadataProvider, d.getStreamId()));
+				streams.put(d.getStreamId(), stream);
+			}
+			stream.datum.add(d);
+		}
+		return rollup(streams);
+	}
+
+	/**
+	 * Roll up general datum.
+	 *
+	 * <p>
+	 * Each datum is mapped to a stream using the
+	 * {@link ObjectDatumStreamMetadataProvider#metadataForObjectSource(Long, String)}
+	 * method.
+	 * </p>
+	 *
+	 * @param datum
+	 *        the datum to roll up
+	 * @param metadataProvider
+	 *        the metadata provider for all object sources in {@code datum}
+	 * @return the aggregate datum, grouped by stream in the order each stream
+	 *         first appears in {@code datum}, and ordered by date within each
+	 *         stream
+	 * @throws IllegalArgumentException
+	 *         if any argument is {@code null}, the metadata for a datum object
+	 *         source is not available, or a datum has a property not defined in
+	 *         the stream metadata
+	 */
+	public List<AggregateStreamDatum> rollupDatum(Iterable<? extends Datum> datum,
+			ObjectDatumStreamMetadataProvider metadataProvider) {
+		requireNonNullArgument(datum, "datum");
+		requireNonNullArgument(metadataProvider, "metadataProvider");
+		final Map<UUID, StreamRollup> streams = new LinkedHashMap<>(8);
+		final Map<DatumId, ObjectDatumStreamMetadata> metas = new HashMap<>(8);
+		for ( Datum d : datum ) {
+			if ( d == null || d.getTimestamp() == null ) {
+				continue;
+			}
+			final Long objectId = d.getObjectId();
+			final String sourceId = d.getSourceId();
+			final DatumId key = new DatumId(d.getKind(), objectId, sourceId, null);
+			ObjectDatumStreamMetadata meta = metas.get(key);
+			if ( meta == null ) {
+				meta = (objectId != null && sourceId != null
+						? metadataProvider.metadataForObjectSource(objectId, sourceId)
+						: null);
+				if ( meta == null ) {
+					throw new IllegalArgumentException(
+							"Stream metadata not available for object " + objectId + " source ["
+									+ sourceId + "]");
+				}
+				metas.put(key, meta);
+			}
+			StreamRollup stream = streams.get(meta.getStreamId());
+			if ( stream == null ) {
+				stream = new StreamRollup(meta);
+				streams.put(meta.getStreamId(), stream);
+			}
+			stream.datum.add(new BasicStreamDatum(meta.getStreamId(), d.getTimestamp(),
+					stream.layout.propertiesFrom(d.asSampleOperations())));
+		}
+		return rollup(streams);
+	}
+
+	private static ObjectDatumStreamMetadata metadata(ObjectDatumStreamMetadataProvider provider,
+			UUID streamId) {
+		final ObjectDatumStreamMetadata meta = provider.metadataForStreamId(streamId);
+		if ( meta == null ) {
+			throw new IllegalArgumentException(
+					"Stream metadata not available for stream [" + streamId + "]");
+		}
+		return meta;
+	}
+
+	private List<AggregateStreamDatum> rollup(Map<UUID, StreamRollup> streams) {
+		if ( streams.isEmpty() ) {
+			return new ArrayList<>(0);
+		}
+		final List<StreamRollup> tasks = new ArrayList<>(streams.values());
+		if ( tasks.size() == 1 ) {
+			tasks.get(0).compute();
+		} else {
+			pool.invoke(new RecursiveAction() {
+
+				private static final long serialVersionUID = 6046457212738716591L;
+
+				@Override
+				protected void compute() {
+					invokeAll(tasks);
+				}
+
+			});
+		}
+		int count = 0;
+		for ( StreamRollup task : tasks ) {
+			count += task.results.size();
+		}
+		final List<AggregateStreamDatum> result = new ArrayList<>(count);
+		for ( StreamRollup task : tasks ) {
+			result.addAll(task.results);
+		}
+		return result;
+	}
+
+	/**
+	 * Roll up task for a single stream.
+	 */
+	private final class StreamRollup extends RecursiveAction {
+
+		private static final long serialVersionUID = 2985003596124618437L;
+
+		private final ObjectDatumStreamMetadata meta;
+		private final DatumStreamLayout layout;
+		private final ZoneId zone;
+		private final List<StreamDatum> datum;
+		private final List<AggregateStreamDatum> results;
+
+		private StreamRollup(ObjectDatumStreamMetadata meta) {
+			super();
+			this.meta = meta;
+			this.layout = meta.streamLayout();
+			final String tz = meta.getTimeZoneId();
+			this.zone = (tz != null ? ZoneId.of(tz) : ZoneOffset.UTC);
+			this.datum = new ArrayList<>(64);
+			this.results = new ArrayList<>(8);
+		}
+
+		@Override
+		protected void compute() {
+			final Map<Long, Bucket> buckets = new HashMap<>(16);
+			final int iLen = layout.propertyCount(DatumSamplesType.Instantaneous);
+			final int aLen = layout.propertyCount(DatumSamplesType.Accumulating);
+			Bucket curr = null;
+			for ( StreamDatum d : datum ) {
+				final Instant ts = d.getTimestamp();
+				if ( ts == null ) {
+					continue;
+				}
+				final long t = ts.toEpochMilli();
+				if ( curr == null || t < curr.start || t >= curr.end ) {
+					// only resolve the period when moving out of the current bucket
+					final ZonedDateTime start = periodStart(aggregation, ts.atZone(zone));
+					final long s = start.toInstant().toEpochMilli();
+					curr = buckets.get(s);
+					if ( curr == null ) {
+						curr = new Bucket(s,
+								nextPeriodStart(aggregation, start).toInstant().toEpochMilli(), iLen,
+								aLen);
+						buckets.put(s, curr);
+					}
+				}
+				curr.add(t, d.getProperties());
+			}
+			final Bucket[] sorted = buckets.values().toArray(Bucket[]::new);
+			Arrays.sort(sorted, (l, r) -> Long.compare(l.start, r.start));
+			final double[] prevEnd = new double[aLen];
+			final boolean[] hasPrevEnd = new boolean[aLen];
+			for ( Bucket b : sorted ) {
+				b.carryForward(prevEnd, hasPrevEnd);
+				results.add(b.toDatum(meta.getStreamId()));
+			}
+		}
+
+	}
+
+	/**
+	 * Statistics for a single aggregate period of a single stream.
+	 */
+	private static final class Bucket {
+
+		private final long start;
+		private final long end;
+		private final long[] iCount;
+		private final double[] iMin;
+		private final double[] iMax;
+		private final double[] iSum;
+		private final long[] aStartTs;
+		private final long[] aEndTs;
+		private final double[] aStart;
+		private final double[] aEnd;
+		private long statusTs = Long.MIN_VALUE;
+		private String @Nullable [] status;
+		private String @Nullable [] tags;
+
+		private Bucket(long start, long end, int iLen, int aLen) {
+			super();
+			this.start = start;
+			this.end = end;
+			this.iCount = new long[iLen];
+			this.iMin = new double[iLen];
+			this.iMax = new double[iLen];
+			this.iSum = new double[iLen];
+			this.aStartTs = new long[aLen];
+			this.aEndTs = new long[aLen];
+			this.aStart = new double[aLen];
+			this.aEnd = new double[aLen];
+			Arrays.fill(aStartTs, Long.MAX_VALUE);
+			Arrays.fill(aEndTs, Long.MIN_VALUE);
+		}
+
+		private void add(long ts, @Nullable DatumProperties p) {
+			if ( p == null ) {
+				return;
+			}
+			for ( int i = 0, len = Math.min(iCount.length, p.getInstantaneousLength()); i < len;
+					i++ ) {
+				final BigDecimal n = p.instantaneousValue(i);
+				if ( n == null ) {
+					continue;
+				}
+				final double v = n.doubleValue();
+				if ( iCount[i]++ == 0 ) {
+					iMin[i] = v;
+					iMax[i] = v;
+				} else if ( v < iMin[i] ) {
+					iMin[i] = v;
+				} else if ( v > iMax[i] ) {
+					iMax[i] = v;
+				}
+				iSum[i] += v;
+			}
+			for ( int i = 0, len = Math.min(aStart.length, p.getAccumulatingLength()); i < len;
+					i++ ) {
+				final BigDecimal n = p.accumulatingValue(i);
+				if ( n == null ) {
+					continue;
+				}
+				final double v = n.doubleValue();
+				if ( ts < aStartTs[i] ) {
+					aStartTs[i] = ts;
+					aStart[i] = v;
+				}
+				if ( ts >= aEndTs[i] ) {
+					aEndTs[i] = ts;
+					aEnd[i] = v;
+				}
+			}
+			if ( ts >= statusTs ) {
+				statusTs = ts;
+				status = p.getStatus();
+				tags = p.getTags();
+			}
+		}
+
+		/**
+		 * Start accumulating properties from the end readings of the
+		 * preceding bucket, and then update those readings to this bucket's
+		 * end readings.
+		 *
+		 * @param prevEnd
+		 *        the end readings of the preceding buckets
+		 * @param hasPrevEnd
+		 *        flags for which {@code prevEnd} readings are available
+		 */
+		private void carryForward(double[] prevEnd, boolean[] hasPrevEnd) {
+			for ( int i = 0; i < aEnd.length; i++ ) {
+				if ( aEndTs[i] == Long.MIN_VALUE ) {
+					continue;
+				}
+				if ( hasPrevEnd[i] ) {
+					aStart[i] = prevEnd[i];
+				}
+				prevEnd[i] = aEnd[i];
+				hasPrevEnd[i] = true;
+			}
+		}
+
+		private AggregateStreamDatum toDatum(UUID streamId) {
+			final int iLen = iCount.length;
+			final BigDecimal[] iVals = new BigDecimal[iLen];
+			final BigDecimal[][] iStats = new BigDecimal[iLen][];
+			int iUsed = 0;
+			for ( int i = 0; i < iLen; i++ ) {
+				final long c = iCount[i];
+				if ( c < 1 ) {
+					continue;
+				}
+				iVals[i] = BigDecimal.valueOf(iSum[i])
+						.divide(BigDecimal.valueOf(c), AVERAGE_SCALE, RoundingMode.HALF_UP)
+						.stripTrailingZeros();
+				iStats[i] = new BigDecimal[] { BigDecimal.valueOf(c), BigDecimal.valueOf(iMin[i]),
+						BigDecimal.valueOf(iMax[i]) };
+				iUsed = i + 1;
+			}
+			final int aLen = aStart.length;
+			final BigDecimal[] aVals = new BigDecimal[aLen];
+			final BigDecimal[][] aStats = new BigDecimal[aLen][];
+			int aUsed = 0;
+			for ( int i = 0; i < aLen; i++ ) {
+				if ( aEndTs[i] == Long.MIN_VALUE ) {
+					continue;
+				}
+				final BigDecimal s = BigDecimal.valueOf(aStart[i]);
+				final BigDecimal e = BigDecimal.valueOf(aEnd[i]);
+				final BigDecimal diff = e.subtract(s);
+				aVals[i] = diff;
+				aStats[i] = new BigDecimal[] { diff, s, e };
+				aUsed = i + 1;
+			}
+			final DatumProperties props = DatumProperties.propertiesOf(trim(iVals, iUsed),
+					trim(aVals, aUsed), status, tags);
+			final DatumPropertiesStatistics stats = DatumPropertiesStatistics
+					.statisticsOf(trim(iStats, iUsed), trim(aStats, aUsed));
+			return new BasicAggregateStreamDatum(streamId, Instant.ofEpochMilli(start), props,
+					Instant.ofEpochMilli(end), stats);
+		}
+
+		private static <T> T @Nullable [] trim(T[] array, int len) {
+			if ( len < 1 ) {
+				return null;
+			}
+			return (len < array.length ? Arrays.copyOf(array, len) : array);
+		}
+
+	}
+
+}
@@ -0,0 +1,215 @@
+/* ==================================================================
+ * SchemaDatumSamples.java - 17/10/2026 12:14:05 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.domain.datum;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import org.jspecify.annotations.Nullable;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import net.solarnetwork.domain.SerializeIgnore;
+
+/**
+ * A {@link DatumSamples} that stores sample values in flat arrays, keyed by a
+ * shared {@link DatumSamplesSchema}.
+ *
+ * <p>
+ * All instances created with the same schema share the schema's property name
+ * arrays and index tables, so each datum only holds its values. When a value
+ * is stored for a property the schema does not define, that value is stored in
+ * a private map owned by the affected sample map. The
+ * {@link #isFullyCompact()} method can be used to test for this case.
+ * </p>
+ *
+ * <p>
+ * Sample maps iterate over the schema properties in schema order, rather than
+ * insertion order. Maps passed to {@link #setInstantaneous(Map)},
+ * {@link #setAccumulating(Map)}, or {@link #setStatus(Map)} are used as-is,
+ * just like {@link DatumSamples}.
+ * </p>
+ *
+ * <pre>
+ * <code>
+ * DatumSamplesSchema schema = DatumSamplesSchema.schema(streamMetadata);
+ * SchemaDatumSamples s = new SchemaDatumSamples(schema);
+ * s.putInstantaneousSampleValue("watts", 123);
+ * </code>
+ * </pre>
+ *
+ * @author matt
+ * @version 1.0
+ * @since 4.37
+ */
+public class SchemaDatumSamples extends DatumSamples {
+
+	private static final long serialVersionUID = -1794950212364582342L;
+
+	/** The schema. */
+	private final DatumSamplesSchema schema;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param schema
+	 *        the schema to use
+	 * @throws IllegalArgumentException
+	 *         if {@code schema} is {@code null}
+	 */
+	public SchemaDatumSamples(DatumSamplesSchema schema) {
+		super();
+		if ( schema == null ) {
+			throw new IllegalArgumentException("The schema argument must not be null.");
+		}
+		this.schema = schema;
+	}
+
+	/**
+	 * Copy constructor.
+	 *
+	 * @param schema
+	 *        the schema to use
+	 * @param other
+	 *        the samples to copy
+	 * @throws IllegalArgumentException
+	 *         if {@code schema} is {@code null}
+	 */
+	public SchemaDatumSamples(DatumSamplesSchema schema, @Nullable DatumSamplesOperations other) {
+		this(schema);
+		if ( other != null ) {
+			copySampleData(other, DatumSamplesType.Instantaneous);
+			copySampleData(other, DatumSamplesType.Accumulating);
+			copySampleData(other, DatumSamplesType.Status);
+			setTags(other.getTags() != null ? new LinkedHashSet<>(other.getTags()) : null);
+		}
+	}
+
+	/**
+	 * Create a copy of a set of samples, using a schema derived from the
+	 * property names of the samples.
+	 *
+	 * @param other
+	 *        the samples to copy
+	 * @return the new samples
+	 * @throws IllegalArgumentException
+	 *         if {@code other} is {@code null}
+	 */
+	public static SchemaDatumSamples schemaSamples(DatumSamplesOperations other) {
+		return new SchemaDatumSamples(DatumSamplesSchema.schema(other), other);
+	}
+
+	private void copySampleData(DatumSamplesOperations other, DatumSamplesType type) {
+		final Map<String, ?> data = other.getSampleData(type);
+		if ( data == null ) {
+			return;
+		}
+		final Map<String, Object> m = sampleMap(type);
+		for ( Map.Entry<String, ?> e : data.entrySet() ) {
+			m.put(e.getKey(), e.getValue());
+		}
+	}
+
+	/**
+	 * Get the sample map of a given type, creating a schema map if one does not
+	 * already exist.
+	 *
+	 * @param type
+	 *        the type; must be one of instantaneous, accumulating, or status
+	 * @return the map
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private Map<String, Object> sampleMap(DatumSamplesType type) {
+		Map<String, Object> m = (Map) getSampleData(type);
+		if ( m == null ) {
+			m = new SchemaSampleMap<>(schema, type);
+			setSampleData(type, m);
+		}
+		return m;
+	}
+
+	@Override
+	public void putSampleValue(DatumSamplesType type, String key, @Nullable Object value) {
+		if ( value != null && (type == DatumSamplesType.Status
+				|| ((type == DatumSamplesType.Instantaneous || type == DatumSamplesType.Accumulating)
+						&& value instanceof Number)) ) {
+			sampleMap(type);
+		}
+		super.putSampleValue(type, key, value);
+	}
+
+	@Override
+	public void putInstantaneousSampleValue(String key, @Nullable Number n) {
+		if ( n != null ) {
+			sampleMap(DatumSamplesType.Instantaneous);
+		}
+		super.putInstantaneousSampleValue(key, n);
+	}
+
+	@Override
+	public void putAccumulatingSampleValue(String key, @Nullable Number n) {
+		if ( n != null ) {
+			sampleMap(DatumSamplesType.Accumulating);
+		}
+		super.putAccumulatingSampleValue(key, n);
+	}
+
+	@Override
+	public void putStatusSampleValue(String key, @Nullable Object value) {
+		if ( value != null ) {
+			sampleMap(DatumSamplesType.Status);
+		}
+		super.putStatusSampleValue(key, value);
+	}
+
+	/**
+	 * Get the schema.
+	 *
+	 * @return the schema, never {@code null}
+	 */
+	@JsonIgnore
+	@SerializeIgnore
+	public DatumSamplesSchema getSchema() {
+		return schema;
+	}
+
+	/**
+	 * Test if all sample values are stored in schema arrays.
+	 *
+	 * @return {@literal true} if no sample value is stored outside the schema
+	 *         arrays
+	 */
+	@JsonIgnore
+	@SerializeIgnore
+	public boolean isFullyCompact() {
+		return isFullyCompact(DatumSamplesType.Instantaneous)
+				&& isFullyCompact(DatumSamplesType.Accumulating)
+				&& isFullyCompact(DatumSamplesType.Status);
+	}
+
+	private boolean isFullyCompact(DatumSamplesType type) {
+		final Map<String, ?> m = getSampleData(type);
+		if ( m == null || m.isEmpty() ) {
+			return true;
+		}
+		return (m instanceof SchemaSampleMap<?> sm && sm.isFullyCompact());
+	}
+
+}
@@ -0,0 +1,321 @@
+/* ==================================================================
+ * SchemaSampleMap.java - 17/10/2026 11:32:47 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.domain.datum;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A sample map that stores values for the property names of a
+ * {@link DatumSamplesSchema} in a flat array.
+ *
+ * <p>
+ * Properties not defined by the schema are stored in a private overflow map,
+ * which is only created when needed. Iteration returns the schema properties in
+ * schema order, followed by any overflow properties in insertion order.
+ * {@code null} values are not stored: putting a {@code null} value removes the
+ * key.
+ * </p>
+ *
+ * @param <V>
+ *        the value type
+ * @author matt
+ * @version 1.0
+ * @since 4.37
+ */
+final class SchemaSampleMap<V> extends AbstractMap<String, V> implements Serializable {
+
+	private static final long serialVersionUID = 8101939651693393418L;
+
+	private static final Object[] NO_VALUES = new Object[0];
+
+	private final DatumSamplesSchema schema;
+	private final DatumSamplesType type;
+	private final Object[] values;
+	private int valueCount;
+	private @Nullable Map<String, V> overflow;
+	private transient int modCount;
+	private transient @Nullable Set<Map.Entry<String, V>> entrySet;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param schema
+	 *        the schema
+	 * @param type
+	 *        the sample type
+	 */
+	SchemaSampleMap(DatumSamplesSchema schema, DatumSamplesType type) {
+		super();
+		this.schema = schema;
+		this.type = type;
+		final int count = schema.propertyCount(type);
+		this.values = (count > 0 ? new Object[count] : NO_VALUES);
+	}
+
+	/**
+	 * Test if no overflow properties are present.
+	 *
+	 * @return {@literal true} if all properties are defined by the schema
+	 */
+	boolean isFullyCompact() {
+		final Map<String, V> o = overflow;
+		return (o == null || o.isEmpty());
+	}
+
+	@Override
+	public int size() {
+		final Map<String, V> o = overflow;
+		return valueCount + (o != null ? o.size() : 0);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public @Nullable V get(@Nullable Object key) {
+		final int idx = schema.propertyIndex(type, key);
+		if ( idx >= 0 ) {
+			return (V) values[idx];
+		}
+		final Map<String, V> o = overflow;
+		return (o != null ? o.get(key) : null);
+	}
+
+	@Override
+	public boolean containsKey(@Nullable Object key) {
+		final int idx = schema.propertyIndex(type, key);
+		if ( idx >= 0 ) {
+			return values[idx] != null;
+		}
+		final Map<String, V> o = overflow;
+		return (o != null && o.containsKey(key));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public @Nullable V put(String key, @Nullable V value) {
+		if ( value == null ) {
+			return remove(key);
+		}
+		final int idx = schema.propertyIndex(type, key);
+		if ( idx >= 0 ) {
+			final V prev = (V) values[idx];
+			values[idx] = value;
+			if ( prev == null ) {
+				valueCount++;
+				modCount++;
+			}
+			return prev;
+		}
+		Map<String, V> o = overflow;
+		if ( o == null ) {
+			o = new LinkedHashMap<>(4);
+			overflow = o;
+		}
+		final V prev = o.put(key, value);
+		if ( prev == null ) {
+			modCount++;
+		}
+		return prev;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public @Nullable V remove(@Nullable Object key) {
+		final int idx = schema.propertyIndex(type, key);
+		if ( idx >= 0 ) {
+			final V prev = (V) values[idx];
+			if ( prev != null ) {
+				values[idx] = null;
+				valueCount--;
+				modCount++;
+			}
+			return prev;
+		}
+		final Map<String, V> o = overflow;
+		if ( o == null || !o.containsKey(key) ) {
+			return null;
+		}
+		modCount++;
+		return o.remove(key);
+	}
+
+	@Override
+	public void clear() {
+		for ( int i = 0, len = values.length; i < len; i++ ) {
+			values[i] = null;
+		}
+		valueCount = 0;
+		overflow = null;
+		modCount++;
+	}
+
+	@Override
+	public Set<Map.Entry<String, V>> entrySet() {
+		Set<Map.Entry<String, V>> es = entrySet;
+		if ( es == null ) {
+			es = new EntrySet();
+			entrySet = es;
+		}
+		return es;
+	}
+
+	private final class EntrySet extends AbstractSet<Map.Entry<String, V>> {
+
+		@Override
+		public Iterator<Map.Entry<String, V>> iterator() {
+			return new EntryIterator();
+		}
+
+		@Override
+		public int size() {
+			return SchemaSampleMap.this.size();
+		}
+
+		@Override
+		public void clear() {
+			SchemaSampleMap.this.clear();
+		}
+
+	}
+
+	private final class Entry extends AbstractMap.SimpleEntry<String, V> {
+
+		private static final long serialVersionUID = 6443106102051245960L;
+
+		private Entry(String key, V value) {
+			super(key, value);
+		}
+
+		@Override
+		public V setValue(V value) {
+			if ( value == null ) {
+				throw new IllegalArgumentException("Null values are not supported.");
+			}
+			put(getKey(), value);
+			return super.setValue(value);
+		}
+
+	}
+
+	private final class EntryIterator implements Iterator<Map.Entry<String, V>> {
+
+		private int expectedModCount = modCount;
+
+		/** The next schema index to examine. */
+		private int index;
+
+		private @Nullable Iterator<Map.Entry<String, V>> overflowIterator;
+		private @Nullable String lastKey;
+		private boolean lastFromOverflow;
+
+		private int nextIndex() {
+			final Object[] vals = values;
+			int i = index;
+			while ( i < vals.length && vals[i] == null ) {
+				i++;
+			}
+			index = i;
+			return i;
+		}
+
+		private @Nullable Iterator<Map.Entry<String, V>> overflowIterator() {
+			Iterator<Map.Entry<String, V>> itr = overflowIterator;
+			if ( itr == null ) {
+				final Map<String, V> o = overflow;
+				if ( o != null ) {
+					itr = o.entrySet().iterator();
+					overflowIterator = itr;
+				}
+			}
+			return itr;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if ( nextIndex() < values.length ) {
+				return true;
+			}
+			final Iterator<Map.Entry<String, V>> itr = overflowIterator();
+			return (itr != null && itr.hasNext());
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public Map.Entry<String, V> next() {
+			if ( modCount != expectedModCount ) {
+				throw new ConcurrentModificationException();
+			}
+			final int i = nextIndex();
+			if ( i < values.length ) {
+				index = i + 1;
+				final String key = schema.propertyName(type, i);
+				lastKey = key;
+				lastFromOverflow = false;
+				return new Entry(key, (V) values[i]);
+			}
+			final Iterator<Map.Entry<String, V>> itr = overflowIterator();
+			if ( itr == null ) {
+				throw new NoSuchElementException();
+			}
+			final Map.Entry<String, V> e = itr.next();
+			lastKey = e.getKey();
+			lastFromOverflow = true;
+			return e;
+		}
+
+		@Override
+		public void remove() {
+			final String key = lastKey;
+			if ( key == null ) {
+				throw new IllegalStateException();
+			}
+			if ( modCount != expectedModCount ) {
+				throw new ConcurrentModificationException();
+			}
+			lastKey = null;
+			final Iterator<Map.Entry<String, V>> itr = overflowIterator;
+			if ( lastFromOverflow && itr != null ) {
+				itr.remove();
+				modCount++;
+			} else {
+				SchemaSampleMap.this.remove(key);
+			}
+			expectedModCount = modCount;
+		}
+
+	}
+
+}
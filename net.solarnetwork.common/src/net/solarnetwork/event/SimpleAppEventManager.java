@@ -23,28 +23,114 @@
 package net.solarnetwork.event;
 
 import static net.solarnetwork.util.ObjectUtils.requireNonNullArgument;
-import java.util.Map.Entry;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.util.AntPathMatcher;
 import org.springframework.util.PathMatcher;
+import net.solarnetwork.util.BoundedMailbox;
+import net.solarnetwork.util.MailboxOverflowPolicy;
+import net.solarnetwork.util.StatTracker;
 
 /**
  * Simple implementation of {@link AppEventHandlerRegistrar}.
  *
+ * <p>
+ * Handlers registered with exact (non-pattern) topics are found with a direct
+ * map lookup, and only the registered pattern topics are matched against event
+ * topics with the configured {@link PathMatcher}. The resolved handlers for
+ * each event topic are cached, up to {@code topicCacheSize} topics, so posting
+ * an event with a previously seen topic does not perform any pattern matching.
+ * The cache is invalidated whenever a handler is registered or deregistered.
+ * </p>
+ *
+ * <p>
+ * By default each handler is invoked in its own task submitted to the
+ * configured executor. When {@code batchDispatch} is enabled, all handlers of
+ * an event are instead invoked sequentially within a single task, reducing the
+ * cost of posting an event to one executor hand-off at the expense of
+ * concurrency between handlers of the same event.
+ * </p>
+ *
+ * <p>
+ * When {@code mailboxCapacity} is greater than {@literal 0}, each handler is
+ * instead given its own {@link BoundedMailbox} that delivers events to the
+ * handler one at a time, in the order they were posted. A slow handler then
+ * only delays its own events, and at most {@code mailboxCapacity} events are
+ * queued per handler, after which {@code mailboxOverflowPolicy} is applied.
+ * If {@code stats} is configured, each mailbox reports its queue depth, drop
+ * count, and handling time, using the handler's class name and a per-manager
+ * mailbox index, for example {@code com.example.MyHandler-1}, as the
+ * statistic key prefix. Changing the mailbox settings reconfigures the
+ * existing mailboxes in place, so events already queued keep their order.
+ * Each mailbox is created when its handler is registered, or when mailboxes
+ * are enabled. Deregistering a handler closes its mailbox, discarding any
+ * queued events and removing its statistics.
+ * </p>
+ *
  * @author matt
- * @version 1.0
+ * @version 1.1
  * @since 2.0
  */
 public class SimpleAppEventManager implements AppEventHandlerRegistrar, AppEventPublisher {
 
+	/**
+	 * The {@code topicCacheSize} property default value.
+	 *
+	 * @since 1.1
+	 */
+	public static final int DEFAULT_TOPIC_CACHE_SIZE = 1000;
+
+	/**
+	 * The {@code mailboxOverflowPolicy} property default value.
+	 *
+	 * @since 1.1
+	 */
+	public static final MailboxOverflowPolicy DEFAULT_MAILBOX_OVERFLOW_POLICY = MailboxOverflowPolicy.Block;
+
+	private static final Logger log = LoggerFactory.getLogger(SimpleAppEventManager.class);
+
+	private static final AppEventHandler[] NO_HANDLERS = new AppEventHandler[0];
+
 	private final PathMatcher pathMatcher;
 	private final ConcurrentMap<String, Set<AppEventHandler>> eventHandlers;
 	private final Executor executor;
+	private final Set<String> patternTopics;
+	private final ConcurrentMap<String, TopicHandlers> topicHandlers;
+	private final AtomicLong generation;
+	private volatile int topicCacheSize = DEFAULT_TOPIC_CACHE_SIZE;
+	private volatile boolean batchDispatch;
+	private final ConcurrentMap<AppEventHandler, BoundedMailbox<AppEvent>> mailboxes;
+	private final AtomicLong mailboxIds;
+	private volatile int mailboxCapacity;
+	private volatile MailboxOverflowPolicy mailboxOverflowPolicy = DEFAULT_MAILBOX_OVERFLOW_POLICY;
+	private volatile long mailboxBlockTimeout = BoundedMailbox.DEFAULT_BLOCK_TIMEOUT;
+	private volatile @Nullable StatTracker stats;
+
+	/**
+	 * The resolved handlers of a topic, for a given registration generation.
+	 */
+	private static final class TopicHandlers {
+
+		private final long generation;
+		private final AppEventHandler[] handlers;
+
+		private TopicHandlers(long generation, AppEventHandler[] handlers) {
+			super();
+			this.generation = generation;
+			this.handlers = handlers;
+		}
+
+	}
 
 	/**
 	 * Constructor.
@@ -105,41 +191,309 @@ public class SimpleAppEventManager implements AppEventHandlerRegistrar, AppEvent
 		this.pathMatcher = requireNonNullArgument(pathMatcher, "pathMatcher");
 		this.executor = requireNonNullArgument(executor, "executor");
 		this.eventHandlers = requireNonNullArgument(handlerMap, "handlerMap");
+		this.patternTopics = new CopyOnWriteArraySet<>();
+		for ( String topic : handlerMap.keySet() ) {
+			if ( pathMatcher.isPattern(topic) ) {
+				patternTopics.add(topic);
+			}
+		}
+		this.topicHandlers = new ConcurrentHashMap<>(64, 0.9f, 4);
+		this.generation = new AtomicLong();
+		this.mailboxes = new ConcurrentHashMap<>(32, 0.9f, 4);
+		this.mailboxIds = new AtomicLong();
 	}
 
 	@Override
-	public void registerEventHandler(AppEventHandler handler, String... topics) {
+	public synchronized void registerEventHandler(AppEventHandler handler, String... topics) {
 		if ( handler == null ) {
 			return;
 		}
+		// create the mailbox first, so a registered handler always has one
+		if ( mailboxCapacity > 0 ) {
+			mailboxes.computeIfAbsent(handler, this::createMailbox);
+		}
 		for ( String topic : topics ) {
 			eventHandlers.computeIfAbsent(topic, k -> new CopyOnWriteArraySet<>()).add(handler);
+			if ( pathMatcher.isPattern(topic) ) {
+				patternTopics.add(topic);
+			}
 		}
+		invalidateTopicHandlers();
 	}
 
 	@Override
-	public void deregisterEventHandler(AppEventHandler handler) {
+	public synchronized void deregisterEventHandler(AppEventHandler handler) {
 		for ( Set<AppEventHandler> handlers : eventHandlers.values() ) {
 			handlers.remove(handler);
 		}
+		invalidateTopicHandlers();
+		final BoundedMailbox<AppEvent> mailbox = mailboxes.remove(handler);
+		if ( mailbox != null ) {
+			mailbox.close();
+		}
+	}
+
+	private void invalidateTopicHandlers() {
+		generation.incrementAndGet();
+		topicHandlers.clear();
 	}
 
 	@Override
 	public void postEvent(AppEvent event) {
-		for ( Entry<String, Set<AppEventHandler>> me : eventHandlers.entrySet() ) {
-			String topic = event.getTopic();
-			if ( pathMatcher.match(me.getKey(), topic) ) {
-				for ( final AppEventHandler handler : me.getValue() ) {
-					executor.execute(new Runnable() {
-
-						@Override
-						public void run() {
-							handler.handleEvent(event);
-						}
-					});
+		final AppEventHandler[] handlers = handlersForTopic(event.getTopic());
+		if ( handlers.length < 1 ) {
+			return;
+		}
+		if ( mailboxCapacity > 0 ) {
+			for ( AppEventHandler handler : handlers ) {
+				// no mailbox if deregistered after the handlers were resolved
+				final BoundedMailbox<AppEvent> mailbox = mailboxes.get(handler);
+				if ( mailbox != null ) {
+					mailbox.offer(event);
+				}
+			}
+		} else if ( batchDispatch && handlers.length > 1 ) {
+			executor.execute(() -> {
+				for ( AppEventHandler handler : handlers ) {
+					try {
+						handler.handleEvent(event);
+					} catch ( RuntimeException e ) {
+						log.error("Error handling event {} in handler {}: {}", event.getTopic(),
+								handler, e.toString(), e);
+					}
 				}
+			});
+		} else {
+			for ( final AppEventHandler handler : handlers ) {
+				executor.execute(() -> handler.handleEvent(event));
 			}
 		}
 	}
 
+	private BoundedMailbox<AppEvent> createMailbox(AppEventHandler handler) {
+		final String name = handler.getClass().getName() + '-' + mailboxIds.incrementAndGet();
+		BoundedMailbox<AppEvent> mailbox = new BoundedMailbox<>(name, executor, mailboxCapacity,
+				mailboxOverflowPolicy, handler::handleEvent, stats);
+		mailbox.setBlockTimeout(mailboxBlockTimeout);
+		return mailbox;
+	}
+
+	/**
+	 * Resolve the handlers for a topic.
+	 *
+	 * <p>
+	 * A handler registered with several topics that all match {@code topic}
+	 * will be included once per matching topic.
+	 * </p>
+	 *
+	 * @param topic
+	 *        the event topic
+	 * @return the handlers, never {@code null}
+	 */
+	private AppEventHandler[] handlersForTopic(String topic) {
+		// read generation first: a registration change during resolution makes the entry stale
+		final long gen = generation.get();
+		final TopicHandlers cached = topicHandlers.get(topic);
+		if ( cached != null && cached.generation == gen ) {
+			return cached.handlers;
+		}
+		final List<AppEventHandler> result = new ArrayList<>(4);
+		final Set<AppEventHandler> exact = eventHandlers.get(topic);
+		if ( exact != null ) {
+			result.addAll(exact);
+		}
+		for ( String pattern : patternTopics ) {
+			if ( !pattern.equals(topic) && pathMatcher.match(pattern, topic) ) {
+				Set<AppEventHandler> matched = eventHandlers.get(pattern);
+				if ( matched != null ) {
+					result.addAll(matched);
+				}
+			}
+		}
+		final AppEventHandler[] handlers = (result.isEmpty() ? NO_HANDLERS
+				: result.toArray(NO_HANDLERS));
+		final int cacheSize = topicCacheSize;
+		if ( cacheSize > 0 ) {
+			if ( topicHandlers.size() >= cacheSize ) {
+				topicHandlers.clear();
+			}
+			topicHandlers.put(topic, new TopicHandlers(gen, handlers));
+		}
+		return handlers;
+	}
+
+	/**
+	 * Get the maximum number of event topics to cache resolved handlers for.
+	 *
+	 * @return the cache size; defaults to {@link #DEFAULT_TOPIC_CACHE_SIZE}
+	 * @since 1.1
+	 */
+	public int getTopicCacheSize() {
+		return topicCacheSize;
+	}
+
+	/**
+	 * Set the maximum number of event topics to cache resolved handlers for.
+	 *
+	 * <p>
+	 * When the cache is full it is cleared, on the assumption that the set of
+	 * event topics in use is normally much smaller than the cache size.
+	 * </p>
+	 *
+	 * @param topicCacheSize
+	 *        the cache size, or {@code 0} to disable caching
+	 * @since 1.1
+	 */
+	public void setTopicCacheSize(int topicCacheSize) {
+		this.topicCacheSize = topicCacheSize;
+		topicHandlers.clear();
+	}
+
+	/**
+	 * Get the batch dispatch mode.
+	 *
+	 * @return {@code true} to invoke all handlers of an event within a single
+	 *         executor task; defaults to {@code false}
+	 * @since 1.1
+	 */
+	public boolean isBatchDispatch() {
+		return batchDispatch;
+	}
+
+	/**
+	 * Set the batch dispatch mode.
+	 *
+	 * <p>
+	 * When enabled, all handlers of an event are invoked sequentially within a
+	 * single executor task. An exception thrown by one handler is logged and
+	 * does not prevent the remaining handlers from being invoked.
+	 * </p>
+	 *
+	 * @param batchDispatch
+	 *        {@code true} to invoke all handlers of an event within a single
+	 *        executor task
+	 * @since 1.1
+	 */
+	public void setBatchDispatch(boolean batchDispatch) {
+		this.batchDispatch = batchDispatch;
+	}
+
+	/**
+	 * Get the per-handler mailbox capacity.
+	 *
+	 * @return the maximum number of events queued per handler, or {@code 0}
+	 *         if mailboxes are not used; defaults to {@code 0}
+	 * @since 1.1
+	 */
+	public int getMailboxCapacity() {
+		return mailboxCapacity;
+	}
+
+	/**
+	 * Set the per-handler mailbox capacity.
+	 *
+	 * <p>
+	 * Existing mailboxes are updated in place. When set to {@code 0} existing
+	 * mailboxes still deliver the events already queued, and are used again if
+	 * mailboxes are later re-enabled.
+	 * </p>
+	 *
+	 * @param mailboxCapacity
+	 *        the maximum number of events queued per handler, or {@code 0} to
+	 *        not use mailboxes
+	 * @since 1.1
+	 */
+	public synchronized void setMailboxCapacity(int mailboxCapacity) {
+		this.mailboxCapacity = mailboxCapacity;
+		if ( mailboxCapacity < 1 ) {
+			return;
+		}
+		for ( BoundedMailbox<AppEvent> mailbox : mailboxes.values() ) {
+			mailbox.setCapacity(mailboxCapacity);
+		}
+		for ( Set<AppEventHandler> handlers : eventHandlers.values() ) {
+			for ( AppEventHandler handler : handlers ) {
+				mailboxes.computeIfAbsent(handler, this::createMailbox);
+			}
+		}
+	}
+
+	/**
+	 * Get the policy to apply when a handler mailbox is full.
+	 *
+	 * @return the policy; defaults to {@link #DEFAULT_MAILBOX_OVERFLOW_POLICY}
+	 * @since 1.1
+	 */
+	public MailboxOverflowPolicy getMailboxOverflowPolicy() {
+		return mailboxOverflowPolicy;
+	}
+
+	/**
+	 * Set the policy to apply when a handler mailbox is full.
+	 *
+	 * @param mailboxOverflowPolicy
+	 *        the policy to set; if {@code null} then
+	 *        {@link #DEFAULT_MAILBOX_OVERFLOW_POLICY} will be used
+	 * @since 1.1
+	 */
+	public void setMailboxOverflowPolicy(@Nullable MailboxOverflowPolicy mailboxOverflowPolicy) {
+		final MailboxOverflowPolicy policy = (mailboxOverflowPolicy != null ? mailboxOverflowPolicy
+				: DEFAULT_MAILBOX_OVERFLOW_POLICY);
+		this.mailboxOverflowPolicy = policy;
+		for ( BoundedMailbox<AppEvent> mailbox : mailboxes.values() ) {
+			mailbox.setOverflowPolicy(policy);
+		}
+	}
+
+	/**
+	 * Get the maximum time to block posting an event to a full handler
+	 * mailbox, with the {@link MailboxOverflowPolicy#Block} policy.
+	 *
+	 * @return the timeout, in milliseconds; defaults to
+	 *         {@link BoundedMailbox#DEFAULT_BLOCK_TIMEOUT}
+	 * @since 1.1
+	 */
+	public long getMailboxBlockTimeout() {
+		return mailboxBlockTimeout;
+	}
+
+	/**
+	 * Set the maximum time to block posting an event to a full handler
+	 * mailbox, with the {@link MailboxOverflowPolicy#Block} policy.
+	 *
+	 * @param mailboxBlockTimeout
+	 *        the timeout, in milliseconds
+	 * @since 1.1
+	 */
+	public void setMailboxBlockTimeout(long mailboxBlockTimeout) {
+		this.mailboxBlockTimeout = mailboxBlockTimeout;
+		for ( BoundedMailbox<AppEvent> mailbox : mailboxes.values() ) {
+			mailbox.setBlockTimeout(mailboxBlockTimeout);
+		}
+	}
+
+	/**
+	 * Get the statistics to update with handler mailbox statistics.
+	 *
+	 * @return the statistics, or {@code null}
+	 * @since 1.1
+	 */
+	public final @Nullable StatTracker getStats() {
+		return stats;
+	}
+
+	/**
+	 * Set the statistics to update with handler mailbox statistics.
+	 *
+	 * @param stats
+	 *        the statistics to set, or {@code null}
+	 * @since 1.1
+	 */
+	public final void setStats(@Nullable StatTracker stats) {
+		this.stats = stats;
+		for ( BoundedMailbox<AppEvent> mailbox : mailboxes.values() ) {
+			mailbox.setStats(stats);
+		}
+	}
+
 }
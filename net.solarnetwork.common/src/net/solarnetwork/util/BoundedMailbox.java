@@ -0,0 +1,511 @@
+/* ==================================================================
+ * BoundedMailbox.java - 17/10/2026 10:48:03 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.util;
+
+import static net.solarnetwork.util.ObjectUtils.requireNonNullArgument;
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A bounded queue of items handled one at a time, in order, by a consumer
+ * running on a shared executor.
+ *
+ * <p>
+ * At most one drain task per mailbox is submitted to the executor at a time,
+ * so items are always handled in the order they were offered and a slow
+ * consumer only ever occupies a single executor thread. The drain task handles
+ * at most {@code batchSize} items before resubmitting itself, to give other
+ * mailboxes sharing the executor a turn. When the mailbox is full the
+ * configured {@link MailboxOverflowPolicy} is applied.
+ * </p>
+ *
+ * <p>
+ * If a {@link StatTracker} is provided, the {@link Stats} values are tracked
+ * using keys in the form {@code NAME.STAT}, where {@code NAME} is the mailbox
+ * name. The queue depth is sampled each time an item is offered.
+ * </p>
+ *
+ * <p>
+ * The capacity, overflow policy, and statistics can be changed while items are
+ * queued, without disturbing the order or the single drain task. Once
+ * {@link #close()} has been called no further items are accepted.
+ * </p>
+ *
+ * @param <T>
+ *        the item type
+ * @author matt
+ * @version 1.0
+ * @since 4.37
+ */
+public class BoundedMailbox<T> {
+
+	/** The {@code batchSize} default value. */
+	public static final int DEFAULT_BATCH_SIZE = 32;
+
+	/** The {@code blockTimeout} default value, in milliseconds. */
+	public static final long DEFAULT_BLOCK_TIMEOUT = 1000L;
+
+	private static final Logger log = LoggerFactory.getLogger(BoundedMailbox.class);
+
+	/**
+	 * Mailbox statistics.
+	 */
+	public static enum Stats {
+
+		/** The number of queued items, sampled when an item is offered. */
+		QueueDepth,
+
+		/** The number of dropped items. */
+		Dropped,
+
+		/** The number of handled items. */
+		Handled,
+
+		/**
+		 * The time spent handling each item, in microseconds, tracked as a
+		 * histogram.
+		 */
+		HandleTime,
+
+		;
+
+	}
+
+	private final String name;
+	private final Executor executor;
+	private final Consumer<? super T> consumer;
+	private final String[] statKeys;
+	private final Runnable drainTask;
+	private final ReentrantLock lock;
+	private final Condition notFull;
+	private volatile int capacity;
+	private volatile MailboxOverflowPolicy overflowPolicy;
+	private volatile @Nullable StatTracker stats;
+	private volatile int batchSize = DEFAULT_BATCH_SIZE;
+	private volatile long blockTimeout = DEFAULT_BLOCK_TIMEOUT;
+
+	// all fields below guarded by lock
+	private final ArrayDeque<T> queue;
+	private boolean scheduled;
+	private boolean closed;
+	private long dropCount;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param name
+	 *        the mailbox name, used for statistic keys
+	 * @param executor
+	 *        the executor to handle items on
+	 * @param capacity
+	 *        the maximum number of queued items
+	 * @param overflowPolicy
+	 *        the policy to apply when the mailbox is full
+	 * @param consumer
+	 *        the consumer to handle items with
+	 * @param stats
+	 *        optional statistics to update
+	 * @throws IllegalArgumentException
+	 *         if any argument other than {@code stats} is {@code null} or
+	 *         {@code capacity} is less than {@literal 1}
+	 */
+	public BoundedMailbox(String name, Executor executor, int capacity,
+			MailboxOverflowPolicy overflowPolicy, Consumer<? super T> consumer,
+			@Nullable StatTracker stats) {
+		super();
+		this.name = requireNonNullArgument(name, "name");
+		this.executor = requireNonNullArgument(executor, "executor");
+		this.capacity = requireValidCapacity(capacity);
+		this.overflowPolicy = requireNonNullArgument(overflowPolicy, "overflowPolicy");
+		this.consumer = requireNonNullArgument(consumer, "consumer");
+		this.stats = stats;
+		final Stats[] statValues = Stats.values();
+		this.statKeys = new String[statValues.length];
+		for ( Stats s : statValues ) {
+			statKeys[s.ordinal()] = name + '.' + s.name();
+		}
+		this.drainTask = this::drain;
+		this.lock = new ReentrantLock();
+		this.notFull = lock.newCondition();
+		this.queue = new ArrayDeque<>(Math.min(capacity, 16));
+	}
+
+	private static int requireValidCapacity(int capacity) {
+		if ( capacity < 1 ) {
+			throw new IllegalArgumentException("The capacity value must be > 0");
+		}
+		return capacity;
+	}
+
+	@Override
+	public String toString() {
+		return "BoundedMailbox{" + name + "}";
+	}
+
+	/**
+	 * Offer an item to the mailbox.
+	 *
+	 * <p>
+	 * With the {@link MailboxOverflowPolicy#Block} policy this method can block
+	 * for up to {@code blockTimeout} milliseconds. A consumer must not offer
+	 * items to its own mailbox with that policy, as it would always wait for
+	 * the full timeout when the mailbox is full.
+	 * </p>
+	 *
+	 * @param item
+	 *        the item to offer
+	 * @return {@literal true} if the item was queued, {@literal false} if it
+	 *         was dropped or the mailbox has been closed
+	 * @throws IllegalArgumentException
+	 *         if {@code item} is {@code null}
+	 */
+	public boolean offer(T item) {
+		requireNonNullArgument(item, "item");
+		boolean accepted = true;
+		boolean dropped = false;
+		boolean submit = false;
+		int depth;
+		lock.lock();
+		try {
+			if ( closed ) {
+				return false;
+			}
+			if ( queue.size() >= capacity ) {
+				switch (overflowPolicy) {
+					case DropOldest:
+						queue.pollFirst();
+						dropped = true;
+						break;
+
+					case Block:
+						accepted = awaitNotFull();
+						if ( closed ) {
+							return false;
+						}
+						break;
+
+					default:
+						accepted = false;
+						break;
+				}
+			}
+			if ( accepted ) {
+				queue.addLast(item);
+				if ( !scheduled ) {
+					scheduled = true;
+					submit = true;
+				}
+			} else {
+				dropped = true;
+			}
+			if ( dropped ) {
+				dropCount++;
+			}
+			depth = queue.size();
+		} finally {
+			lock.unlock();
+		}
+		if ( submit ) {
+			try {
+				executor.execute(drainTask);
+			} catch ( RuntimeException e ) {
+				lock.lock();
+				try {
+					scheduled = false;
+					queue.removeLastOccurrence(item);
+				} finally {
+					lock.unlock();
+				}
+				throw e;
+			}
+		}
+		final StatTracker s = this.stats;
+		if ( s != null ) {
+			s.add(statKeys[Stats.QueueDepth.ordinal()], depth, true);
+			if ( dropped ) {
+				s.increment(statKeys[Stats.Dropped.ordinal()]);
+			}
+		}
+		return accepted;
+	}
+
+	private boolean awaitNotFull() {
+		long nanos = TimeUnit.MILLISECONDS.toNanos(blockTimeout);
+		try {
+			while ( !closed && queue.size() >= capacity ) {
+				if ( nanos <= 0L ) {
+					return false;
+				}
+				nanos = notFull.awaitNanos(nanos);
+			}
+		} catch ( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+		return true;
+	}
+
+	private void drain() {
+		for ( int i = 0, max = batchSize; i < max; i++ ) {
+			final T item;
+			lock.lock();
+			try {
+				item = queue.pollFirst();
+				if ( item == null ) {
+					scheduled = false;
+					return;
+				}
+				notFull.signal();
+			} finally {
+				lock.unlock();
+			}
+			final long start = System.nanoTime();
+			try {
+				consumer.accept(item);
+			} catch ( RuntimeException e ) {
+				log.error("Mailbox {} consumer error handling {}: {}", name, item, e.toString(), e);
+			}
+			final StatTracker s = this.stats;
+			if ( s != null ) {
+				s.record(statKeys[Stats.HandleTime.ordinal()],
+						TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start), true);
+				s.increment(statKeys[Stats.Handled.ordinal()], true);
+			}
+		}
+		// give other mailboxes a turn
+		try {
+			executor.execute(drainTask);
+		} catch ( RuntimeException e ) {
+			lock.lock();
+			try {
+				scheduled = false;
+			} finally {
+				lock.unlock();
+			}
+			log.warn("Mailbox {} drain task rejected with {} items remaining: {}", name, size(),
+					e.toString());
+		}
+	}
+
+	/**
+	 * Close the mailbox.
+	 *
+	 * <p>
+	 * Any queued items are discarded, callers blocked in {@link #offer(Object)}
+	 * are released, and all further offered items are rejected. An item
+	 * currently being handled is allowed to complete. The statistics of this
+	 * mailbox are removed from the configured {@link StatTracker}.
+	 * </p>
+	 */
+	public void close() {
+		lock.lock();
+		try {
+			closed = true;
+			queue.clear();
+			notFull.signalAll();
+		} finally {
+			lock.unlock();
+		}
+		final StatTracker s = this.stats;
+		this.stats = null;
+		if ( s != null ) {
+			for ( String key : statKeys ) {
+				s.remove(key);
+			}
+		}
+	}
+
+	/**
+	 * Test if the mailbox has been closed.
+	 *
+	 * @return {@literal true} if {@link #close()} has been called
+	 */
+	public boolean isClosed() {
+		lock.lock();
+		try {
+			return closed;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Get the mailbox name.
+	 *
+	 * @return the name
+	 */
+	public final String getName() {
+		return name;
+	}
+
+	/**
+	 * Get the mailbox capacity.
+	 *
+	 * @return the maximum number of queued items
+	 */
+	public final int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Set the mailbox capacity.
+	 *
+	 * <p>
+	 * Queued items are kept when the capacity is reduced below the current
+	 * queue size; the overflow policy is applied to newly offered items until
+	 * the queue has drained below the new capacity.
+	 * </p>
+	 *
+	 * @param capacity
+	 *        the maximum number of queued items
+	 * @throws IllegalArgumentException
+	 *         if {@code capacity} is less than {@literal 1}
+	 */
+	public final void setCapacity(int capacity) {
+		this.capacity = requireValidCapacity(capacity);
+		lock.lock();
+		try {
+			notFull.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Get the overflow policy.
+	 *
+	 * @return the policy
+	 */
+	public final MailboxOverflowPolicy getOverflowPolicy() {
+		return overflowPolicy;
+	}
+
+	/**
+	 * Set the overflow policy.
+	 *
+	 * @param overflowPolicy
+	 *        the policy to apply when the mailbox is full
+	 * @throws IllegalArgumentException
+	 *         if {@code overflowPolicy} is {@code null}
+	 */
+	public final void setOverflowPolicy(MailboxOverflowPolicy overflowPolicy) {
+		this.overflowPolicy = requireNonNullArgument(overflowPolicy, "overflowPolicy");
+	}
+
+	/**
+	 * Get the statistics to update.
+	 *
+	 * @return the statistics, or {@code null}
+	 */
+	public final @Nullable StatTracker getStats() {
+		return stats;
+	}
+
+	/**
+	 * Set the statistics to update.
+	 *
+	 * @param stats
+	 *        the statistics to set, or {@code null}
+	 */
+	public final void setStats(@Nullable StatTracker stats) {
+		this.stats = stats;
+	}
+
+	/**
+	 * Get the number of queued items.
+	 *
+	 * @return the number of items waiting to be handled
+	 */
+	public int size() {
+		lock.lock();
+		try {
+			return queue.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Get the number of items dropped because the mailbox was full.
+	 *
+	 * @return the drop count
+	 */
+	public long getDropCount() {
+		lock.lock();
+		try {
+			return dropCount;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Get the maximum number of items handled per executor task.
+	 *
+	 * @return the batch size; defaults to {@link #DEFAULT_BATCH_SIZE}
+	 */
+	public final int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Set the maximum number of items handled per executor task.
+	 *
+	 * @param batchSize
+	 *        the batch size; anything less than {@literal 1} will be treated
+	 *        as {@literal 1}
+	 */
+	public final void setBatchSize(int batchSize) {
+		this.batchSize = Math.max(1, batchSize);
+	}
+
+	/**
+	 * Get the maximum time to block when offering an item to a full mailbox
+	 * with the {@link MailboxOverflowPolicy#Block} policy.
+	 *
+	 * @return the timeout, in milliseconds; defaults to
+	 *         {@link #DEFAULT_BLOCK_TIMEOUT}
+	 */
+	public final long getBlockTimeout() {
+		return blockTimeout;
+	}
+
+	/**
+	 * Set the maximum time to block when offering an item to a full mailbox
+	 * with the {@link MailboxOverflowPolicy#Block} policy.
+	 *
+	 * @param blockTimeout
+	 *        the timeout, in milliseconds
+	 */
+	public final void setBlockTimeout(long blockTimeout) {
+		this.blockTimeout = blockTimeout;
+	}
+
+}
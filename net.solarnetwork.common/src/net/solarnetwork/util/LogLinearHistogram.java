@@ -0,0 +1,393 @@
+/* ==================================================================
+ * LogLinearHistogram.java - 18/10/2026 8:14:36 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import org.jspecify.annotations.Nullable;
+import net.solarnetwork.util.StatTracker.Accumulation;
+import net.solarnetwork.util.StatTracker.AccumulationType;
+
+/**
+ * A concurrent histogram of non-negative values, with log-linear buckets.
+ *
+ * <p>
+ * Like an HDR histogram, values are grouped into buckets whose width grows
+ * with the magnitude of the value, so that every bucket has the same
+ * relative precision. With {@code precisionBits} of {@literal p}, values
+ * less than <code>2<sup>p</sup></code> are counted exactly and larger values
+ * are counted in buckets no wider than <code>1/2<sup>p-1</sup></code> of
+ * their value. The default precision of {@literal 6} bits thus has a
+ * relative error of at most about 3%, over the full range of {@code long}
+ * values, using {@literal 1888} buckets.
+ * </p>
+ *
+ * <p>
+ * Recording a value is lock-free: the bucket counts are striped across
+ * several arrays, selected by the recording thread, to reduce contention
+ * between threads recording similar values. Each stripe needs
+ * {@literal 8} bytes per bucket, so the number of stripes is a trade-off
+ * between memory use and contention.
+ * </p>
+ *
+ * <p>
+ * The live count, total, average, minimum, and maximum values are available
+ * through the {@link Accumulation} API. Call {@link #snapshot(boolean)} to
+ * get an immutable copy of the histogram, including its percentile values,
+ * optionally resetting the histogram to start a new interval. Values
+ * recorded while a snapshot is being taken are included in either that
+ * snapshot or the next one, but never lost.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ * @since 4.37
+ */
+public class LogLinearHistogram implements Accumulation {
+
+	/** The default number of precision bits. */
+	public static final int DEFAULT_PRECISION_BITS = 6;
+
+	/** The default maximum number of stripes. */
+	public static final int DEFAULT_MAX_STRIPES = 4;
+
+	private final int precisionBits;
+	private final AtomicLongArray[] stripes;
+	private final LongAdder count;
+	private final LongAdder total;
+	private final LongAccumulator min;
+	private final LongAccumulator max;
+
+	/**
+	 * Constructor.
+	 *
+	 * <p>
+	 * The {@link #DEFAULT_PRECISION_BITS} will be used, and up to
+	 * {@link #DEFAULT_MAX_STRIPES} stripes depending on the number of
+	 * available processors.
+	 * </p>
+	 */
+	public LogLinearHistogram() {
+		this(DEFAULT_PRECISION_BITS,
+				Math.min(DEFAULT_MAX_STRIPES, Runtime.getRuntime().availableProcessors()));
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param precisionBits
+	 *        the number of precision bits, from {@literal 1} to
+	 *        {@literal 16}
+	 * @param stripeCount
+	 *        the desired number of stripes; will be rounded up to a power of
+	 *        {@literal 2}
+	 * @throws IllegalArgumentException
+	 *         if {@code precisionBits} is out of range or
+	 *         {@code stripeCount} is less than {@literal 1}
+	 */
+	public LogLinearHistogram(int precisionBits, int stripeCount) {
+		super();
+		if ( precisionBits < 1 || precisionBits > 16 ) {
+			throw new IllegalArgumentException("The precisionBits value must be between 1 and 16.");
+		}
+		if ( stripeCount < 1 ) {
+			throw new IllegalArgumentException("The stripeCount value must be > 0.");
+		}
+		this.precisionBits = precisionBits;
+		final int bucketCount = bucketCount(precisionBits);
+		final int n = Integer.highestOneBit(stripeCount) == stripeCount ? stripeCount
+				: Integer.highestOneBit(stripeCount) << 1;
+		this.stripes = new AtomicLongArray[n];
+		for ( int i = 0; i < n; i++ ) {
+			stripes[i] = new AtomicLongArray(bucketCount);
+		}
+		this.count = new LongAdder();
+		this.total = new LongAdder();
+		this.min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+		this.max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+	}
+
+	private static int bucketCount(int precisionBits) {
+		return (65 - precisionBits) << (precisionBits - 1);
+	}
+
+	/**
+	 * Get the bucket index for a value.
+	 *
+	 * @param value
+	 *        the value, which must not be negative
+	 * @param precisionBits
+	 *        the number of precision bits
+	 * @return the bucket index
+	 */
+	private static int bucketIndex(long value, int precisionBits) {
+		if ( value < (1L << precisionBits) ) {
+			return (int) value;
+		}
+		final int msb = 63 - Long.numberOfLeadingZeros(value);
+		final int shift = msb - precisionBits + 1;
+		final int half = 1 << (precisionBits - 1);
+		final int mantissa = (int) (value >>> shift);
+		return ((shift + 1) << (precisionBits - 1)) + (mantissa - half);
+	}
+
+	/**
+	 * Get the lowest value counted in a bucket.
+	 *
+	 * @param index
+	 *        the bucket index
+	 * @param precisionBits
+	 *        the number of precision bits
+	 * @return the lowest value
+	 */
+	private static long bucketLowestValue(int index, int precisionBits) {
+		if ( index < (1 << precisionBits) ) {
+			return index;
+		}
+		final int half = 1 << (precisionBits - 1);
+		final int shift = (index >>> (precisionBits - 1)) - 1;
+		final long mantissa = (index & (half - 1)) + half;
+		return mantissa << shift;
+	}
+
+	/**
+	 * Get the highest value counted in a bucket.
+	 *
+	 * @param index
+	 *        the bucket index
+	 * @param precisionBits
+	 *        the number of precision bits
+	 * @return the highest value
+	 */
+	private static long bucketHighestValue(int index, int precisionBits) {
+		if ( index < (1 << precisionBits) ) {
+			return index;
+		}
+		final int shift = (index >>> (precisionBits - 1)) - 1;
+		return bucketLowestValue(index, precisionBits) + (1L << shift) - 1L;
+	}
+
+	/**
+	 * Record a value.
+	 *
+	 * @param value
+	 *        the value to record; negative values are recorded as {@literal 0}
+	 */
+	public void record(long value) {
+		final long v = (value < 0L ? 0L : value);
+		final AtomicLongArray[] s = stripes;
+		s[(int) Thread.currentThread().getId() & (s.length - 1)]
+				.getAndIncrement(bucketIndex(v, precisionBits));
+		count.increment();
+		total.add(v);
+		min.accumulate(v);
+		max.accumulate(v);
+	}
+
+	/**
+	 * Get an immutable snapshot of the histogram.
+	 *
+	 * @param reset
+	 *        {@literal true} to reset the histogram after taking the snapshot,
+	 *        to start a new interval
+	 * @return the snapshot
+	 */
+	public Snapshot snapshot(boolean reset) {
+		final long[] counts = new long[bucketCount(precisionBits)];
+		long n = 0L;
+		int first = -1;
+		int last = -1;
+		for ( AtomicLongArray stripe : stripes ) {
+			for ( int i = 0, len = counts.length; i < len; i++ ) {
+				long c = (reset ? stripe.getAndSet(i, 0L) : stripe.get(i));
+				if ( c != 0L ) {
+					counts[i] += c;
+					n += c;
+					if ( first < 0 || i < first ) {
+						first = i;
+					}
+					if ( i > last ) {
+						last = i;
+					}
+				}
+			}
+		}
+		final long t = (reset ? total.sumThenReset() : total.sum());
+		long lo = (reset ? min.getThenReset() : min.get());
+		long hi = (reset ? max.getThenReset() : max.get());
+		if ( reset ) {
+			count.reset();
+		}
+		if ( n < 1L ) {
+			lo = 0L;
+			hi = 0L;
+		} else {
+			// a concurrent reset can separate a value's bucket from its min/max update
+			lo = Math.max(lo == Long.MAX_VALUE ? 0L : lo, bucketLowestValue(first, precisionBits));
+			hi = Math.min(hi == Long.MIN_VALUE ? Long.MAX_VALUE : hi,
+					bucketHighestValue(last, precisionBits));
+		}
+		return new Snapshot(precisionBits, counts, n, t, lo, hi);
+	}
+
+	/**
+	 * Reset the histogram.
+	 */
+	public void reset() {
+		snapshot(true);
+	}
+
+	/**
+	 * Get the number of precision bits.
+	 *
+	 * @return the precision bits
+	 */
+	public final int getPrecisionBits() {
+		return precisionBits;
+	}
+
+	@Override
+	public long count() {
+		return count.sum();
+	}
+
+	@Override
+	public long total() {
+		return total.sum();
+	}
+
+	@Override
+	public double avg() {
+		final long n = count();
+		return (n > 0L ? (double) total() / (double) n : 0.0);
+	}
+
+	@Override
+	public long min() {
+		final long result = min.get();
+		return (result == Long.MAX_VALUE ? 0L : result);
+	}
+
+	@Override
+	public long max() {
+		final long result = max.get();
+		return (result == Long.MIN_VALUE ? 0L : result);
+	}
+
+	/**
+	 * An immutable snapshot of a {@link LogLinearHistogram}.
+	 */
+	public static final class Snapshot implements Accumulation {
+
+		private final int precisionBits;
+		private final long[] counts;
+		private final long count;
+		private final long total;
+		private final long min;
+		private final long max;
+
+		private Snapshot(int precisionBits, long[] counts, long count, long total, long min,
+				long max) {
+			super();
+			this.precisionBits = precisionBits;
+			this.counts = counts;
+			this.count = count;
+			this.total = total;
+			this.min = min;
+			this.max = max;
+		}
+
+		/**
+		 * Get the value at a given percentile.
+		 *
+		 * <p>
+		 * The returned value is the highest value that is equivalent, within
+		 * the histogram precision, to the value at the given percentile, but
+		 * never more than the maximum recorded value.
+		 * </p>
+		 *
+		 * @param percentile
+		 *        the percentile, from {@literal 0} to {@literal 100}
+		 * @return the value, or {@literal 0} if no values have been recorded
+		 */
+		public long valueAtPercentile(double percentile) {
+			if ( count < 1L ) {
+				return 0L;
+			}
+			final double p = Math.min(Math.max(percentile, 0.0), 100.0);
+			final long target = Math.max(1L, (long) Math.ceil(p / 100.0 * count));
+			long seen = 0L;
+			for ( int i = 0, len = counts.length; i < len; i++ ) {
+				seen += counts[i];
+				if ( seen >= target ) {
+					return Math.max(min, Math.min(max, bucketHighestValue(i, precisionBits)));
+				}
+			}
+			return max;
+		}
+
+		@Override
+		public @Nullable Number valueFor(AccumulationType type) {
+			switch (type) {
+				case Percentile50:
+					return valueAtPercentile(50.0);
+				case Percentile90:
+					return valueAtPercentile(90.0);
+				case Percentile99:
+					return valueAtPercentile(99.0);
+				case Percentile999:
+					return valueAtPercentile(99.9);
+				default:
+					return Accumulation.super.valueFor(type);
+			}
+		}
+
+		@Override
+		public long count() {
+			return count;
+		}
+
+		@Override
+		public long total() {
+			return total;
+		}
+
+		@Override
+		public double avg() {
+			return (count > 0L ? (double) total / (double) count : 0.0);
+		}
+
+		@Override
+		public long min() {
+			return min;
+		}
+
+		@Override
+		public long max() {
+			return max;
+		}
+
+	}
+
+}
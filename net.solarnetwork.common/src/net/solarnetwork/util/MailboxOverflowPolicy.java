@@ -0,0 +1,50 @@
+/* ==================================================================
+ * MailboxOverflowPolicy.java - 17/10/2026 10:41:18 pm
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.util;
+
+/**
+ * Policy for handling new items offered to a full {@link BoundedMailbox}.
+ *
+ * @author matt
+ * @version 1.0
+ * @since 4.37
+ */
+public enum MailboxOverflowPolicy {
+
+	/**
+	 * Block the caller until the mailbox has room for the new item.
+	 *
+	 * <p>
+	 * If the mailbox does not have room within the configured block timeout,
+	 * the new item is dropped.
+	 * </p>
+	 */
+	Block,
+
+	/** Drop the oldest queued item to make room for the new item. */
+	DropOldest,
+
+	/** Drop the new item. */
+	DropNewest;
+
+}
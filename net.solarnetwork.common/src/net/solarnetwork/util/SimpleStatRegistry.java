@@ -0,0 +1,115 @@
+/* ==================================================================
+ * SimpleStatRegistry.java - 18/10/2026 10:14:03 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.util;
+
+import static net.solarnetwork.util.ObjectUtils.requireNonNullArgument;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Simple implementation of {@link StatRegistry}.
+ *
+ * <p>
+ * Sources are held in a copy-on-write list, as they are expected to be
+ * registered rarely and iterated often.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ * @since 4.37
+ */
+public class SimpleStatRegistry implements StatRegistry {
+
+	private static final Logger log = LoggerFactory.getLogger(SimpleStatRegistry.class);
+
+	private final CopyOnWriteArrayList<StatSource> sources;
+	private final CopyOnWriteArrayList<Listener> listeners;
+
+	/**
+	 * Constructor.
+	 */
+	public SimpleStatRegistry() {
+		super();
+		this.sources = new CopyOnWriteArrayList<>();
+		this.listeners = new CopyOnWriteArrayList<>();
+	}
+
+	@Override
+	public boolean register(StatSource source) {
+		if ( !sources.addIfAbsent(requireNonNullArgument(source, "source")) ) {
+			return false;
+		}
+		for ( Listener l : listeners ) {
+			try {
+				l.sourceRegistered(source);
+			} catch ( RuntimeException e ) {
+				log.warn("Error notifying listener {} of registered stats {}: {}", l,
+						source.getDisplayName(), e.toString(), e);
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public boolean unregister(StatSource source) {
+		if ( source == null || !sources.remove(source) ) {
+			return false;
+		}
+		for ( Listener l : listeners ) {
+			try {
+				l.sourceUnregistered(source);
+			} catch ( RuntimeException e ) {
+				log.warn("Error notifying listener {} of unregistered stats {}: {}", l,
+						source.getDisplayName(), e.toString(), e);
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public void forEachSource(Consumer<? super StatSource> action) {
+		sources.forEach(action);
+	}
+
+	@Override
+	public void addListener(Listener listener) {
+		listeners.addIfAbsent(requireNonNullArgument(listener, "listener"));
+	}
+
+	@Override
+	public void removeListener(Listener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Get the number of registered sources.
+	 *
+	 * @return the number of sources
+	 */
+	public int size() {
+		return sources.size();
+	}
+
+}
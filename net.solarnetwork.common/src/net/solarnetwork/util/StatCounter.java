@@ -50,11 +50,18 @@ import org.slf4j.Logger;
  * track specific message types differently than another client service.
  * </p>
  *
+ * <p>
+ * As a {@link StatSource}, a counter can be registered with a
+ * {@link StatRegistry} to export its statistics. Statistics implemented by an
+ * {@code enum} are exported using the enum name as the key, otherwise the
+ * statistic description is used.
+ * </p>
+ *
  * @author matt
- * @version 1.0
+ * @version 1.1
  * @since 1.78
  */
-public class StatCounter {
+public class StatCounter implements StatSource {
 
 	/**
 	 * A statistic API.
@@ -84,6 +91,7 @@ public class StatCounter {
 	private final AtomicLongArray counts;
 	private int logFrequency;
 	private @Nullable String uid;
+	private @Nullable String groupUid;
 
 	/**
 	 * Constructor.
@@ -224,6 +232,57 @@ public class StatCounter {
 		this.uid = uid;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @since 1.1
+	 */
+	@Override
+	public @Nullable String getGroupUid() {
+		return groupUid;
+	}
+
+	/**
+	 * Set the group unique ID.
+	 *
+	 * @param groupUid
+	 *        the group unique ID, or {@code null} for none
+	 * @since 1.1
+	 */
+	public void setGroupUid(@Nullable String groupUid) {
+		this.groupUid = groupUid;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @since 1.1
+	 */
+	@Override
+	public String getDisplayName() {
+		return name;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @since 1.1
+	 */
+	@Override
+	public void visitStatistics(StatVisitor visitor) {
+		visitStatistics(visitor, baseStats, 0);
+		if ( stats != null ) {
+			visitStatistics(visitor, stats, baseStats.length);
+		}
+	}
+
+	private void visitStatistics(StatVisitor visitor, Stat[] s, int offset) {
+		for ( Stat stat : s ) {
+			String key = (stat instanceof Enum<?> e ? e.name() : stat.getDescription());
+			visitor.visitCount(key, counts.get(offset + stat.getIndex()));
+		}
+	}
+
 	private int countStatIndex(Stat stat) {
 		if ( stat == null ) {
 			throw new IllegalArgumentException("The stat argument must not be null.");
@@ -0,0 +1,110 @@
+/* ==================================================================
+ * StatRegistry.java - 18/10/2026 10:09:41 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.util;
+
+import java.util.function.Consumer;
+
+/**
+ * API for a registry of {@link StatSource} instances, such as
+ * {@link StatTracker} and {@link StatCounter}, for exporting statistics to
+ * external monitoring systems.
+ *
+ * <p>
+ * Sources should be registered when the service that owns them starts, and
+ * unregistered when it stops.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ * @since 4.37
+ */
+public interface StatRegistry {
+
+	/**
+	 * API for observing registry changes.
+	 */
+	interface Listener {
+
+		/**
+		 * Called after a source has been registered.
+		 *
+		 * @param source
+		 *        the source
+		 */
+		void sourceRegistered(StatSource source);
+
+		/**
+		 * Called after a source has been unregistered.
+		 *
+		 * @param source
+		 *        the source
+		 */
+		void sourceUnregistered(StatSource source);
+
+	}
+
+	/**
+	 * Register a source.
+	 *
+	 * @param source
+	 *        the source to register
+	 * @return {@literal true} if the source was registered, {@literal false}
+	 *         if it was already registered
+	 */
+	boolean register(StatSource source);
+
+	/**
+	 * Unregister a source.
+	 *
+	 * @param source
+	 *        the source to unregister
+	 * @return {@literal true} if the source was unregistered,
+	 *         {@literal false} if it was not registered
+	 */
+	boolean unregister(StatSource source);
+
+	/**
+	 * Perform an action on all registered sources.
+	 *
+	 * @param action
+	 *        the action to perform
+	 */
+	void forEachSource(Consumer<? super StatSource> action);
+
+	/**
+	 * Add a listener.
+	 *
+	 * @param listener
+	 *        the listener to add
+	 */
+	void addListener(Listener listener);
+
+	/**
+	 * Remove a listener.
+	 *
+	 * @param listener
+	 *        the listener to remove
+	 */
+	void removeListener(Listener listener);
+
+}
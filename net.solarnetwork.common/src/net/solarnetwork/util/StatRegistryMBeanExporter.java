@@ -0,0 +1,173 @@
+/* ==================================================================
+ * StatRegistryMBeanExporter.java - 18/10/2026 10:46:50 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.util;
+
+import static net.solarnetwork.util.ObjectUtils.requireNonNullArgument;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Export the sources of a {@link StatRegistry} as JMX MBeans.
+ *
+ * <p>
+ * Each source is registered as a {@link StatSourceMBean} with an object name
+ * like
+ * {@code DOMAIN:type=Statistics,name=DISPLAY_NAME,group=GROUP_UID,uid=UID},
+ * where the {@code group} and {@code uid} keys are omitted if not available.
+ * Sources registered with the registry after {@link #startup()} are exported
+ * as well, until {@link #shutdown()} is called.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ * @since 4.37
+ */
+public class StatRegistryMBeanExporter implements StatRegistry.Listener {
+
+	/** The default object name domain. */
+	public static final String DEFAULT_DOMAIN = "net.solarnetwork";
+
+	private static final Logger log = LoggerFactory.getLogger(StatRegistryMBeanExporter.class);
+
+	private final StatRegistry registry;
+	private final MBeanServer server;
+	private final String domain;
+	private final ConcurrentMap<StatSource, ObjectName> exported;
+
+	/**
+	 * Constructor.
+	 *
+	 * <p>
+	 * The platform MBean server and {@link #DEFAULT_DOMAIN} will be used.
+	 * </p>
+	 *
+	 * @param registry
+	 *        the registry to export
+	 * @throws IllegalArgumentException
+	 *         if any argument is {@code null}
+	 */
+	public StatRegistryMBeanExporter(StatRegistry registry) {
+		this(registry, ManagementFactory.getPlatformMBeanServer(), DEFAULT_DOMAIN);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param registry
+	 *        the registry to export
+	 * @param server
+	 *        the MBean server to register with
+	 * @param domain
+	 *        the object name domain to use
+	 * @throws IllegalArgumentException
+	 *         if any argument is {@code null}
+	 */
+	public StatRegistryMBeanExporter(StatRegistry registry, MBeanServer server, String domain) {
+		super();
+		this.registry = requireNonNullArgument(registry, "registry");
+		this.server = requireNonNullArgument(server, "server");
+		this.domain = requireNonNullArgument(domain, "domain");
+		this.exported = new ConcurrentHashMap<>(16, 0.9f, 2);
+	}
+
+	/**
+	 * Export all registered sources, and start listening for registry
+	 * changes.
+	 */
+	public void startup() {
+		registry.addListener(this);
+		registry.forEachSource(this::sourceRegistered);
+	}
+
+	/**
+	 * Stop listening for registry changes, and unregister all exported MBeans.
+	 */
+	public void shutdown() {
+		registry.removeListener(this);
+		for ( StatSource source : exported.keySet() ) {
+			sourceUnregistered(source);
+		}
+	}
+
+	@Override
+	public void sourceRegistered(StatSource source) {
+		if ( exported.containsKey(source) ) {
+			return;
+		}
+		try {
+			ObjectName name = objectName(source);
+			server.registerMBean(new StatSourceMBean(source), name);
+			exported.put(source, name);
+		} catch ( InstanceAlreadyExistsException e ) {
+			log.warn("Statistics MBean {} already registered; {} {} not exported.", e.getMessage(),
+					source.getDisplayName(), source.getUid());
+		} catch ( JMException e ) {
+			log.warn("Error registering statistics MBean for {} {}: {}", source.getDisplayName(),
+					source.getUid(), e.toString());
+		}
+	}
+
+	@Override
+	public void sourceUnregistered(StatSource source) {
+		ObjectName name = exported.remove(source);
+		if ( name == null ) {
+			return;
+		}
+		try {
+			server.unregisterMBean(name);
+		} catch ( JMException e ) {
+			log.debug("Error unregistering statistics MBean {}: {}", name, e.toString());
+		}
+	}
+
+	/**
+	 * Get the object name to use for a source.
+	 *
+	 * @param source
+	 *        the source
+	 * @return the object name
+	 * @throws JMException
+	 *         if the name is not valid
+	 */
+	protected ObjectName objectName(StatSource source) throws JMException {
+		StringBuilder buf = new StringBuilder(domain);
+		buf.append(":type=Statistics,name=").append(ObjectName.quote(source.getDisplayName()));
+		String groupUid = source.getGroupUid();
+		if ( groupUid != null && !groupUid.isEmpty() ) {
+			buf.append(",group=").append(ObjectName.quote(groupUid));
+		}
+		String uid = source.getUid();
+		if ( uid != null && !uid.isEmpty() ) {
+			buf.append(",uid=").append(ObjectName.quote(uid));
+		}
+		return new ObjectName(buf.toString());
+	}
+
+}
@@ -0,0 +1,56 @@
+/* ==================================================================
+ * StatSource.java - 18/10/2026 10:07:14 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.util;
+
+import net.solarnetwork.service.Identifiable;
+
+/**
+ * API for a source of statistics that can be registered with a
+ * {@link StatRegistry}.
+ *
+ * <p>
+ * The {@link #getDisplayName()}, {@link #getUid()}, and
+ * {@link #getGroupUid()} values identify the source when its statistics are
+ * exported.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ * @since 4.37
+ */
+public interface StatSource extends Identifiable {
+
+	/**
+	 * Visit all statistics.
+	 *
+	 * <p>
+	 * Implementations should visit the current values directly, without
+	 * creating sorted copies, so that statistics can be exported frequently.
+	 * </p>
+	 *
+	 * @param visitor
+	 *        the visitor
+	 */
+	void visitStatistics(StatVisitor visitor);
+
+}
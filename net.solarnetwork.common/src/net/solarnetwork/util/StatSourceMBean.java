@@ -0,0 +1,144 @@
+/* ==================================================================
+ * StatSourceMBean.java - 18/10/2026 10:31:27 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.util;
+
+import static net.solarnetwork.util.ObjectUtils.requireNonNullArgument;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.ReflectionException;
+import net.solarnetwork.util.StatTracker.Accumulation;
+import net.solarnetwork.util.StatTracker.AccumulationType;
+
+/**
+ * A read-only dynamic MBean that exposes the statistics of a
+ * {@link StatSource} as attributes.
+ *
+ * <p>
+ * Counts are exposed as attributes named after their key. Accumulations are
+ * exposed as one attribute per {@link AccumulationType} supported by the
+ * accumulation, named using {@link StatTracker#DEFAULT_KEY_MAPPER}. The
+ * available attributes can change over time, as new statistics are tracked.
+ * </p>
+ *
+ * @author matt
+ * @version 1.0
+ * @since 4.37
+ */
+public class StatSourceMBean implements DynamicMBean {
+
+	private final StatSource source;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param source
+	 *        the source
+	 * @throws IllegalArgumentException
+	 *         if {@code source} is {@code null}
+	 */
+	public StatSourceMBean(StatSource source) {
+		super();
+		this.source = requireNonNullArgument(source, "source");
+	}
+
+	private Map<String, Number> statistics() {
+		final Map<String, Number> result = new LinkedHashMap<>(32);
+		source.visitStatistics(new StatVisitor() {
+
+			@Override
+			public void visitCount(String key, long value) {
+				result.put(key, value);
+			}
+
+			@Override
+			public void visitAccumulation(String key, Accumulation accumulation) {
+				for ( AccumulationType type : AccumulationType.values() ) {
+					Number n = accumulation.valueFor(type);
+					if ( n != null ) {
+						result.put(StatTracker.DEFAULT_KEY_MAPPER.apply(key, type), n);
+					}
+				}
+			}
+
+		});
+		return result;
+	}
+
+	@Override
+	public Object getAttribute(String attribute) throws AttributeNotFoundException {
+		Number n = statistics().get(attribute);
+		if ( n == null ) {
+			throw new AttributeNotFoundException(attribute);
+		}
+		return n;
+	}
+
+	@Override
+	public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+		throw new AttributeNotFoundException("Attribute " + attribute.getName() + " is read-only.");
+	}
+
+	@Override
+	public AttributeList getAttributes(String[] attributes) {
+		final Map<String, Number> stats = statistics();
+		final AttributeList result = new AttributeList(attributes.length);
+		for ( String name : attributes ) {
+			Number n = stats.get(name);
+			if ( n != null ) {
+				result.add(new Attribute(name, n));
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public AttributeList setAttributes(AttributeList attributes) {
+		return new AttributeList();
+	}
+
+	@Override
+	public Object invoke(String actionName, Object[] params, String[] signature)
+			throws ReflectionException {
+		throw new ReflectionException(new NoSuchMethodException(actionName));
+	}
+
+	@Override
+	public MBeanInfo getMBeanInfo() {
+		final Map<String, Number> stats = statistics();
+		final MBeanAttributeInfo[] attrs = new MBeanAttributeInfo[stats.size()];
+		int i = 0;
+		for ( Map.Entry<String, Number> e : stats.entrySet() ) {
+			attrs[i++] = new MBeanAttributeInfo(e.getKey(), e.getValue().getClass().getName(),
+					e.getKey(), true, false, false);
+		}
+		return new MBeanInfo(getClass().getName(), source.getDisplayName() + " statistics", attrs,
+				null, null, null);
+	}
+
+}
@@ -35,7 +35,6 @@ import java.util.function.BiFunction;
 import java.util.function.LongSupplier;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
-import net.solarnetwork.service.Identifiable;
 
 /**
  * General purpose counter statistic tracker for highly concurrent counts.
@@ -43,13 +42,20 @@ import net.solarnetwork.service.Identifiable;
  * This class is useful for eventually-consistent count tracking, see
  * {@link LongAdder} for more information. The {@code increment(...)} methods
  * track simple total count values, while the {@code add(...)} methods
- * additionally track average/min/max statistics.
+ * additionally track average/min/max statistics. The {@code record(...)}
+ * methods track values in a {@link LogLinearHistogram}, which additionally
+ * provides percentile statistics, such as for latency measurements.
+ *
+ * <p>
+ * As a {@link StatSource}, a tracker can be registered with a
+ * {@link StatRegistry} to export its statistics.
+ * </p>
  *
  * @author matt
- * @version 1.5
+ * @version 1.6
  * @since 3.10
  */
-public class StatTracker implements Identifiable {
+public class StatTracker implements StatSource {
 
 	/**
 	 * A "no accumulation" instance.
@@ -60,10 +66,12 @@ public class StatTracker implements Identifiable {
 
 	private final ConcurrentMap<String, LongAdder> counts;
 	private final ConcurrentMap<String, AccumulativeStats> accums;
+	private final ConcurrentMap<String, LogLinearHistogram> histograms;
 	private final @Nullable Logger log;
 	private final String name;
 	private int logFrequency;
 	private @Nullable String uid;
+	private @Nullable String groupUid;
 
 	/**
 	 * Constructor.
@@ -130,6 +138,7 @@ public class StatTracker implements Identifiable {
 		super();
 		this.counts = requireNonNullArgument(counts, "counts");
 		this.accums = requireNonNullArgument(accums, "accums");
+		this.histograms = new ConcurrentHashMap<>();
 		this.name = requireNonNullArgument(name, "name");
 		this.uid = uid;
 		this.log = log;
@@ -156,6 +165,34 @@ public class StatTracker implements Identifiable {
 
 		/** The maximum seen accumulated value. */
 		Maximum,
+
+		/**
+		 * The 50th percentile (median) value, for histograms only.
+		 *
+		 * @since 1.6
+		 */
+		Percentile50,
+
+		/**
+		 * The 90th percentile value, for histograms only.
+		 *
+		 * @since 1.6
+		 */
+		Percentile90,
+
+		/**
+		 * The 99th percentile value, for histograms only.
+		 *
+		 * @since 1.6
+		 */
+		Percentile99,
+
+		/**
+		 * The 99.9th percentile value, for histograms only.
+		 *
+		 * @since 1.6
+		 */
+		Percentile999,
 	}
 
 	/**
@@ -205,7 +242,7 @@ public class StatTracker implements Identifiable {
 		 *
 		 * @param type
 		 *        the type to get the value for
-		 * @return the value
+		 * @return the value, or {@code null} if the type is not supported
 		 * @since 1.2
 		 */
 		default @Nullable Number valueFor(AccumulationType type) {
@@ -377,6 +414,12 @@ public class StatTracker implements Identifiable {
 			buf.append(String.format("%30s: %d; avg %.1f/%d; min %d; max %d\n", e.getKey(), a.total(),
 					a.avg(), a.count(), a.min(), a.max()));
 		}
+		for ( Map.Entry<String, LogLinearHistogram> e : histograms.entrySet() ) {
+			LogLinearHistogram.Snapshot h = e.getValue().snapshot(false);
+			buf.append(String.format("%30s: %d; avg %.1f/%d; min %d; max %d; p50 %d; p99 %d\n",
+					e.getKey(), h.total(), h.avg(), h.count(), h.min(), h.max(),
+					h.valueAtPercentile(50.0), h.valueAtPercentile(99.0)));
+		}
 		buf.append("}");
 		return buf.toString();
 	}
@@ -396,12 +439,20 @@ public class StatTracker implements Identifiable {
 		for ( Map.Entry<String, AccumulativeStats> e : accums.entrySet() ) {
 			m.put(e.getKey(), e.getValue().total());
 		}
+		for ( Map.Entry<String, LogLinearHistogram> e : histograms.entrySet() ) {
+			m.put(e.getKey(), e.getValue().total());
+		}
 		return m;
 	}
 
 	/**
 	 * Get a sorted snapshot of all accumulations.
 	 *
+	 * <p>
+	 * Histograms are included as {@link LogLinearHistogram.Snapshot}
+	 * instances.
+	 * </p>
+	 *
 	 * @return a snapshot of accumulations; the returned map holds a copy of the
 	 *         current accumulations
 	 * @since 1.1
@@ -411,6 +462,28 @@ public class StatTracker implements Identifiable {
 		for ( Map.Entry<String, AccumulativeStats> e : accums.entrySet() ) {
 			m.put(e.getKey(), e.getValue().snapshot());
 		}
+		for ( Map.Entry<String, LogLinearHistogram> e : histograms.entrySet() ) {
+			m.put(e.getKey(), e.getValue().snapshot(false));
+		}
+		return m;
+	}
+
+	/**
+	 * Get a sorted snapshot of all histograms.
+	 *
+	 * @param reset
+	 *        {@literal true} to reset each histogram after taking its snapshot,
+	 *        to start a new interval
+	 * @return a snapshot of histograms; the returned map holds a copy of the
+	 *         current histograms
+	 * @since 1.6
+	 */
+	public NavigableMap<String, LogLinearHistogram.Snapshot> allHistograms(boolean reset) {
+		final NavigableMap<String, LogLinearHistogram.Snapshot> m = new TreeMap<>(
+				CASE_INSENSITIVE_NATURAL_SORT);
+		for ( Map.Entry<String, LogLinearHistogram> e : histograms.entrySet() ) {
+			m.put(e.getKey(), e.getValue().snapshot(reset));
+		}
 		return m;
 	}
 
@@ -446,13 +519,24 @@ public class StatTracker implements Identifiable {
 			m.put(e.getKey(), e.getValue().longValue());
 		}
 		for ( Map.Entry<String, AccumulativeStats> e : accums.entrySet() ) {
-			for ( AccumulationType type : AccumulationType.values() ) {
-				m.put(keyMapper.apply(e.getKey(), type), e.getValue().valueFor(type));
-			}
+			putStatistics(m, keyMapper, e.getKey(), e.getValue());
+		}
+		for ( Map.Entry<String, LogLinearHistogram> e : histograms.entrySet() ) {
+			putStatistics(m, keyMapper, e.getKey(), e.getValue().snapshot(false));
 		}
 		return m;
 	}
 
+	private static void putStatistics(NavigableMap<String, Number> m,
+			BiFunction<String, AccumulationType, String> keyMapper, String key, Accumulation a) {
+		for ( AccumulationType type : AccumulationType.values() ) {
+			Number n = a.valueFor(type);
+			if ( n != null ) {
+				m.put(keyMapper.apply(key, type), n);
+			}
+		}
+	}
+
 	/**
 	 * Get a current count value.
 	 *
@@ -471,6 +555,10 @@ public class StatTracker implements Identifiable {
 		if ( s != null ) {
 			result += s.total();
 		}
+		final LogLinearHistogram h = histograms.get(key);
+		if ( h != null ) {
+			result += h.total();
+		}
 		return result;
 	}
 
@@ -502,6 +590,11 @@ public class StatTracker implements Identifiable {
 	/**
 	 * Get a current accumulation value.
 	 *
+	 * <p>
+	 * If {@code key} is a histogram, a {@link LogLinearHistogram.Snapshot}
+	 * will be returned.
+	 * </p>
+	 *
 	 * @param key
 	 *        the statistic to get the count for
 	 * @return the current count value, or {@link #NO_ACCUMULATION} if not
@@ -513,9 +606,45 @@ public class StatTracker implements Identifiable {
 		if ( s != null ) {
 			return s.snapshot();
 		}
+		final LogLinearHistogram h = histograms.get(key);
+		if ( h != null ) {
+			return h.snapshot(false);
+		}
 		return NO_ACCUMULATION;
 	}
 
+	/**
+	 * Get a current histogram value.
+	 *
+	 * @param key
+	 *        the statistic to get the histogram for (the {@code name} value
+	 *        will be used)
+	 * @param reset
+	 *        {@literal true} to reset the histogram after taking the snapshot,
+	 *        to start a new interval
+	 * @return the histogram snapshot, or {@code null} if not defined
+	 * @since 1.6
+	 */
+	public LogLinearHistogram.@Nullable Snapshot getHistogram(Enum<?> key, boolean reset) {
+		return getHistogram(key.name(), reset);
+	}
+
+	/**
+	 * Get a current histogram value.
+	 *
+	 * @param key
+	 *        the statistic to get the histogram for
+	 * @param reset
+	 *        {@literal true} to reset the histogram after taking the snapshot,
+	 *        to start a new interval
+	 * @return the histogram snapshot, or {@code null} if not defined
+	 * @since 1.6
+	 */
+	public LogLinearHistogram.@Nullable Snapshot getHistogram(String key, boolean reset) {
+		final LogLinearHistogram h = histograms.get(key);
+		return (h != null ? h.snapshot(reset) : null);
+	}
+
 	private void log(final String key, final LongSupplier c, final boolean quiet) {
 		if ( quiet || log == null || !log.isInfoEnabled() ) {
 			return;
@@ -533,7 +662,7 @@ public class StatTracker implements Identifiable {
 		}
 	}
 
-	private void log(final String key, final AccumulativeStats a, final boolean quiet) {
+	private void log(final String key, final Accumulation a, final boolean quiet) {
 		if ( quiet || log == null || !log.isInfoEnabled() ) {
 			return;
 		}
@@ -691,14 +820,16 @@ public class StatTracker implements Identifiable {
 	 *        {@literal true} to ignore logging
 	 */
 	public final void add(String key, long value, boolean quiet) {
-		final AccumulativeStats a = accums.compute(key, (k, v) -> {
-			if ( v == null ) {
-				v = new AccumulativeStats(value);
-			} else {
-				v.add(value);
+		AccumulativeStats a = accums.get(key);
+		if ( a == null ) {
+			final AccumulativeStats created = new AccumulativeStats(value);
+			a = accums.putIfAbsent(key, created);
+			if ( a == null ) {
+				log(key, created, quiet);
+				return;
 			}
-			return v;
-		});
+		}
+		a.add(value);
 		log(key, a, quiet);
 	}
 
@@ -716,17 +847,133 @@ public class StatTracker implements Identifiable {
 		add(key.name(), count, quiet);
 	}
 
+	/**
+	 * Record a value in a histogram.
+	 *
+	 * @param key
+	 *        the histogram to record the value in
+	 * @param value
+	 *        the value to record
+	 * @since 1.6
+	 */
+	public final void record(String key, long value) {
+		record(key, value, false);
+	}
+
+	/**
+	 * Record a value in a histogram.
+	 *
+	 * @param key
+	 *        the histogram to record the value in (the {@code name} value will
+	 *        be used)
+	 * @param value
+	 *        the value to record
+	 * @since 1.6
+	 */
+	public final void record(Enum<?> key, long value) {
+		record(key.name(), value, false);
+	}
+
+	/**
+	 * Record a value in a histogram.
+	 *
+	 * @param key
+	 *        the histogram to record the value in (the {@code name} value will
+	 *        be used)
+	 * @param value
+	 *        the value to record
+	 * @param quiet
+	 *        {@literal true} to ignore logging
+	 * @since 1.6
+	 */
+	public final void record(Enum<?> key, long value, boolean quiet) {
+		record(key.name(), value, quiet);
+	}
+
+	/**
+	 * Record a value in a histogram.
+	 *
+	 * @param key
+	 *        the histogram to record the value in
+	 * @param value
+	 *        the value to record
+	 * @param quiet
+	 *        {@literal true} to ignore logging
+	 * @since 1.6
+	 */
+	public final void record(String key, long value, boolean quiet) {
+		LogLinearHistogram h = histograms.get(key);
+		if ( h == null ) {
+			h = histograms.computeIfAbsent(key, k -> new LogLinearHistogram());
+		}
+		h.record(value);
+		log(key, h, quiet);
+	}
+
+	/**
+	 * Remove the statistics of a given key.
+	 *
+	 * <p>
+	 * Any count, accumulation, or histogram tracked with {@code key} is
+	 * removed.
+	 * </p>
+	 *
+	 * @param key
+	 *        the key of the statistic to remove
+	 * @since 1.6
+	 */
+	public void remove(String key) {
+		counts.remove(key);
+		accums.remove(key);
+		histograms.remove(key);
+	}
+
 	/**
 	 * Remove all statistics.
 	 */
 	public void reset() {
 		counts.clear();
 		accums.clear();
+		histograms.clear();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * <p>
+	 * Counts are visited first, then accumulations, then histograms, in no
+	 * particular order.
+	 * </p>
+	 *
+	 * @since 1.6
+	 */
+	@Override
+	public void visitStatistics(StatVisitor visitor) {
+		for ( Map.Entry<String, LongAdder> e : counts.entrySet() ) {
+			visitor.visitCount(e.getKey(), e.getValue().longValue());
+		}
+		for ( Map.Entry<String, AccumulativeStats> e : accums.entrySet() ) {
+			visitor.visitAccumulation(e.getKey(), e.getValue().snapshot());
+		}
+		for ( Map.Entry<String, LogLinearHistogram> e : histograms.entrySet() ) {
+			visitor.visitHistogram(e.getKey(), e.getValue().snapshot(false));
+		}
 	}
 
 	@Override
 	public @Nullable String getGroupUid() {
-		return null;
+		return groupUid;
+	}
+
+	/**
+	 * Set the group unique ID.
+	 *
+	 * @param groupUid
+	 *        the group unique ID, or {@code null} for none
+	 * @since 1.6
+	 */
+	public final void setGroupUid(@Nullable String groupUid) {
+		this.groupUid = groupUid;
 	}
 
 	@Override
@@ -0,0 +1,73 @@
+/* ==================================================================
+ * StatVisitor.java - 18/10/2026 10:05:52 am
+ *
+ * Copyright 2026 SolarNetwork.net Dev Team
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 2 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA
+ * ==================================================================
+ */
+
+package net.solarnetwork.util;
+
+import net.solarnetwork.util.StatTracker.Accumulation;
+
+/**
+ * API for visiting the statistics of a {@link StatSource}.
+ *
+ * @author matt
+ * @version 1.0
+ * @since 4.37
+ */
+public interface StatVisitor {
+
+	/**
+	 * Visit a count statistic.
+	 *
+	 * @param key
+	 *        the statistic key
+	 * @param value
+	 *        the count value
+	 */
+	void visitCount(String key, long value);
+
+	/**
+	 * Visit an accumulation statistic.
+	 *
+	 * @param key
+	 *        the statistic key
+	 * @param accumulation
+	 *        the accumulation
+	 */
+	void visitAccumulation(String key, Accumulation accumulation);
+
+	/**
+	 * Visit a histogram statistic.
+	 *
+	 * <p>
+	 * This default implementation calls
+	 * {@link #visitAccumulation(String, Accumulation)}.
+	 * </p>
+	 *
+	 * @param key
+	 *        the statistic key
+	 * @param histogram
+	 *        the histogram snapshot
+	 */
+	default void visitHistogram(String key, LogLinearHistogram.Snapshot histogram) {
+		visitAccumulation(key, histogram);
+	}
+
+}